@@ -0,0 +1,126 @@
+package com.orainge.tools.jobtimer.benchmark;
+
+import com.orainge.tools.jobtimer.job.cron.CompiledCronTrigger;
+import com.orainge.tools.jobtimer.job.cron.CronExpression;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Date;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预编译 cron 表达式与 Spring CronTrigger 的性能对比（JMH）<br>
+ * 每次调用从上一次的执行时间继续计算下一次执行时间，覆盖常见表达式与需要跨越较长时间查找的表达式:
+ * <ul>
+ *     <li>springNewTrigger: 每次新建 CronTrigger（预编译前 JobManager 的做法）</li>
+ *     <li>springReusedTrigger: 复用同一个 CronTrigger</li>
+ *     <li>compiledNext: 预编译表达式计算下一次执行时间</li>
+ *     <li>compiledCachedNext: 同一个起始时间重复获取（命中 CompiledCronTrigger 的缓存）</li>
+ * </ul>
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CronTriggerBenchmark {
+    /**
+     * 计算时间超过起始时间该时长后从起始时间重新开始，避免执行时间无限增长
+     */
+    private static final long RESET_AFTER_MILLIS = TimeUnit.DAYS.toMillis(365L * 50);
+
+    @Param({
+            // 常见: 每 5 秒、每天固定时间、工作日工作时间每 15 分钟
+            "*/5 * * * * ?",
+            "0 0 2 * * ?",
+            "0 */15 9-17 * * MON-FRI",
+            // 需要跨越较长时间查找: 闰年 2 月 29 日、只有部分月份存在的 31 日、日期与星期同时限制的 13 日星期五
+            "0 0 0 29 2 ?",
+            "0 0 0 31 * ?",
+            "0 0 0 13 * FRI"
+    })
+    public String expression;
+
+    private long start;
+
+    private long time;
+
+    private CronTrigger cronTrigger;
+
+    private CronExpression cronExpression;
+
+    private CompiledCronTrigger compiledTrigger;
+
+    private SimpleTriggerContext triggerContext;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        start = System.currentTimeMillis();
+        time = start;
+        cronTrigger = new CronTrigger(expression);
+        cronExpression = new CronExpression(expression);
+        compiledTrigger = new CompiledCronTrigger(expression);
+        triggerContext = new SimpleTriggerContext();
+    }
+
+    @Benchmark
+    public long springNewTrigger() {
+        Date date = new Date(time);
+        triggerContext.update(date, date, date);
+        return advance(new CronTrigger(expression).nextExecutionTime(triggerContext).getTime());
+    }
+
+    @Benchmark
+    public long springReusedTrigger() {
+        Date date = new Date(time);
+        triggerContext.update(date, date, date);
+        return advance(cronTrigger.nextExecutionTime(triggerContext).getTime());
+    }
+
+    @Benchmark
+    public long compiledNext() {
+        return advance(cronExpression.next(time));
+    }
+
+    @Benchmark
+    public long compiledCachedNext() {
+        return compiledTrigger.nextTime(start);
+    }
+
+    private long advance(long next) {
+        time = next - start > RESET_AFTER_MILLIS ? start : next;
+        return next;
+    }
+
+    /**
+     * 通过 exec:java 执行时，类由 Maven 的类加载器加载，JMH 创建的子进程需要使用相同的类路径
+     */
+    public static void main(String[] args) throws RunnerException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader instanceof URLClassLoader) {
+            StringJoiner classPath = new StringJoiner(System.getProperty("path.separator"));
+            for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+                classPath.add(url.getPath());
+            }
+            System.setProperty("java.class.path", classPath.toString());
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(CronTriggerBenchmark.class.getSimpleName());
+        if (args.length > 0) {
+            options.param("expression", args);
+        }
+        new Runner(options.build()).run();
+    }
+}
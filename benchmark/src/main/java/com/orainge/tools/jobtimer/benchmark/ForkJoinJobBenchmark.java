@@ -0,0 +1,165 @@
+package com.orainge.tools.jobtimer.benchmark;
+
+import com.orainge.tools.jobtimer.job.ForkJoinJobBean;
+import com.orainge.tools.jobtimer.vo.JobResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并行计算任务（ForkJoinJobBean）与顺序执行的性能对比（JMH）<br>
+ * 对同一个 CPU 密集型输入（对区间内的每个数做多轮散列后求和）分别执行:
+ * <ul>
+ *     <li>sequential: 直接在当前线程处理整个区间（改为并行计算任务前的执行方式）</li>
+ *     <li>forkJoinUnsplit: 通过 ForkJoinJobBean.doExecute 执行但不拆分，衡量框架本身的开销</li>
+ *     <li>forkJoin: 通过 ForkJoinJobBean.doExecute 执行，区间长度超过 threshold 时对半拆分</li>
+ * </ul>
+ * 并行度为 CPU 核数，加速比受核数限制
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ForkJoinJobBenchmark {
+    /**
+     * 每个数的散列轮数
+     */
+    private static final int ROUNDS = 64;
+
+    private static final Map<String, String[]> EXEC_PARAM = Collections.emptyMap();
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"2000"})
+    public int threshold;
+
+    private RangeSumJob forkJoinJob;
+
+    private RangeSumJob unsplitJob;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        forkJoinJob = new RangeSumJob("forkJoin", parallelism, size, threshold);
+        unsplitJob = new RangeSumJob("forkJoinUnsplit", parallelism, size, Integer.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        forkJoinJob.destroy();
+        unsplitJob.destroy();
+    }
+
+    @Benchmark
+    public long sequential() {
+        return sum(0, size);
+    }
+
+    @Benchmark
+    public JobResult forkJoinUnsplit() {
+        return unsplitJob.doExecute(EXEC_PARAM);
+    }
+
+    @Benchmark
+    public JobResult forkJoin() {
+        return forkJoinJob.doExecute(EXEC_PARAM);
+    }
+
+    /**
+     * 对区间 [from, to) 内的每个数做多轮散列后求和
+     */
+    private static long sum(int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            long x = i;
+            for (int round = 0; round < ROUNDS; round++) {
+                x ^= x << 13;
+                x ^= x >>> 7;
+                x ^= x << 17;
+            }
+            sum += x;
+        }
+        return sum;
+    }
+
+    /**
+     * 对区间求和的并行计算任务，输入为 [from, to)，结果的 message 为和
+     */
+    private static class RangeSumJob extends ForkJoinJobBean<int[]> {
+        private final int size;
+        private final int threshold;
+
+        private RangeSumJob(String name, int parallelism, int size, int threshold) {
+            super(name, "区间求和", parallelism);
+            this.size = size;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected int[] createInput(Map<String, String[]> execParam) {
+            return new int[]{0, size};
+        }
+
+        @Override
+        protected List<int[]> split(int[] input) {
+            if (input[1] - input[0] <= threshold) {
+                return null;
+            }
+            int middle = (input[0] + input[1]) >>> 1;
+            return Arrays.asList(new int[]{input[0], middle}, new int[]{middle, input[1]});
+        }
+
+        @Override
+        protected JobResult executeLeaf(int[] input, Map<String, String[]> execParam) {
+            return JobResult.success().setMessage(Long.toString(sum(input[0], input[1])));
+        }
+
+        @Override
+        protected JobResult merge(List<JobResult> results) {
+            long sum = 0;
+            for (JobResult result : results) {
+                sum += Long.parseLong(result.getMessage());
+            }
+            return JobResult.success().setMessage(Long.toString(sum));
+        }
+    }
+
+    /**
+     * 通过 exec:java 执行时，类由 Maven 的类加载器加载，JMH 创建的子进程需要使用相同的类路径
+     *
+     * @param args 输入区间长度（可选，多个使用逗号分隔）
+     */
+    public static void main(String[] args) throws RunnerException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader instanceof URLClassLoader) {
+            StringJoiner classPath = new StringJoiner(System.getProperty("path.separator"));
+            for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+                classPath.add(url.getPath());
+            }
+            System.setProperty("java.class.path", classPath.toString());
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(ForkJoinJobBenchmark.class.getSimpleName());
+        if (args.length > 0) {
+            options.param("size", args[0].split(","));
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,236 @@
+package com.orainge.tools.jobtimer.benchmark;
+
+import com.orainge.tools.jobtimer.util.http.Http2Transport;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.ssl.SslConnection;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.SecureRequestCustomizer;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/2 传输模块与 HTTP/1.1 连接池的性能对比<br>
+ * 启动本地的 Jetty HTTP/2 服务端（TLS + ALPN，自签名证书），分别使用 HTTP/1.1 连接池与 HTTP/2 传输模块的 RestTemplate 并发发起 GET 请求，
+ * 输出吞吐量、延迟与服务端建立的连接数；每种方式执行两轮，第一轮包含建立连接的时间（冷启动），第二轮复用已建立的连接
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class Http2TransportBenchmark {
+    private static final String KEYSTORE_PASSWORD = "benchmark";
+
+    /**
+     * 服务端建立的 TLS 连接数
+     */
+    private static final AtomicInteger openedConnections = new AtomicInteger();
+
+    /**
+     * 服务端收到请求的客户端端口，即客户端实际使用的连接
+     */
+    private static final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 服务端收到请求的协议及请求数
+     */
+    private static final Map<String, AtomicInteger> protocols = new ConcurrentHashMap<>();
+
+    /**
+     * @param args 并发线程数 每个线程的请求数 服务端处理时间（单位：毫秒）
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int requestsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int handleMillis = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        File keyStore = createKeyStore();
+        System.setProperty("javax.net.ssl.trustStore", keyStore.getAbsolutePath());
+        System.setProperty("javax.net.ssl.trustStorePassword", KEYSTORE_PASSWORD);
+        System.setProperty("javax.net.ssl.trustStoreType", "PKCS12");
+
+        Server server = startServer(keyStore, handleMillis);
+        String url = "https://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort() + "/api";
+
+        // HTTP/1.1: 与 RestTemplateConfig 相同的连接池，每个主机的最大连接数等于并发线程数
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                        .build());
+        connectionManager.setMaxTotal(threads);
+        connectionManager.setDefaultMaxPerRoute(threads);
+        ClientHttpRequestFactory poolFactory = new HttpComponentsClientHttpRequestFactory(
+                HttpClients.custom().useSystemProperties().setConnectionManager(connectionManager).build());
+
+        // HTTP/2: 与 http-client.http2=true 时相同的传输模块
+        Http2Transport transport = Http2Transport.load(20000);
+        if (transport == null) {
+            throw new IllegalStateException("[性能对比] - 未加载 HTTP/2 传输模块，请使用 JDK 11 及以上编译并安装 job-timer");
+        }
+        ClientHttpRequestFactory http2Factory = transport.createRequestFactory(120000);
+
+        System.out.printf("[性能对比] - 并发线程数 %d，每个线程请求 %d 次，服务端处理时间 %d ms%n", threads, requestsPerThread, handleMillis);
+        try {
+            for (int round = 1; round <= 2; round++) {
+                String roundName = round == 1 ? "冷启动" : "复用连接";
+                run(roundName, "HTTP/1.1 连接池", new RestTemplate(poolFactory), url, threads, requestsPerThread);
+                run(roundName, "HTTP/2 传输模块", new RestTemplate(http2Factory), url, threads, requestsPerThread);
+            }
+        } finally {
+            server.stop();
+            connectionManager.shutdown();
+            Files.deleteIfExists(keyStore.toPath());
+        }
+        System.exit(0);
+    }
+
+    private static void run(String roundName, String name, RestTemplate restTemplate, String url,
+                            int threads, int requestsPerThread) throws Exception {
+        openedConnections.set(0);
+        clientPorts.clear();
+        protocols.clear();
+
+        long[] latencies = new long[threads * requestsPerThread];
+        AtomicInteger index = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < requestsPerThread; j++) {
+                    long begin = System.nanoTime();
+                    restTemplate.getForObject(url, String.class);
+                    latencies[index.getAndIncrement()] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        long elapsed;
+        try {
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            elapsed = System.nanoTime() - begin;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("[%s] %-12s 请求数 %d，耗时 %d ms，吞吐量 %.0f req/s，p50 %.1f ms，p99 %.1f ms，新建 TLS 连接 %d，使用连接 %d，协议 %s%n",
+                roundName, name, latencies.length, elapsed / 1_000_000, latencies.length / (elapsed / 1e9),
+                latencies[latencies.length / 2] / 1e6, latencies[(int) (latencies.length * 0.99)] / 1e6,
+                openedConnections.get(), clientPorts.size(), protocols);
+    }
+
+    /**
+     * 启动 HTTP/2 服务端（通过 ALPN 协商，不支持 HTTP/2 的客户端使用 HTTP/1.1），每个请求处理 handleMillis 毫秒
+     */
+    private static Server startServer(File keyStore, int handleMillis) throws Exception {
+        Server server = new Server(new QueuedThreadPool(400));
+
+        HttpConfiguration httpConfig = new HttpConfiguration();
+        httpConfig.addCustomizer(new SecureRequestCustomizer());
+        SslContextFactory.Server sslContextFactory = new SslContextFactory.Server();
+        sslContextFactory.setKeyStorePath(keyStore.getAbsolutePath());
+        sslContextFactory.setKeyStorePassword(KEYSTORE_PASSWORD);
+        sslContextFactory.setKeyStoreType("PKCS12");
+
+        HTTP2ServerConnectionFactory http2 = new HTTP2ServerConnectionFactory(httpConfig);
+        http2.setMaxConcurrentStreams(1024);
+        HttpConnectionFactory http11 = new HttpConnectionFactory(httpConfig);
+        ALPNServerConnectionFactory alpn = new ALPNServerConnectionFactory();
+        alpn.setDefaultProtocol(http11.getProtocol());
+
+        ServerConnector connector = new ServerConnector(server,
+                new SslConnectionFactory(sslContextFactory, alpn.getProtocol()), alpn, http2, http11);
+        connector.setPort(0);
+        connector.addBean(new Connection.Listener() {
+            @Override
+            public void onOpened(Connection connection) {
+                if (connection instanceof SslConnection) {
+                    openedConnections.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void onClosed(Connection connection) {
+            }
+        });
+        server.addConnector(connector);
+
+        ServletContextHandler context = new ServletContextHandler();
+        context.addServlet(new ServletHolder(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                protocols.computeIfAbsent(request.getProtocol(), k -> new AtomicInteger()).incrementAndGet();
+                clientPorts.add(request.getRemotePort());
+                try {
+                    Thread.sleep(handleMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                response.setContentType("application/json");
+                response.getWriter().write("{\"code\":0}");
+            }
+        }), "/*");
+        server.setHandler(context);
+        server.start();
+        return server;
+    }
+
+    /**
+     * 使用 keytool 生成 localhost 的自签名证书
+     */
+    private static File createKeyStore() throws IOException, InterruptedException {
+        File keyStore = File.createTempFile("job-timer-benchmark", ".p12");
+        Files.delete(keyStore.toPath());
+        String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+        Process process = new ProcessBuilder(keytool, "-genkeypair",
+                "-alias", "localhost", "-keyalg", "RSA", "-keysize", "2048", "-validity", "1",
+                "-dname", "CN=localhost", "-ext", "SAN=dns:localhost",
+                "-storetype", "PKCS12", "-keystore", keyStore.getAbsolutePath(),
+                "-storepass", KEYSTORE_PASSWORD, "-keypass", KEYSTORE_PASSWORD)
+                .inheritIO()
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("[性能对比] - 生成证书失败");
+        }
+        return keyStore;
+    }
+}
@@ -0,0 +1,132 @@
+package com.orainge.tools.jobtimer.benchmark;
+
+import com.orainge.tools.jobtimer.job.lane.ExecutorLane;
+import com.orainge.tools.jobtimer.job.metrics.LatencyHistogram;
+import com.orainge.tools.jobtimer.util.thread.CountingRejectedExecutionHandler;
+import com.orainge.tools.jobtimer.util.thread.VirtualThreads;
+import com.orainge.tools.jobtimer.vo.LatencyStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 虚拟线程执行通道与平台线程执行通道的吞吐量对比<br>
+ * 按不同的并发任务数，持续向通道提交阻塞任务（模拟等待 HTTP 响应），输出吞吐量、提交到执行完成的耗时、线程数峰值与进程 CPU 时间:
+ * <ul>
+ *     <li>平台线程通道: 线程数固定为 max-pool-size，超出的任务在队列中等待，队列容量为并发任务数减去线程数</li>
+ *     <li>虚拟线程通道: 同时执行的任务数上限为并发任务数，每个任务使用一个虚拟线程</li>
+ * </ul>
+ * 通道已满（同时执行与排队的任务数达到并发任务数）时，提交线程等待后重试，即通道中始终有并发任务数个任务<br>
+ * 虚拟线程需要 JDK 21 及以上，不支持时只输出平台线程通道的结果
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class LaneScalingBenchmark {
+    /**
+     * @param args 并发任务数（多个使用逗号分隔） 每次对比的运行时间（单位：秒） 任务阻塞时间（单位：毫秒） 平台线程通道的线程数
+     */
+    public static void main(String[] args) throws Exception {
+        String[] concurrencyLevels = (args.length > 0 ? args[0] : "100,1000,10000").split(",");
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long blockMillis = args.length > 2 ? Long.parseLong(args[2]) : 50;
+        int poolSize = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        System.out.printf("[性能对比] - 并发任务数 %s，每次运行 %d 秒，任务阻塞 %d ms，平台线程通道线程数 %d，CPU 核数 %d%n",
+                String.join(",", concurrencyLevels), seconds, blockMillis, poolSize, Runtime.getRuntime().availableProcessors());
+        if (!VirtualThreads.isSupported()) {
+            System.out.printf("[性能对比] - 当前 JVM（%s）不支持虚拟线程，只运行平台线程通道%n", System.getProperty("java.version"));
+        }
+
+        for (String level : concurrencyLevels) {
+            int concurrency = Integer.parseInt(level.trim());
+
+            int threads = Math.min(poolSize, concurrency);
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(threads);
+            executor.setMaxPoolSize(threads);
+            executor.setQueueCapacity(concurrency - threads);
+            executor.setThreadNamePrefix("platform-lane-");
+            executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler("abort"));
+            executor.initialize();
+            ExecutorLane platformLane = new ExecutorLane("platform", executor);
+            try {
+                run("平台线程通道", platformLane, concurrency, seconds, blockMillis);
+            } finally {
+                platformLane.shutdown(true);
+            }
+
+            if (VirtualThreads.isSupported()) {
+                ExecutorLane virtualLane = new ExecutorLane("virtual", null,
+                        VirtualThreads.newThreadPerTaskExecutor("virtual-lane-"), concurrency,
+                        new CountingRejectedExecutionHandler("abort"), null, null);
+                try {
+                    run("虚拟线程通道", virtualLane, concurrency, seconds, blockMillis);
+                } finally {
+                    virtualLane.shutdown(false);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(String name, ExecutorLane lane, int concurrency, int seconds, long blockMillis) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder completed = new LongAdder();
+        AtomicInteger inFlight = new AtomicInteger();
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+
+        long cpuBegin = getProcessCpuTime();
+        long begin = System.nanoTime();
+        long deadline = begin + TimeUnit.SECONDS.toNanos(seconds);
+        long retries = 0;
+        while (System.nanoTime() < deadline) {
+            long submitTime = System.nanoTime();
+            try {
+                inFlight.incrementAndGet();
+                lane.execute(() -> {
+                    try {
+                        Thread.sleep(blockMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    latency.record(System.nanoTime() - submitTime);
+                    completed.increment();
+                    inFlight.decrementAndGet();
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                retries++;
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        long cpuNanos = getProcessCpuTime() - cpuBegin;
+        int peakThreads = threadMXBean.getPeakThreadCount();
+
+        // 等待剩余任务执行完成，避免影响下一次对比
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+
+        LatencyStatus status = latency.getStatus();
+        System.out.printf("[%s] 并发任务数 %d，完成 %d 个（%.0f 个/秒，理论上限 %.0f 个/秒），提交到完成耗时 p50 %.1f ms，p99 %.1f ms，max %.1f ms，" +
+                        "通道已满重试 %d 次，线程数峰值 %d，CPU 占用 %.1f%%（单核）%n",
+                name, concurrency, completed.sum(), completed.sum() / (elapsed / 1e9), concurrency * 1000.0 / blockMillis,
+                status.getP50(), status.getP99(), status.getMax(), retries, peakThreads, cpuNanos * 100.0 / elapsed);
+    }
+
+    /**
+     * 获取进程 CPU 时间（单位：纳秒）
+     */
+    private static long getProcessCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
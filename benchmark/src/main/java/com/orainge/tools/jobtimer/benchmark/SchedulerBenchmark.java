@@ -0,0 +1,105 @@
+package com.orainge.tools.jobtimer.benchmark;
+
+import com.orainge.tools.jobtimer.job.cron.CompiledCronTrigger;
+import com.orainge.tools.jobtimer.job.cron.FireTimeTrigger;
+import com.orainge.tools.jobtimer.job.metrics.LatencyHistogram;
+import com.orainge.tools.jobtimer.job.scheduler.DispatchTask;
+import com.orainge.tools.jobtimer.job.scheduler.HashedWheelTaskScheduler;
+import com.orainge.tools.jobtimer.vo.LatencyStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 时间轮调度器与线程池调度器的性能对比<br>
+ * 分别在 ThreadPoolTaskScheduler（默认的线程池调度器）与 HashedWheelTaskScheduler（时间轮调度器）上注册相同数量的 cron 任务，
+ * 任务均匀分布在每 5 秒的各秒上；输出注册耗时、触发延迟（实际执行时间 - cron 计算出的执行时间）与进程 CPU 时间<br>
+ * 与 JobManager 相同，时间轮上的任务为 DispatchTask，在 tick 线程中执行；任务本身只记录触发延迟
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class SchedulerBenchmark {
+    /**
+     * @param args 任务数 每种调度器的运行时间（单位：秒） 线程池调度器线程数 时间轮 tick 时间长度（单位：毫秒）
+     */
+    public static void main(String[] args) throws Exception {
+        int jobs = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long tickMillis = args.length > 3 ? Long.parseLong(args[3]) : 100;
+
+        System.out.printf("[性能对比] - 任务数 %d，运行 %d 秒，线程池调度器线程数 %d，时间轮 tick %d ms，CPU 核数 %d%n",
+                jobs, seconds, poolSize, tickMillis, Runtime.getRuntime().availableProcessors());
+
+        ThreadPoolTaskScheduler poolScheduler = new ThreadPoolTaskScheduler();
+        poolScheduler.setPoolSize(poolSize);
+        poolScheduler.setThreadNamePrefix("pool-scheduler-");
+        poolScheduler.initialize();
+        try {
+            run("线程池调度器", poolScheduler, jobs, seconds, false);
+        } finally {
+            poolScheduler.shutdown();
+        }
+
+        // 与 ScheduleExecutorConfig 的默认配置相同: 每层 512 格，4 层
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        HashedWheelTaskScheduler wheelScheduler = new HashedWheelTaskScheduler("wheel-scheduler", tickMillis, 512, 4, executor);
+        try {
+            run("时间轮调度器", wheelScheduler, jobs, seconds, true);
+        } finally {
+            wheelScheduler.destroy();
+            executor.shutdownNow();
+        }
+        System.exit(0);
+    }
+
+    private static void run(String name, TaskScheduler scheduler, int jobs, int seconds, boolean dispatch) throws InterruptedException {
+        LatencyHistogram lateness = new LatencyHistogram();
+        LongAdder fired = new LongAdder();
+        List<ScheduledFuture<?>> futures = new ArrayList<>(jobs);
+
+        long registerBegin = System.nanoTime();
+        for (int i = 0; i < jobs; i++) {
+            FireTimeTrigger trigger = new FireTimeTrigger(new CompiledCronTrigger((i % 5) + "/5 * * * * ?"));
+            Runnable task = () -> {
+                lateness.record(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - trigger.getFireTime()));
+                fired.increment();
+            };
+            futures.add(scheduler.schedule(dispatch ? (DispatchTask) task::run : task, trigger));
+        }
+        long registerMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - registerBegin);
+
+        long cpuBegin = getProcessCpuTime();
+        long begin = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        long cpuNanos = getProcessCpuTime() - cpuBegin;
+        long elapsed = System.nanoTime() - begin;
+
+        long cancelBegin = System.nanoTime();
+        for (ScheduledFuture<?> future : futures) {
+            future.cancel(false);
+        }
+        long cancelMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cancelBegin);
+
+        LatencyStatus status = lateness.getStatus();
+        System.out.printf("[%s] 注册耗时 %d ms，取消耗时 %d ms，触发 %d 次（%.0f 次/秒），触发延迟 mean %.1f ms，p50 %.1f ms，p99 %.1f ms，max %.1f ms，CPU 占用 %.1f%%（单核）%n",
+                name, registerMillis, cancelMillis, fired.sum(), fired.sum() / (elapsed / 1e9),
+                status.getMean(), status.getP50(), status.getP99(), status.getMax(), cpuNanos * 100.0 / elapsed);
+    }
+
+    /**
+     * 获取进程 CPU 时间（单位：纳秒）
+     */
+    private static long getProcessCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
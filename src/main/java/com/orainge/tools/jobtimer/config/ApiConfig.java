@@ -33,6 +33,11 @@ public class ApiConfig {
         private int retryTimes;
         private Map<String, String> api;
 
+        /**
+         * 该接口主机的最大连接数，不配置时使用 http-client.pool.max-per-route
+         */
+        private Integer maxConnections;
+
         public String getUrl() {
             return url;
         }
@@ -80,5 +85,13 @@ public class ApiConfig {
         public void setApi(Map<String, String> api) {
             this.api = api;
         }
+
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
     }
 }
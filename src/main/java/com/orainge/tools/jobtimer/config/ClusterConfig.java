@@ -0,0 +1,190 @@
+package com.orainge.tools.jobtimer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 集群配置文件<br>
+ * 多个节点部署时，同一次定时任务只在一个节点上执行
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Configuration
+@ConfigurationProperties(prefix = "job-timer.cluster")
+public class ClusterConfig {
+    /**
+     * 是否启用集群模式
+     */
+    private boolean enable;
+
+    /**
+     * 节点 ID，不配置时使用 "进程号@主机名"
+     */
+    private String nodeId;
+
+    /**
+     * 任务锁类型: jdbc（默认，使用容器中的 DataSource）, file（使用共享目录）
+     */
+    private String type = "jdbc";
+
+    /**
+     * 任务锁租约时长（单位：毫秒），任务执行期间自动续约
+     */
+    private long leaseTime = 30000;
+
+    /**
+     * 任务锁最少持有时长（单位：毫秒）<br>
+     * 避免节点间时钟偏差导致同一次触发在其他节点上重复执行，应小于任务的执行周期
+     */
+    private long lockAtLeast = 1000;
+
+    /**
+     * 节点心跳间隔（单位：毫秒）
+     */
+    private long heartbeatInterval = 5000;
+
+    /**
+     * 节点超时时间（单位：毫秒），超过该时间没有心跳的节点视为下线
+     */
+    private long nodeTimeout = 15000;
+
+    /**
+     * 是否将任务分散到各存活节点执行<br>
+     * true: 每个任务按节点 ID 哈希分配到一个存活节点; false: 所有节点竞争任务锁
+     */
+    private boolean spread = true;
+
+    /**
+     * JDBC 任务锁配置
+     */
+    private ClusterJdbcConfig jdbc = new ClusterJdbcConfig();
+
+    /**
+     * 文件任务锁配置
+     */
+    private ClusterFileConfig file = new ClusterFileConfig();
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    public void setEnable(boolean enable) {
+        this.enable = enable;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(long leaseTime) {
+        this.leaseTime = leaseTime;
+    }
+
+    public long getLockAtLeast() {
+        return lockAtLeast;
+    }
+
+    public void setLockAtLeast(long lockAtLeast) {
+        this.lockAtLeast = lockAtLeast;
+    }
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public long getNodeTimeout() {
+        return nodeTimeout;
+    }
+
+    public void setNodeTimeout(long nodeTimeout) {
+        this.nodeTimeout = nodeTimeout;
+    }
+
+    public boolean isSpread() {
+        return spread;
+    }
+
+    public void setSpread(boolean spread) {
+        this.spread = spread;
+    }
+
+    public ClusterJdbcConfig getJdbc() {
+        return jdbc;
+    }
+
+    public void setJdbc(ClusterJdbcConfig jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public ClusterFileConfig getFile() {
+        return file;
+    }
+
+    public void setFile(ClusterFileConfig file) {
+        this.file = file;
+    }
+
+    public static class ClusterJdbcConfig {
+        /**
+         * 表名前缀，使用 {前缀}lock 与 {前缀}node 两张表
+         */
+        private String tablePrefix = "job_timer_";
+
+        /**
+         * 启动时是否自动建表
+         */
+        private boolean initializeSchema = true;
+
+        public String getTablePrefix() {
+            return tablePrefix;
+        }
+
+        public void setTablePrefix(String tablePrefix) {
+            this.tablePrefix = tablePrefix;
+        }
+
+        public boolean isInitializeSchema() {
+            return initializeSchema;
+        }
+
+        public void setInitializeSchema(boolean initializeSchema) {
+            this.initializeSchema = initializeSchema;
+        }
+    }
+
+    public static class ClusterFileConfig {
+        /**
+         * 各节点共享的目录
+         */
+        private String directory;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.orainge.tools.jobtimer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP 客户端配置文件<br>
+ * 默认 RestTemplate 与不限制读取时间的 RestTemplate 共用同一个连接池；异步请求使用独立的非阻塞连接池，连接数上限相同<br>
+ * 开启 HTTP/2 时所有请求由 JDK HttpClient 发起，只有连接超时时间、读取数据超时时间与异步请求数上限仍然生效：
+ * 连接池配置（包括获取连接的等待时间）、外部 API 的 max-connections、异步请求的 IO 线程数不再生效，/monitor/httpPool 也不再统计这些请求
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Configuration
+@ConfigurationProperties(prefix = "http-client")
+public class HttpClientConfig {
+    /**
+     * 连接超时时间（单位：秒）
+     */
+    private int connectTimeout = 20;
+
+    /**
+     * 读取数据超时时间（单位：秒）
+     */
+    private int readTimeout = 120;
+
+    /**
+     * 是否使用 HTTP/2（需要 JDK 11 及以上），服务端不支持时使用 HTTP/1.1<br>
+     * 开启后 pool、async.io-threads 与外部 API 的 max-connections 配置不再生效
+     */
+    private boolean http2 = false;
+
+    /**
+     * 连接池配置
+     */
+    private HttpPoolConfig pool = new HttpPoolConfig();
+
+    /**
+     * 异步请求配置
+     */
+    private HttpAsyncConfig async = new HttpAsyncConfig();
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+
+    public HttpPoolConfig getPool() {
+        return pool;
+    }
+
+    public void setPool(HttpPoolConfig pool) {
+        this.pool = pool;
+    }
+
+    public HttpAsyncConfig getAsync() {
+        return async;
+    }
+
+    public void setAsync(HttpAsyncConfig async) {
+        this.async = async;
+    }
+
+    public static class HttpPoolConfig {
+        /**
+         * 最大连接数
+         */
+        private int maxTotal = 200;
+
+        /**
+         * 每个主机的最大连接数，可以在外部 API 配置中通过 max-connections 单独配置
+         */
+        private int maxPerRoute = 20;
+
+        /**
+         * 从连接池获取连接的最长等待时间（单位：毫秒）
+         */
+        private int leaseTimeout = 10000;
+
+        /**
+         * 连接保持时间（单位：毫秒），服务端返回的 Keep-Alive 超时时间更短时以服务端为准
+         */
+        private long keepAlive = 30000;
+
+        /**
+         * 空闲连接的关闭时间（单位：毫秒）
+         */
+        private long idleTimeout = 60000;
+
+        /**
+         * 后台关闭过期与空闲连接的间隔（单位：毫秒）
+         */
+        private long evictInterval = 5000;
+
+        /**
+         * 连接空闲超过该时间后，使用前检查连接是否可用（单位：毫秒）
+         */
+        private int validateAfterInactivity = 2000;
+
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        public void setMaxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+        }
+
+        public int getMaxPerRoute() {
+            return maxPerRoute;
+        }
+
+        public void setMaxPerRoute(int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+        }
+
+        public int getLeaseTimeout() {
+            return leaseTimeout;
+        }
+
+        public void setLeaseTimeout(int leaseTimeout) {
+            this.leaseTimeout = leaseTimeout;
+        }
+
+        public long getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(long keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public long getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public long getEvictInterval() {
+            return evictInterval;
+        }
+
+        public void setEvictInterval(long evictInterval) {
+            this.evictInterval = evictInterval;
+        }
+
+        public int getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        public void setValidateAfterInactivity(int validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+        }
+    }
+
+    public static class HttpAsyncConfig {
+        /**
+         * IO 线程数
+         */
+        private int ioThreads = 2;
+
+        /**
+         * 同时进行的异步请求数上限，超过时排队等待
+         */
+        private int maxInFlight = 256;
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+}
@@ -4,8 +4,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,6 +36,11 @@ public class JobConfig {
      */
     private JobMultiThreadConfig multiThread;
 
+    /**
+     * 工作流配置（工作流名称 - 工作流配置）
+     */
+    private Map<String, JobWorkflowConfig> workflow;
+
     @PostConstruct
     public void init() {
         // 配置定时任务和 API 的地址
@@ -62,6 +69,31 @@ public class JobConfig {
          */
         private Map<String, String> url;
 
+        /**
+         * 异步执行记录表配置
+         */
+        private JobExecutionTableConfig executionTable = new JobExecutionTableConfig();
+
+        /**
+         * 流式执行配置
+         */
+        private JobStreamConfig stream = new JobStreamConfig();
+
+        /**
+         * 批量执行配置
+         */
+        private JobBatchConfig batch = new JobBatchConfig();
+
+        /**
+         * 限流配置
+         */
+        private JobRateLimitConfig rateLimit = new JobRateLimitConfig();
+
+        /**
+         * 合并执行配置
+         */
+        private JobSingleFlightConfig singleFlight = new JobSingleFlightConfig();
+
         public boolean isEnable() {
             return enable;
         }
@@ -85,6 +117,292 @@ public class JobConfig {
         public void setUrl(Map<String, String> url) {
             this.url = url;
         }
+
+        public JobExecutionTableConfig getExecutionTable() {
+            return executionTable;
+        }
+
+        public void setExecutionTable(JobExecutionTableConfig executionTable) {
+            this.executionTable = executionTable;
+        }
+
+        public JobStreamConfig getStream() {
+            return stream;
+        }
+
+        public void setStream(JobStreamConfig stream) {
+            this.stream = stream;
+        }
+
+        public JobBatchConfig getBatch() {
+            return batch;
+        }
+
+        public void setBatch(JobBatchConfig batch) {
+            this.batch = batch;
+        }
+
+        public JobRateLimitConfig getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(JobRateLimitConfig rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public JobSingleFlightConfig getSingleFlight() {
+            return singleFlight;
+        }
+
+        public void setSingleFlight(JobSingleFlightConfig singleFlight) {
+            this.singleFlight = singleFlight;
+        }
+    }
+
+    public static class JobExecutionTableConfig {
+        /**
+         * 最多保存的执行记录数，超过时删除最早的记录
+         */
+        private int maxSize = 1000;
+
+        /**
+         * 执行结束的记录保存时间（单位：秒）
+         */
+        private int expireSeconds = 3600;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getExpireSeconds() {
+            return expireSeconds;
+        }
+
+        public void setExpireSeconds(int expireSeconds) {
+            this.expireSeconds = expireSeconds;
+        }
+    }
+
+    public static class JobStreamConfig {
+        /**
+         * 连接超时时间（单位：毫秒），0 表示不超时
+         */
+        private long timeout = 0;
+
+        /**
+         * 每个连接最多缓存的未发送进度数，超过时丢弃新的进度
+         */
+        private int bufferSize = 1000;
+
+        /**
+         * 发送进度的线程数
+         */
+        private int senderThreads = 2;
+
+        /**
+         * 等待发送的连接数上限，超过时稍后重试
+         */
+        private int senderQueueCapacity = 1000;
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public int getSenderQueueCapacity() {
+            return senderQueueCapacity;
+        }
+
+        public void setSenderQueueCapacity(int senderQueueCapacity) {
+            this.senderQueueCapacity = senderQueueCapacity;
+        }
+    }
+
+    public static class JobBatchConfig {
+        /**
+         * 每次批量执行最多同时执行的任务数
+         */
+        private int maxParallel = 4;
+
+        /**
+         * 每次批量执行最多包含的任务数
+         */
+        private int maxSize = 100;
+
+        public int getMaxParallel() {
+            return maxParallel;
+        }
+
+        public void setMaxParallel(int maxParallel) {
+            this.maxParallel = maxParallel;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class JobRateLimitConfig {
+        /**
+         * 是否开启限流，默认为不开启
+         */
+        private boolean enable;
+
+        /**
+         * 每个 token 的限流规则，不配置时不限制
+         */
+        private RateLimitRule token;
+
+        /**
+         * 未单独配置的任务使用的限流规则，不配置时不限制
+         */
+        private RateLimitRule defaultJob;
+
+        /**
+         * 任务名称 - 限流规则
+         */
+        private Map<String, RateLimitRule> jobs;
+
+        public boolean isEnable() {
+            return enable;
+        }
+
+        public void setEnable(boolean enable) {
+            this.enable = enable;
+        }
+
+        public RateLimitRule getToken() {
+            return token;
+        }
+
+        public void setToken(RateLimitRule token) {
+            this.token = token;
+        }
+
+        public RateLimitRule getDefaultJob() {
+            return defaultJob;
+        }
+
+        public void setDefaultJob(RateLimitRule defaultJob) {
+            this.defaultJob = defaultJob;
+        }
+
+        public Map<String, RateLimitRule> getJobs() {
+            return jobs;
+        }
+
+        public void setJobs(Map<String, RateLimitRule> jobs) {
+            this.jobs = jobs;
+        }
+    }
+
+    public static class RateLimitRule {
+        /**
+         * 每秒允许的请求数
+         */
+        private double rate;
+
+        /**
+         * 允许的突发请求数（短时间内最多连续通过的请求数）
+         */
+        private int burst = 1;
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+
+    public static class JobSingleFlightConfig {
+        /**
+         * 是否开启合并执行，默认为不开启
+         */
+        private boolean enable;
+
+        /**
+         * 带幂等键的执行结果保存时间（单位：秒）
+         */
+        private int idempotencyExpireSeconds = 600;
+
+        /**
+         * 最多保存的带幂等键的执行结果数，超过时删除最早的结果
+         */
+        private int idempotencyMaxSize = 1000;
+
+        /**
+         * 未配置最长执行时间的任务，后到的请求等待正在进行的执行的最长时间（单位：秒），0 表示不限制
+         */
+        private int maxWaitSeconds = 600;
+
+        public boolean isEnable() {
+            return enable;
+        }
+
+        public void setEnable(boolean enable) {
+            this.enable = enable;
+        }
+
+        public int getIdempotencyExpireSeconds() {
+            return idempotencyExpireSeconds;
+        }
+
+        public void setIdempotencyExpireSeconds(int idempotencyExpireSeconds) {
+            this.idempotencyExpireSeconds = idempotencyExpireSeconds;
+        }
+
+        public int getIdempotencyMaxSize() {
+            return idempotencyMaxSize;
+        }
+
+        public void setIdempotencyMaxSize(int idempotencyMaxSize) {
+            this.idempotencyMaxSize = idempotencyMaxSize;
+        }
+
+        public int getMaxWaitSeconds() {
+            return maxWaitSeconds;
+        }
+
+        public void setMaxWaitSeconds(int maxWaitSeconds) {
+            this.maxWaitSeconds = maxWaitSeconds;
+        }
     }
 
     public static class JobTaskConfig {
@@ -98,6 +416,41 @@ public class JobConfig {
          */
         private Map<String, String> cron;
 
+        /**
+         * 定时任务重叠执行策略: skip, queue-one（coalesce 同 queue-one）, parallel（默认）
+         */
+        private Map<String, String> overlapPolicy;
+
+        /**
+         * 定时任务最大并行数，仅 parallel 策略使用，不配置时不限制
+         */
+        private Map<String, Integer> maxParallel;
+
+        /**
+         * 定时任务使用的执行通道，不配置时使用异步执行线程池
+         */
+        private Map<String, String> lane;
+
+        /**
+         * 任务名称 - 优先级（数值越大越优先，默认为 0），仅使用优先级队列的执行通道生效
+         */
+        private Map<String, Integer> priority;
+
+        /**
+         * 任务名称 - 最长执行时间（单位：毫秒），超时后中断执行并记为失败，不配置时不限制
+         */
+        private Map<String, Long> timeout;
+
+        /**
+         * 配置文件热加载配置
+         */
+        private JobReloadConfig reload = new JobReloadConfig();
+
+        /**
+         * 执行时间偏移配置（分散同一时刻触发的定时任务）
+         */
+        private JobJitterConfig jitter = new JobJitterConfig();
+
         public boolean isEnable() {
             return enable;
         }
@@ -113,6 +466,140 @@ public class JobConfig {
         public void setCron(Map<String, String> cron) {
             this.cron = cron;
         }
+
+        public Map<String, String> getOverlapPolicy() {
+            return overlapPolicy;
+        }
+
+        public void setOverlapPolicy(Map<String, String> overlapPolicy) {
+            this.overlapPolicy = overlapPolicy;
+        }
+
+        public Map<String, Integer> getMaxParallel() {
+            return maxParallel;
+        }
+
+        public void setMaxParallel(Map<String, Integer> maxParallel) {
+            this.maxParallel = maxParallel;
+        }
+
+        public Map<String, String> getLane() {
+            return lane;
+        }
+
+        public void setLane(Map<String, String> lane) {
+            this.lane = lane;
+        }
+
+        public Map<String, Integer> getPriority() {
+            return priority;
+        }
+
+        public void setPriority(Map<String, Integer> priority) {
+            this.priority = priority;
+        }
+
+        public Map<String, Long> getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Map<String, Long> timeout) {
+            this.timeout = timeout;
+        }
+
+        public JobReloadConfig getReload() {
+            return reload;
+        }
+
+        public void setReload(JobReloadConfig reload) {
+            this.reload = reload;
+        }
+
+        public JobJitterConfig getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(JobJitterConfig jitter) {
+            this.jitter = jitter;
+        }
+    }
+
+    public static class JobReloadConfig {
+        /**
+         * 是否监听配置文件变化，默认为不开启
+         */
+        private boolean enable;
+
+        /**
+         * 监听的配置文件路径（YAML 格式，读取其中的 job-timer.job.task.cron）
+         */
+        private String file;
+
+        public boolean isEnable() {
+            return enable;
+        }
+
+        public void setEnable(boolean enable) {
+            this.enable = enable;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+    }
+
+    public static class JobJitterConfig {
+        /**
+         * 偏移窗口（单位：毫秒），每个任务的执行时间在 cron 计算出的时间之后的窗口内偏移，0 表示不偏移（默认）<br>
+         * 需要小于任务的 cron 执行间隔
+         */
+        private long window;
+
+        /**
+         * 偏移方式: hash（默认，按任务名称的哈希值固定偏移）, level（相同 cron 的任务按历史执行耗时分散到窗口内）
+         */
+        private String mode = "hash";
+
+        /**
+         * level 方式重新计算偏移的间隔（单位：毫秒）
+         */
+        private long levelInterval = 600000;
+
+        public long getWindow() {
+            return window;
+        }
+
+        public void setWindow(long window) {
+            this.window = window;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public long getLevelInterval() {
+            return levelInterval;
+        }
+
+        public void setLevelInterval(long levelInterval) {
+            this.levelInterval = levelInterval;
+        }
+
+        public boolean isEnable() {
+            return window > 0;
+        }
+
+        public boolean isLevel() {
+            return "level".equalsIgnoreCase(mode);
+        }
     }
 
     public static class JobMultiThreadConfig {
@@ -126,6 +613,17 @@ public class JobConfig {
          */
         private JobExecutorConfig executor;
 
+        /**
+         * 执行通道（通道名称 - 通道线程池配置）<br>
+         * 每个通道使用独立的线程池，未分配通道的任务使用异步执行线程池
+         */
+        private Map<String, JobExecutorConfig> lanes;
+
+        /**
+         * 并行计算任务（ForkJoinJobBean）共用的 ForkJoinPool 配置
+         */
+        private JobForkJoinConfig forkJoin = new JobForkJoinConfig();
+
         public JobSchedulerConfig getScheduler() {
             return scheduler;
         }
@@ -141,9 +639,59 @@ public class JobConfig {
         public void setExecutor(JobExecutorConfig executor) {
             this.executor = executor;
         }
+
+        public Map<String, JobExecutorConfig> getLanes() {
+            return lanes;
+        }
+
+        public void setLanes(Map<String, JobExecutorConfig> lanes) {
+            this.lanes = lanes;
+        }
+
+        public JobForkJoinConfig getForkJoin() {
+            return forkJoin;
+        }
+
+        public void setForkJoin(JobForkJoinConfig forkJoin) {
+            this.forkJoin = forkJoin;
+        }
+    }
+
+    public static class JobForkJoinConfig {
+        /**
+         * 线程名称前缀
+         */
+        private String threadNamePrefix = "forkJoin-";
+
+        /**
+         * 并行度（工作线程数），小于等于 0 时使用 CPU 核数
+         */
+        private int parallelism;
+
+        public String getThreadNamePrefix() {
+            return threadNamePrefix;
+        }
+
+        public void setThreadNamePrefix(String threadNamePrefix) {
+            this.threadNamePrefix = threadNamePrefix;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
     }
 
     public static class JobSchedulerConfig {
+        /**
+         * 调度器类型<br>
+         * pool: 线程池调度器（默认）; wheel: 分层哈希时间轮调度器
+         */
+        private String type = "pool";
+
         /**
          * 线程名称前缀
          */
@@ -165,6 +713,36 @@ public class JobConfig {
          */
         private int awaitTerminationSeconds;
 
+        /**
+         * 时间轮每一格的时间长度（单位：毫秒）<br/>
+         * 仅当 type 设置为 wheel 时使用
+         */
+        private long tickDuration = 100;
+
+        /**
+         * 时间轮每层的格数<br/>
+         * 仅当 type 设置为 wheel 时使用
+         */
+        private int ticksPerWheel = 512;
+
+        /**
+         * 时间轮层数<br/>
+         * 仅当 type 设置为 wheel 时使用
+         */
+        private int wheelLevels = 4;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public boolean isWheel() {
+            return "wheel".equalsIgnoreCase(type);
+        }
+
         public String getThreadNamePrefix() {
             return threadNamePrefix;
         }
@@ -196,6 +774,30 @@ public class JobConfig {
         public void setAwaitTerminationSeconds(int awaitTerminationSeconds) {
             this.awaitTerminationSeconds = awaitTerminationSeconds;
         }
+
+        public long getTickDuration() {
+            return tickDuration;
+        }
+
+        public void setTickDuration(long tickDuration) {
+            this.tickDuration = tickDuration;
+        }
+
+        public int getTicksPerWheel() {
+            return ticksPerWheel;
+        }
+
+        public void setTicksPerWheel(int ticksPerWheel) {
+            this.ticksPerWheel = ticksPerWheel;
+        }
+
+        public int getWheelLevels() {
+            return wheelLevels;
+        }
+
+        public void setWheelLevels(int wheelLevels) {
+            this.wheelLevels = wheelLevels;
+        }
     }
 
     public static class JobExecutorConfig {
@@ -224,6 +826,31 @@ public class JobConfig {
          */
         private int keepAliveSeconds;
 
+        /**
+         * 拒绝策略: caller-runs（默认）, abort, discard, discard-oldest
+         */
+        private String rejectionPolicy = "caller-runs";
+
+        /**
+         * 执行模式: platform（默认，使用线程池）, virtual（每个任务使用一个虚拟线程，同时执行的任务数不超过 max-pool-size，超过时按拒绝策略处理；JVM 不支持时使用线程池）
+         */
+        private String mode = "platform";
+
+        /**
+         * 队列类型: fifo（默认，先进先出）, priority（按任务优先级排序，见 job-timer.job.task.priority）
+         */
+        private String queueType = "fifo";
+
+        /**
+         * 优先级队列中任务每等待多少毫秒相当于优先级加 1，避免低优先级任务一直得不到执行
+         */
+        private long agingMillis = 1000;
+
+        /**
+         * 自适应线程数配置（仅线程池模式）
+         */
+        private JobAdaptiveConfig adaptive = new JobAdaptiveConfig();
+
         public String getThreadNamePrefix() {
             return threadNamePrefix;
         }
@@ -263,6 +890,180 @@ public class JobConfig {
         public void setKeepAliveSeconds(int keepAliveSeconds) {
             this.keepAliveSeconds = keepAliveSeconds;
         }
+
+        public String getRejectionPolicy() {
+            return rejectionPolicy;
+        }
+
+        public void setRejectionPolicy(String rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public String getQueueType() {
+            return queueType;
+        }
+
+        public void setQueueType(String queueType) {
+            this.queueType = queueType;
+        }
+
+        /**
+         * 是否使用优先级队列
+         */
+        public boolean isPriorityQueue() {
+            return "priority".equalsIgnoreCase(queueType);
+        }
+
+        public long getAgingMillis() {
+            return agingMillis;
+        }
+
+        public void setAgingMillis(long agingMillis) {
+            this.agingMillis = agingMillis;
+        }
+
+        public boolean isVirtual() {
+            return "virtual".equalsIgnoreCase(mode);
+        }
+
+        public JobAdaptiveConfig getAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(JobAdaptiveConfig adaptive) {
+            this.adaptive = adaptive;
+        }
+    }
+
+    public static class JobAdaptiveConfig {
+        /**
+         * 是否按负载自动调整核心线程数与最大线程数，默认为不开启
+         */
+        private boolean enable;
+
+        /**
+         * 线程数下限
+         */
+        private int minPoolSize = 1;
+
+        /**
+         * 线程数上限
+         */
+        private int maxPoolSize = 100;
+
+        /**
+         * 调整间隔（单位：毫秒）
+         */
+        private long intervalMillis = 5000;
+
+        /**
+         * 目标平均排队时间（单位：毫秒），超过时增加线程
+         */
+        private long targetQueueWaitMillis = 100;
+
+        /**
+         * 目标线程利用率（0 ~ 1），按 所需线程数 / 目标利用率 计算线程数，留出应对突发的余量
+         */
+        private double targetUtilization = 0.8;
+
+        public boolean isEnable() {
+            return enable;
+        }
+
+        public void setEnable(boolean enable) {
+            this.enable = enable;
+        }
+
+        public int getMinPoolSize() {
+            return minPoolSize;
+        }
+
+        public void setMinPoolSize(int minPoolSize) {
+            this.minPoolSize = minPoolSize;
+        }
+
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        public void setIntervalMillis(long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+        }
+
+        public long getTargetQueueWaitMillis() {
+            return targetQueueWaitMillis;
+        }
+
+        public void setTargetQueueWaitMillis(long targetQueueWaitMillis) {
+            this.targetQueueWaitMillis = targetQueueWaitMillis;
+        }
+
+        public double getTargetUtilization() {
+            return targetUtilization;
+        }
+
+        public void setTargetUtilization(double targetUtilization) {
+            this.targetUtilization = targetUtilization;
+        }
+    }
+
+    public static class JobWorkflowConfig {
+        /**
+         * 工作流 cron 表达式，不配置时只能通过 API 执行
+         */
+        private String cron;
+
+        /**
+         * 任务名称 - 依赖的上游任务名称列表<br>
+         * 上游任务全部执行成功后才执行，没有依赖的任务在工作流开始时并行执行
+         */
+        private Map<String, List<String>> jobs;
+
+        /**
+         * 通过 API 执行时等待工作流执行结束的最长时间（单位：毫秒）<br>
+         * 0 表示按各任务的最长执行时间沿依赖关系累加，有任务未配置最长执行时间时为 10 分钟
+         */
+        private long timeout = 0;
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        public Map<String, List<String>> getJobs() {
+            return jobs;
+        }
+
+        public void setJobs(Map<String, List<String>> jobs) {
+            this.jobs = jobs;
+        }
     }
 
     private void initApiAndTask() {
@@ -282,6 +1083,17 @@ public class JobConfig {
             b += "-";
             multiThread.executor.threadNamePrefix = b;
         }
+
+        // 执行通道未配置线程名称时，使用通道名称
+        if (multiThread.lanes != null) {
+            multiThread.lanes.forEach((laneName, laneConfig) -> {
+                String c = StringUtils.isEmpty(laneConfig.threadNamePrefix) ? laneName : laneConfig.threadNamePrefix;
+                if (c.lastIndexOf("-") != c.length() - 1) {
+                    c += "-";
+                }
+                laneConfig.threadNamePrefix = c;
+            });
+        }
     }
 
     private void initResult() {
@@ -321,4 +1133,12 @@ public class JobConfig {
     public void setMultiThread(JobMultiThreadConfig multiThread) {
         this.multiThread = multiThread;
     }
+
+    public Map<String, JobWorkflowConfig> getWorkflow() {
+        return workflow;
+    }
+
+    public void setWorkflow(Map<String, JobWorkflowConfig> workflow) {
+        this.workflow = workflow;
+    }
 }
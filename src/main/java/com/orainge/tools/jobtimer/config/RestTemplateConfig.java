@@ -1,16 +1,55 @@
 package com.orainge.tools.jobtimer.config;
 
+import com.orainge.tools.jobtimer.util.http.AsyncHttpTransport;
+import com.orainge.tools.jobtimer.util.http.Http2Transport;
+import com.orainge.tools.jobtimer.util.http.HttpComponentsAsyncTransport;
+import com.orainge.tools.jobtimer.util.http.InstrumentedConnectionManager;
+import com.orainge.tools.jobtimer.util.http.RequestDeadline;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.Resource;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * RestTemplate 配置文件，兼容 http 和 https
+ * RestTemplate 配置文件，兼容 http 和 https<br>
+ * 默认 RestTemplate 与不限制读取时间的 RestTemplate 共用同一个连接池，连接与读取超时时间按 http-client 配置<br>
+ * 异步请求由 AsyncHttpTransport 发起（默认为 Apache HttpAsyncClient 的非阻塞连接池），不占用等待响应的线程<br>
+ * 在配置了最长执行时间的任务中发起请求时，获取连接、连接与读取超时不超过任务的剩余时间<br>
+ * 开启 HTTP/2 且运行环境支持时，同步与异步请求均由 HTTP/2 传输模块发起，同一主机的并发请求复用一个连接
  *
  * @author orainge
  * @since 2021/6/10
@@ -18,12 +57,86 @@ import java.nio.charset.StandardCharsets;
 @Configuration
 @ConditionalOnMissingBean({RestTemplateConfig.class})
 public class RestTemplateConfig {
-    private final int connectTimeout = 60; // 单位：秒
-    private final int readTimeout = 10; // 单位：秒
+    private static final Logger log = LoggerFactory.getLogger(RestTemplateConfig.class);
+
+    @Resource
+    private HttpClientConfig httpClientConfig;
+
+    @Resource
+    private ApiConfig apiConfig;
+
+    /**
+     * HTTP/2 传输模块，未开启或运行环境不支持时为 null
+     */
+    private Http2Transport http2Transport;
+
+    private boolean http2TransportLoaded = false;
+
+    /**
+     * 两个 RestTemplate 共用的连接池
+     */
+    @Bean(name = "httpConnectionManager", destroyMethod = "shutdown")
+    public InstrumentedConnectionManager httpConnectionManager() {
+        HttpClientConfig.HttpPoolConfig config = httpClientConfig.getPool();
+        if (config.getMaxTotal() < 1 || config.getMaxPerRoute() < 1) {
+            throw new IllegalStateException("[HTTP 连接池] - 最大连接数需要大于 0，请检查配置文件");
+        }
+
+        // 与默认的 HttpClient 相同，https 使用系统属性中的 SSL 配置
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                        .build()
+        );
+        connectionManager.setMaxTotal(config.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivity());
+        getApiMaxConnections().forEach((route, maxConnections) -> {
+            connectionManager.setMaxPerRoute(route, maxConnections);
+            log.info("[HTTP 连接池] - 主机 {} 最大连接数 {}", route.getTargetHost().toURI(), maxConnections);
+        });
+        if (config.getEvictInterval() > 0) {
+            connectionManager.startEviction(config.getEvictInterval(), config.getIdleTimeout());
+        }
+
+        log.info("[HTTP 连接池] - 最大连接数 {}，每个主机最大连接数 {}", config.getMaxTotal(), config.getMaxPerRoute());
+        return connectionManager;
+    }
+
+    /**
+     * 异步请求使用的 HttpAsyncClient，连接数上限与同步请求的连接池相同
+     */
+    @Bean(name = "httpAsyncClient", destroyMethod = "close")
+    public CloseableHttpAsyncClient httpAsyncClient() throws IOReactorException {
+        HttpClientConfig.HttpPoolConfig config = httpClientConfig.getPool();
+        DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(IOReactorConfig.custom()
+                .setIoThreadCount(Math.max(httpClientConfig.getAsync().getIoThreads(), 1))
+                .build());
+
+        // 与同步请求相同，https 使用系统属性中的 SSL 配置
+        PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(ioReactor,
+                RegistryBuilder.<SchemeIOSessionStrategy>create()
+                        .register("http", NoopIOSessionStrategy.INSTANCE)
+                        .register("https", SSLIOSessionStrategy.getSystemDefaultStrategy())
+                        .build()
+        );
+        connectionManager.setMaxTotal(config.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxPerRoute());
+        getApiMaxConnections().forEach(connectionManager::setMaxPerRoute);
+
+        CloseableHttpAsyncClient httpAsyncClient = HttpAsyncClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(createKeepAliveStrategy(config.getKeepAlive()))
+                .build();
+        httpAsyncClient.start();
+        return httpAsyncClient;
+    }
 
     @Bean("defaultRestTemplate")
     public RestTemplate defaultRestTemplate() {
-        return buildRestTemplate(readTimeout);
+        return buildRestTemplate(httpClientConfig.getReadTimeout());
     }
 
     @Bean("noReadTimeoutRestTemplate")
@@ -31,13 +144,149 @@ public class RestTemplateConfig {
         return buildRestTemplate(0);
     }
 
+    @Bean("defaultAsyncTransport")
+    public AsyncHttpTransport defaultAsyncTransport() throws IOReactorException {
+        return buildAsyncTransport(httpClientConfig.getReadTimeout());
+    }
+
+    @Bean("noReadTimeoutAsyncTransport")
+    public AsyncHttpTransport noReadTimeoutAsyncTransport() throws IOReactorException {
+        return buildAsyncTransport(0);
+    }
+
     private RestTemplate buildRestTemplate(int readTimeout) {
-        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
-        factory.setReadTimeout(readTimeout * 1000);
-        factory.setConnectTimeout(connectTimeout * 1000);
+        ClientHttpRequestFactory factory;
+        Http2Transport transport = getHttp2Transport();
+        if (transport != null) {
+            factory = transport.createRequestFactory(readTimeout * 1000);
+        } else {
+            HttpComponentsClientHttpRequestFactory httpComponentsFactory = new HttpComponentsClientHttpRequestFactory(buildHttpClient());
+            configureRequestFactory(httpComponentsFactory, readTimeout);
+            factory = httpComponentsFactory;
+        }
 
         RestTemplate restTemplate = new RestTemplate(factory);
         restTemplate.getMessageConverters().set(1, new StringHttpMessageConverter(StandardCharsets.UTF_8)); // 支持中文编码
         return restTemplate;
     }
-}
\ No newline at end of file
+
+    /**
+     * 创建异步请求传输，请求体与响应体的转换使用 RestTemplate 的转换器
+     */
+    private AsyncHttpTransport buildAsyncTransport(int readTimeout) throws IOReactorException {
+        Http2Transport transport = getHttp2Transport();
+        if (transport != null) {
+            return transport.createAsyncTransport(readTimeout * 1000);
+        }
+        return new HttpComponentsAsyncTransport(httpAsyncClient(), httpClientConfig.getConnectTimeout() * 1000,
+                readTimeout * 1000, httpClientConfig.getPool().getLeaseTimeout());
+    }
+
+    /**
+     * 获取 HTTP/2 传输模块，所有 RestTemplate 与异步请求传输共用
+     *
+     * @return 传输模块，未开启或运行环境不支持时返回 null
+     */
+    private synchronized Http2Transport getHttp2Transport() {
+        if (!http2TransportLoaded) {
+            http2TransportLoaded = true;
+            if (httpClientConfig.isHttp2()) {
+                http2Transport = Http2Transport.load(httpClientConfig.getConnectTimeout() * 1000);
+                if (http2Transport == null) {
+                    log.warn("[HTTP/2] - 当前运行环境不支持 HTTP/2（需要 JDK 11 及以上），使用 HTTP/1.1 连接池");
+                } else {
+                    log.info("[HTTP/2] - 已开启 HTTP/2，同一主机的并发请求复用一个连接；连接池配置与外部 API 的 max-connections 不再生效");
+                }
+            }
+        }
+        return http2Transport;
+    }
+
+    /**
+     * 创建使用共用连接池的 HttpClient，连接池由容器关闭，关闭 HttpClient 时不关闭连接池
+     */
+    private CloseableHttpClient buildHttpClient() {
+        return HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(httpConnectionManager())
+                .setConnectionManagerShared(true)
+                .setKeepAliveStrategy(createKeepAliveStrategy(httpClientConfig.getPool().getKeepAlive()))
+                .build();
+    }
+
+    private void configureRequestFactory(HttpComponentsClientHttpRequestFactory factory, int readTimeout) {
+        int connectTimeout = httpClientConfig.getConnectTimeout();
+        int leaseTimeout = httpClientConfig.getPool().getLeaseTimeout();
+        factory.setReadTimeout(readTimeout * 1000);
+        factory.setConnectTimeout(connectTimeout * 1000);
+        factory.setConnectionRequestTimeout(leaseTimeout);
+        factory.setHttpContextFactory((httpMethod, uri) -> createDeadlineContext(connectTimeout * 1000, readTimeout * 1000, leaseTimeout));
+    }
+
+    /**
+     * 获取外部 API 配置中通过 max-connections 单独配置的各主机最大连接数
+     */
+    private Map<HttpRoute, Integer> getApiMaxConnections() {
+        Map<HttpRoute, Integer> routeMap = new LinkedHashMap<>();
+        Map<String, ApiConfig.ApiDetailsConfig> configMap = apiConfig.getConfig();
+        if (configMap == null) {
+            return routeMap;
+        }
+
+        configMap.forEach((apiName, config) -> {
+            if (config.getMaxConnections() == null || StringUtils.isEmpty(config.getUrl())) {
+                return;
+            }
+            if (config.getMaxConnections() < 1) {
+                throw new IllegalStateException("[HTTP 连接池] - 外部 API [" + apiName + "] 的最大连接数需要大于 0，请检查配置文件");
+            }
+
+            URI uri = URI.create(config.getUrl().trim());
+            boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+            int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+            HttpHost host = new HttpHost(uri.getHost(), port, secure ? "https" : "http");
+            routeMap.put(new HttpRoute(host, null, secure), config.getMaxConnections());
+        });
+        return routeMap;
+    }
+
+    /**
+     * 连接保持时间: 服务端返回了 Keep-Alive 超时时间时取两者中较短的时间
+     *
+     * @param keepAliveMillis 配置的连接保持时间（单位：毫秒），小于等于 0 时按服务端返回的时间
+     */
+    private static ConnectionKeepAliveStrategy createKeepAliveStrategy(long keepAliveMillis) {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            if (keepAliveMillis <= 0) {
+                return duration;
+            }
+            return duration > 0 ? Math.min(duration, keepAliveMillis) : keepAliveMillis;
+        };
+    }
+
+    /**
+     * 按当前请求的剩余时间（默认为当前任务的剩余时间）创建请求配置
+     *
+     * @param connectTimeoutMillis 连接超时时间（单位：毫秒）
+     * @param readTimeoutMillis    读取超时时间（单位：毫秒），0 表示不限制
+     * @param leaseTimeoutMillis   获取连接超时时间（单位：毫秒）
+     * @return 请求上下文，请求没有截止时间时返回 null（使用默认配置）
+     */
+    private HttpContext createDeadlineContext(int connectTimeoutMillis, int readTimeoutMillis, int leaseTimeoutMillis) {
+        long remaining = RequestDeadline.getRemainingMillis();
+        if (remaining < 0) {
+            return null;
+        }
+
+        // 已超时时使用最短超时时间，请求立即失败
+        int timeout = (int) Math.min(Math.max(remaining, 1), Integer.MAX_VALUE);
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(leaseTimeoutMillis <= 0 ? timeout : Math.min(leaseTimeoutMillis, timeout))
+                .setConnectTimeout(connectTimeoutMillis <= 0 ? timeout : Math.min(connectTimeoutMillis, timeout))
+                .setSocketTimeout(readTimeoutMillis <= 0 ? timeout : Math.min(readTimeoutMillis, timeout))
+                .build());
+        return context;
+    }
+}
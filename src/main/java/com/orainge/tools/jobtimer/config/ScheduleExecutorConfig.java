@@ -1,16 +1,35 @@
 package com.orainge.tools.jobtimer.config;
 
+import com.orainge.tools.jobtimer.job.ForkJoinJobBean;
+import com.orainge.tools.jobtimer.job.lane.AdaptivePoolController;
+import com.orainge.tools.jobtimer.job.lane.ExecutorLane;
+import com.orainge.tools.jobtimer.job.lane.ExecutorLanes;
+import com.orainge.tools.jobtimer.job.lane.PriorityTaskQueue;
+import com.orainge.tools.jobtimer.job.metrics.ExecutorMetrics;
+import com.orainge.tools.jobtimer.job.scheduler.HashedWheelTaskScheduler;
+import com.orainge.tools.jobtimer.job.scheduler.InstrumentedTaskScheduler;
+import com.orainge.tools.jobtimer.util.thread.CountingRejectedExecutionHandler;
+import com.orainge.tools.jobtimer.util.thread.SchedulerThreads;
+import com.orainge.tools.jobtimer.util.thread.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
 import javax.annotation.Resource;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * 定时任务多线程配置
@@ -22,9 +41,21 @@ import java.util.concurrent.ThreadPoolExecutor;
 @EnableScheduling
 @ConditionalOnMissingBean({ScheduleExecutorConfig.class})
 public class ScheduleExecutorConfig implements SchedulingConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(ScheduleExecutorConfig.class);
+
     @Resource
     private JobConfig jobConfig;
 
+    /**
+     * 线程池 - 自适应线程数控制器，仅开启自适应线程数的线程池
+     */
+    private final Map<ThreadPoolTaskExecutor, AdaptivePoolController> adaptiveControllers = new IdentityHashMap<>();
+
+    /**
+     * 线程池 - 执行统计
+     */
+    private final Map<ThreadPoolTaskExecutor, ExecutorMetrics> executorMetrics = new IdentityHashMap<>();
+
     @Override
     public void configureTasks(ScheduledTaskRegistrar scheduledTaskRegistrar) {
         //参数传入一个size为10的线程池
@@ -32,16 +63,32 @@ public class ScheduleExecutorConfig implements SchedulingConfigurer {
     }
 
     /**
-     * 定时任务使用的同步线程池
+     * 定时任务使用的调度器<br>
+     * 默认为同步线程池，配置为时间轮时，定时任务由时间轮调度，到期的任务交由异步执行线程池执行
+     * （线程池已满时不在 tick 线程中执行，本次执行被跳过）；
+     * 调度器统计触发延迟与执行耗时
      */
     @Bean(name = "taskScheduler")
-    public ThreadPoolTaskScheduler taskScheduler() {
+    public InstrumentedTaskScheduler taskScheduler() {
         JobConfig.JobSchedulerConfig config = jobConfig.getMultiThread().getScheduler();
-        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        InstrumentedTaskScheduler scheduler;
+        if (config.isWheel()) {
+            scheduler = new InstrumentedTaskScheduler(new HashedWheelTaskScheduler(
+                    config.getThreadNamePrefix() + "wheel",
+                    config.getTickDuration(),
+                    config.getTicksPerWheel(),
+                    config.getWheelLevels(),
+                    asyncExecutor()
+            ));
+        } else {
+            scheduler = new InstrumentedTaskScheduler();
+        }
         scheduler.setThreadNamePrefix(config.getThreadNamePrefix());
         scheduler.setPoolSize(config.getPoolSize());
         scheduler.setWaitForTasksToCompleteOnShutdown(config.isWaitForTasksToCompleteOnShutdown());
         scheduler.setAwaitTerminationSeconds(config.getAwaitTerminationSeconds());
+        // 标记调度线程，用于统计由调度线程执行的 caller-runs 任务
+        scheduler.setThreadFactory(SchedulerThreads.markingThreadFactory(scheduler));
         return scheduler;
     }
 
@@ -50,15 +97,123 @@ public class ScheduleExecutorConfig implements SchedulingConfigurer {
      */
     @Bean(name = "asyncExecutor")
     public ThreadPoolTaskExecutor asyncExecutor() {
-        JobConfig.JobExecutorConfig config = jobConfig.getMultiThread().getExecutor();
+        return buildExecutor(ExecutorLanes.DEFAULT_LANE, jobConfig.getMultiThread().getExecutor());
+    }
+
+    /**
+     * 流式执行时发送进度使用的线程池<br>
+     * 与任务的执行线程池分开，发送任务不占用执行线程池的队列；线程池已满时拒绝（由 SseProgressSink 稍后重试），不在任务线程中发送
+     */
+    @Bean(name = "progressSenderExecutor")
+    public ThreadPoolTaskExecutor progressSenderExecutor() {
+        JobConfig.JobApiConfig apiConfig = jobConfig.getApi();
+        JobConfig.JobStreamConfig config = apiConfig == null ? new JobConfig.JobStreamConfig() : apiConfig.getStream();
+        int threads = Math.max(config.getSenderThreads(), 1);
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("progressSender-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(Math.max(config.getSenderQueueCapacity(), 1));
+        executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler("abort"));
+        return executor;
+    }
+
+    /**
+     * 并行计算任务（ForkJoinJobBean）共用的 ForkJoinPool<br>
+     * 所有并行计算任务的工作线程总数不超过配置的并行度（构造方法中指定并行度的任务除外）
+     */
+    @Bean(name = "forkJoinPool", destroyMethod = "shutdownNow")
+    public ForkJoinPool forkJoinPool() {
+        JobConfig.JobForkJoinConfig config = jobConfig.getMultiThread().getForkJoin();
+        if (config == null) {
+            config = new JobConfig.JobForkJoinConfig();
+        }
+        int parallelism = config.getParallelism() > 0 ? config.getParallelism() : Runtime.getRuntime().availableProcessors();
+        log.info("[定时任务多线程配置] - 并行计算任务共用的 ForkJoinPool 并行度: {}", parallelism);
+        return ForkJoinJobBean.newPool(config.getThreadNamePrefix(), parallelism);
+    }
+
+    /**
+     * 定时任务执行通道<br>
+     * 默认通道使用异步执行线程池，其他通道各自使用独立的线程池；使用虚拟线程的通道（默认通道除外）不创建线程池
+     */
+    @Bean(name = "executorLanes")
+    public ExecutorLanes executorLanes() {
+        List<ExecutorLane> lanes = new ArrayList<>();
+        Map<String, JobConfig.JobExecutorConfig> laneConfigs = jobConfig.getMultiThread().getLanes();
+        if (laneConfigs != null) {
+            laneConfigs.forEach((laneName, laneConfig) -> lanes.add(buildLane(laneName, laneConfig, null)));
+        }
+        JobConfig.JobExecutorConfig defaultConfig = jobConfig.getMultiThread().getExecutor();
+        return new ExecutorLanes(buildLane(ExecutorLanes.DEFAULT_LANE, defaultConfig, asyncExecutor()), lanes);
+    }
+
+    /**
+     * 创建执行通道
+     *
+     * @param executor 通道线程池，为 null 时按配置创建（使用虚拟线程时不创建）
+     */
+    private ExecutorLane buildLane(String laneName, JobConfig.JobExecutorConfig config, ThreadPoolTaskExecutor executor) {
+        if (config.isVirtual()) {
+            ExecutorService virtualExecutor = VirtualThreads.newThreadPerTaskExecutor(config.getThreadNamePrefix());
+            if (virtualExecutor != null) {
+                log.info("[定时任务多线程配置] - 执行通道 [{}] 使用虚拟线程执行，同时执行的任务数上限: {}，拒绝策略: {}",
+                        laneName, config.getMaxPoolSize(), config.getRejectionPolicy());
+                if (config.isPriorityQueue() || (config.getAdaptive() != null && config.getAdaptive().isEnable())) {
+                    log.warn("[定时任务多线程配置] - 执行通道 [{}] 使用虚拟线程执行，没有排队队列，queue-type 与 adaptive 配置不生效", laneName);
+                }
+                return new ExecutorLane(laneName, executor, virtualExecutor, config.getMaxPoolSize(),
+                        new CountingRejectedExecutionHandler(config.getRejectionPolicy()),
+                        adaptiveControllers.get(executor), new ExecutorMetrics());
+            }
+            log.warn("[定时任务多线程配置] - 当前 JVM 不支持虚拟线程，执行通道 [{}] 使用线程池执行", laneName);
+        }
+
+        if (executor == null) {
+            executor = buildExecutor(laneName, config);
+        }
+        return new ExecutorLane(laneName, executor, adaptiveControllers.get(executor), executorMetrics.get(executor));
+    }
+
+    private ThreadPoolTaskExecutor buildExecutor(String name, JobConfig.JobExecutorConfig config) {
+        ThreadPoolTaskExecutor executor;
+        if (config.isPriorityQueue()) {
+            // 使用优先级队列替换先进先出队列
+            executor = new ThreadPoolTaskExecutor() {
+                @Override
+                protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+                    return new PriorityTaskQueue(queueCapacity, config.getAgingMillis());
+                }
+            };
+        } else {
+            executor = new ThreadPoolTaskExecutor();
+        }
         executor.setThreadNamePrefix(config.getThreadNamePrefix());
         executor.setMaxPoolSize(config.getMaxPoolSize());
         executor.setCorePoolSize(config.getCorePoolSize());
         executor.setQueueCapacity(config.getQueueCapacity());
         executor.setKeepAliveSeconds(config.getKeepAliveSeconds());
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(config.getRejectionPolicy()));
+
+        // 包装任务以统计排队时间与执行耗时
+        ExecutorMetrics metrics = new ExecutorMetrics();
+        TaskDecorator taskDecorator = metrics.getTaskDecorator();
+
+        // 自适应线程数: 在执行统计之外再包装一层，初始化后开始定时调整
+        AdaptivePoolController adaptiveController = null;
+        if (config.getAdaptive() != null && config.getAdaptive().isEnable()) {
+            adaptiveController = new AdaptivePoolController(name, executor, config.getAdaptive());
+            TaskDecorator metricsDecorator = taskDecorator;
+            TaskDecorator adaptiveDecorator = adaptiveController.getTaskDecorator();
+            taskDecorator = task -> adaptiveDecorator.decorate(metricsDecorator.decorate(task));
+        }
+        executor.setTaskDecorator(taskDecorator);
         executor.initialize();
+        executorMetrics.put(executor, metrics);
+        if (adaptiveController != null) {
+            adaptiveController.start();
+            adaptiveControllers.put(executor, adaptiveController);
+        }
         return executor;
     }
 }
\ No newline at end of file
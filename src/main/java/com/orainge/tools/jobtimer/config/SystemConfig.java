@@ -14,6 +14,8 @@ import org.springframework.context.annotation.Configuration;
 public class SystemConfig {
     private CheckAliveApiConfig checkAliveApi;
 
+    private MonitorApiConfig monitorApi;
+
     public CheckAliveApiConfig getCheckAliveApi() {
         return checkAliveApi;
     }
@@ -22,6 +24,14 @@ public class SystemConfig {
         this.checkAliveApi = checkAliveApi;
     }
 
+    public MonitorApiConfig getMonitorApi() {
+        return monitorApi;
+    }
+
+    public void setMonitorApi(MonitorApiConfig monitorApi) {
+        this.monitorApi = monitorApi;
+    }
+
     public static class CheckAliveApiConfig {
         private boolean enable;
 
@@ -33,4 +43,16 @@ public class SystemConfig {
             this.enable = enable;
         }
     }
-}
+
+    public static class MonitorApiConfig {
+        private boolean enable;
+
+        public boolean isEnable() {
+            return enable;
+        }
+
+        public void setEnable(boolean enable) {
+            this.enable = enable;
+        }
+    }
+}
\ No newline at end of file
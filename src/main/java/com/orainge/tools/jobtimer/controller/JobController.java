@@ -1,26 +1,55 @@
 package com.orainge.tools.jobtimer.controller;
 
 import com.orainge.tools.jobtimer.config.JobConfig;
+import com.orainge.tools.jobtimer.job.JobBatch;
+import com.orainge.tools.jobtimer.job.JobDefinition;
 import com.orainge.tools.jobtimer.job.JobManager;
+import com.orainge.tools.jobtimer.job.JobRegistry;
+import com.orainge.tools.jobtimer.job.Workflow;
+import com.orainge.tools.jobtimer.job.WorkflowManager;
+import com.orainge.tools.jobtimer.job.execution.ExecutionTable;
+import com.orainge.tools.jobtimer.job.execution.JobExecution;
+import com.orainge.tools.jobtimer.job.progress.SseProgressSink;
+import com.orainge.tools.jobtimer.job.ratelimit.ApiRateLimiter;
+import com.orainge.tools.jobtimer.job.singleflight.SingleFlightExecutor;
 import com.orainge.tools.jobtimer.util.JSONUtils;
+import com.orainge.tools.jobtimer.vo.BatchRequest;
 import com.orainge.tools.jobtimer.vo.JobResult;
 import com.orainge.tools.jobtimer.vo.Result;
+import com.orainge.tools.jobtimer.vo.WorkflowResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 手动执行定时任务 Controller
@@ -39,6 +68,38 @@ public class JobController {
     @Resource
     private JobConfig jobConfig;
 
+    @Resource
+    private JobRegistry jobRegistry;
+
+    @Resource
+    private WorkflowManager workflowManager;
+
+    @Resource
+    private JobManager jobManager;
+
+    @Resource
+    private ExecutionTable executionTable;
+
+    @Resource
+    private ApiRateLimiter apiRateLimiter;
+
+    @Resource
+    private SingleFlightExecutor singleFlightExecutor;
+
+    /**
+     * 流式执行时发送进度使用的线程池
+     */
+    @Resource
+    @Qualifier("progressSenderExecutor")
+    private ThreadPoolTaskExecutor progressSenderExecutor;
+
+    /**
+     * 发送进度的线程池已满时，用于稍后重试的调度器
+     */
+    @Resource
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+
     private String token;
 
     /**
@@ -47,15 +108,17 @@ public class JobController {
     private static final String apiPrefix = "/job";
 
     /**
-     * 访问地址 URL - 任务名键值对
+     * 流式执行任务 API 前缀配置
      */
-    private final Map<String, String> jobTaskUrls = new HashMap<>();
+    private static final String streamPrefix = apiPrefix + "/stream";
+
+    /**
+     * 幂等键请求头
+     */
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     @PostConstruct
     public void init() {
-        // 获取配置 URL
-        jobConfig.getApi().getUrl().forEach((key, value) -> jobTaskUrls.put(value, key));
-
         // 配置 token
         token = jobConfig.getApi().getToken();
     }
@@ -64,14 +127,15 @@ public class JobController {
     @ResponseBody
     public Result task(HttpServletRequest request,
                        HttpServletResponse response,
-                       @RequestParam(value = "token", required = false) String token) {
+                       @RequestParam(value = "token", required = false) String token,
+                       @RequestParam(value = "async", defaultValue = "false") boolean async) {
         // 检查是否有 token
         if (StringUtils.isEmpty(token) || !this.token.equals(token)) {
             return Result.forbidden().setMessage("无权限访问");
         }
 
         try {
-            if (jobTaskUrls.isEmpty()) {
+            if (!jobRegistry.hasUrls()) {
                 // 路径配置文件为空，返回 404
                 response.setStatus(HttpStatus.NOT_FOUND.value());
                 return Result.notFound();
@@ -80,16 +144,28 @@ public class JobController {
                 String requestUri = request.getRequestURI();
                 requestUri = requestUri.substring(requestUri.indexOf(apiPrefix) + apiPrefix.length());
 
-                String jobName = jobTaskUrls.get(requestUri);
-                if (StringUtils.isEmpty(jobName)) {
+                JobDefinition definition = jobRegistry.getJobByUrl(requestUri);
+                if (definition == null) {
                     // 路径不正确，返回 404
                     response.setStatus(HttpStatus.NOT_FOUND.value());
                     return Result.notFound();
+                }
+
+                // 检查限流
+                Result limited = checkRateLimit(response, token, definition.getName(), 1);
+                if (limited != null) {
+                    return limited;
+                } else if (async) {
+                    // 异步执行任务，立即返回执行 ID
+                    // 请求结束后参数 Map 会被容器回收，需要复制一份
+                    return submit(definition, new HashMap<>(request.getParameterMap()), response);
                 } else {
                     // 执行任务
                     // 获取参数
                     Map<String, String[]> requestParam = request.getParameterMap();
-                    JobResult execResult = JobManager.execute(jobName, requestParam);
+                    JobResult execResult = singleFlightExecutor.isEnable()
+                            ? singleFlightExecutor.execute(definition, requestParam, request.getHeader(IDEMPOTENCY_KEY_HEADER))
+                            : JobManager.execute(definition, requestParam);
 
                     // 返回结果
                     log.info("[任务 API 控制器] - 任务通过 API 执行完成: {}", jsonUtils.toJSONString(execResult));
@@ -102,4 +178,312 @@ public class JobController {
             return Result.error().setMessage("任务通过 API 执行失败" + ": " + e.getMessage());
         }
     }
+
+    /**
+     * 检查 token 与任务的限流，被限流时返回 429 并设置 Retry-After
+     *
+     * @param token   调用的 token，null 表示不检查 token 限流
+     * @param jobName 任务名称，null 表示不检查任务限流
+     * @param permits 请求数
+     * @return 被限流时返回错误结果，否则返回 null
+     */
+    private Result checkRateLimit(HttpServletResponse response, String token, String jobName, int permits) {
+        long wait = token == null ? 0 : apiRateLimiter.tryAcquireToken(token, permits);
+        if (wait == 0 && jobName != null) {
+            wait = apiRateLimiter.tryAcquireJob(jobName, permits);
+            if (wait > 0 && token != null) {
+                // 任务被限流时归还 token 的令牌
+                apiRateLimiter.releaseToken(token, permits);
+            }
+        }
+        return wait == 0 ? null : tooManyRequests(response, wait);
+    }
+
+    /**
+     * 检查批量执行的限流，token 按任务数计请求数，每个任务按出现的次数计请求数<br>
+     * 所有限流器都通过时才占用令牌，任一限流器拒绝时归还已获取的令牌
+     *
+     * @param token      调用的 token
+     * @param jobPermits 任务名称 - 请求数
+     * @return 被限流时返回错误结果，否则返回 null
+     */
+    private Result checkBatchRateLimit(HttpServletResponse response, String token, Map<String, Integer> jobPermits) {
+        int permits = jobPermits.values().stream().mapToInt(Integer::intValue).sum();
+        long wait = apiRateLimiter.tryAcquireToken(token, permits);
+        if (wait > 0) {
+            return tooManyRequests(response, wait);
+        }
+
+        List<Map.Entry<String, Integer>> acquired = new ArrayList<>(jobPermits.size());
+        for (Map.Entry<String, Integer> entry : jobPermits.entrySet()) {
+            wait = apiRateLimiter.tryAcquireJob(entry.getKey(), entry.getValue());
+            if (wait > 0) {
+                for (Map.Entry<String, Integer> acquiredEntry : acquired) {
+                    apiRateLimiter.releaseJob(acquiredEntry.getKey(), acquiredEntry.getValue());
+                }
+                apiRateLimiter.releaseToken(token, permits);
+                return tooManyRequests(response, wait);
+            }
+            acquired.add(entry);
+        }
+        return null;
+    }
+
+    /**
+     * 返回 429 并设置 Retry-After
+     *
+     * @param wait 需要等待的时间（单位：纳秒）
+     */
+    private Result tooManyRequests(HttpServletResponse response, long wait) {
+        long retryAfter = Math.max(TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1), 1);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        return Result.build(HttpStatus.TOO_MANY_REQUESTS).setMessage("请求过于频繁，请 " + retryAfter + " 秒后重试");
+    }
+
+    /**
+     * 提交任务异步执行
+     */
+    private Result submit(JobDefinition definition, Map<String, String[]> requestParam, HttpServletResponse response) {
+        JobExecution execution = executionTable.create(definition.getName());
+        try {
+            JobManager.submit(definition, requestParam, execution);
+        } catch (RejectedExecutionException e) {
+            execution.finish(null);
+            log.warn("[任务 API 控制器] - 任务 [{}] 提交失败，执行通道已满", definition.getName());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return Result.build(HttpStatus.SERVICE_UNAVAILABLE).setMessage("任务提交失败，执行通道已满").setData(execution);
+        }
+
+        log.info("[任务 API 控制器] - 任务 [{}] 已通过 API 提交异步执行，执行 ID: {}", definition.getName(), execution.getExecutionId());
+        response.setStatus(HttpStatus.ACCEPTED.value());
+        return Result.build(HttpStatus.ACCEPTED).setMessage("任务已提交").setData(execution);
+    }
+
+    @GetMapping(streamPrefix + "/*")
+    public SseEmitter stream(HttpServletRequest request,
+                             HttpServletResponse response,
+                             @RequestParam(value = "token", required = false) String token) {
+        JobConfig.JobStreamConfig streamConfig = jobConfig.getApi().getStream();
+        SseEmitter emitter = new SseEmitter(streamConfig.getTimeout());
+
+        // 检查是否有 token
+        if (StringUtils.isEmpty(token) || !this.token.equals(token)) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return reject(emitter, Result.forbidden().setMessage("无权限访问"));
+        }
+
+        // 获取访问地址
+        String requestUri = request.getRequestURI();
+        requestUri = requestUri.substring(requestUri.indexOf(streamPrefix) + streamPrefix.length());
+        JobDefinition definition = jobRegistry.getJobByUrl(requestUri);
+        if (definition == null) {
+            // 路径不正确，返回 404
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return reject(emitter, Result.notFound());
+        }
+
+        // 检查限流
+        Result limited = checkRateLimit(response, token, definition.getName(), 1);
+        if (limited != null) {
+            return reject(emitter, limited);
+        }
+
+        // 执行任务，请求结束后参数 Map 会被容器回收，需要复制一份
+        SseProgressSink sink = new SseProgressSink(emitter, progressSenderExecutor, taskScheduler, streamConfig.getBufferSize());
+        try {
+            JobManager.stream(definition, new HashMap<>(request.getParameterMap()), sink);
+        } catch (RejectedExecutionException e) {
+            log.warn("[任务 API 控制器] - 任务 [{}] 提交失败，执行通道已满", definition.getName());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return reject(emitter, Result.build(HttpStatus.SERVICE_UNAVAILABLE).setMessage("任务提交失败，执行通道已满"));
+        }
+
+        log.info("[任务 API 控制器] - 任务 [{}] 已通过 API 开始流式执行", definition.getName());
+        return emitter;
+    }
+
+    /**
+     * 发送错误结果并关闭连接
+     */
+    private SseEmitter reject(SseEmitter emitter, Result result) {
+        try {
+            emitter.send(SseEmitter.event().name(SseProgressSink.EVENT_RESULT).data(result, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @GetMapping(apiPrefix + "/execution/{executionId}")
+    @ResponseBody
+    public Result execution(HttpServletResponse response,
+                            @PathVariable("executionId") String executionId,
+                            @RequestParam(value = "token", required = false) String token) {
+        // 检查是否有 token
+        if (StringUtils.isEmpty(token) || !this.token.equals(token)) {
+            return Result.forbidden().setMessage("无权限访问");
+        }
+
+        JobExecution execution = executionTable.get(executionId);
+        if (execution == null) {
+            // 执行记录不存在或已过期，返回 404
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return Result.notFound();
+        }
+        return Result.ok().setData(execution);
+    }
+
+    @PostMapping(apiPrefix + "/batch")
+    @ResponseBody
+    public CompletableFuture<Result> batch(HttpServletResponse response,
+                                           @RequestParam(value = "token", required = false) String token,
+                                           @RequestBody BatchRequest batchRequest) {
+        // 检查是否有 token
+        if (StringUtils.isEmpty(token) || !this.token.equals(token)) {
+            return CompletableFuture.completedFuture(Result.forbidden().setMessage("无权限访问"));
+        }
+
+        JobConfig.JobBatchConfig batchConfig = jobConfig.getApi().getBatch();
+        List<BatchRequest.BatchJob> jobs = batchRequest.getJobs();
+        if (jobs == null || jobs.isEmpty() || jobs.size() > batchConfig.getMaxSize()) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return CompletableFuture.completedFuture(Result.build(HttpStatus.BAD_REQUEST)
+                    .setMessage("任务数应为 1 - " + batchConfig.getMaxSize() + " 个"));
+        }
+
+        List<JobDefinition> definitions = new ArrayList<>(jobs.size());
+        List<Map<String, String[]>> execParams = new ArrayList<>(jobs.size());
+        for (BatchRequest.BatchJob job : jobs) {
+            JobDefinition definition = jobRegistry.getJob(job.getJob());
+            if (definition == null || definition.getUrl() == null) {
+                // 任务不存在或未配置 API 路径（与单个任务执行相同，不允许通过 API 执行），返回 404
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return CompletableFuture.completedFuture(Result.notFound().setMessage("任务 [" + job.getJob() + "] 不存在"));
+            }
+            definitions.add(definition);
+
+            Map<String, String[]> execParam = new HashMap<>();
+            if (job.getParams() != null) {
+                job.getParams().forEach((key, values) -> execParam.put(key, values == null ? new String[0] : values.toArray(new String[0])));
+            }
+            execParams.add(execParam);
+        }
+
+        // 检查限流，每个任务计一次请求
+        Map<String, Integer> jobPermits = new LinkedHashMap<>();
+        for (JobDefinition definition : definitions) {
+            jobPermits.merge(definition.getName(), 1, Integer::sum);
+        }
+        Result limited = checkBatchRateLimit(response, token, jobPermits);
+        if (limited != null) {
+            return CompletableFuture.completedFuture(limited);
+        }
+
+        int parallel = batchConfig.getMaxParallel();
+        if (batchRequest.getParallel() != null && batchRequest.getParallel() > 0) {
+            parallel = Math.min(parallel, batchRequest.getParallel());
+        }
+
+        // 批量执行，执行期间不占用请求线程
+        return JobBatch.start(definitions, execParams, parallel).thenApply(execResult -> {
+            log.info("[任务 API 控制器] - 任务通过 API 批量执行完成: {}", jsonUtils.toJSONString(execResult));
+            return Result.ok().setMessage("任务通过 API 批量执行完成").setData(execResult);
+        });
+    }
+
+    @GetMapping(apiPrefix + "/schedule")
+    @ResponseBody
+    public Result schedules(@RequestParam(value = "token", required = false) String token) {
+        // 检查是否有 token
+        if (StringUtils.isEmpty(token) || !this.token.equals(token)) {
+            return Result.forbidden().setMessage("无权限访问");
+        }
+
+        return Result.ok().setData(jobManager.getSchedules());
+    }
+
+    @PostMapping(apiPrefix + "/schedule/{jobName}")
+    @ResponseBody
+    public Result schedule(HttpServletResponse response,
+                           @PathVariable("jobName") String jobName,
+                           @RequestParam(value = "token", required = false) String token,
+                           @RequestParam(value = "cron", required = false) String cron) {
+        // 检查是否有 token
+        if (StringUtils.isEmpty(token) || !this.token.equals(token)) {
+            return Result.forbidden().setMessage("无权限访问");
+        }
+
+        try {
+            jobManager.schedule(jobName, cron);
+            log.info("[任务 API 控制器] - 任务 [{}] 的定时配置已通过 API 修改为: {}", jobName, cron);
+            return Result.ok().setMessage("定时配置已修改").setData(jobManager.getSchedules());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return Result.build(HttpStatus.BAD_REQUEST).setMessage("定时配置修改失败: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping(apiPrefix + "/schedule/{jobName}")
+    @ResponseBody
+    public Result unschedule(HttpServletResponse response,
+                             @PathVariable("jobName") String jobName,
+                             @RequestParam(value = "token", required = false) String token) {
+        // 检查是否有 token
+        if (StringUtils.isEmpty(token) || !this.token.equals(token)) {
+            return Result.forbidden().setMessage("无权限访问");
+        }
+
+        try {
+            if (!jobManager.unschedule(jobName)) {
+                // 任务没有定时配置，返回 404
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return Result.notFound();
+            }
+            log.info("[任务 API 控制器] - 任务 [{}] 的定时配置已通过 API 取消", jobName);
+            return Result.ok().setMessage("定时配置已取消").setData(jobManager.getSchedules());
+        } catch (IllegalStateException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return Result.build(HttpStatus.BAD_REQUEST).setMessage("定时配置取消失败: " + e.getMessage());
+        }
+    }
+
+    @GetMapping(apiPrefix + "/workflow/{workflowName}")
+    @ResponseBody
+    public Result workflow(HttpServletRequest request,
+                           HttpServletResponse response,
+                           @PathVariable("workflowName") String workflowName,
+                           @RequestParam(value = "token", required = false) String token) {
+        // 检查是否有 token
+        if (StringUtils.isEmpty(token) || !this.token.equals(token)) {
+            return Result.forbidden().setMessage("无权限访问");
+        }
+
+        Workflow workflow = workflowManager.getWorkflow(workflowName);
+        if (workflow == null) {
+            // 工作流不存在，返回 404
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return Result.notFound();
+        }
+
+        // 检查限流
+        Result limited = checkRateLimit(response, token, null, 1);
+        if (limited != null) {
+            return limited;
+        }
+
+        try {
+            // 执行工作流
+            WorkflowResult execResult = workflowManager.execute(workflow, request.getParameterMap());
+
+            // 返回结果
+            log.info("[任务 API 控制器] - 工作流通过 API 执行完成: {}", jsonUtils.toJSONString(execResult));
+            return Result.ok().setMessage("工作流通过 API 执行完成").setData(execResult);
+        } catch (Exception e) {
+            log.error("[任务 API 控制器] - 工作流通过 API 执行失败", e);
+            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            return Result.error().setMessage("工作流通过 API 执行失败" + ": " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package com.orainge.tools.jobtimer.controller;
+
+import com.orainge.tools.jobtimer.config.SystemConfig;
+import com.orainge.tools.jobtimer.job.JobDefinition;
+import com.orainge.tools.jobtimer.job.JobRegistry;
+import com.orainge.tools.jobtimer.job.lane.ExecutorLane;
+import com.orainge.tools.jobtimer.job.lane.ExecutorLanes;
+import com.orainge.tools.jobtimer.job.ratelimit.ApiRateLimiter;
+import com.orainge.tools.jobtimer.job.scheduler.InstrumentedTaskScheduler;
+import com.orainge.tools.jobtimer.util.http.InstrumentedConnectionManager;
+import com.orainge.tools.jobtimer.vo.ExecutorsStatus;
+import com.orainge.tools.jobtimer.vo.JobStatus;
+import com.orainge.tools.jobtimer.vo.LaneStatus;
+import com.orainge.tools.jobtimer.vo.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 系统运行状态监控 Controller
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Controller
+@ConditionalOnMissingBean({MonitorController.class})
+public class MonitorController {
+    private static final Logger log = LoggerFactory.getLogger(MonitorController.class);
+
+    /**
+     * 监控 API 前缀配置
+     */
+    private static final String apiPrefix = "/monitor";
+
+    @Resource
+    private SystemConfig systemConfig;
+
+    @Resource
+    private ExecutorLanes executorLanes;
+
+    @Resource
+    private JobRegistry jobRegistry;
+
+    @Resource
+    private ApiRateLimiter apiRateLimiter;
+
+    @Resource(name = "taskScheduler")
+    private InstrumentedTaskScheduler taskScheduler;
+
+    /**
+     * HTTP 连接池（自定义 RestTemplate 配置时可能不存在）
+     */
+    @Autowired
+    private ObjectProvider<InstrumentedConnectionManager> httpConnectionManagers;
+
+    private boolean enable = false;
+
+    @PostConstruct
+    public void init() {
+        enable = systemConfig.getMonitorApi() != null && systemConfig.getMonitorApi().isEnable();
+
+        if (enable) {
+            log.info("[系统运行状态监控 API] - 已开启");
+        } else {
+            log.info("[系统运行状态监控 API] - 已关闭");
+        }
+    }
+
+    /**
+     * 获取各执行通道的运行状态
+     */
+    @GetMapping(apiPrefix + "/lanes")
+    @ResponseBody
+    public Result lanes(HttpServletResponse response) {
+        if (!enable) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return null;
+        }
+
+        List<LaneStatus> statusList = new ArrayList<>();
+        for (ExecutorLane lane : executorLanes.getLanes()) {
+            statusList.add(lane.getStatus());
+        }
+        return Result.ok().setData(statusList);
+    }
+
+    /**
+     * 获取调度器与异步执行线程池的运行状态<br>
+     * 包括队列中的任务数、正在执行任务的线程数、任务排队时间与执行耗时、caller-runs 执行次数以及调度器的触发延迟
+     */
+    @GetMapping(apiPrefix + "/executors")
+    @ResponseBody
+    public Result executors(HttpServletResponse response) {
+        if (!enable) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return null;
+        }
+
+        ExecutorsStatus status = new ExecutorsStatus();
+        status.setTaskScheduler(taskScheduler.getStatus());
+        status.setAsyncExecutor(executorLanes.getDefaultLane().getStatus());
+        return Result.ok().setData(status);
+    }
+
+    /**
+     * 获取各任务的执行统计
+     */
+    @GetMapping(apiPrefix + "/jobs")
+    @ResponseBody
+    public Result jobs(HttpServletResponse response) {
+        if (!enable) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return null;
+        }
+
+        List<JobStatus> statusList = new ArrayList<>();
+        for (JobDefinition definition : jobRegistry.getJobs()) {
+            statusList.add(definition.getStatus());
+        }
+        return Result.ok().setData(statusList);
+    }
+
+    /**
+     * 获取任务 API 各限流器的统计
+     */
+    @GetMapping(apiPrefix + "/rateLimits")
+    @ResponseBody
+    public Result rateLimits(HttpServletResponse response) {
+        if (!enable) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return null;
+        }
+
+        return Result.ok().setData(apiRateLimiter.getStatus());
+    }
+
+    /**
+     * 获取 HTTP 连接池的运行状态
+     */
+    @GetMapping(apiPrefix + "/httpPool")
+    @ResponseBody
+    public Result httpPool(HttpServletResponse response) {
+        InstrumentedConnectionManager connectionManager = httpConnectionManagers.getIfAvailable();
+        if (!enable || connectionManager == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return null;
+        }
+
+        return Result.ok().setData(connectionManager.getStatus());
+    }
+}
@@ -0,0 +1,80 @@
+package com.orainge.tools.jobtimer.job;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务执行超时监控<br>
+ * 到达截止时间时中断执行任务的线程（协作式取消: 任务需要响应中断，或通过 JobContext.isTimedOut() 检查）；
+ * 执行结束时取消监控，并清除超时产生的中断标记，避免影响该线程执行的下一个任务
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+final class DeadlineWatchdog {
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private DeadlineWatchdog() {
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "jobTimerDeadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * 按上下文的截止时间监控当前线程
+     *
+     * @param context 任务执行上下文（需要已设置截止时间）
+     * @return 监控，执行结束时需要调用 close
+     */
+    static Watch watch(JobContext context) {
+        Watch watch = new Watch(Thread.currentThread());
+        long delay = context.getDeadline() - System.nanoTime();
+        watch.future = TIMER.schedule(watch::timeout, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+        return watch;
+    }
+
+    static final class Watch {
+        private final Thread thread;
+        private ScheduledFuture<?> future;
+        private boolean running = true;
+        private boolean timedOut;
+
+        private Watch(Thread thread) {
+            this.thread = thread;
+        }
+
+        private synchronized void timeout() {
+            if (running) {
+                timedOut = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * 结束监控，需要在被监控的线程中调用
+         *
+         * @return 是否已超时
+         */
+        boolean close() {
+            boolean result;
+            synchronized (this) {
+                running = false;
+                future.cancel(false);
+                result = timedOut;
+            }
+            if (result) {
+                // 清除超时产生的中断标记
+                Thread.interrupted();
+            }
+            return result;
+        }
+    }
+}
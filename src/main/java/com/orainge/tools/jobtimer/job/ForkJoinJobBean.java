@@ -0,0 +1,283 @@
+package com.orainge.tools.jobtimer.job;
+
+import com.orainge.tools.jobtimer.vo.JobResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并行计算任务抽象类<br>
+ * 基于 ForkJoinPool 实现: 任务声明如何拆分输入（split）、如何处理不再拆分的输入（executeLeaf）、如何合并结果（merge），
+ * 由框架负责工作窃取、并行度限制与取消<br>
+ * 默认所有并行计算任务共用一个 ForkJoinPool（由 JobRegistry 设置，并行度见 job-timer.job.multi-thread.fork-join），
+ * 构造方法中指定并行度时使用独立的 ForkJoinPool<br>
+ * 适用于 CPU 密集型任务；需要等待 IO 的任务建议使用 ShardedJobBean
+ *
+ * @param <T> 输入类型
+ * @author orainge
+ * @since 2021/9/1
+ */
+public abstract class ForkJoinJobBean<T> extends JobBean implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ForkJoinJobBean.class);
+
+    /**
+     * 当前工作线程正在处理的执行
+     */
+    private static final ThreadLocal<Execution> CURRENT_EXECUTION = new ThreadLocal<>();
+
+    /**
+     * 独立的 ForkJoinPool，使用共用的 ForkJoinPool 时为 null
+     */
+    private final ForkJoinPool ownPool;
+
+    /**
+     * 共用的 ForkJoinPool，由 JobRegistry 设置
+     */
+    private volatile ForkJoinPool sharedPool;
+
+    /**
+     * 正在执行的任务
+     */
+    private final Set<Execution> executions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 使用共用的 ForkJoinPool
+     */
+    public ForkJoinJobBean(String name, String description) {
+        super(name, description);
+        this.ownPool = null;
+    }
+
+    /**
+     * 使用独立的 ForkJoinPool
+     *
+     * @param parallelism 并行度（独立 ForkJoinPool 的工作线程数）
+     */
+    public ForkJoinJobBean(String name, String description, int parallelism) {
+        super(name, description);
+        this.ownPool = newPool(getName() + "-forkJoin-", Math.max(parallelism, 1));
+    }
+
+    /**
+     * 创建 ForkJoinPool
+     *
+     * @param threadNamePrefix 线程名称前缀，线程名称为 前缀 + 序号
+     * @param parallelism      并行度
+     */
+    public static ForkJoinPool newPool(String threadNamePrefix, int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(threadNamePrefix + threadCount.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    void bind(ForkJoinPool sharedPool) {
+        this.sharedPool = sharedPool;
+    }
+
+    /**
+     * 获取执行使用的 ForkJoinPool<br>
+     * 未指定并行度且未注册到 JobRegistry 时使用 ForkJoinPool.commonPool()
+     */
+    private ForkJoinPool getPool() {
+        if (ownPool != null) {
+            return ownPool;
+        }
+        ForkJoinPool pool = sharedPool;
+        return pool == null ? ForkJoinPool.commonPool() : pool;
+    }
+
+    public int getParallelism() {
+        return getPool().getParallelism();
+    }
+
+    /**
+     * 根据执行参数创建输入
+     *
+     * @param execParam 执行参数
+     * @return 输入
+     */
+    protected abstract T createInput(Map<String, String[]> execParam);
+
+    /**
+     * 拆分输入
+     *
+     * @param input 输入
+     * @return 拆分后的输入，返回 null 或少于 2 个元素时不再拆分，交给 executeLeaf 处理
+     */
+    protected abstract List<T> split(T input);
+
+    /**
+     * 处理不再拆分的输入<br>
+     * 需要重写具体的执行方法
+     *
+     * @param input     输入
+     * @param execParam 执行参数
+     * @return 执行结果
+     */
+    protected abstract JobResult executeLeaf(T input, Map<String, String[]> execParam);
+
+    /**
+     * 合并执行结果，可重写以自定义合并方式<br>
+     * 默认: 全部成功时成功; message 取第一个失败结果的 message，全部成功时取第一个结果的 message; messageDescription 按顺序合并
+     *
+     * @param results 拆分后各部分的执行结果（与 split 返回的顺序一致）
+     * @return 合并后的执行结果
+     */
+    protected JobResult merge(List<JobResult> results) {
+        JobResult merged = JobResult.success();
+        String firstMessage = null;
+        String failMessage = null;
+        for (JobResult result : results) {
+            if (result == null) {
+                continue;
+            }
+            if (firstMessage == null) {
+                firstMessage = result.getMessage();
+            }
+            if (!result.isSuccess()) {
+                merged.setSuccess(false);
+                if (failMessage == null) {
+                    failMessage = result.getMessage();
+                }
+            }
+            if (result.getMessageDescription() != null) {
+                merged.addMessageDescription(result.getMessageDescription());
+            }
+        }
+        return merged.setMessage(merged.isSuccess() ? firstMessage : failMessage);
+    }
+
+    @Override
+    public final JobResult doExecute(Map<String, String[]> execParam) {
+        Execution execution = new Execution(execParam, JobContext.current());
+        executions.add(execution);
+        ForkJoinTask<JobResult> task = getPool().submit(new SplitTask(execution, createInput(execParam)));
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            // 执行线程被中断时取消所有未开始的部分
+            execution.cancel();
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            return JobResult.fail().setMessage("任务已取消");
+        } catch (CancellationException e) {
+            return JobResult.fail().setMessage("任务已取消");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executions.remove(execution);
+        }
+    }
+
+    /**
+     * 取消正在执行的任务<br>
+     * 尚未开始的部分不再执行；已开始的 executeLeaf 可通过 isCancelled() 检查后提前结束
+     */
+    public void cancel() {
+        for (Execution execution : executions) {
+            execution.cancel();
+        }
+    }
+
+    /**
+     * 当前线程所属的执行是否已被取消，在 executeLeaf 中调用
+     */
+    protected boolean isCancelled() {
+        Execution execution = CURRENT_EXECUTION.get();
+        return execution != null && execution.cancelled;
+    }
+
+    @Override
+    public void destroy() {
+        cancel();
+        if (ownPool != null) {
+            ownPool.shutdownNow();
+        }
+    }
+
+    /**
+     * 一次执行的共享状态
+     */
+    private static class Execution {
+        private final Map<String, String[]> execParam;
+        private final JobContext context;
+        private volatile boolean cancelled;
+
+        private Execution(Map<String, String[]> execParam, JobContext context) {
+            this.execParam = execParam;
+            this.context = context;
+        }
+
+        private void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * 拆分或处理一部分输入
+     */
+    private class SplitTask extends RecursiveTask<JobResult> {
+        private final Execution execution;
+        private final T input;
+
+        private SplitTask(Execution execution, T input) {
+            this.execution = execution;
+            this.input = input;
+        }
+
+        @Override
+        protected JobResult compute() {
+            if (execution.cancelled) {
+                return JobResult.fail().setMessage("任务已取消");
+            }
+
+            List<T> parts = split(input);
+            if (parts == null || parts.size() < 2) {
+                return computeLeaf();
+            }
+
+            List<SplitTask> subtasks = new ArrayList<>(parts.size());
+            for (T part : parts) {
+                subtasks.add(new SplitTask(execution, part));
+            }
+            invokeAll(subtasks);
+
+            List<JobResult> results = new ArrayList<>(subtasks.size());
+            for (SplitTask subtask : subtasks) {
+                results.add(subtask.join());
+            }
+            return merge(results);
+        }
+
+        private JobResult computeLeaf() {
+            // 工作线程上绑定发起执行的任务上下文
+            JobContext previous = execution.context == null ? null : JobContext.bind(execution.context);
+            CURRENT_EXECUTION.set(execution);
+            try {
+                return executeLeaf(input, execution.execParam);
+            } catch (Exception e) {
+                log.error("[" + getName() + "] - " + getDescription() + ": 并行执行出错", e);
+                return JobResult.fail().setMessage("并行执行出错: " + e.getMessage());
+            } finally {
+                CURRENT_EXECUTION.remove();
+                if (execution.context != null) {
+                    JobContext.restore(previous);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.orainge.tools.jobtimer.job;
+
+import com.orainge.tools.jobtimer.util.thread.CountingRejectedExecutionHandler;
+import com.orainge.tools.jobtimer.util.thread.DiscardableTask;
+import com.orainge.tools.jobtimer.vo.BatchResult;
+import com.orainge.tools.jobtimer.vo.JobResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一次批量执行<br>
+ * 按顺序把任务提交到各自的执行通道，同时执行的任务数不超过并行数: 一个任务结束后再提交下一个任务；
+ * 执行通道拒绝的任务记为失败，不影响其他任务<br>
+ * 任务只在执行通道中执行: 提交时不使用 caller-runs（不在请求线程或上一个任务的线程中执行，调用栈不会随任务数增长），
+ * 也不会被 discard 策略静默丢弃；排队后被其他提交方触发的 discard-oldest 策略丢弃时记为失败，继续提交之后的任务
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public final class JobBatch {
+    private static final Logger log = LoggerFactory.getLogger(JobBatch.class);
+
+    private final List<JobDefinition> definitions;
+    private final List<Map<String, String[]>> execParams;
+    private final long startTime = System.nanoTime();
+    private final CompletableFuture<BatchResult> future = new CompletableFuture<>();
+
+    /**
+     * 执行结果（与任务顺序相同），写入后通过 unfinished 的递减对汇总线程可见
+     */
+    private final JobResult[] results;
+
+    /**
+     * 下一个待提交的任务序号
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * 尚未结束的任务数
+     */
+    private final AtomicInteger unfinished;
+
+    private JobBatch(List<JobDefinition> definitions, List<Map<String, String[]>> execParams) {
+        this.definitions = definitions;
+        this.execParams = execParams;
+        this.results = new JobResult[definitions.size()];
+        this.unfinished = new AtomicInteger(definitions.size());
+    }
+
+    /**
+     * 开始批量执行
+     *
+     * @param definitions 任务定义
+     * @param execParams  每个任务的执行参数（与任务定义一一对应，执行时才读取，调用方需传入副本）
+     * @param parallel    最多同时执行的任务数
+     * @return 所有任务执行结束时完成
+     */
+    public static CompletableFuture<BatchResult> start(List<JobDefinition> definitions, List<Map<String, String[]>> execParams, int parallel) {
+        JobBatch batch = new JobBatch(definitions, execParams);
+        if (definitions.isEmpty()) {
+            batch.finish();
+            return batch.future;
+        }
+
+        int workers = Math.min(Math.max(parallel, 1), definitions.size());
+        for (int i = 0; i < workers; i++) {
+            batch.submitNext();
+        }
+        return batch.future;
+    }
+
+    /**
+     * 提交下一个任务，执行通道拒绝时继续提交之后的任务<br>
+     * 提交不会在当前线程执行任务，任务结束后在执行通道的线程中调用本方法时不会递归
+     */
+    private void submitNext() {
+        int index;
+        while ((index = next.getAndIncrement()) < definitions.size()) {
+            if (submit(index)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 提交任务到任务的执行通道
+     *
+     * @return true: 已提交; false: 执行通道拒绝
+     */
+    private boolean submit(int index) {
+        JobDefinition definition = definitions.get(index);
+        long submitTime = System.nanoTime();
+        try {
+            CountingRejectedExecutionHandler.submitStrictly(() -> definition.execute(DiscardableTask.of(() -> {
+                definition.getJobBean().getMetrics().recordQueueWait(System.nanoTime() - submitTime);
+                runJob(index);
+            }, () -> {
+                log.warn("[批量执行] - 任务 [{}] 排队时被丢弃，执行通道已满", definition.getName());
+                complete(index, failResult(definition, "任务排队时被丢弃，执行通道已满"));
+                submitNext();
+            })));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("[批量执行] - 任务 [{}] 提交失败，执行通道已满", definition.getName());
+            complete(index, failResult(definition, "任务提交失败，执行通道已满"));
+            return false;
+        }
+    }
+
+    private static JobResult failResult(JobDefinition definition, String message) {
+        JobResult result = JobResult.fail().setMessage(message);
+        result.setJobName(definition.getJobBean().getName());
+        result.setJobDescription(definition.getJobBean().getDescription());
+        return result;
+    }
+
+    private void runJob(int index) {
+        JobDefinition definition = definitions.get(index);
+        JobResult result;
+        try {
+            result = JobManager.execute(definition, execParams.get(index));
+        } catch (Throwable e) {
+            log.error("[批量执行] - 任务 [" + definition.getName() + "] 出错", e);
+            result = JobResult.fail().setMessage("任务执行出错: " + e.getMessage());
+        }
+        complete(index, result);
+        submitNext();
+    }
+
+    private void complete(int index, JobResult result) {
+        results[index] = result;
+        if (unfinished.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        int successCount = 0;
+        for (JobResult result : results) {
+            if (result != null && result.isSuccess()) {
+                successCount++;
+            }
+        }
+
+        int total = results.length;
+        future.complete(new BatchResult()
+                .setSuccess(successCount == total)
+                .setMessage("执行完成: 成功 " + successCount + " 个, 未成功 " + (total - successCount) + " 个")
+                .setCostTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime))
+                .setJobs(Arrays.asList(results)));
+    }
+}
@@ -1,5 +1,6 @@
 package com.orainge.tools.jobtimer.job;
 
+import com.orainge.tools.jobtimer.job.metrics.JobMetrics;
 import com.orainge.tools.jobtimer.vo.JobResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +20,11 @@ public abstract class JobBean {
     private final String name;
     private final String description;
 
+    /**
+     * 任务执行统计
+     */
+    private final JobMetrics metrics = new JobMetrics();
+
     public JobBean(String name, String description) {
         log = LoggerFactory.getLogger(this.getClass());
 
@@ -43,6 +49,10 @@ public abstract class JobBean {
         return description;
     }
 
+    public JobMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * 执行任务
      *
@@ -50,14 +60,21 @@ public abstract class JobBean {
      * @return 执行结果
      */
     public JobResult execute(Map<String, String[]> execParam) {
+        boolean success = false;
+        metrics.recordStart();
+        long startTime = System.nanoTime();
         try {
             log.info("[" + name + "] - " + description + ": 开始");
             JobResult execResult = doExecute(execParam);
             log.info("[" + name + "] - " + description + ": 结束");
+            JobContext context = JobContext.current();
+            success = execResult != null && execResult.isSuccess() && (context == null || !context.isTimedOut());
             return execResult;
         } catch (Exception e) {
             log.error("[" + name + "] - " + description + ": 错误", e);
             throw e;
+        } finally {
+            metrics.recordEnd(System.nanoTime() - startTime, success);
         }
     }
 
@@ -70,6 +87,24 @@ public abstract class JobBean {
      */
     public abstract JobResult doExecute(Map<String, String[]> execParam);
 
+    /**
+     * 输出任务进度<br>
+     * 流式执行时实时发送给调用方，不写入执行结果；其他情况下写入执行结果的 messageDescription
+     *
+     * @param result 执行结果
+     * @param lines  进度内容
+     */
+    protected void progress(JobResult result, String... lines) {
+        JobContext context = JobContext.current();
+        if (context != null && context.isStreaming()) {
+            for (String line : lines) {
+                context.getProgressSink().progress(line);
+            }
+        } else {
+            result.addMessageDescription(lines);
+        }
+    }
+
     protected void logInfo(String message, Object... arguments) {
         log.info("[" + name + "] - " + description + ": " + message, arguments);
     }
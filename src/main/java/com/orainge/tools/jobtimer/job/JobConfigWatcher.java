@@ -0,0 +1,155 @@
+package com.orainge.tools.jobtimer.job;
+
+import com.orainge.tools.jobtimer.config.JobConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.bind.BindResult;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务配置文件监听器<br>
+ * 开启后监听配置文件所在目录，配置文件修改后读取其中的 job-timer.job.task.cron 并重新加载定时任务；
+ * 配置有误时保持原有配置不变
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Component
+@ConditionalOnMissingBean({JobConfigWatcher.class})
+public class JobConfigWatcher implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(JobConfigWatcher.class);
+
+    /**
+     * cron 配置在配置文件中的路径
+     */
+    private static final String CRON_PROPERTY = "job-timer.job.task.cron";
+
+    /**
+     * 收到文件变化后等待的时间（单位：毫秒），合并编辑器保存时产生的多次变化
+     */
+    private static final long SETTLE_MILLIS = 500;
+
+    @Resource
+    private JobConfig jobConfig;
+
+    @Resource
+    private JobManager jobManager;
+
+    private WatchService watchService;
+
+    private Thread watcher;
+
+    @PostConstruct
+    public void init() {
+        JobConfig.JobTaskConfig taskConfig = jobConfig.getTask();
+        JobConfig.JobReloadConfig reloadConfig = taskConfig == null ? null : taskConfig.getReload();
+        if (reloadConfig == null || !reloadConfig.isEnable()) {
+            return;
+        }
+        if (!taskConfig.isEnable()) {
+            log.warn("[配置文件监听器] - 定时任务未开启，不监听配置文件");
+            return;
+        }
+        if (StringUtils.isEmpty(reloadConfig.getFile())) {
+            throw new IllegalStateException("[配置文件监听器] - 未配置监听的配置文件，请检查配置文件");
+        }
+
+        Path file = Paths.get(reloadConfig.getFile()).toAbsolutePath().normalize();
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalStateException("[配置文件监听器] - 配置文件 [" + file + "] 不存在，请检查配置文件");
+        }
+
+        try {
+            watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new IllegalStateException("[配置文件监听器] - 监听配置文件 [" + file + "] 失败", e);
+        }
+
+        watcher = new Thread(() -> watch(file), "jobTimerConfigWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("[配置文件监听器] - 开始监听配置文件: {}", file);
+    }
+
+    private void watch(Path file) {
+        Path fileName = file.getFileName();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                // 等待写入完成，并丢弃期间产生的其他变化
+                TimeUnit.MILLISECONDS.sleep(SETTLE_MILLIS);
+                WatchKey pending;
+                while ((pending = watchService.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reload(file);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 读取配置文件并重新加载定时任务
+     */
+    private void reload(Path file) {
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader().load(file.toString(), new FileSystemResource(file));
+            BindResult<Map<String, String>> cronConfig = new Binder(ConfigurationPropertySources.from(sources))
+                    .bind(CRON_PROPERTY, Bindable.mapOf(String.class, String.class));
+            if (!cronConfig.isBound()) {
+                // 防止文件写入一半时误取消所有定时任务
+                log.warn("[配置文件监听器] - 配置文件中没有 {}，保持原有配置", CRON_PROPERTY);
+                return;
+            }
+            int count = jobManager.reload(cronConfig.get());
+            log.info("[配置文件监听器] - 配置文件已重新加载，{} 个任务的定时配置有变化", count);
+        } catch (Exception e) {
+            log.error("[配置文件监听器] - 配置文件重新加载失败，保持原有配置", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (watcher == null) {
+            return;
+        }
+
+        watcher.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("[配置文件监听器] - 停止监听失败: {}", e.getMessage());
+        }
+    }
+}
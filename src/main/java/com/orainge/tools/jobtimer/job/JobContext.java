@@ -0,0 +1,241 @@
+package com.orainge.tools.jobtimer.job;
+
+import com.orainge.tools.jobtimer.job.cluster.JobLease;
+import com.orainge.tools.jobtimer.job.progress.ProgressSink;
+import com.orainge.tools.jobtimer.vo.JobResult;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务执行上下文<br>
+ * 任务执行期间绑定在执行线程上，JobBean 中可通过 JobContext.current() 获取
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class JobContext {
+    private static final ThreadLocal<JobContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 任务名称（配置文件中的键名）
+     */
+    private final String jobName;
+
+    /**
+     * 集群任务锁租约，非集群模式或通过 API 执行时为 null
+     */
+    private final JobLease lease;
+
+    /**
+     * 是否由定时任务触发（false 表示通过 API 执行）
+     */
+    private final boolean scheduled;
+
+    /**
+     * 所属工作流名称，不在工作流中执行时为 null
+     */
+    private final String workflowName;
+
+    /**
+     * 上游任务名称 - 上游任务执行结果，仅工作流
+     */
+    private final Map<String, JobResult> upstreamResults;
+
+    /**
+     * 进度输出，仅流式执行
+     */
+    private final ProgressSink progressSink;
+
+    /**
+     * 截止时间（System.nanoTime），仅配置了最长执行时间的任务
+     */
+    private volatile long deadline;
+
+    private volatile boolean deadlineSet;
+
+    /**
+     * 触发时间（毫秒时间戳），仅定时触发
+     */
+    private volatile long fireTime;
+
+    JobContext(String jobName, JobLease lease, boolean scheduled) {
+        this(jobName, lease, scheduled, null, null, null);
+    }
+
+    JobContext(String jobName, ProgressSink progressSink) {
+        this(jobName, null, false, null, null, progressSink);
+    }
+
+    JobContext(String jobName, JobLease lease, boolean scheduled, String workflowName, Map<String, JobResult> upstreamResults) {
+        this(jobName, lease, scheduled, workflowName, upstreamResults, null);
+    }
+
+    JobContext(String jobName, JobLease lease, boolean scheduled, String workflowName, Map<String, JobResult> upstreamResults,
+               ProgressSink progressSink) {
+        this.progressSink = progressSink;
+        this.jobName = jobName;
+        this.lease = lease;
+        this.scheduled = scheduled;
+        this.workflowName = workflowName;
+        this.upstreamResults = upstreamResults == null ? Collections.emptyMap() : Collections.unmodifiableMap(upstreamResults);
+    }
+
+    /**
+     * 获取当前线程正在执行的任务上下文
+     *
+     * @return 上下文，当前线程没有在执行任务时返回 null
+     */
+    public static JobContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 绑定上下文到当前线程
+     *
+     * @return 之前绑定的上下文，结束时需要通过 restore 恢复
+     */
+    static JobContext bind(JobContext context) {
+        JobContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous;
+    }
+
+    /**
+     * 恢复之前绑定的上下文
+     */
+    static void restore(JobContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public JobLease getLease() {
+        return lease;
+    }
+
+    public boolean isScheduled() {
+        return scheduled;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    /**
+     * 获取所有上游任务的执行结果（工作流中依赖的任务）
+     */
+    public Map<String, JobResult> getUpstreamResults() {
+        return upstreamResults;
+    }
+
+    /**
+     * 获取上游任务的执行结果
+     *
+     * @param jobName 上游任务名称
+     * @return 执行结果，不是上游任务时返回 null
+     */
+    public JobResult getUpstreamResult(String jobName) {
+        return upstreamResults.get(jobName);
+    }
+
+    public ProgressSink getProgressSink() {
+        return progressSink;
+    }
+
+    /**
+     * 是否为流式执行（进度实时发送给调用方，不需要写入执行结果）
+     */
+    public boolean isStreaming() {
+        return progressSink != null;
+    }
+
+    /**
+     * 设置截止时间，需要在绑定到执行线程前设置
+     *
+     * @param deadline 截止时间（System.nanoTime）
+     */
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+        this.deadlineSet = true;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 设置触发时间，需要在绑定到执行线程前设置
+     *
+     * @param fireTime 触发时间（毫秒时间戳）
+     */
+    void setFireTime(long fireTime) {
+        this.fireTime = fireTime;
+    }
+
+    /**
+     * 获取触发时间（cron 计算出的执行时间，不含执行时间偏移）<br>
+     * 同一次触发在集群各节点上相同，可作为任务幂等处理的标识
+     *
+     * @return 触发时间（毫秒时间戳），非定时触发时为 0
+     */
+    public long getFireTime() {
+        return fireTime;
+    }
+
+    /**
+     * 是否设置了截止时间（任务配置了最长执行时间）
+     */
+    public boolean hasDeadline() {
+        return deadlineSet;
+    }
+
+    /**
+     * 获取距离截止时间的剩余时间<br>
+     * 任务中的外部调用可据此缩短超时时间，避免超过任务的最长执行时间
+     *
+     * @return 剩余时间（单位：毫秒），已超时返回 0，没有截止时间返回 -1
+     */
+    public long getRemainingMillis() {
+        if (!deadlineSet) {
+            return -1;
+        }
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()), 0);
+    }
+
+    /**
+     * 是否已超过截止时间<br>
+     * 长时间运行的任务可以在循环中检查，超时后尽快结束
+     *
+     * @return 没有截止时间时返回 false
+     */
+    public boolean isTimedOut() {
+        return deadlineSet && deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 获取集群任务锁的防护令牌
+     *
+     * @return 防护令牌，没有租约时返回 null
+     */
+    public Long getFencingToken() {
+        return lease == null ? null : lease.getFencingToken();
+    }
+
+    /**
+     * 租约是否仍然有效<br>
+     * 长时间运行的任务可以在写入外部数据前检查，租约失效说明其他节点可能已开始执行
+     *
+     * @return 没有租约时返回 true
+     */
+    public boolean isLeaseValid() {
+        return lease == null || lease.isValid();
+    }
+}
@@ -0,0 +1,187 @@
+package com.orainge.tools.jobtimer.job;
+
+import com.orainge.tools.jobtimer.job.cron.CompiledCronTrigger;
+import com.orainge.tools.jobtimer.job.lane.ExecutorLane;
+import com.orainge.tools.jobtimer.job.metrics.JobMetrics;
+import com.orainge.tools.jobtimer.vo.JobStatus;
+
+/**
+ * 任务定义<br>
+ * 启动时由 JobRegistry 创建，创建后不可修改；运行时调整定时配置时由 JobRegistry 创建新的定义替换
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public final class JobDefinition {
+    /**
+     * 任务名称（配置文件中的键名）
+     */
+    private final String name;
+
+    /**
+     * JobBean 在 Spring 容器中的名称
+     */
+    private final String beanName;
+
+    /**
+     * JobBean 实例
+     */
+    private final JobBean jobBean;
+
+    /**
+     * API 路径，未配置时为 null
+     */
+    private final String url;
+
+    /**
+     * 定时任务触发器，未配置 cron 时为 null
+     */
+    private final CompiledCronTrigger trigger;
+
+    /**
+     * 定时任务运行状态（重叠执行策略）
+     */
+    private final JobRunState runState;
+
+    /**
+     * 定时任务使用的执行通道
+     */
+    private final ExecutorLane lane;
+
+    /**
+     * 优先级，数值越大越优先，仅使用优先级队列的执行通道生效
+     */
+    private final int priority;
+
+    /**
+     * 最长执行时间（单位：毫秒），0 表示不限制
+     */
+    private final long timeout;
+
+    JobDefinition(String name, String beanName, JobBean jobBean, String url, CompiledCronTrigger trigger,
+                  JobRunState runState, ExecutorLane lane, int priority, long timeout) {
+        this.name = name;
+        this.beanName = beanName;
+        this.jobBean = jobBean;
+        this.url = url;
+        this.trigger = trigger;
+        this.runState = runState;
+        this.lane = lane;
+        this.priority = priority;
+        this.timeout = timeout;
+    }
+
+    /**
+     * 复制任务定义，只替换触发器（运行状态与执行通道不变）
+     *
+     * @param trigger 新的触发器，null 表示取消定时
+     */
+    JobDefinition withTrigger(CompiledCronTrigger trigger) {
+        return new JobDefinition(name, beanName, jobBean, url, trigger, runState, lane, priority, timeout);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public JobBean getJobBean() {
+        return jobBean;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public CompiledCronTrigger getTrigger() {
+        return trigger;
+    }
+
+    public JobRunState getRunState() {
+        return runState;
+    }
+
+    public ExecutorLane getLane() {
+        return lane;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * 按任务优先级提交到任务的执行通道
+     *
+     * @param task 任务
+     * @throws java.util.concurrent.RejectedExecutionException 执行通道已满时抛出
+     */
+    public void execute(Runnable task) {
+        lane.execute(task, priority);
+    }
+
+    /**
+     * 是否为分片任务
+     */
+    public boolean isSharded() {
+        return jobBean instanceof ShardedJobBean;
+    }
+
+    public String getCron() {
+        return trigger == null ? null : trigger.toString();
+    }
+
+    /**
+     * 获取任务运行状态
+     */
+    public JobStatus getStatus() {
+        JobMetrics metrics = jobBean.getMetrics();
+        long executionCount = metrics.getExecutionCount();
+        long failureCount = metrics.getFailureCount();
+        long elapsed = System.currentTimeMillis() - metrics.getStartTime();
+
+        JobStatus status = new JobStatus();
+        status.setName(name);
+        status.setDescription(jobBean.getDescription());
+        status.setLane(lane.getName());
+        status.setPriority(priority);
+        if (timeout > 0) {
+            status.setTimeout(timeout);
+            status.setTimeoutCount(metrics.getTimeoutCount());
+        }
+        if (trigger != null) {
+            status.setOverlapPolicy(runState.getPolicy().name());
+            status.setTriggeredCount(runState.getTriggeredCount());
+            status.setSkippedCount(runState.getSkippedCount());
+            status.setCoalescedCount(runState.getCoalescedCount());
+            status.setQueueWait(metrics.getQueueWait().getStatus());
+        }
+        status.setRunningCount(metrics.getRunningCount());
+        status.setExecutionCount(executionCount);
+        status.setFailureCount(failureCount);
+        status.setFailureRate(executionCount == 0 ? 0 : (double) failureCount / executionCount);
+        status.setThroughput(elapsed <= 0 ? 0 : executionCount * 60000.0 / elapsed);
+        status.setRunTime(metrics.getRunTime().getStatus());
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                "name=" + name +
+                ", beanName=" + beanName +
+                ", url=" + url +
+                ", cron=" + getCron() +
+                ", overlapPolicy=" + runState.getPolicy() +
+                ", lane=" + lane.getName() +
+                ", priority=" + priority +
+                ", timeout=" + timeout +
+                '}';
+    }
+}
@@ -1,23 +1,34 @@
 package com.orainge.tools.jobtimer.job;
 
 import com.orainge.tools.jobtimer.config.JobConfig;
-import com.orainge.tools.jobtimer.util.BeanUtils;
+import com.orainge.tools.jobtimer.job.cluster.ClusterManager;
+import com.orainge.tools.jobtimer.job.cluster.JobLease;
+import com.orainge.tools.jobtimer.job.cron.CompiledCronTrigger;
+import com.orainge.tools.jobtimer.job.cron.FireTimeTrigger;
+import com.orainge.tools.jobtimer.job.cron.JitteredTrigger;
+import com.orainge.tools.jobtimer.job.execution.JobExecution;
+import com.orainge.tools.jobtimer.job.progress.ProgressSink;
+import com.orainge.tools.jobtimer.job.scheduler.DispatchTask;
+import com.orainge.tools.jobtimer.util.thread.DiscardableTask;
 import com.orainge.tools.jobtimer.vo.JobResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
-import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 定时任务动态配置
@@ -35,12 +46,42 @@ public class JobManager implements SchedulingConfigurer {
     private JobConfig jobConfig;
 
     @Resource
-    @Qualifier("taskScheduler")
-    private ThreadPoolTaskScheduler threadPoolTaskScheduler;
+    private JobRegistry jobRegistry;
+
+    @Resource
+    private ClusterManager clusterManager;
+
+    @Resource
+    private WorkflowManager workflowManager;
+
+    /**
+     * 将任务注册表设置成静态变量，供静态方法调用
+     */
+    private static JobRegistry jobRegistryInstance;
 
     @Resource
-    @Qualifier("asyncExecutor")
-    private ThreadPoolTaskExecutor threadPoolTaskExecutor;
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+
+    /**
+     * 任务名称 - 定时任务句柄（用于运行时修改或取消定时）
+     */
+    private final Map<String, ScheduledFuture<?>> schedules = new ConcurrentHashMap<>();
+
+    /**
+     * 任务名称 - 带执行时间偏移的触发器，仅开启执行时间偏移时
+     */
+    private final Map<String, JitteredTrigger> jitteredTriggers = new ConcurrentHashMap<>();
+
+    /**
+     * 任务名称 - 最晚一次触发的时间，仅集群模式（待执行的再次执行沿用租约时，记录到租约中）
+     */
+    private final Map<String, Long> fireTimes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        jobRegistryInstance = jobRegistry;
+    }
 
     /**
      * 指定定时任务的线程池
@@ -49,26 +90,32 @@ public class JobManager implements SchedulingConfigurer {
     @SuppressWarnings("all")
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
         //设定一个长度10的定时任务线程池
-        taskRegistrar.setScheduler(threadPoolTaskScheduler);
+        taskRegistrar.setScheduler(taskScheduler);
 
         JobConfig.JobTaskConfig jobConfigTask = jobConfig.getTask();
         if (jobConfigTask.isEnable()) {
             // 如果开启定时任务，才需要添加执行器
-            Map<String, String> cronMap = jobConfigTask.getCron();
-            if (cronMap != null && !cronMap.isEmpty()) {
-                // 如果配置了定时任务，才开启
-                cronMap.forEach((jobName, jobCron) -> {
-                    if (!StringUtils.isEmpty(jobCron)) {
-                        // 如果 cron 不为空，就配置定时任务
-                        taskRegistrar.addTriggerTask(
-                                //1. 添加任务内容 (Runnable)
-                                () -> threadPoolTaskExecutor.execute(() -> execute(jobName, null)),
-
-                                //2. 设置执行周期 (Trigger)
-                                triggerContext -> new CronTrigger(jobCron).nextExecutionTime(triggerContext)
-                        );
-                    }
-                });
+            for (JobDefinition definition : jobRegistry.getJobs()) {
+                if (definition.getTrigger() != null) {
+                    // 如果配置了 cron，就配置定时任务（保留句柄，运行时可修改或取消）
+                    reschedule(definition);
+                }
+            }
+
+            // 按历史执行耗时分散相同 cron 的任务
+            JobConfig.JobJitterConfig jitterConfig = getJitterConfig();
+            if (jitterConfig != null && jitterConfig.isLevel()) {
+                level();
+                long interval = Math.max(jitterConfig.getLevelInterval(), 1000);
+                taskScheduler.scheduleWithFixedDelay(this::level, new Date(System.currentTimeMillis() + interval), interval);
+            }
+
+            // 配置了 cron 的工作流
+            for (Workflow workflow : workflowManager.getWorkflows()) {
+                if (workflow.getTrigger() != null) {
+                    FireTimeTrigger fireTimeTrigger = new FireTimeTrigger(workflow.getTrigger());
+                    taskRegistrar.addTriggerTask(() -> workflowManager.trigger(workflow, fireTimeTrigger.getFireTime()), fireTimeTrigger);
+                }
             }
 
             // 初始化完成提示
@@ -77,13 +124,314 @@ public class JobManager implements SchedulingConfigurer {
     }
 
     /**
-     * 获取 Job Class 名称
+     * 运行时新增或修改任务的定时配置，不影响其他任务与正在执行的任务
+     *
+     * @param jobName 任务名称
+     * @param cron    cron 表达式
+     * @throws IllegalArgumentException cron 表达式不正确时抛出
+     * @throws IllegalStateException    未开启定时任务或任务不存在对应的 JobBean 时抛出
+     */
+    public void schedule(String jobName, String cron) {
+        Map<String, CompiledCronTrigger> triggers = new HashMap<>();
+        triggers.put(jobName, new CompiledCronTrigger(cron));
+        applyTriggers(triggers);
+    }
+
+    /**
+     * 运行时取消任务的定时配置，正在执行的任务会执行完毕
+     *
+     * @param jobName 任务名称
+     * @return true: 已取消; false: 任务没有定时配置
+     */
+    public boolean unschedule(String jobName) {
+        if (!schedules.containsKey(jobName)) {
+            return false;
+        }
+        applyTriggers(Collections.singletonMap(jobName, null));
+        return true;
+    }
+
+    /**
+     * 按新的 cron 配置重新加载定时任务<br>
+     * 所有 cron 表达式与任务检查通过后才生效，只重新安排配置有变化的任务
+     *
+     * @param cronConfig 任务名称 - cron 表达式（完整配置，未包含的已定时任务将被取消）
+     * @return 配置有变化的任务数
+     * @throws IllegalArgumentException cron 表达式不正确时抛出，此时不做任何修改
+     */
+    public int reload(Map<String, String> cronConfig) {
+        synchronized (schedules) {
+            Map<String, CompiledCronTrigger> triggers = new HashMap<>();
+            for (JobDefinition definition : jobRegistry.getJobs()) {
+                if (definition.getTrigger() != null && (cronConfig == null || StringUtils.isEmpty(cronConfig.get(definition.getName())))) {
+                    triggers.put(definition.getName(), null);
+                }
+            }
+            if (cronConfig != null) {
+                cronConfig.forEach((jobName, cron) -> {
+                    if (StringUtils.isEmpty(cron)) {
+                        return;
+                    }
+                    JobDefinition exist = jobRegistry.getJob(jobName);
+                    if (exist == null || !cron.trim().equals(exist.getCron())) {
+                        triggers.put(jobName, new CompiledCronTrigger(cron.trim()));
+                    }
+                });
+            }
+            if (!triggers.isEmpty()) {
+                applyTriggers(triggers);
+            }
+            return triggers.size();
+        }
+    }
+
+    /**
+     * 获取所有定时任务的 cron 配置
+     *
+     * @return 任务名称 - cron 表达式
+     */
+    public Map<String, String> getSchedules() {
+        Map<String, String> result = new TreeMap<>();
+        for (JobDefinition definition : jobRegistry.getJobs()) {
+            if (definition.getTrigger() != null) {
+                result.put(definition.getName(), definition.getCron());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 更新任务注册表中的触发器，再重新安排对应的定时任务
+     */
+    private void applyTriggers(Map<String, CompiledCronTrigger> triggers) {
+        if (!jobConfig.getTask().isEnable()) {
+            throw new IllegalStateException("[定时任务管理器] - 定时任务未开启");
+        }
+        synchronized (schedules) {
+            for (JobDefinition definition : jobRegistry.updateTriggers(triggers)) {
+                reschedule(definition);
+                if (definition.getTrigger() == null) {
+                    log.info("[定时任务管理器] - 任务 [{}] 的定时配置已取消", definition.getName());
+                } else {
+                    log.info("[定时任务管理器] - 任务 [{}] 的定时配置已更新为: {}", definition.getName(), definition.getCron());
+                }
+            }
+
+            JobConfig.JobJitterConfig jitterConfig = getJitterConfig();
+            if (jitterConfig != null && jitterConfig.isLevel()) {
+                level();
+            }
+        }
+    }
+
+    /**
+     * 按任务定义中的触发器重新安排定时任务，先取消原有的定时（不中断正在执行的任务）<br>
+     * 开启执行时间偏移时，按任务名称的哈希值偏移执行时间
+     */
+    private void reschedule(JobDefinition definition) {
+        ScheduledFuture<?> previous = schedules.remove(definition.getName());
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        jitteredTriggers.remove(definition.getName());
+        if (definition.getTrigger() == null) {
+            return;
+        }
+
+        JobConfig.JobJitterConfig jitterConfig = getJitterConfig();
+        if (jitterConfig == null) {
+            FireTimeTrigger fireTimeTrigger = new FireTimeTrigger(definition.getTrigger());
+            schedules.put(definition.getName(), taskScheduler.schedule(
+                    (DispatchTask) () -> trigger(definition, fireTimeTrigger.getFireTime()), fireTimeTrigger));
+            return;
+        }
+
+        JitteredTrigger jittered = new JitteredTrigger(definition.getTrigger(),
+                JitteredTrigger.hashOffset(definition.getName(), jitterConfig.getWindow()));
+        jitteredTriggers.put(definition.getName(), jittered);
+        FireTimeTrigger fireTimeTrigger = new FireTimeTrigger(jittered);
+        schedules.put(definition.getName(), taskScheduler.schedule(
+                (DispatchTask) () -> trigger(definition, fireTimeTrigger.getFireTime()), fireTimeTrigger));
+        log.info("[定时任务管理器] - 任务 [{}] 的执行时间偏移 {} 毫秒", definition.getName(), jittered.getOffset());
+    }
+
+    /**
+     * 获取执行时间偏移配置
+     *
+     * @return 未开启执行时间偏移时返回 null
+     */
+    private JobConfig.JobJitterConfig getJitterConfig() {
+        JobConfig.JobJitterConfig jitterConfig = jobConfig.getTask().getJitter();
+        return jitterConfig != null && jitterConfig.isEnable() ? jitterConfig : null;
+    }
+
+    /**
+     * 按历史执行耗时重新计算相同 cron 任务的执行时间偏移<br>
+     * 相同 cron 的任务按名称哈希值的顺序排列，每个任务在窗口内占用的长度与其平均执行耗时成正比，
+     * 使窗口内同时执行的任务数尽量平均；没有执行记录的任务按同组任务的平均耗时计算，只有一个任务的 cron 保持哈希偏移<br>
+     * 新的偏移从下一次计算执行时间开始生效（已计算出的下次执行时间仍使用原偏移）
+     */
+    private void level() {
+        long window = jobConfig.getTask().getJitter().getWindow();
+        synchronized (schedules) {
+            // cron 表达式 - 使用该 cron 的任务
+            Map<String, List<JobDefinition>> groups = new HashMap<>();
+            for (String jobName : jitteredTriggers.keySet()) {
+                JobDefinition definition = jobRegistry.getJob(jobName);
+                if (definition != null && definition.getTrigger() != null) {
+                    groups.computeIfAbsent(definition.getCron(), key -> new ArrayList<>()).add(definition);
+                }
+            }
+
+            int changed = 0;
+            for (List<JobDefinition> group : groups.values()) {
+                if (group.size() < 2) {
+                    continue;
+                }
+                group.sort(Comparator.comparingLong((JobDefinition definition) -> JitteredTrigger.hashOffset(definition.getName(), window))
+                        .thenComparing(JobDefinition::getName));
+
+                double[] weights = new double[group.size()];
+                double knownTotal = 0;
+                int knownCount = 0;
+                for (int i = 0; i < weights.length; i++) {
+                    if (group.get(i).getJobBean().getMetrics().getRunTime().getCount() > 0) {
+                        weights[i] = Math.max(group.get(i).getJobBean().getMetrics().getRunTime().getStatus().getMean(), 1);
+                        knownTotal += weights[i];
+                        knownCount++;
+                    }
+                }
+                double defaultWeight = knownCount == 0 ? 1 : knownTotal / knownCount;
+                double total = 0;
+                for (int i = 0; i < weights.length; i++) {
+                    if (weights[i] == 0) {
+                        weights[i] = defaultWeight;
+                    }
+                    total += weights[i];
+                }
+
+                double position = 0;
+                for (int i = 0; i < weights.length; i++) {
+                    JitteredTrigger trigger = jitteredTriggers.get(group.get(i).getName());
+                    long offset = (long) (window * position / total);
+                    position += weights[i];
+                    // 变化小于窗口的 1% 时不调整，避免执行耗时的小幅波动导致频繁调整
+                    if (trigger != null && Math.abs(trigger.getOffset() - offset) * 100 >= window) {
+                        trigger.setOffset(offset);
+                        changed++;
+                        log.debug("[定时任务管理器] - 任务 [{}] 的执行时间偏移调整为 {} 毫秒", group.get(i).getName(), offset);
+                    }
+                }
+            }
+            if (changed > 0) {
+                log.info("[定时任务管理器] - 已按历史执行耗时调整 {} 个任务的执行时间偏移", changed);
+            }
+        }
+    }
+
+    /**
+     * 触发定时任务<br>
+     * 根据重叠执行策略判断是否提交到任务的执行通道；只做判断与提交，时间轮调度时在 tick 线程中直接执行<br>
+     * 执行通道已满时: 时间轮调度下提交被拒绝，本次触发跳过；线程池调度下按通道的拒绝策略处理，
+     * caller-runs 策略仍会由调度线程执行任务（PARALLEL 策略不限制并行数时可能持续占用调度线程）
+     *
+     * @param definition 任务定义
+     * @param fireTime   触发时间（cron 计算出的执行时间，不含执行时间偏移）
+     */
+    private void trigger(JobDefinition definition, long fireTime) {
+        if (!definition.isSharded() && !clusterManager.isOwner(definition.getName())) {
+            // 集群模式下任务分配给了其他节点
+            log.debug("[定时任务管理器] - 任务 [{}] 由其他节点执行", definition.getName());
+            return;
+        }
+        if (clusterManager.isEnable()) {
+            fireTimes.merge(definition.getName(), fireTime, Math::max);
+        }
+
+        JobRunState runState = definition.getRunState();
+        if (!runState.tryAcquire()) {
+            log.warn("[定时任务管理器] - 任务 [{}] 正在执行，本次触发已按策略 [{}] 处理", definition.getName(), runState.getPolicy());
+            return;
+        }
+
+        try {
+            long submitTime = System.nanoTime();
+            definition.execute(() -> runTriggered(definition, submitTime, fireTime));
+        } catch (RejectedExecutionException e) {
+            runState.abort();
+            log.error("[定时任务管理器] - 任务 [" + definition.getName() + "] 提交执行失败", e);
+        }
+    }
+
+    /**
+     * 执行已触发的定时任务，执行期间有待执行的触发时继续执行<br>
+     * 集群模式下先获取本次触发的任务锁（同一次触发在各节点上只能获取一次，与排队时间、时钟偏差无关），待执行的再次执行沿用同一个租约（任务锁释放后至少保持 lockAtLeast，立即重新获取会失败），
+     * 每次再次执行前重新确认任务仍分配给当前节点，租约失效时重新获取；分片任务在各节点上都执行，由每个分片分别获取任务锁
+     *
+     * @param definition 任务定义
+     * @param submitTime 提交到执行通道的时间（System.nanoTime）
+     * @param fireTime   触发时间
+     */
+    private void runTriggered(JobDefinition definition, long submitTime, long fireTime) {
+        definition.getJobBean().getMetrics().recordQueueWait(System.nanoTime() - submitTime);
+
+        JobRunState runState = definition.getRunState();
+        if (!clusterManager.isEnable() || definition.isSharded()) {
+            boolean rerun = false;
+            do {
+                JobContext context = new JobContext(definition.getName(), null, true);
+                // 分片按触发时间获取各分片的任务锁
+                context.setFireTime(rerun ? fireTimes.getOrDefault(definition.getName(), fireTime) : fireTime);
+                rerun = true;
+                execute(definition, null, context);
+            } while (runState.release());
+            return;
+        }
+
+        JobLease lease = null;
+        try {
+            boolean rerun = false;
+            do {
+                if (rerun && !clusterManager.isOwner(definition.getName())) {
+                    log.info("[定时任务管理器] - 任务 [{}] 已分配给其他节点，不再执行待执行的触发", definition.getName());
+                    continue;
+                }
+                // 再次执行的是期间最晚一次触发
+                long currentFireTime = rerun ? fireTimes.getOrDefault(definition.getName(), fireTime) : fireTime;
+                rerun = true;
+
+                if (lease != null && !lease.isValid()) {
+                    clusterManager.release(lease);
+                    lease = null;
+                }
+                if (lease == null) {
+                    lease = clusterManager.tryAcquire(definition.getName(), currentFireTime);
+                    if (lease == null) {
+                        log.info("[定时任务管理器] - 任务 [{}] 的任务锁由其他节点持有或本次触发已执行，本次不执行", definition.getName());
+                        continue;
+                    }
+                } else {
+                    lease.advanceFireTime(currentFireTime);
+                }
+                JobContext context = new JobContext(definition.getName(), lease, true);
+                context.setFireTime(currentFireTime);
+                execute(definition, null, context);
+            } while (runState.release());
+        } finally {
+            if (lease != null) {
+                clusterManager.release(lease);
+            }
+        }
+    }
+
+    /**
+     * 判断任务是否存在
      *
      * @param jobName Job 名称
-     * @return Job Class 名称
+     * @return true: 存在; false: 不存在
      */
     public static boolean isExistJobBean(String jobName) {
-        return BeanUtils.containsBean(getJobBeanName(jobName));
+        return jobRegistryInstance.getJob(jobName) != null;
     }
 
     /**
@@ -93,39 +441,124 @@ public class JobManager implements SchedulingConfigurer {
      * @param execParam 执行任务参数
      */
     public static JobResult execute(String jobName, Map<String, String[]> execParam) {
+        JobDefinition definition = jobRegistryInstance.getJob(jobName);
+        if (definition == null) {
+            log.error("[定时任务管理器] - 任务 [{}] 不存在", jobName);
+            return JobResult.fail();
+        }
+        return execute(definition, execParam);
+    }
+
+    /**
+     * 执行任务
+     *
+     * @param definition 任务定义
+     * @param execParam  执行任务参数
+     */
+    public static JobResult execute(JobDefinition definition, Map<String, String[]> execParam) {
+        return execute(definition, execParam, new JobContext(definition.getName(), null, false));
+    }
+
+    /**
+     * 提交任务到任务的执行通道异步执行，执行状态写入执行记录<br>
+     * 排队时被拒绝策略丢弃时执行记录记为失败
+     *
+     * @param definition 任务定义
+     * @param execParam  执行任务参数（执行时才读取，调用方需传入副本）
+     * @param execution  执行记录
+     * @throws RejectedExecutionException 执行通道已满时抛出
+     */
+    public static void submit(JobDefinition definition, Map<String, String[]> execParam, JobExecution execution) {
+        long submitTime = System.nanoTime();
+        definition.execute(DiscardableTask.of(() -> {
+            definition.getJobBean().getMetrics().recordQueueWait(System.nanoTime() - submitTime);
+            execution.start();
+            JobResult result = null;
+            try {
+                result = execute(definition, execParam);
+            } finally {
+                execution.finish(result);
+            }
+        }, () -> {
+            log.warn("[定时任务管理器] - 任务 [{}] 排队时被丢弃，执行通道已满，执行 ID: {}", definition.getName(), execution.getExecutionId());
+            execution.finish(JobResult.fail().setMessage("任务排队时被丢弃，执行通道已满"));
+        }));
+    }
+
+    /**
+     * 提交任务到任务的执行通道流式执行，执行期间的进度与执行结果写入进度输出<br>
+     * 排队时被拒绝策略丢弃时以失败的执行结果结束进度输出
+     *
+     * @param definition   任务定义
+     * @param execParam    执行任务参数（执行时才读取，调用方需传入副本）
+     * @param progressSink 进度输出
+     * @throws RejectedExecutionException 执行通道已满时抛出
+     */
+    public static void stream(JobDefinition definition, Map<String, String[]> execParam, ProgressSink progressSink) {
+        long submitTime = System.nanoTime();
+        definition.execute(DiscardableTask.of(() -> {
+            definition.getJobBean().getMetrics().recordQueueWait(System.nanoTime() - submitTime);
+            JobResult result = null;
+            try {
+                result = execute(definition, execParam, new JobContext(definition.getName(), progressSink));
+            } finally {
+                progressSink.complete(result);
+            }
+        }, () -> {
+            log.warn("[定时任务管理器] - 任务 [{}] 排队时被丢弃，执行通道已满，结束流式执行", definition.getName());
+            progressSink.complete(JobResult.fail().setMessage("任务排队时被丢弃，执行通道已满"));
+        }));
+    }
+
+    /**
+     * 执行任务，执行期间绑定任务上下文<br>
+     * 任务配置了最长执行时间时，超时后中断执行线程，执行结果记为超时失败
+     *
+     * @param definition 任务定义
+     * @param execParam  执行任务参数
+     * @param context    任务执行上下文
+     */
+    static JobResult execute(JobDefinition definition, Map<String, String[]> execParam, JobContext context) {
         JobResult jobResult = null;
-        try {
-            // 获取 JobBean
-            JobBean jobBean = BeanUtils.getBean(getJobBeanName(jobName), JobBean.class);
+        JobBean jobBean = definition.getJobBean();
+        long timeout = definition.getTimeout();
+        DeadlineWatchdog.Watch watch = null;
+        if (timeout > 0) {
+            context.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+            watch = DeadlineWatchdog.watch(context);
+        }
 
+        boolean timedOut = false;
+        JobContext previous = JobContext.bind(context);
+        try {
             // 执行任务
             jobResult = jobBean.execute(execParam);
-
-            // 写入任务信息
-            jobResult.setJobName(jobBean.getName());
-            jobResult.setJobDescription(jobBean.getDescription());
-
-            // 返回任务结果
-            return jobResult;
         } catch (Exception e) {
-            String errMsg = "[定时任务管理器] - 任务 [" + jobName + "] 出错";
-            if (jobResult != null) {
-                errMsg += "[任务名称: " + jobResult.getJobName() + ", 任务描述: " + jobResult.getJobDescription() + "]";
+            log.error("[定时任务管理器] - 任务 [" + definition.getName() + "] 出错"
+                    + "[任务名称: " + jobBean.getName() + ", 任务描述: " + jobBean.getDescription() + "]", e);
+        } finally {
+            JobContext.restore(previous);
+            if (watch != null) {
+                timedOut = watch.close();
             }
-            log.error(errMsg, e);
+        }
 
+        if (jobResult == null) {
             // 返回错误结果
-            return jobResult == null ? JobResult.fail() : jobResult.setSuccess(false);
+            jobResult = JobResult.fail();
         }
-    }
 
-    /**
-     * 根据 JobName 获取在 Springboot 容器中对应的 JonBean 类
-     *
-     * @param jobName 任务名称
-     * @return 对应的 JonBean 类
-     */
-    private static String getJobBeanName(String jobName) {
-        return jobName.substring(0, 1).toLowerCase() + jobName.substring(1) + "Job";
+        if (timedOut) {
+            jobBean.getMetrics().recordTimeout();
+            log.warn("[定时任务管理器] - 任务 [{}] 执行超过 {} 毫秒，已中断", definition.getName(), timeout);
+            jobResult.setSuccess(false).setTimedOut(true).setMessage("任务执行超时: 超过 " + timeout + " 毫秒");
+        }
+
+        // 写入任务信息
+        jobResult.setJobName(jobBean.getName());
+        jobResult.setJobDescription(jobBean.getDescription());
+
+        // 返回任务结果
+        return jobResult;
     }
-}
\ No newline at end of file
+}
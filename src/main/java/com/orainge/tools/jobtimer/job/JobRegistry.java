@@ -0,0 +1,262 @@
+package com.orainge.tools.jobtimer.job;
+
+import com.orainge.tools.jobtimer.config.JobConfig;
+import com.orainge.tools.jobtimer.job.cluster.ClusterManager;
+import com.orainge.tools.jobtimer.job.cron.CompiledCronTrigger;
+import com.orainge.tools.jobtimer.job.lane.ExecutorLane;
+import com.orainge.tools.jobtimer.job.lane.ExecutorLanes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 任务注册表<br>
+ * 启动时根据配置文件解析所有任务，建立 任务名称 / API 路径 到 JobDefinition 的映射；
+ * 配置了不存在的任务时启动失败<br>
+ * 运行时调整定时配置时整体替换映射（写时复制），读取方不加锁
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Component
+@ConditionalOnMissingBean({JobRegistry.class})
+public class JobRegistry {
+    private static final Logger log = LoggerFactory.getLogger(JobRegistry.class);
+
+    /**
+     * 任务不能使用的 API 路径: 与 JobController 中 GET /job/{路径} 形式的其他接口冲突（如 GET /job/schedule 查看定时配置）
+     */
+    private static final Set<String> RESERVED_URLS = Collections.singleton("/schedule");
+
+    @Resource
+    private JobConfig jobConfig;
+
+    @Resource
+    private ApplicationContext applicationContext;
+
+    @Resource
+    private ExecutorLanes executorLanes;
+
+    @Resource
+    private ClusterManager clusterManager;
+
+    @Resource
+    private ForkJoinPool forkJoinPool;
+
+    /**
+     * 任务名称 - 任务定义
+     */
+    private volatile Map<String, JobDefinition> jobs = Collections.emptyMap();
+
+    /**
+     * API 路径 - 任务定义
+     */
+    private volatile Map<String, JobDefinition> urls = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        Map<String, String> urlConfig = jobConfig.getApi() == null ? null : jobConfig.getApi().getUrl();
+        JobConfig.JobTaskConfig taskConfig = jobConfig.getTask();
+        Map<String, String> cronConfig = taskConfig == null ? null : taskConfig.getCron();
+        Map<String, String> policyConfig = taskConfig == null ? null : taskConfig.getOverlapPolicy();
+        Map<String, Integer> maxParallelConfig = taskConfig == null ? null : taskConfig.getMaxParallel();
+        Map<String, String> laneConfig = taskConfig == null ? null : taskConfig.getLane();
+        Map<String, Integer> priorityConfig = taskConfig == null ? null : taskConfig.getPriority();
+        Map<String, Long> timeoutConfig = taskConfig == null ? null : taskConfig.getTimeout();
+
+        // 收集所有配置的任务名称
+        Set<String> jobNames = new LinkedHashSet<>();
+        if (urlConfig != null) {
+            jobNames.addAll(urlConfig.keySet());
+        }
+        if (cronConfig != null) {
+            jobNames.addAll(cronConfig.keySet());
+        }
+        if (jobConfig.getWorkflow() != null) {
+            // 工作流中的任务
+            for (JobConfig.JobWorkflowConfig workflowConfig : jobConfig.getWorkflow().values()) {
+                if (workflowConfig.getJobs() != null) {
+                    jobNames.addAll(workflowConfig.getJobs().keySet());
+                }
+            }
+        }
+        checkJobNames("overlap-policy", policyConfig, jobNames);
+        checkJobNames("max-parallel", maxParallelConfig, jobNames);
+        checkJobNames("lane", laneConfig, jobNames);
+        checkJobNames("priority", priorityConfig, jobNames);
+        checkJobNames("timeout", timeoutConfig, jobNames);
+
+        Map<String, JobDefinition> jobs = new HashMap<>();
+        Map<String, JobDefinition> urls = new HashMap<>();
+        for (String jobName : jobNames) {
+            String url = urlConfig == null ? null : urlConfig.get(jobName);
+            String cron = cronConfig == null ? null : cronConfig.get(jobName);
+            CompiledCronTrigger trigger = StringUtils.isEmpty(cron) ? null : new CompiledCronTrigger(cron);
+            Integer maxParallel = maxParallelConfig == null ? null : maxParallelConfig.get(jobName);
+            Integer priority = priorityConfig == null ? null : priorityConfig.get(jobName);
+            Long timeout = timeoutConfig == null ? null : timeoutConfig.get(jobName);
+            JobDefinition definition = createDefinition(jobName, url, trigger,
+                    OverlapPolicy.parse(policyConfig == null ? null : policyConfig.get(jobName)),
+                    maxParallel == null ? 0 : maxParallel,
+                    laneConfig == null ? null : laneConfig.get(jobName),
+                    priority == null ? 0 : priority,
+                    timeout == null ? 0 : timeout);
+            jobs.put(jobName, definition);
+
+            if (definition.getUrl() != null) {
+                JobDefinition exist = urls.put(definition.getUrl(), definition);
+                if (exist != null) {
+                    throw new IllegalStateException("[任务注册表] - 任务 [" + exist.getName() + "] 与 [" + jobName + "] 的 API 路径重复: " + url);
+                }
+            }
+        }
+
+        this.jobs = Collections.unmodifiableMap(jobs);
+        this.urls = Collections.unmodifiableMap(urls);
+        log.info("[任务注册表] - 已注册 {} 个任务", jobs.size());
+    }
+
+    /**
+     * 创建任务定义
+     *
+     * @param jobName     任务名称
+     * @param url         API 路径，未配置时为 null
+     * @param trigger     触发器，未配置 cron 时为 null
+     * @param policy      重叠执行策略
+     * @param maxParallel 最大并行数，0 表示不限制
+     * @param laneName    执行通道名称，null 表示默认通道
+     * @param priority    优先级
+     * @param timeout     最长执行时间（单位：毫秒），0 表示不限制
+     */
+    private JobDefinition createDefinition(String jobName, String url, CompiledCronTrigger trigger, OverlapPolicy policy,
+                                           int maxParallel, String laneName, int priority, long timeout) {
+        String beanName = getJobBeanName(jobName);
+        if (!applicationContext.containsBean(beanName)) {
+            throw new IllegalStateException("[任务注册表] - 任务 [" + jobName + "] 不存在对应的 JobBean [" + beanName + "]，请检查配置文件");
+        }
+        JobBean jobBean = applicationContext.getBean(beanName, JobBean.class);
+
+        JobRunState runState = new JobRunState(policy, maxParallel);
+        ExecutorLane lane = executorLanes.getLane(laneName);
+        if (lane == null) {
+            throw new IllegalStateException("[任务注册表] - 任务 [" + jobName + "] 的执行通道 [" + laneName + "] 不存在，请检查配置文件");
+        }
+        if (url != null && RESERVED_URLS.contains(url)) {
+            throw new IllegalStateException("[任务注册表] - 任务 [" + jobName + "] 的 API 路径 [" + url + "] 为保留路径，请检查配置文件");
+        }
+        if (timeout < 0) {
+            throw new IllegalStateException("[任务注册表] - 任务 [" + jobName + "] 的最长执行时间不能小于 0，请检查配置文件");
+        }
+
+        if (jobBean instanceof ShardedJobBean) {
+            // 分片任务的分片也在任务的执行通道中执行
+            ((ShardedJobBean) jobBean).bind(lane, priority, clusterManager);
+        }
+        if (jobBean instanceof ForkJoinJobBean) {
+            // 并行计算任务共用一个 ForkJoinPool
+            ((ForkJoinJobBean<?>) jobBean).bind(forkJoinPool);
+        }
+
+        return new JobDefinition(jobName, beanName, jobBean, StringUtils.isEmpty(url) ? null : url, trigger, runState, lane, priority, timeout);
+    }
+
+    /**
+     * 批量更新任务的触发器，全部检查通过后一次性替换，未涉及的任务不受影响<br>
+     * 任务未注册时按默认配置（默认策略、默认执行通道、无 API 路径）注册
+     *
+     * @param triggers 任务名称 - 新的触发器（null 表示取消定时）
+     * @return 更新后的任务定义
+     * @throws IllegalStateException 任务不存在对应的 JobBean 时抛出，此时不做任何修改
+     */
+    public synchronized List<JobDefinition> updateTriggers(Map<String, CompiledCronTrigger> triggers) {
+        Map<String, JobDefinition> jobs = new HashMap<>(this.jobs);
+        Map<String, JobDefinition> urls = new HashMap<>(this.urls);
+        List<JobDefinition> updated = new ArrayList<>();
+        triggers.forEach((jobName, trigger) -> {
+            JobDefinition exist = jobs.get(jobName);
+            JobDefinition definition;
+            if (exist != null) {
+                definition = exist.withTrigger(trigger);
+            } else if (trigger != null) {
+                definition = createDefinition(jobName, null, trigger, OverlapPolicy.PARALLEL, 0, null, 0, 0);
+            } else {
+                return;
+            }
+            jobs.put(jobName, definition);
+            if (definition.getUrl() != null) {
+                urls.put(definition.getUrl(), definition);
+            }
+            updated.add(definition);
+        });
+
+        this.jobs = Collections.unmodifiableMap(jobs);
+        this.urls = Collections.unmodifiableMap(urls);
+        return updated;
+    }
+
+    /**
+     * 检查按任务名称配置的项是否都对应已配置的任务
+     */
+    private void checkJobNames(String configName, Map<String, ?> config, Set<String> jobNames) {
+        if (config == null) {
+            return;
+        }
+        for (String jobName : config.keySet()) {
+            if (!jobNames.contains(jobName)) {
+                throw new IllegalStateException("[任务注册表] - " + configName + " 中的任务 [" + jobName + "] 未配置 cron、API 路径或工作流，请检查配置文件");
+            }
+        }
+    }
+
+    /**
+     * 根据任务名称获取任务定义
+     *
+     * @param jobName 任务名称
+     * @return 任务定义，不存在时返回 null
+     */
+    public JobDefinition getJob(String jobName) {
+        return jobName == null ? null : jobs.get(jobName);
+    }
+
+    /**
+     * 根据 API 路径获取任务定义
+     *
+     * @param url API 路径
+     * @return 任务定义，不存在时返回 null
+     */
+    public JobDefinition getJobByUrl(String url) {
+        return url == null ? null : urls.get(url);
+    }
+
+    /**
+     * 获取所有任务定义
+     */
+    public Collection<JobDefinition> getJobs() {
+        return jobs.values();
+    }
+
+    /**
+     * 是否配置了 API 路径
+     */
+    public boolean hasUrls() {
+        return !urls.isEmpty();
+    }
+
+    /**
+     * 根据 JobName 获取在 Springboot 容器中对应的 JonBean 名称
+     *
+     * @param jobName 任务名称
+     * @return 对应的 JonBean 名称
+     */
+    public static String getJobBeanName(String jobName) {
+        return jobName.substring(0, 1).toLowerCase() + jobName.substring(1) + "Job";
+    }
+}
@@ -0,0 +1,161 @@
+package com.orainge.tools.jobtimer.job;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 定时任务运行状态<br>
+ * 根据重叠执行策略决定每次触发是否执行，使用原子变量实现，不加锁
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class JobRunState {
+    private static final int IDLE = 0;
+    private static final int RUNNING = 1;
+    private static final int RUNNING_WITH_PENDING = 2;
+
+    private final OverlapPolicy policy;
+
+    /**
+     * 最大并行数，仅 PARALLEL 策略使用，小于等于 0 时不限制
+     */
+    private final int maxParallel;
+
+    /**
+     * PARALLEL: 正在执行的数量<br>
+     * 其他策略: IDLE / RUNNING / RUNNING_WITH_PENDING
+     */
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+
+    /**
+     * 触发次数
+     */
+    private final LongAdder triggeredCount = new LongAdder();
+
+    /**
+     * 跳过次数
+     */
+    private final LongAdder skippedCount = new LongAdder();
+
+    /**
+     * 合并次数（已有待执行时的触发合并到待执行中）
+     */
+    private final LongAdder coalescedCount = new LongAdder();
+
+    public JobRunState(OverlapPolicy policy, int maxParallel) {
+        this.policy = policy;
+        this.maxParallel = maxParallel;
+    }
+
+    /**
+     * 触发任务
+     *
+     * @return true: 需要提交执行; false: 本次触发被跳过或已合并到待执行中
+     */
+    public boolean tryAcquire() {
+        triggeredCount.increment();
+
+        switch (policy) {
+            case PARALLEL:
+                while (true) {
+                    int running = state.get();
+                    if (maxParallel > 0 && running >= maxParallel) {
+                        skippedCount.increment();
+                        return false;
+                    }
+                    if (state.compareAndSet(running, running + 1)) {
+                        return true;
+                    }
+                }
+            case SKIP:
+                if (state.compareAndSet(IDLE, RUNNING)) {
+                    return true;
+                }
+                skippedCount.increment();
+                return false;
+            default:
+                while (true) {
+                    int current = state.get();
+                    if (current == IDLE) {
+                        if (state.compareAndSet(IDLE, RUNNING)) {
+                            return true;
+                        }
+                    } else if (current == RUNNING) {
+                        if (state.compareAndSet(RUNNING, RUNNING_WITH_PENDING)) {
+                            return false;
+                        }
+                    } else {
+                        coalescedCount.increment();
+                        return false;
+                    }
+                }
+        }
+    }
+
+    /**
+     * 执行结束
+     *
+     * @return true: 存在待执行，需要立即再执行一次; false: 没有待执行
+     */
+    public boolean release() {
+        switch (policy) {
+            case PARALLEL:
+                state.decrementAndGet();
+                return false;
+            case SKIP:
+                state.set(IDLE);
+                return false;
+            default:
+                while (true) {
+                    int current = state.get();
+                    if (current == RUNNING_WITH_PENDING) {
+                        if (state.compareAndSet(RUNNING_WITH_PENDING, RUNNING)) {
+                            return true;
+                        }
+                    } else if (state.compareAndSet(current, IDLE)) {
+                        return false;
+                    }
+                }
+        }
+    }
+
+    /**
+     * 提交执行失败时撤销本次触发，待执行也一并丢弃
+     */
+    public void abort() {
+        if (policy == OverlapPolicy.PARALLEL) {
+            state.decrementAndGet();
+        } else {
+            state.set(IDLE);
+        }
+        skippedCount.increment();
+    }
+
+    public OverlapPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getMaxParallel() {
+        return maxParallel;
+    }
+
+    /**
+     * 当前是否正在执行
+     */
+    public boolean isRunning() {
+        return state.get() != IDLE;
+    }
+
+    public long getTriggeredCount() {
+        return triggeredCount.sum();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+}
@@ -0,0 +1,52 @@
+package com.orainge.tools.jobtimer.job;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * 定时任务重叠执行策略<br>
+ * 上一次执行尚未结束时，再次触发任务的处理方式
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public enum OverlapPolicy {
+    /**
+     * 正在执行时跳过本次触发
+     */
+    SKIP,
+
+    /**
+     * 正在执行时保留一次待执行，执行结束后立即再执行一次；已有待执行时的触发合并到待执行中，计为合并<br>
+     * 定时触发不带参数，保留第一次还是最后一次触发没有区别，配置为 coalesce 时也使用该策略
+     */
+    QUEUE_ONE,
+
+    /**
+     * 允许并行执行，可限制最大并行数（默认）
+     */
+    PARALLEL;
+
+    /**
+     * 解析配置文件中的策略名称<br>
+     * 支持 skip, queue-one, coalesce（同 queue-one）, parallel（不区分大小写）
+     *
+     * @param value 策略名称
+     * @return 策略，为空时返回 PARALLEL
+     */
+    public static OverlapPolicy parse(String value) {
+        if (StringUtils.isEmpty(value)) {
+            return PARALLEL;
+        }
+
+        String name = value.trim().replace('-', '_').toUpperCase();
+        if ("COALESCE".equals(name)) {
+            return QUEUE_ONE;
+        }
+        for (OverlapPolicy policy : values()) {
+            if (policy.name().equals(name)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("[定时任务配置工具] - 不支持的重叠执行策略: " + value);
+    }
+}
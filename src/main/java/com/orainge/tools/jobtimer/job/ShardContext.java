@@ -0,0 +1,48 @@
+package com.orainge.tools.jobtimer.job;
+
+/**
+ * 分片信息<br>
+ * 分片任务按 index / total 划分数据，例如处理 id % total == index 的记录
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class ShardContext {
+    /**
+     * 分片序号（从 0 开始）
+     */
+    private final int index;
+
+    /**
+     * 分片总数
+     */
+    private final int total;
+
+    /**
+     * 集群模式下分片任务锁的防护令牌，非集群模式时为 null
+     */
+    private final Long fencingToken;
+
+    ShardContext(int index, int total, Long fencingToken) {
+        this.index = index;
+        this.total = total;
+        this.fencingToken = fencingToken;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public Long getFencingToken() {
+        return fencingToken;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + total;
+    }
+}
@@ -0,0 +1,279 @@
+package com.orainge.tools.jobtimer.job;
+
+import com.orainge.tools.jobtimer.job.cluster.ClusterManager;
+import com.orainge.tools.jobtimer.job.cluster.JobLease;
+import com.orainge.tools.jobtimer.job.lane.ExecutorLane;
+import com.orainge.tools.jobtimer.vo.JobResult;
+import com.orainge.tools.jobtimer.vo.ShardResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 分片任务抽象类<br>
+ * 一次执行拆分为多个分片，分片提交到任务的执行通道并行执行，执行通道繁忙时由当前线程执行尚未开始的分片；
+ * 集群模式下定时触发时，每个分片按 Rendezvous 哈希分配到一个存活节点并分别获取任务锁，各节点只执行分配给自己的分片<br>
+ * 所有分片结束后合并为一个执行结果，其中包含每个分片的执行结果与耗时<br>
+ * 任务配置了最长执行时间时，分片使用任务的截止时间: 超时后中断正在执行的分片，尚未开始的分片不再执行
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public abstract class ShardedJobBean extends JobBean {
+    private static final Logger log = LoggerFactory.getLogger(ShardedJobBean.class);
+
+    /**
+     * 默认分片总数
+     */
+    private final int shardCount;
+
+    /**
+     * 分片执行通道，由 JobRegistry 设置为任务的执行通道
+     */
+    private volatile ExecutorLane shardLane;
+
+    /**
+     * 分片的优先级，由 JobRegistry 设置为任务的优先级
+     */
+    private volatile int shardPriority;
+
+    /**
+     * 集群管理器，由 JobRegistry 设置
+     */
+    private volatile ClusterManager clusterManager;
+
+    public ShardedJobBean(String name, String description, int shardCount) {
+        super(name, description);
+        this.shardCount = Math.max(shardCount, 1);
+    }
+
+    void bind(ExecutorLane shardLane, int shardPriority, ClusterManager clusterManager) {
+        this.shardLane = shardLane;
+        this.shardPriority = shardPriority;
+        this.clusterManager = clusterManager;
+    }
+
+    /**
+     * 获取本次执行的分片总数，可重写以根据执行参数决定
+     *
+     * @param execParam 执行参数
+     * @return 分片总数
+     */
+    protected int getShardCount(Map<String, String[]> execParam) {
+        return shardCount;
+    }
+
+    /**
+     * 执行单个分片<br>
+     * 需要重写具体的执行方法
+     *
+     * @param shard     分片信息
+     * @param execParam 执行参数
+     * @return 分片执行结果
+     */
+    public abstract JobResult doExecuteShard(ShardContext shard, Map<String, String[]> execParam);
+
+    @Override
+    public final JobResult doExecute(Map<String, String[]> execParam) {
+        int total = Math.max(getShardCount(execParam), 1);
+        JobContext context = JobContext.current();
+        ClusterManager clusterManager = this.clusterManager;
+        boolean distributed = clusterManager != null && clusterManager.isEnable() && context != null && context.isScheduled();
+
+        ShardTask[] tasks = new ShardTask[total];
+        for (int i = 0; i < total; i++) {
+            tasks[i] = new ShardTask(new ShardContext(i, total, null), execParam, context, distributed ? clusterManager : null);
+        }
+
+        // 提交到执行通道，第 0 个分片由当前线程执行
+        ExecutorLane lane = this.shardLane;
+        if (lane != null) {
+            for (int i = 1; i < total; i++) {
+                try {
+                    lane.execute(tasks[i], shardPriority);
+                } catch (RejectedExecutionException e) {
+                    // 执行通道已满，由当前线程执行
+                    break;
+                }
+            }
+        }
+
+        // 当前线程执行所有尚未开始的分片，避免执行通道繁忙时互相等待
+        for (ShardTask task : tasks) {
+            task.run();
+        }
+
+        List<ShardResult> shardResults = new ArrayList<>(total);
+        List<JobResult> jobResults = new ArrayList<>(total);
+        for (ShardTask task : tasks) {
+            task.await();
+            shardResults.add(task.shardResult);
+            jobResults.add(task.jobResult);
+        }
+        return merge(shardResults, jobResults);
+    }
+
+    /**
+     * 合并分片执行结果，可重写以自定义合并方式
+     *
+     * @param shardResults 每个分片的执行情况
+     * @param jobResults   每个分片的执行结果，未在当前节点执行或执行出错的分片为 null
+     * @return 合并后的执行结果
+     */
+    protected JobResult merge(List<ShardResult> shardResults, List<JobResult> jobResults) {
+        int successCount = 0;
+        int failCount = 0;
+        int skippedCount = 0;
+        JobResult result = JobResult.build();
+        for (int i = 0; i < shardResults.size(); i++) {
+            ShardResult shardResult = shardResults.get(i);
+            if (!shardResult.isExecuted()) {
+                skippedCount++;
+                continue;
+            }
+
+            if (shardResult.isSuccess()) {
+                successCount++;
+            } else {
+                failCount++;
+            }
+
+            JobResult jobResult = jobResults.get(i);
+            if (jobResult != null && jobResult.getMessageDescription() != null) {
+                for (String description : jobResult.getMessageDescription()) {
+                    result.addMessageDescription("[分片 " + i + "] " + description);
+                }
+            }
+        }
+
+        String message = "分片执行完成: 成功 " + successCount + " 个, 失败 " + failCount + " 个";
+        if (skippedCount > 0) {
+            message += ", 由其他节点执行 " + skippedCount + " 个";
+        }
+        return result.setSuccess(failCount == 0).setMessage(message).setShards(shardResults);
+    }
+
+    /**
+     * 单个分片的执行任务，只会被执行一次（由执行通道或提交分片的线程执行）
+     */
+    private class ShardTask implements Runnable {
+        private final ShardContext shard;
+        private final Map<String, String[]> execParam;
+        private final JobContext parentContext;
+        private final ClusterManager clusterManager;
+        private final long dispatchTime = System.nanoTime();
+        private final Thread dispatchThread = Thread.currentThread();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private ShardResult shardResult;
+        private JobResult jobResult;
+
+        private ShardTask(ShardContext shard, Map<String, String[]> execParam, JobContext parentContext, ClusterManager clusterManager) {
+            this.shard = shard;
+            this.execParam = execParam;
+            this.parentContext = parentContext;
+            this.clusterManager = clusterManager;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+
+            long startTime = System.nanoTime();
+            ShardResult result = new ShardResult().setIndex(shard.getIndex())
+                    .setWaitTime(TimeUnit.NANOSECONDS.toMillis(startTime - dispatchTime));
+            try {
+                if (clusterManager == null) {
+                    runShard(shard, null, result);
+                    return;
+                }
+
+                // 集群模式: 只执行分配给当前节点且获取到任务锁的分片
+                String shardKey = getShardKey();
+                result.setNode(clusterManager.getNodeId());
+                // 定时触发时按触发时间获取分片任务锁，同一次触发的分片只执行一次
+                long fireTime = parentContext == null ? 0 : parentContext.getFireTime();
+                JobLease lease = clusterManager.isOwner(shardKey) ? clusterManager.tryAcquire(shardKey, fireTime) : null;
+                if (lease == null) {
+                    result.setMessage("由其他节点执行");
+                    return;
+                }
+                try {
+                    runShard(new ShardContext(shard.getIndex(), shard.getTotal(), lease.getFencingToken()), lease, result);
+                } finally {
+                    clusterManager.release(lease);
+                }
+            } finally {
+                result.setCostTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                shardResult = result;
+                done.countDown();
+            }
+        }
+
+        private void runShard(ShardContext shardContext, JobLease lease, ShardResult result) {
+            JobContext context = parentContext == null
+                    ? new JobContext(getName(), lease, false)
+                    : new JobContext(parentContext.getJobName(), lease, parentContext.isScheduled(), parentContext.getWorkflowName(),
+                    parentContext.getUpstreamResults(), parentContext.getProgressSink());
+            result.setExecuted(true);
+            if (parentContext != null && parentContext.hasDeadline()) {
+                context.setDeadline(parentContext.getDeadline());
+                if (context.isTimedOut()) {
+                    result.setSuccess(false);
+                    result.setMessage("任务已超时，分片未执行");
+                    return;
+                }
+            }
+
+            // 在执行通道中执行的分片单独监控截止时间，由提交分片的线程执行时已在任务的监控范围内
+            DeadlineWatchdog.Watch watch = context.hasDeadline() && Thread.currentThread() != dispatchThread
+                    ? DeadlineWatchdog.watch(context) : null;
+            JobContext previous = JobContext.bind(context);
+            try {
+                jobResult = doExecuteShard(shardContext, execParam);
+                result.setSuccess(jobResult != null && jobResult.isSuccess());
+                result.setMessage(jobResult == null ? null : jobResult.getMessage());
+            } catch (Exception e) {
+                log.error("[" + getName() + "] - " + getDescription() + ": 分片 " + shardContext + " 出错", e);
+                result.setSuccess(false);
+                result.setMessage("分片执行出错: " + e.getMessage());
+            } finally {
+                JobContext.restore(previous);
+                if ((watch != null && watch.close()) || context.isTimedOut()) {
+                    result.setSuccess(false);
+                    result.setMessage("分片执行超时");
+                }
+            }
+        }
+
+        private String getShardKey() {
+            String jobName = parentContext == null ? getName() : parentContext.getJobName();
+            return jobName + "#" + shard.getIndex();
+        }
+
+        private void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
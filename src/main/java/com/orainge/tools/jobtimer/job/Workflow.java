@@ -0,0 +1,180 @@
+package com.orainge.tools.jobtimer.job;
+
+import com.orainge.tools.jobtimer.job.cron.CompiledCronTrigger;
+
+import java.util.*;
+
+/**
+ * 工作流定义<br>
+ * 由任务及任务间的依赖组成的有向无环图，启动时由 WorkflowManager 创建，创建后不可修改
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public final class Workflow {
+    /**
+     * 有任务未配置最长执行时间时，等待工作流执行结束的最长时间（单位：毫秒）
+     */
+    private static final long DEFAULT_TIMEOUT = 600000;
+
+    /**
+     * 工作流名称
+     */
+    private final String name;
+
+    /**
+     * 定时触发器，未配置 cron 时为 null
+     */
+    private final CompiledCronTrigger trigger;
+
+    /**
+     * 工作流中的任务（按拓扑顺序）
+     */
+    private final List<JobDefinition> jobs;
+
+    /**
+     * 任务名称 - 任务定义
+     */
+    private final Map<String, JobDefinition> jobMap;
+
+    /**
+     * 任务名称 - 上游任务名称
+     */
+    private final Map<String, List<String>> upstream;
+
+    /**
+     * 任务名称 - 下游任务名称
+     */
+    private final Map<String, List<String>> downstream;
+
+    /**
+     * 等待工作流执行结束的最长时间（单位：毫秒）
+     */
+    private final long timeout;
+
+    /**
+     * 工作流运行状态（上一次未结束时跳过本次触发）
+     */
+    private final JobRunState runState = new JobRunState(OverlapPolicy.SKIP, 0);
+
+    Workflow(String name, CompiledCronTrigger trigger, Map<String, JobDefinition> jobDefinitions, Map<String, List<String>> upstream, long timeout) {
+        this.name = name;
+        this.trigger = trigger;
+
+        Map<String, List<String>> downstream = new HashMap<>();
+        for (String jobName : jobDefinitions.keySet()) {
+            downstream.put(jobName, new ArrayList<>());
+        }
+        for (Map.Entry<String, List<String>> entry : upstream.entrySet()) {
+            for (String upstreamJob : entry.getValue()) {
+                List<String> list = downstream.get(upstreamJob);
+                if (list == null) {
+                    throw new IllegalStateException("[工作流] - 工作流 [" + name + "] 中任务 [" + entry.getKey()
+                            + "] 依赖的任务 [" + upstreamJob + "] 不在该工作流中，请检查配置文件");
+                }
+                list.add(entry.getKey());
+            }
+        }
+
+        // 拓扑排序，同时检查是否存在循环依赖
+        Map<String, Integer> inDegree = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+        for (String jobName : jobDefinitions.keySet()) {
+            int degree = upstream.get(jobName).size();
+            inDegree.put(jobName, degree);
+            if (degree == 0) {
+                ready.add(jobName);
+            }
+        }
+        List<JobDefinition> sorted = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            String jobName = ready.poll();
+            sorted.add(jobDefinitions.get(jobName));
+            for (String next : downstream.get(jobName)) {
+                if (inDegree.merge(next, -1, Integer::sum) == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+        if (sorted.size() != jobDefinitions.size()) {
+            List<String> cycle = new ArrayList<>();
+            inDegree.forEach((jobName, degree) -> {
+                if (degree > 0) {
+                    cycle.add(jobName);
+                }
+            });
+            throw new IllegalStateException("[工作流] - 工作流 [" + name + "] 存在循环依赖: " + cycle);
+        }
+
+        this.jobs = Collections.unmodifiableList(sorted);
+        this.jobMap = Collections.unmodifiableMap(new HashMap<>(jobDefinitions));
+        this.upstream = Collections.unmodifiableMap(upstream);
+        this.downstream = Collections.unmodifiableMap(downstream);
+        this.timeout = timeout > 0 ? timeout : criticalPathTimeout();
+    }
+
+    /**
+     * 按拓扑顺序将各任务的最长执行时间沿依赖关系累加，取最长的一条路径
+     *
+     * @return 最长路径的执行时间（单位：毫秒），有任务未配置最长执行时间时返回默认值
+     */
+    private long criticalPathTimeout() {
+        Map<String, Long> finishTime = new HashMap<>();
+        long max = 0;
+        for (JobDefinition definition : jobs) {
+            if (definition.getTimeout() <= 0) {
+                return DEFAULT_TIMEOUT;
+            }
+            long start = 0;
+            for (String upstreamJob : upstream.get(definition.getName())) {
+                start = Math.max(start, finishTime.get(upstreamJob));
+            }
+            long finish = start + definition.getTimeout();
+            finishTime.put(definition.getName(), finish);
+            max = Math.max(max, finish);
+        }
+        return max;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CompiledCronTrigger getTrigger() {
+        return trigger;
+    }
+
+    public List<JobDefinition> getJobs() {
+        return jobs;
+    }
+
+    public JobDefinition getJob(String jobName) {
+        return jobMap.get(jobName);
+    }
+
+    public List<String> getUpstream(String jobName) {
+        return upstream.get(jobName);
+    }
+
+    public List<String> getDownstream(String jobName) {
+        return downstream.get(jobName);
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public JobRunState getRunState() {
+        return runState;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                "name=" + name +
+                ", cron=" + (trigger == null ? null : trigger.toString()) +
+                ", upstream=" + upstream +
+                ", timeout=" + timeout +
+                '}';
+    }
+}
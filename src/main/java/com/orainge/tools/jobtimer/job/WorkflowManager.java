@@ -0,0 +1,363 @@
+package com.orainge.tools.jobtimer.job;
+
+import com.orainge.tools.jobtimer.config.JobConfig;
+import com.orainge.tools.jobtimer.job.cluster.ClusterManager;
+import com.orainge.tools.jobtimer.job.cluster.JobLease;
+import com.orainge.tools.jobtimer.job.cron.CompiledCronTrigger;
+import com.orainge.tools.jobtimer.util.thread.CountingRejectedExecutionHandler;
+import com.orainge.tools.jobtimer.util.thread.DiscardableTask;
+import com.orainge.tools.jobtimer.vo.JobResult;
+import com.orainge.tools.jobtimer.vo.WorkflowResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 工作流管理器<br>
+ * 按配置的依赖关系执行任务: 没有依赖的任务在工作流开始时并行执行，任务的上游全部执行成功后立即在其执行通道中执行，
+ * 上游任务失败或执行通道已满时其所有下游任务都不执行；上游任务的执行结果通过 JobContext.getUpstreamResults() 传给下游任务
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Component
+@ConditionalOnMissingBean({WorkflowManager.class})
+public class WorkflowManager {
+    private static final Logger log = LoggerFactory.getLogger(WorkflowManager.class);
+
+    /**
+     * 集群模式下工作流任务锁名称前缀
+     */
+    private static final String LOCK_PREFIX = "workflow:";
+
+    private static final int PENDING = 0;
+    private static final int STARTED = 1;
+    private static final int SKIPPED = 2;
+
+    @Resource
+    private JobConfig jobConfig;
+
+    @Resource
+    private JobRegistry jobRegistry;
+
+    @Resource
+    private ClusterManager clusterManager;
+
+    /**
+     * 工作流名称 - 工作流定义
+     */
+    private Map<String, Workflow> workflows = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        Map<String, JobConfig.JobWorkflowConfig> workflowConfig = jobConfig.getWorkflow();
+        if (workflowConfig == null || workflowConfig.isEmpty()) {
+            return;
+        }
+
+        Map<String, Workflow> workflows = new LinkedHashMap<>();
+        workflowConfig.forEach((workflowName, config) -> {
+            if (config.getJobs() == null || config.getJobs().isEmpty()) {
+                throw new IllegalStateException("[工作流] - 工作流 [" + workflowName + "] 没有配置任务，请检查配置文件");
+            }
+
+            Map<String, JobDefinition> definitions = new LinkedHashMap<>();
+            Map<String, List<String>> upstream = new HashMap<>();
+            config.getJobs().forEach((jobName, dependencies) -> {
+                JobDefinition definition = jobRegistry.getJob(jobName);
+                if (definition == null) {
+                    throw new IllegalStateException("[工作流] - 工作流 [" + workflowName + "] 中的任务 [" + jobName + "] 不存在，请检查配置文件");
+                }
+                definitions.put(jobName, definition);
+
+                // 去除空白与重复的依赖
+                Set<String> dependencySet = new LinkedHashSet<>();
+                if (dependencies != null) {
+                    for (String dependency : dependencies) {
+                        if (!StringUtils.isEmpty(dependency) && !StringUtils.isEmpty(dependency.trim())) {
+                            dependencySet.add(dependency.trim());
+                        }
+                    }
+                }
+                upstream.put(jobName, Collections.unmodifiableList(new ArrayList<>(dependencySet)));
+            });
+
+            CompiledCronTrigger trigger = StringUtils.isEmpty(config.getCron()) ? null : new CompiledCronTrigger(config.getCron());
+            Workflow workflow = new Workflow(workflowName, trigger, definitions, upstream, config.getTimeout());
+            workflows.put(workflowName, workflow);
+            log.info("[工作流] - 已配置工作流: {}", workflow);
+        });
+        this.workflows = Collections.unmodifiableMap(workflows);
+    }
+
+    /**
+     * 根据名称获取工作流
+     *
+     * @param workflowName 工作流名称
+     * @return 工作流，不存在时返回 null
+     */
+    public Workflow getWorkflow(String workflowName) {
+        return workflowName == null ? null : workflows.get(workflowName);
+    }
+
+    /**
+     * 获取所有工作流
+     */
+    public Collection<Workflow> getWorkflows() {
+        return workflows.values();
+    }
+
+    /**
+     * 定时触发工作流<br>
+     * 上一次执行未结束时跳过本次触发；集群模式下只在获取到本次触发的任务锁的节点上执行
+     *
+     * @param workflow 工作流
+     * @param fireTime 触发时间（cron 计算出的执行时间）
+     */
+    public void trigger(Workflow workflow, long fireTime) {
+        String lockName = LOCK_PREFIX + workflow.getName();
+        if (!clusterManager.isOwner(lockName)) {
+            log.debug("[工作流] - 工作流 [{}] 由其他节点执行", workflow.getName());
+            return;
+        }
+
+        JobRunState runState = workflow.getRunState();
+        if (!runState.tryAcquire()) {
+            log.warn("[工作流] - 工作流 [{}] 正在执行，跳过本次触发", workflow.getName());
+            return;
+        }
+
+        JobLease lease = null;
+        if (clusterManager.isEnable()) {
+            lease = clusterManager.tryAcquire(lockName, fireTime);
+            if (lease == null) {
+                runState.release();
+                log.info("[工作流] - 工作流 [{}] 的任务锁由其他节点持有或本次触发已执行，本次不执行", workflow.getName());
+                return;
+            }
+        }
+
+        JobLease workflowLease = lease;
+        try {
+            start(workflow, null, fireTime, workflowLease).whenComplete((result, e) -> {
+                if (workflowLease != null) {
+                    clusterManager.release(workflowLease);
+                }
+                runState.release();
+                if (result != null) {
+                    log.info("[工作流] - 工作流 [{}] {}，耗时 {} ms", workflow.getName(), result.getMessage(), result.getCostTime());
+                }
+            });
+        } catch (RuntimeException e) {
+            if (workflowLease != null) {
+                clusterManager.release(workflowLease);
+            }
+            runState.release();
+            log.error("[工作流] - 工作流 [" + workflow.getName() + "] 启动失败", e);
+        }
+    }
+
+    /**
+     * 执行工作流并等待执行结束，最多等待工作流的最长等待时间<br>
+     * 超过时返回未成功的执行结果（包含已结束任务的执行结果），工作流继续在后台执行
+     *
+     * @param workflow  工作流
+     * @param execParam 执行参数，传给工作流中的每个任务
+     * @return 执行结果
+     */
+    public WorkflowResult execute(Workflow workflow, Map<String, String[]> execParam) {
+        WorkflowRun run = new WorkflowRun(workflow, execParam, 0, null);
+        run.start();
+        try {
+            return run.future.get(workflow.getTimeout(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("[工作流] - 工作流 [{}] 超过 {} 毫秒未执行结束，不再等待", workflow.getName(), workflow.getTimeout());
+            return run.snapshot().setMessage("等待超时: 超过 " + workflow.getTimeout() + " 毫秒未执行结束，工作流仍在执行");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("[工作流] - 等待工作流 [" + workflow.getName() + "] 执行结束时被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("[工作流] - 工作流 [" + workflow.getName() + "] 执行出错", e.getCause());
+        }
+    }
+
+    /**
+     * 开始执行工作流
+     *
+     * @param fireTime 触发时间，通过 API 执行时为 0
+     * @return 工作流执行结束时完成
+     */
+    private CompletableFuture<WorkflowResult> start(Workflow workflow, Map<String, String[]> execParam, long fireTime, JobLease lease) {
+        WorkflowRun run = new WorkflowRun(workflow, execParam, fireTime, lease);
+        run.start();
+        return run.future;
+    }
+
+    /**
+     * 一次工作流执行
+     */
+    private static class WorkflowRun {
+        private final Workflow workflow;
+        private final Map<String, String[]> execParam;
+        private final long fireTime;
+        private final JobLease lease;
+        private final long startTime = System.nanoTime();
+        private final CompletableFuture<WorkflowResult> future = new CompletableFuture<>();
+
+        /**
+         * 任务名称 - 执行结果
+         */
+        private final Map<String, JobResult> results = new ConcurrentHashMap<>();
+
+        /**
+         * 任务名称 - 尚未成功的上游任务数
+         */
+        private final Map<String, AtomicInteger> remaining = new HashMap<>();
+
+        /**
+         * 任务名称 - 状态（PENDING / STARTED / SKIPPED）
+         */
+        private final Map<String, AtomicInteger> states = new HashMap<>();
+
+        /**
+         * 尚未结束的任务数
+         */
+        private final AtomicInteger unfinished;
+
+        private WorkflowRun(Workflow workflow, Map<String, String[]> execParam, long fireTime, JobLease lease) {
+            this.workflow = workflow;
+            this.execParam = execParam;
+            this.fireTime = fireTime;
+            this.lease = lease;
+            for (JobDefinition definition : workflow.getJobs()) {
+                remaining.put(definition.getName(), new AtomicInteger(workflow.getUpstream(definition.getName()).size()));
+                states.put(definition.getName(), new AtomicInteger(PENDING));
+            }
+            this.unfinished = new AtomicInteger(workflow.getJobs().size());
+        }
+
+        private void start() {
+            for (JobDefinition definition : workflow.getJobs()) {
+                if (workflow.getUpstream(definition.getName()).isEmpty()) {
+                    submit(definition);
+                }
+            }
+        }
+
+        /**
+         * 提交任务到任务的执行通道<br>
+         * 提交不会在当前线程执行任务；执行通道拒绝或排队时被丢弃时任务记为未成功，其下游任务都不执行
+         */
+        private void submit(JobDefinition definition) {
+            if (!states.get(definition.getName()).compareAndSet(PENDING, STARTED)) {
+                return;
+            }
+
+            try {
+                CountingRejectedExecutionHandler.submitStrictly(() -> definition.execute(DiscardableTask.of(() -> runJob(definition), () -> {
+                    log.warn("[工作流] - 工作流 [{}] 中任务 [{}] 排队时被丢弃，执行通道已满", workflow.getName(), definition.getName());
+                    complete(definition.getName(), failResult(definition, "任务排队时被丢弃，执行通道已满"));
+                })));
+            } catch (RejectedExecutionException e) {
+                log.warn("[工作流] - 工作流 [{}] 中任务 [{}] 提交失败，执行通道已满", workflow.getName(), definition.getName());
+                complete(definition.getName(), failResult(definition, "任务提交失败，执行通道已满"));
+            }
+        }
+
+        private JobResult failResult(JobDefinition definition, String message) {
+            JobResult result = JobResult.fail().setMessage(message);
+            result.setJobName(definition.getJobBean().getName());
+            result.setJobDescription(definition.getJobBean().getDescription());
+            return result;
+        }
+
+        private void runJob(JobDefinition definition) {
+            Map<String, JobResult> upstreamResults = new HashMap<>();
+            for (String upstreamJob : workflow.getUpstream(definition.getName())) {
+                upstreamResults.put(upstreamJob, results.get(upstreamJob));
+            }
+
+            JobResult result;
+            try {
+                JobContext context = new JobContext(definition.getName(), lease, fireTime > 0, workflow.getName(), upstreamResults);
+                context.setFireTime(fireTime);
+                result = JobManager.execute(definition, execParam, context);
+            } catch (Throwable e) {
+                log.error("[工作流] - 工作流 [" + workflow.getName() + "] 中任务 [" + definition.getName() + "] 出错", e);
+                result = JobResult.fail().setMessage("任务执行出错: " + e.getMessage());
+            }
+            complete(definition.getName(), result);
+        }
+
+        private void complete(String jobName, JobResult result) {
+            results.put(jobName, result);
+            for (String next : workflow.getDownstream(jobName)) {
+                if (!result.isSuccess()) {
+                    skip(next, jobName);
+                } else if (remaining.get(next).decrementAndGet() == 0) {
+                    submit(workflow.getJob(next));
+                }
+            }
+            finishOne();
+        }
+
+        /**
+         * 上游任务失败时，跳过任务及其所有下游任务
+         */
+        private void skip(String jobName, String failedUpstream) {
+            if (!states.get(jobName).compareAndSet(PENDING, SKIPPED)) {
+                return;
+            }
+
+            JobDefinition definition = workflow.getJob(jobName);
+            JobResult result = JobResult.fail().setMessage("上游任务 [" + failedUpstream + "] 未成功，未执行");
+            result.setJobName(definition.getJobBean().getName());
+            result.setJobDescription(definition.getJobBean().getDescription());
+            results.put(jobName, result);
+            for (String next : workflow.getDownstream(jobName)) {
+                skip(next, jobName);
+            }
+            finishOne();
+        }
+
+        private void finishOne() {
+            if (unfinished.decrementAndGet() != 0) {
+                return;
+            }
+
+            WorkflowResult result = snapshot();
+            int total = result.getJobs().size();
+            long successCount = result.getJobs().values().stream().filter(JobResult::isSuccess).count();
+            future.complete(result.setMessage("执行完成: 成功 " + successCount + " 个, 未成功 " + (total - successCount) + " 个"));
+        }
+
+        /**
+         * 按当前已结束任务的执行结果生成工作流执行结果，尚未结束的任务没有执行结果
+         */
+        private WorkflowResult snapshot() {
+            Map<String, JobResult> jobResults = new LinkedHashMap<>();
+            int successCount = 0;
+            for (JobDefinition definition : workflow.getJobs()) {
+                JobResult result = results.get(definition.getName());
+                jobResults.put(definition.getName(), result);
+                if (result != null && result.isSuccess()) {
+                    successCount++;
+                }
+            }
+
+            return new WorkflowResult()
+                    .setWorkflowName(workflow.getName())
+                    .setSuccess(successCount == jobResults.size())
+                    .setCostTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime))
+                    .setJobs(jobResults);
+        }
+    }
+}
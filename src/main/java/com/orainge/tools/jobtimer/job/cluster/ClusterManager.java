@@ -0,0 +1,286 @@
+package com.orainge.tools.jobtimer.job.cluster;
+
+import com.orainge.tools.jobtimer.config.ClusterConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群管理器<br>
+ * 定时任务执行前获取任务锁，保证同一次触发只在一个节点上执行；
+ * 各节点定时写入心跳，每个任务按 Rendezvous 哈希分配到一个存活节点，使任务分散到各节点执行；
+ * 任务执行期间自动续约
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Component
+@ConditionalOnMissingBean({ClusterManager.class})
+public class ClusterManager implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ClusterManager.class);
+
+    @Resource
+    private ClusterConfig clusterConfig;
+
+    @Autowired
+    private ObjectProvider<JobLockProvider> jobLockProviders;
+
+    @Autowired
+    private ObjectProvider<DataSource> dataSources;
+
+    private boolean enable = false;
+
+    private String nodeId;
+
+    private JobLockProvider lockProvider;
+
+    /**
+     * 心跳与续约线程
+     */
+    private ScheduledExecutorService maintainer;
+
+    /**
+     * 存活节点（按节点 ID 排序）
+     */
+    private volatile List<String> liveNodes = Collections.emptyList();
+
+    /**
+     * 正在执行的任务的租约
+     */
+    private final Set<JobLease> activeLeases = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        enable = clusterConfig.isEnable();
+        if (!enable) {
+            log.info("[集群管理器] - 集群模式已关闭");
+            return;
+        }
+
+        nodeId = StringUtils.isEmpty(clusterConfig.getNodeId())
+                ? ManagementFactory.getRuntimeMXBean().getName()
+                : clusterConfig.getNodeId();
+        lockProvider = createLockProvider();
+
+        // 启动时先写入一次心跳，确保自身在存活节点中
+        heartbeat();
+
+        maintainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jobTimerCluster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatInterval = Math.max(clusterConfig.getHeartbeatInterval(), 100);
+        long renewInterval = Math.max(clusterConfig.getLeaseTime() / 3, 100);
+        maintainer.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+        maintainer.scheduleWithFixedDelay(this::renewLeases, renewInterval, renewInterval, TimeUnit.MILLISECONDS);
+
+        log.info("[集群管理器] - 集群模式已开启，节点 ID: {}，任务锁: {}", nodeId, lockProvider.getClass().getSimpleName());
+    }
+
+    /**
+     * 创建任务锁，容器中存在 JobLockProvider 时优先使用
+     */
+    private JobLockProvider createLockProvider() {
+        JobLockProvider provider = jobLockProviders.getIfAvailable();
+        if (provider != null) {
+            return provider;
+        }
+
+        String type = clusterConfig.getType();
+        if ("file".equalsIgnoreCase(type)) {
+            String directory = clusterConfig.getFile() == null ? null : clusterConfig.getFile().getDirectory();
+            if (StringUtils.isEmpty(directory)) {
+                throw new IllegalStateException("[集群管理器] - 文件任务锁需要配置 job-timer.cluster.file.directory");
+            }
+            return new FileJobLockProvider(directory);
+        } else if ("jdbc".equalsIgnoreCase(type)) {
+            DataSource dataSource = dataSources.getIfAvailable();
+            if (dataSource == null) {
+                throw new IllegalStateException("[集群管理器] - JDBC 任务锁需要在容器中配置 DataSource");
+            }
+            ClusterConfig.ClusterJdbcConfig jdbcConfig = clusterConfig.getJdbc();
+            JdbcJobLockProvider jdbcProvider = new JdbcJobLockProvider(dataSource, jdbcConfig.getTablePrefix());
+            if (jdbcConfig.isInitializeSchema()) {
+                jdbcProvider.initializeSchema();
+            }
+            return jdbcProvider;
+        } else {
+            throw new IllegalStateException("[集群管理器] - 不支持的任务锁类型: " + type);
+        }
+    }
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public List<String> getLiveNodes() {
+        return liveNodes;
+    }
+
+    /**
+     * 判断任务是否分配给当前节点<br>
+     * 未开启分散执行时所有节点都参与竞争
+     *
+     * @param jobName 任务名称
+     * @return true: 当前节点负责执行该任务
+     */
+    public boolean isOwner(String jobName) {
+        if (!enable || !clusterConfig.isSpread()) {
+            return true;
+        }
+
+        List<String> nodes = liveNodes;
+        if (nodes.isEmpty()) {
+            return true;
+        }
+
+        String owner = null;
+        long ownerWeight = 0;
+        for (String node : nodes) {
+            long weight = weight(node, jobName);
+            if (owner == null || Long.compareUnsigned(weight, ownerWeight) > 0) {
+                owner = node;
+                ownerWeight = weight;
+            }
+        }
+        return nodeId.equals(owner);
+    }
+
+    /**
+     * 获取任务锁，获取成功后在执行期间自动续约
+     *
+     * @param jobName 任务名称
+     * @return 租约，任务锁被其他节点持有或获取出错时返回 null
+     */
+    public JobLease tryAcquire(String jobName) {
+        return tryAcquire(jobName, 0);
+    }
+
+    /**
+     * 获取任务某一次触发的任务锁，获取成功后在执行期间自动续约<br>
+     * 同一次触发只能获取一次: 其他节点晚于任务锁的保持时间才执行到同一次触发时也不会重复执行
+     *
+     * @param jobName  任务名称
+     * @param fireTime 触发时间（cron 计算出的执行时间），0 表示不按触发时间判断
+     * @return 租约，任务锁被其他节点持有、该触发已执行或获取出错时返回 null
+     */
+    public JobLease tryAcquire(String jobName, long fireTime) {
+        try {
+            JobLease lease = lockProvider.tryAcquire(jobName, nodeId, System.currentTimeMillis() + clusterConfig.getLeaseTime(), fireTime);
+            if (lease != null) {
+                activeLeases.add(lease);
+            }
+            return lease;
+        } catch (RuntimeException e) {
+            log.error("[集群管理器] - 任务 [" + jobName + "] 获取任务锁失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 释放任务锁<br>
+     * 任务锁至少保持到 加锁时间 + lockAtLeast，避免其他节点因时钟偏差重复执行同一次触发
+     *
+     * @param lease 租约
+     */
+    public void release(JobLease lease) {
+        activeLeases.remove(lease);
+        long lockUntil = Math.max(System.currentTimeMillis(), lease.getAcquiredTime() + clusterConfig.getLockAtLeast());
+        try {
+            lockProvider.release(lease, lockUntil);
+        } catch (RuntimeException e) {
+            log.error("[集群管理器] - 任务 [" + lease.getJobName() + "] 释放任务锁失败", e);
+        }
+    }
+
+    /**
+     * 写入心跳并刷新存活节点
+     */
+    private void heartbeat() {
+        try {
+            lockProvider.heartbeat(nodeId, System.currentTimeMillis() + clusterConfig.getNodeTimeout());
+            List<String> nodes = new ArrayList<>(lockProvider.getLiveNodes());
+            if (!nodes.contains(nodeId)) {
+                // 刚写入的心跳还未可见时，仍将自身视为存活
+                nodes.add(nodeId);
+                Collections.sort(nodes);
+            }
+            if (!nodes.equals(liveNodes)) {
+                log.info("[集群管理器] - 存活节点: {}", nodes);
+            }
+            liveNodes = Collections.unmodifiableList(nodes);
+        } catch (RuntimeException e) {
+            log.error("[集群管理器] - 节点心跳失败", e);
+        }
+    }
+
+    /**
+     * 为正在执行的任务续约
+     */
+    private void renewLeases() {
+        for (JobLease lease : activeLeases) {
+            try {
+                if (!lockProvider.renew(lease, System.currentTimeMillis() + clusterConfig.getLeaseTime())) {
+                    lease.invalidate();
+                    activeLeases.remove(lease);
+                    log.warn("[集群管理器] - 任务 [{}] 续约失败，租约已失效: {}", lease.getJobName(), lease);
+                }
+            } catch (RuntimeException e) {
+                log.error("[集群管理器] - 任务 [" + lease.getJobName() + "] 续约出错", e);
+            }
+        }
+    }
+
+    /**
+     * Rendezvous 哈希权重（FNV-1a 64 位 + 混淆）
+     */
+    private static long weight(String node, String jobName) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (node + '\n' + jobName).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public void destroy() {
+        if (!enable) {
+            return;
+        }
+
+        maintainer.shutdownNow();
+        try {
+            lockProvider.removeNode(nodeId);
+        } catch (RuntimeException e) {
+            log.warn("[集群管理器] - 移除节点失败: {}", e.getMessage());
+        }
+    }
+}
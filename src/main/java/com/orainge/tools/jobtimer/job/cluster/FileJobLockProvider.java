@@ -0,0 +1,220 @@
+package com.orainge.tools.jobtimer.job.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于共享目录的集群任务锁<br>
+ * 每个任务对应一个锁文件，内容为 "节点 ID、防护令牌、租约到期时间、已执行的最晚一次触发的时间"，读写时使用文件锁保证只有一个节点能修改；
+ * 每个节点在 nodes 子目录中维护自己的心跳文件
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class FileJobLockProvider implements JobLockProvider {
+    private static final Logger log = LoggerFactory.getLogger(FileJobLockProvider.class);
+
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+    private static final String NODE_FILE_SUFFIX = ".node";
+
+    private final Path directory;
+
+    private final Path nodeDirectory;
+
+    /**
+     * 同一 JVM 内不能对同一文件重复加文件锁，先用对象锁串行化
+     */
+    private final ConcurrentMap<Path, Object> localLocks = new ConcurrentHashMap<>();
+
+    public FileJobLockProvider(String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.nodeDirectory = this.directory.resolve("nodes");
+        try {
+            Files.createDirectories(nodeDirectory);
+        } catch (IOException e) {
+            throw new IllegalStateException("[集群任务锁] - 无法创建目录: " + this.directory, e);
+        }
+    }
+
+    @Override
+    public JobLease tryAcquire(String jobName, String nodeId, long lockUntil) {
+        return tryAcquire(jobName, nodeId, lockUntil, 0);
+    }
+
+    @Override
+    public JobLease tryAcquire(String jobName, String nodeId, long lockUntil, long fireTime) {
+        long now = System.currentTimeMillis();
+        return withLockFile(jobName, record -> {
+            if (record.lockUntil > now || (fireTime > 0 && record.lastFire >= fireTime)) {
+                return null;
+            }
+            record.nodeId = nodeId;
+            record.fencingToken++;
+            record.lockUntil = lockUntil;
+            record.lastFire = Math.max(record.lastFire, fireTime);
+            record.changed = true;
+            return new JobLease(jobName, nodeId, record.fencingToken, now, fireTime);
+        });
+    }
+
+    @Override
+    public boolean renew(JobLease lease, long lockUntil) {
+        long now = System.currentTimeMillis();
+        return withLockFile(lease.getJobName(), record -> {
+            if (!record.isHeldBy(lease) || record.lockUntil <= now) {
+                return false;
+            }
+            record.lockUntil = lockUntil;
+            record.changed = true;
+            return true;
+        });
+    }
+
+    @Override
+    public void release(JobLease lease, long lockUntil) {
+        withLockFile(lease.getJobName(), record -> {
+            if (record.isHeldBy(lease)) {
+                record.lockUntil = lockUntil;
+                record.lastFire = Math.max(record.lastFire, lease.getFireTime());
+                record.changed = true;
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void heartbeat(String nodeId, long aliveUntil) {
+        Path file = nodeDirectory.resolve(toFileName(nodeId) + NODE_FILE_SUFFIX);
+        Path temp = nodeDirectory.resolve(toFileName(nodeId) + NODE_FILE_SUFFIX + ".tmp");
+        byte[] content = (nodeId + "\n" + aliveUntil).getBytes(StandardCharsets.UTF_8);
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("[集群任务锁] - 节点 [" + nodeId + "] 心跳失败", e);
+        }
+    }
+
+    @Override
+    public void removeNode(String nodeId) {
+        try {
+            Files.deleteIfExists(nodeDirectory.resolve(toFileName(nodeId) + NODE_FILE_SUFFIX));
+        } catch (IOException e) {
+            throw new IllegalStateException("[集群任务锁] - 节点 [" + nodeId + "] 移除失败", e);
+        }
+    }
+
+    @Override
+    public List<String> getLiveNodes() {
+        long now = System.currentTimeMillis();
+        List<String> nodes = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(nodeDirectory, "*" + NODE_FILE_SUFFIX)) {
+            for (Path file : stream) {
+                try {
+                    String[] lines = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).split("\n");
+                    if (lines.length == 2 && Long.parseLong(lines[1].trim()) > now) {
+                        nodes.add(lines[0]);
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    // 文件正在被替换或内容不完整，本次忽略
+                    log.debug("[集群任务锁] - 读取心跳文件失败: {}", file, e);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("[集群任务锁] - 获取存活节点失败", e);
+        }
+        Collections.sort(nodes);
+        return nodes;
+    }
+
+    /**
+     * 加文件锁后读取锁文件，执行操作，内容有变化时写回
+     */
+    private <T> T withLockFile(String jobName, LockFileAction<T> action) {
+        Path file = directory.resolve(toFileName(jobName) + LOCK_FILE_SUFFIX);
+        Object localLock = localLocks.computeIfAbsent(file, key -> new Object());
+        synchronized (localLock) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                LockRecord record = LockRecord.read(channel);
+                T result = action.apply(record);
+                if (record.changed) {
+                    record.write(channel);
+                }
+                return result;
+            } catch (IOException e) {
+                throw new IllegalStateException("[集群任务锁] - 读写锁文件失败: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * 将名称转换为可用作文件名的字符串
+     */
+    private static String toFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private interface LockFileAction<T> {
+        T apply(LockRecord record);
+    }
+
+    /**
+     * 锁文件内容
+     */
+    private static class LockRecord {
+        private String nodeId;
+        private long fencingToken;
+        private long lockUntil;
+        private long lastFire;
+        private boolean changed;
+
+        private boolean isHeldBy(JobLease lease) {
+            return lease.getNodeId().equals(nodeId) && lease.getFencingToken() == fencingToken;
+        }
+
+        private static LockRecord read(FileChannel channel) throws IOException {
+            LockRecord record = new LockRecord();
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+                // 读取全部内容
+            }
+            String[] lines = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).split("\n");
+            if (lines.length >= 3) {
+                record.nodeId = lines[0];
+                record.fencingToken = Long.parseLong(lines[1].trim());
+                record.lockUntil = Long.parseLong(lines[2].trim());
+            }
+            // 旧版本的锁文件没有触发时间
+            if (lines.length >= 4) {
+                record.lastFire = Long.parseLong(lines[3].trim());
+            }
+            return record;
+        }
+
+        private void write(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap((nodeId + "\n" + fencingToken + "\n" + lockUntil + "\n" + lastFire).getBytes(StandardCharsets.UTF_8));
+            channel.truncate(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+            channel.force(true);
+        }
+    }
+}
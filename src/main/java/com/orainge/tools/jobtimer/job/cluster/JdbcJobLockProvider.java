@@ -0,0 +1,238 @@
+package com.orainge.tools.jobtimer.job.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于数据库的集群任务锁<br>
+ * 只使用标准 SQL，加锁通过带条件的 UPDATE 完成，同一任务同一时间只有一个节点能更新成功；
+ * 锁记录保存已执行的最晚一次触发的时间（last_fire），同一次触发只能加锁一次
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class JdbcJobLockProvider implements JobLockProvider {
+    private static final Logger log = LoggerFactory.getLogger(JdbcJobLockProvider.class);
+
+    private final DataSource dataSource;
+
+    private final String lockTable;
+
+    private final String nodeTable;
+
+    /**
+     * 已确认在锁表中存在记录的任务
+     */
+    private final Set<String> knownJobs = ConcurrentHashMap.newKeySet();
+
+    public JdbcJobLockProvider(DataSource dataSource, String tablePrefix) {
+        this.dataSource = dataSource;
+        this.lockTable = tablePrefix + "lock";
+        this.nodeTable = tablePrefix + "node";
+    }
+
+    /**
+     * 创建任务锁表与节点表，表已存在时忽略；已有的任务锁表缺少 last_fire 字段时添加
+     */
+    public void initializeSchema() {
+        createTable("CREATE TABLE " + lockTable + " (" +
+                "job_name VARCHAR(200) NOT NULL PRIMARY KEY, " +
+                "node_id VARCHAR(200), " +
+                "fencing_token BIGINT NOT NULL, " +
+                "lock_until BIGINT NOT NULL, " +
+                "last_fire BIGINT DEFAULT 0 NOT NULL)");
+        createTable("CREATE TABLE " + nodeTable + " (" +
+                "node_id VARCHAR(200) NOT NULL PRIMARY KEY, " +
+                "alive_until BIGINT NOT NULL)");
+        createTable("ALTER TABLE " + lockTable + " ADD last_fire BIGINT DEFAULT 0 NOT NULL");
+    }
+
+    private void createTable(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+            log.info("[集群任务锁] - 已执行: {}", sql);
+        } catch (SQLException e) {
+            // 表或字段已存在
+            log.debug("[集群任务锁] - 执行失败，表或字段可能已存在: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public JobLease tryAcquire(String jobName, String nodeId, long lockUntil) {
+        return tryAcquire(jobName, nodeId, lockUntil, 0);
+    }
+
+    @Override
+    public JobLease tryAcquire(String jobName, String nodeId, long lockUntil, long fireTime) {
+        long now = System.currentTimeMillis();
+        try (Connection connection = dataSource.getConnection()) {
+            if (!knownJobs.contains(jobName)) {
+                insertLockRow(connection, jobName);
+                knownJobs.add(jobName);
+            }
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int updated;
+                try (PreparedStatement ps = connection.prepareStatement("UPDATE " + lockTable +
+                        " SET node_id = ?, fencing_token = fencing_token + 1, lock_until = ?," +
+                        " last_fire = CASE WHEN last_fire < ? THEN ? ELSE last_fire END" +
+                        " WHERE job_name = ? AND lock_until <= ? AND last_fire < ?")) {
+                    ps.setString(1, nodeId);
+                    ps.setLong(2, lockUntil);
+                    // 加锁时即记录触发时间，节点在执行期间停止、租约过期后其他节点也不会再执行该触发
+                    ps.setLong(3, fireTime);
+                    ps.setLong(4, fireTime);
+                    ps.setString(5, jobName);
+                    ps.setLong(6, now);
+                    // 不按触发时间判断时 last_fire < Long.MAX_VALUE 恒成立
+                    ps.setLong(7, fireTime > 0 ? fireTime : Long.MAX_VALUE);
+                    updated = ps.executeUpdate();
+                }
+                if (updated != 1) {
+                    connection.rollback();
+                    return null;
+                }
+
+                long fencingToken;
+                try (PreparedStatement ps = connection.prepareStatement("SELECT fencing_token FROM " + lockTable + " WHERE job_name = ?")) {
+                    ps.setString(1, jobName);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) {
+                            connection.rollback();
+                            return null;
+                        }
+                        fencingToken = rs.getLong(1);
+                    }
+                }
+                connection.commit();
+                return new JobLease(jobName, nodeId, fencingToken, now, fireTime);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("[集群任务锁] - 任务 [" + jobName + "] 加锁失败", e);
+        }
+    }
+
+    /**
+     * 插入任务的锁记录，记录已存在时忽略
+     */
+    private void insertLockRow(Connection connection, String jobName) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT 1 FROM " + lockTable + " WHERE job_name = ?")) {
+            ps.setString(1, jobName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + lockTable +
+                " (job_name, node_id, fencing_token, lock_until) VALUES (?, NULL, 0, 0)")) {
+            ps.setString(1, jobName);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            // 其他节点已插入
+            log.debug("[集群任务锁] - 任务 [{}] 的锁记录已存在: {}", jobName, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean renew(JobLease lease, long lockUntil) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("UPDATE " + lockTable + " SET lock_until = ?" +
+                     " WHERE job_name = ? AND node_id = ? AND fencing_token = ? AND lock_until > ?")) {
+            ps.setLong(1, lockUntil);
+            ps.setString(2, lease.getJobName());
+            ps.setString(3, lease.getNodeId());
+            ps.setLong(4, lease.getFencingToken());
+            ps.setLong(5, System.currentTimeMillis());
+            return ps.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new IllegalStateException("[集群任务锁] - 任务 [" + lease.getJobName() + "] 续约失败", e);
+        }
+    }
+
+    @Override
+    public void release(JobLease lease, long lockUntil) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("UPDATE " + lockTable + " SET lock_until = ?," +
+                     " last_fire = CASE WHEN last_fire < ? THEN ? ELSE last_fire END" +
+                     " WHERE job_name = ? AND node_id = ? AND fencing_token = ?")) {
+            ps.setLong(1, lockUntil);
+            ps.setLong(2, lease.getFireTime());
+            ps.setLong(3, lease.getFireTime());
+            ps.setString(4, lease.getJobName());
+            ps.setString(5, lease.getNodeId());
+            ps.setLong(6, lease.getFencingToken());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("[集群任务锁] - 任务 [" + lease.getJobName() + "] 释放失败", e);
+        }
+    }
+
+    @Override
+    public void heartbeat(String nodeId, long aliveUntil) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement ps = connection.prepareStatement("UPDATE " + nodeTable + " SET alive_until = ? WHERE node_id = ?")) {
+                ps.setLong(1, aliveUntil);
+                ps.setString(2, nodeId);
+                if (ps.executeUpdate() == 1) {
+                    return;
+                }
+            }
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + nodeTable + " (node_id, alive_until) VALUES (?, ?)")) {
+                ps.setString(1, nodeId);
+                ps.setLong(2, aliveUntil);
+                ps.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("[集群任务锁] - 节点 [" + nodeId + "] 心跳失败", e);
+        }
+    }
+
+    @Override
+    public void removeNode(String nodeId) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("DELETE FROM " + nodeTable + " WHERE node_id = ?")) {
+            ps.setString(1, nodeId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("[集群任务锁] - 节点 [" + nodeId + "] 移除失败", e);
+        }
+    }
+
+    @Override
+    public List<String> getLiveNodes() {
+        List<String> nodes = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT node_id FROM " + nodeTable + " WHERE alive_until > ? ORDER BY node_id")) {
+            ps.setLong(1, System.currentTimeMillis());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    nodes.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("[集群任务锁] - 获取存活节点失败", e);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,106 @@
+package com.orainge.tools.jobtimer.job.cluster;
+
+/**
+ * 任务锁租约<br>
+ * fencingToken 在同一任务的每次加锁时单调递增，任务写入外部存储时可携带该值，
+ * 由存储端拒绝比已见过的更小的值，防止租约过期后旧的执行者继续写入<br>
+ * 定时触发的租约带有触发时间（cron 计算出的执行时间），同一任务的同一次触发只能获取一次租约
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class JobLease {
+    /**
+     * 任务名称
+     */
+    private final String jobName;
+
+    /**
+     * 持有租约的节点 ID
+     */
+    private final String nodeId;
+
+    /**
+     * 防护令牌
+     */
+    private final long fencingToken;
+
+    /**
+     * 加锁时间（毫秒时间戳）
+     */
+    private final long acquiredTime;
+
+    /**
+     * 已执行的最晚一次触发的时间（毫秒时间戳），不是定时触发时为 0；释放任务锁时写入，之后不能再获取不晚于该时间的触发
+     */
+    private volatile long fireTime;
+
+    /**
+     * 续约失败后置为 false
+     */
+    private volatile boolean valid = true;
+
+    public JobLease(String jobName, String nodeId, long fencingToken, long acquiredTime) {
+        this(jobName, nodeId, fencingToken, acquiredTime, 0);
+    }
+
+    public JobLease(String jobName, String nodeId, long fencingToken, long acquiredTime, long fireTime) {
+        this.jobName = jobName;
+        this.nodeId = nodeId;
+        this.fencingToken = fencingToken;
+        this.acquiredTime = acquiredTime;
+        this.fireTime = fireTime;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public long getAcquiredTime() {
+        return acquiredTime;
+    }
+
+    public long getFireTime() {
+        return fireTime;
+    }
+
+    /**
+     * 沿用租约执行之后的触发时，记录该触发的时间
+     *
+     * @param fireTime 触发时间（毫秒时间戳）
+     */
+    public void advanceFireTime(long fireTime) {
+        if (fireTime > this.fireTime) {
+            this.fireTime = fireTime;
+        }
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * 标记租约已失效
+     */
+    public void invalidate() {
+        this.valid = false;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                "jobName=" + jobName +
+                ", nodeId=" + nodeId +
+                ", fencingToken=" + fencingToken +
+                (fireTime > 0 ? ", fireTime=" + fireTime : "") +
+                '}';
+    }
+}
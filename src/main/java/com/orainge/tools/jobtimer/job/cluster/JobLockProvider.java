@@ -0,0 +1,78 @@
+package com.orainge.tools.jobtimer.job.cluster;
+
+import java.util.List;
+
+/**
+ * 集群任务锁<br>
+ * 容器中存在该类型的 Bean 时使用该 Bean，否则根据 job-timer.cluster.type 创建内置实现<br>
+ * 所有时间参数均为毫秒时间戳
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public interface JobLockProvider {
+    /**
+     * 尝试获取任务锁
+     *
+     * @param jobName   任务名称
+     * @param nodeId    节点 ID
+     * @param lockUntil 租约到期时间
+     * @return 租约，任务锁被其他节点持有时返回 null
+     */
+    JobLease tryAcquire(String jobName, String nodeId, long lockUntil);
+
+    /**
+     * 尝试获取任务某一次触发的任务锁<br>
+     * 任务锁空闲且该触发晚于已执行的最晚一次触发时才能获取，同一次触发在各节点上只能获取一次（不受任务锁的保持时间与时钟偏差影响）；
+     * 释放任务锁时需要记录租约的触发时间（JobLease.getFireTime）<br>
+     * 默认实现不按触发时间判断，等同于 tryAcquire(jobName, nodeId, lockUntil)，自定义实现需要重写
+     *
+     * @param jobName   任务名称
+     * @param nodeId    节点 ID
+     * @param lockUntil 租约到期时间
+     * @param fireTime  触发时间（cron 计算出的执行时间），0 表示不按触发时间判断
+     * @return 租约，任务锁被其他节点持有或该触发已执行时返回 null
+     */
+    default JobLease tryAcquire(String jobName, String nodeId, long lockUntil, long fireTime) {
+        return tryAcquire(jobName, nodeId, lockUntil);
+    }
+
+    /**
+     * 续约
+     *
+     * @param lease     租约
+     * @param lockUntil 新的租约到期时间
+     * @return true: 续约成功; false: 租约已过期或已被其他节点获取
+     */
+    boolean renew(JobLease lease, long lockUntil);
+
+    /**
+     * 释放任务锁，租约带有触发时间时同时记录已执行的最晚一次触发
+     *
+     * @param lease     租约
+     * @param lockUntil 任务锁保持到的时间，不晚于当前时间时立即释放
+     */
+    void release(JobLease lease, long lockUntil);
+
+    /**
+     * 节点心跳
+     *
+     * @param nodeId     节点 ID
+     * @param aliveUntil 节点存活到期时间
+     */
+    void heartbeat(String nodeId, long aliveUntil);
+
+    /**
+     * 移除节点（节点停止时调用）
+     *
+     * @param nodeId 节点 ID
+     */
+    void removeNode(String nodeId);
+
+    /**
+     * 获取存活节点 ID
+     *
+     * @return 存活节点 ID 列表
+     */
+    List<String> getLiveNodes();
+}
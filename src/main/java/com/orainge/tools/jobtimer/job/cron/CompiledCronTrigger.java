@@ -0,0 +1,79 @@
+package com.orainge.tools.jobtimer.job.cron;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * 使用预编译 cron 表达式的 Trigger<br>
+ * 计算规则与 Spring CronTrigger 一致，并缓存最近一次计算的下次执行时间
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class CompiledCronTrigger implements Trigger {
+    private final CronExpression cronExpression;
+
+    /**
+     * 缓存: 起始时间在 [cachedFrom, cachedNext] 之间时，下次执行时间均为 cachedNext
+     */
+    private long cachedFrom = Long.MAX_VALUE;
+    private long cachedNext = Long.MIN_VALUE;
+
+    public CompiledCronTrigger(String expression) {
+        this.cronExpression = new CronExpression(expression);
+    }
+
+    public CompiledCronTrigger(String expression, TimeZone timeZone) {
+        this.cronExpression = new CronExpression(expression, timeZone);
+    }
+
+    public CronExpression getCronExpression() {
+        return cronExpression;
+    }
+
+    @Override
+    public Date nextExecutionTime(TriggerContext triggerContext) {
+        Date date = triggerContext.lastCompletionTime();
+        if (date != null) {
+            Date scheduled = triggerContext.lastScheduledExecutionTime();
+            if (scheduled != null && date.before(scheduled)) {
+                // 任务提前完成时，以计划执行时间为准，避免同一秒内重复执行
+                date = scheduled;
+            }
+        }
+
+        return new Date(nextTime(date == null ? System.currentTimeMillis() : date.getTime()));
+    }
+
+    /**
+     * 计算下次执行时间
+     *
+     * @param afterMillis 起始时间（毫秒时间戳）
+     * @return 下次执行时间（毫秒时间戳）
+     */
+    public synchronized long nextTime(long afterMillis) {
+        long from = afterMillis - Math.floorMod(afterMillis, 1000L) + 1000L;
+        if (from < cachedFrom || from > cachedNext) {
+            cachedNext = cronExpression.nextFrom(from);
+            cachedFrom = from;
+        }
+        return cachedNext;
+    }
+
+    /**
+     * 获取最近一次计算出的下次执行时间
+     *
+     * @return 下次执行时间，尚未计算时返回 null
+     */
+    public synchronized Date getCachedNextExecutionTime() {
+        return cachedFrom == Long.MAX_VALUE ? null : new Date(cachedNext);
+    }
+
+    @Override
+    public String toString() {
+        return cronExpression.toString();
+    }
+}
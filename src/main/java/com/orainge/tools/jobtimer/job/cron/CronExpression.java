@@ -0,0 +1,281 @@
+package com.orainge.tools.jobtimer.job.cron;
+
+import org.springframework.util.StringUtils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * 预编译的 cron 表达式<br>
+ * 启动时解析一次，各字段以位图保存，计算下次执行时间时复用同一个 Calendar，不重复解析<br>
+ * 语法与 Spring CronSequenceGenerator 一致: 秒 分 时 日 月 周，支持 * ? , - / 以及月份、星期的英文缩写
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class CronExpression {
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_OF_WEEK_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    /**
+     * 最多向后查找的年数
+     */
+    private static final int MAX_SEARCH_YEARS = 4;
+
+    private final String expression;
+
+    /**
+     * 秒位图 (0-59)
+     */
+    private final long seconds;
+
+    /**
+     * 分位图 (0-59)
+     */
+    private final long minutes;
+
+    /**
+     * 时位图 (0-23)
+     */
+    private final long hours;
+
+    /**
+     * 日位图 (1-31)
+     */
+    private final long daysOfMonth;
+
+    /**
+     * 月位图 (0-11，与 Calendar.MONTH 一致)
+     */
+    private final long months;
+
+    /**
+     * 星期位图 (0-6，0 为星期日)
+     */
+    private final long daysOfWeek;
+
+    /**
+     * 计算下次执行时间时复用的 Calendar
+     */
+    private final Calendar calendar;
+
+    public CronExpression(String expression) {
+        this(expression, TimeZone.getDefault());
+    }
+
+    public CronExpression(String expression, TimeZone timeZone) {
+        if (StringUtils.isEmpty(expression)) {
+            throw new IllegalArgumentException("[Cron 表达式] - 表达式为空");
+        }
+
+        String[] fields = StringUtils.tokenizeToStringArray(expression, " ");
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("[Cron 表达式] - 表达式必须包含 6 个字段，实际为 " + fields.length + " 个: " + expression);
+        }
+
+        this.expression = expression;
+        this.seconds = parseField(expression, fields[0], 0, 59);
+        this.minutes = parseField(expression, fields[1], 0, 59);
+        this.hours = parseField(expression, fields[2], 0, 23);
+        this.daysOfMonth = parseField(expression, replaceQuestionMark(fields[3]), 1, 31);
+        this.months = parseField(expression, replaceNames(fields[4], MONTH_NAMES, 1), 1, 12) >>> 1;
+
+        long dayOfWeekBits = parseField(expression, replaceNames(replaceQuestionMark(fields[5]), DAY_OF_WEEK_NAMES, 0), 0, 7);
+        if ((dayOfWeekBits & (1L << 7)) != 0) {
+            // 7 和 0 都表示星期日
+            dayOfWeekBits = (dayOfWeekBits | 1L) & ~(1L << 7);
+        }
+        this.daysOfWeek = dayOfWeekBits;
+
+        this.calendar = Calendar.getInstance(timeZone);
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * 计算下次执行时间
+     *
+     * @param afterMillis 起始时间（毫秒时间戳）
+     * @return 严格晚于起始时间所在秒的下一次执行时间（毫秒时间戳）
+     */
+    public long next(long afterMillis) {
+        return nextFrom(afterMillis - Math.floorMod(afterMillis, 1000L) + 1000L);
+    }
+
+    /**
+     * 计算不早于 startMillis 的第一个执行时间
+     *
+     * @param startMillis 起始时间（毫秒时间戳，需为整秒）
+     * @return 执行时间（毫秒时间戳）
+     */
+    synchronized long nextFrom(long startMillis) {
+        Calendar c = this.calendar;
+        c.setTimeInMillis(startMillis);
+        int maxYear = c.get(Calendar.YEAR) + MAX_SEARCH_YEARS;
+
+        while (true) {
+            if (c.get(Calendar.YEAR) > maxYear) {
+                throw new IllegalStateException("[Cron 表达式] - " + MAX_SEARCH_YEARS + " 年内没有可执行的时间: " + expression);
+            }
+
+            int month = c.get(Calendar.MONTH);
+            if ((months & (1L << month)) == 0) {
+                int nextMonth = nextSetBit(months, month);
+                if (nextMonth < 0) {
+                    c.add(Calendar.YEAR, 1);
+                    nextMonth = nextSetBit(months, 0);
+                }
+                c.set(Calendar.DAY_OF_MONTH, 1);
+                c.set(Calendar.MONTH, nextMonth);
+                resetTime(c, Calendar.HOUR_OF_DAY);
+                continue;
+            }
+
+            int dayOfMonth = c.get(Calendar.DAY_OF_MONTH);
+            int dayOfWeek = c.get(Calendar.DAY_OF_WEEK) - 1;
+            if ((daysOfMonth & (1L << dayOfMonth)) == 0 || (daysOfWeek & (1L << dayOfWeek)) == 0) {
+                c.add(Calendar.DAY_OF_MONTH, 1);
+                resetTime(c, Calendar.HOUR_OF_DAY);
+                continue;
+            }
+
+            int hour = c.get(Calendar.HOUR_OF_DAY);
+            if ((hours & (1L << hour)) == 0) {
+                int nextHour = nextSetBit(hours, hour);
+                if (nextHour < 0) {
+                    c.add(Calendar.DAY_OF_MONTH, 1);
+                    resetTime(c, Calendar.HOUR_OF_DAY);
+                } else {
+                    c.set(Calendar.HOUR_OF_DAY, nextHour);
+                    resetTime(c, Calendar.MINUTE);
+                }
+                continue;
+            }
+
+            int minute = c.get(Calendar.MINUTE);
+            if ((minutes & (1L << minute)) == 0) {
+                int nextMinute = nextSetBit(minutes, minute);
+                if (nextMinute < 0) {
+                    c.add(Calendar.HOUR_OF_DAY, 1);
+                    resetTime(c, Calendar.MINUTE);
+                } else {
+                    c.set(Calendar.MINUTE, nextMinute);
+                    resetTime(c, Calendar.SECOND);
+                }
+                continue;
+            }
+
+            int second = c.get(Calendar.SECOND);
+            if ((seconds & (1L << second)) == 0) {
+                int nextSecond = nextSetBit(seconds, second);
+                if (nextSecond < 0) {
+                    c.add(Calendar.MINUTE, 1);
+                    c.set(Calendar.SECOND, 0);
+                } else {
+                    c.set(Calendar.SECOND, nextSecond);
+                }
+                continue;
+            }
+
+            return c.getTimeInMillis();
+        }
+    }
+
+    /**
+     * 将 field 及更小的时间字段置为 0
+     */
+    private static void resetTime(Calendar c, int field) {
+        // 从 field 开始依次向下清零
+        switch (field) {
+            case Calendar.HOUR_OF_DAY:
+                c.set(Calendar.HOUR_OF_DAY, 0);
+            case Calendar.MINUTE:
+                c.set(Calendar.MINUTE, 0);
+            case Calendar.SECOND:
+                c.set(Calendar.SECOND, 0);
+            default:
+                c.set(Calendar.MILLISECOND, 0);
+        }
+    }
+
+    /**
+     * 查找不小于 from 的第一个置位下标
+     *
+     * @return 下标，不存在时返回 -1
+     */
+    private static int nextSetBit(long bits, int from) {
+        long remaining = bits & (-1L << from);
+        return remaining == 0 ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+    private static String replaceQuestionMark(String field) {
+        return "?".equals(field) ? "*" : field;
+    }
+
+    private static String replaceNames(String field, String[] names, int offset) {
+        String result = field.toUpperCase();
+        for (int i = 0; i < names.length; i++) {
+            result = result.replace(names[i], String.valueOf(i + offset));
+        }
+        return result;
+    }
+
+    private static long parseField(String expression, String field, int min, int max) {
+        long bits = 0;
+        for (String part : StringUtils.commaDelimitedListToStringArray(field)) {
+            int slash = part.indexOf('/');
+            String range = slash < 0 ? part : part.substring(0, slash);
+
+            int from;
+            int to;
+            if ("*".equals(range)) {
+                from = min;
+                to = max;
+            } else {
+                int dash = range.indexOf('-');
+                if (dash < 0) {
+                    from = parseNumber(expression, range, min, max);
+                    // "a/b" 表示从 a 开始到最大值
+                    to = slash < 0 ? from : max;
+                } else {
+                    from = parseNumber(expression, range.substring(0, dash), min, max);
+                    to = parseNumber(expression, range.substring(dash + 1), min, max);
+                }
+            }
+
+            if (from > to) {
+                throw new IllegalArgumentException("[Cron 表达式] - 范围起始值大于结束值 [" + part + "]: " + expression);
+            }
+
+            int step = 1;
+            if (slash >= 0) {
+                step = parseNumber(expression, part.substring(slash + 1), 1, Integer.MAX_VALUE);
+            }
+
+            for (long i = from; i <= to; i += step) {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String expression, String value, int min, int max) {
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("[Cron 表达式] - 无法解析 [" + value + "]: " + expression);
+        }
+        if (number < min || number > max) {
+            throw new IllegalArgumentException("[Cron 表达式] - [" + value + "] 超出范围 " + min + "-" + max + ": " + expression);
+        }
+        return number;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,50 @@
+package com.orainge.tools.jobtimer.job.cron;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.util.Date;
+
+/**
+ * 记录触发时间的 Trigger<br>
+ * 触发时间为 cron 计算出的执行时间（带执行时间偏移时不含偏移），在各节点上相同，集群模式下用于标识同一次触发；
+ * 调度器在任务执行结束后才计算下一次执行时间，任务执行期间 getFireTime 返回的是本次触发的时间
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class FireTimeTrigger implements Trigger {
+    private final Trigger trigger;
+
+    /**
+     * 最近一次计算出的触发时间（毫秒时间戳）
+     */
+    private volatile long fireTime;
+
+    public FireTimeTrigger(Trigger trigger) {
+        this.trigger = trigger;
+    }
+
+    @Override
+    public Date nextExecutionTime(TriggerContext triggerContext) {
+        Date next = trigger.nextExecutionTime(triggerContext);
+        if (next != null) {
+            fireTime = trigger instanceof JitteredTrigger ? ((JitteredTrigger) trigger).getLastCronTime() : next.getTime();
+        }
+        return next;
+    }
+
+    /**
+     * 获取本次触发的时间
+     *
+     * @return 触发时间（毫秒时间戳），尚未计算过执行时间时为 0
+     */
+    public long getFireTime() {
+        return fireTime;
+    }
+
+    @Override
+    public String toString() {
+        return trigger.toString();
+    }
+}
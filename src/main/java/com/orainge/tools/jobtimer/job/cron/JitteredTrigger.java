@@ -0,0 +1,97 @@
+package com.orainge.tools.jobtimer.job.cron;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.util.Date;
+
+/**
+ * 带执行时间偏移的 cron Trigger<br>
+ * 执行时间为 cron 计算出的执行时间加上偏移，用于分散同一时刻触发的任务；
+ * 偏移可在运行时调整，从下一次计算执行时间开始生效，同一个 cron 执行时间只会执行一次
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class JitteredTrigger implements Trigger {
+    private final CompiledCronTrigger cronTrigger;
+
+    /**
+     * 偏移（单位：毫秒）
+     */
+    private volatile long offset;
+
+    /**
+     * 上一次使用的 cron 执行时间（未加偏移），调整偏移后不会再次使用
+     */
+    private long lastCronTime = Long.MIN_VALUE;
+
+    public JitteredTrigger(CompiledCronTrigger cronTrigger, long offset) {
+        this.cronTrigger = cronTrigger;
+        this.offset = Math.max(offset, 0);
+    }
+
+    /**
+     * 按名称计算固定偏移（同一名称在各节点、每次启动时都相同）
+     *
+     * @param name   任务名称
+     * @param window 偏移窗口（单位：毫秒）
+     * @return 偏移，范围 [0, window)
+     */
+    public static long hashOffset(String name, long window) {
+        if (window <= 0) {
+            return 0;
+        }
+        // 对 String.hashCode 再做一次混合，相近的名称也能分散到窗口内
+        long hash = name.hashCode();
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93e53b3e4e9L;
+        hash ^= hash >>> 33;
+        return Math.floorMod(hash, window);
+    }
+
+    public CompiledCronTrigger getCronTrigger() {
+        return cronTrigger;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = Math.max(offset, 0);
+    }
+
+    /**
+     * 获取最近一次计算出的 cron 执行时间（未加偏移）
+     */
+    public synchronized long getLastCronTime() {
+        return lastCronTime;
+    }
+
+    @Override
+    public synchronized Date nextExecutionTime(TriggerContext triggerContext) {
+        long offset = this.offset;
+        Date date = triggerContext.lastCompletionTime();
+        if (date != null) {
+            Date scheduled = triggerContext.lastScheduledExecutionTime();
+            if (scheduled != null && date.before(scheduled)) {
+                // 任务提前完成时，以计划执行时间为准，避免同一秒内重复执行
+                date = scheduled;
+            }
+        }
+
+        // 减去偏移后按 cron 计算，得到的执行时间不早于上一次使用的 cron 执行时间
+        long after = (date == null ? System.currentTimeMillis() : date.getTime()) - offset;
+        long cronTime = cronTrigger.nextTime(Math.max(after, lastCronTime));
+        lastCronTime = cronTime;
+        return new Date(cronTime + offset);
+    }
+
+    @Override
+    public String toString() {
+        return cronTrigger + " +" + offset + "ms";
+    }
+}
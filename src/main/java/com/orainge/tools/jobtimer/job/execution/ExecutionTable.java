@@ -0,0 +1,115 @@
+package com.orainge.tools.jobtimer.job.execution;
+
+import com.orainge.tools.jobtimer.config.JobConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 异步执行记录表<br>
+ * 保存在内存中，按提交顺序排列: 记录数超过上限时删除最早的记录，执行结束超过保存时间的记录在读写时顺带删除<br>
+ * 另外按结束顺序索引已结束的记录，过期删除只检查最早结束的记录，不受提交顺序在前、仍在执行的记录影响
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Component
+@ConditionalOnMissingBean({ExecutionTable.class})
+public class ExecutionTable {
+    @Resource
+    private JobConfig jobConfig;
+
+    private int maxSize = 1000;
+
+    private long expireMillis = 3600_000L;
+
+    /**
+     * 执行 ID - 执行记录（按提交顺序）
+     */
+    private final LinkedHashMap<String, JobExecution> executions = new LinkedHashMap<>();
+
+    /**
+     * 已结束的执行记录（按结束顺序），与 executions 使用同一个锁
+     */
+    private final ArrayDeque<JobExecution> finished = new ArrayDeque<>();
+
+    @PostConstruct
+    public void init() {
+        JobConfig.JobApiConfig apiConfig = jobConfig.getApi();
+        if (apiConfig != null && apiConfig.getExecutionTable() != null) {
+            maxSize = Math.max(apiConfig.getExecutionTable().getMaxSize(), 1);
+            expireMillis = apiConfig.getExecutionTable().getExpireSeconds() * 1000L;
+        }
+    }
+
+    /**
+     * 创建执行记录
+     *
+     * @param jobName 任务名称
+     * @return 执行记录
+     */
+    public JobExecution create(String jobName) {
+        JobExecution execution = new JobExecution(UUID.randomUUID().toString().replace("-", ""), jobName, this::onFinish);
+        synchronized (executions) {
+            executions.put(execution.getExecutionId(), execution);
+            evict();
+        }
+        return execution;
+    }
+
+    /**
+     * 获取执行记录
+     *
+     * @param executionId 执行 ID
+     * @return 执行记录，不存在或已删除时返回 null
+     */
+    public JobExecution get(String executionId) {
+        if (executionId == null) {
+            return null;
+        }
+        synchronized (executions) {
+            evict();
+            return executions.get(executionId);
+        }
+    }
+
+    /**
+     * 记录执行结束，加入结束顺序索引
+     */
+    private void onFinish(JobExecution execution) {
+        synchronized (executions) {
+            finished.addLast(execution);
+            evict();
+        }
+    }
+
+    /**
+     * 删除超过上限与已过期的记录
+     */
+    private void evict() {
+        // 超过上限时按提交顺序删除
+        Iterator<Map.Entry<String, JobExecution>> iterator = executions.entrySet().iterator();
+        while (executions.size() > maxSize && iterator.hasNext()) {
+            JobExecution eldest = iterator.next().getValue();
+            iterator.remove();
+            if (eldest.isFinished()) {
+                finished.removeFirstOccurrence(eldest);
+            }
+        }
+
+        // 按结束顺序删除已过期的记录
+        long now = System.currentTimeMillis();
+        JobExecution earliest;
+        while ((earliest = finished.peekFirst()) != null && now - earliest.getEndTime() > expireMillis) {
+            finished.pollFirst();
+            executions.remove(earliest.getExecutionId(), earliest);
+        }
+    }
+}
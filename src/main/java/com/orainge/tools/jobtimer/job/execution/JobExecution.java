@@ -0,0 +1,143 @@
+package com.orainge.tools.jobtimer.job.execution;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.orainge.tools.jobtimer.vo.JobResult;
+
+import java.util.function.Consumer;
+
+/**
+ * 异步执行记录<br>
+ * 由提交请求的线程创建，由执行任务的线程更新状态
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobExecution {
+    /**
+     * 已提交，等待执行
+     */
+    public static final String PENDING = "pending";
+
+    /**
+     * 正在执行
+     */
+    public static final String RUNNING = "running";
+
+    /**
+     * 执行成功
+     */
+    public static final String SUCCESS = "success";
+
+    /**
+     * 执行失败
+     */
+    public static final String FAILED = "failed";
+
+    /**
+     * 执行 ID
+     */
+    private final String executionId;
+
+    /**
+     * 任务名称（配置文件中的键名）
+     */
+    private final String jobName;
+
+    /**
+     * 提交时间（毫秒时间戳）
+     */
+    private final long submitTime = System.currentTimeMillis();
+
+    /**
+     * 执行状态: pending, running, success, failed
+     */
+    private volatile String status = PENDING;
+
+    /**
+     * 开始执行时间（毫秒时间戳）
+     */
+    private volatile Long startTime;
+
+    /**
+     * 执行结束时间（毫秒时间戳）
+     */
+    private volatile Long endTime;
+
+    /**
+     * 执行结果，执行结束前为 null
+     */
+    private volatile JobResult result;
+
+    /**
+     * 执行结束时的回调，由 ExecutionTable 设置
+     */
+    private final Consumer<JobExecution> finishListener;
+
+    public JobExecution(String executionId, String jobName) {
+        this(executionId, jobName, null);
+    }
+
+    JobExecution(String executionId, String jobName, Consumer<JobExecution> finishListener) {
+        this.executionId = executionId;
+        this.jobName = jobName;
+        this.finishListener = finishListener;
+    }
+
+    /**
+     * 标记开始执行
+     */
+    public void start() {
+        startTime = System.currentTimeMillis();
+        status = RUNNING;
+    }
+
+    /**
+     * 标记执行结束
+     *
+     * @param result 执行结果
+     */
+    public void finish(JobResult result) {
+        this.result = result;
+        this.endTime = System.currentTimeMillis();
+        this.status = result != null && result.isSuccess() ? SUCCESS : FAILED;
+        if (finishListener != null) {
+            finishListener.accept(this);
+        }
+    }
+
+    /**
+     * 是否已执行结束
+     */
+    public boolean isFinished() {
+        return endTime != null;
+    }
+
+    public String getExecutionId() {
+        return executionId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public Long getEndTime() {
+        return endTime;
+    }
+
+    public JobResult getResult() {
+        return result;
+    }
+}
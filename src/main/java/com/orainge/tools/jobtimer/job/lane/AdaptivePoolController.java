@@ -0,0 +1,258 @@
+package com.orainge.tools.jobtimer.job.lane;
+
+import com.orainge.tools.jobtimer.config.JobConfig;
+import com.orainge.tools.jobtimer.util.thread.DiscardableTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程池自适应线程数控制器<br>
+ * 通过任务包装统计每个调整间隔内的到达数、排队时间、执行耗时与 CPU 时间，按间隔调整线程池的核心线程数与最大线程数:
+ * <ul>
+ *     <li>按 Little 定律计算所需线程数: 到达率 × 平均执行耗时，再除以目标利用率留出余量</li>
+ *     <li>平均排队时间超过目标时至少增加 1 个线程</li>
+ *     <li>按阻塞比例（1 - CPU 时间 / 执行耗时）限制增加的上限: CPU 核数 / (1 - 阻塞比例)，避免 CPU 密集型任务过度增加线程</li>
+ *     <li>增加时一次调整到位，减少时每次只减少一半的差距，避免负载波动时反复调整</li>
+ * </ul>
+ * 核心线程数设置为计算出的线程数，最大线程数设置为其 2 倍（不超过上限）用于应对突发；每次调整都会输出日志
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class AdaptivePoolController {
+    private static final Logger log = LoggerFactory.getLogger(AdaptivePoolController.class);
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final String name;
+    private final ThreadPoolTaskExecutor executor;
+    private final int minPoolSize;
+    private final int maxPoolSize;
+    private final long intervalMillis;
+    private final long targetQueueWaitNanos;
+    private final double targetUtilization;
+    private final boolean cpuTimeSupported;
+    private final int cpuCount = Runtime.getRuntime().availableProcessors();
+
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+
+    private ScheduledExecutorService timer;
+    private long lastAdjustTime;
+
+    /**
+     * 最近一个调整间隔的到达率（每秒任务数）
+     */
+    private volatile double arrivalRate;
+
+    /**
+     * 最近一次统计的阻塞比例，无法统计 CPU 时间或尚无执行记录时为 -1
+     */
+    private volatile double blockingRatio = -1;
+
+    /**
+     * 调整次数
+     */
+    private volatile long resizeCount;
+
+    public AdaptivePoolController(String name, ThreadPoolTaskExecutor executor, JobConfig.JobAdaptiveConfig config) {
+        if (config.getMinPoolSize() < 1 || config.getMaxPoolSize() < config.getMinPoolSize()) {
+            throw new IllegalStateException("[自适应线程池] - [" + name + "] 线程数下限需要大于 0 且不大于线程数上限，请检查配置文件");
+        }
+        if (config.getTargetUtilization() <= 0 || config.getTargetUtilization() > 1) {
+            throw new IllegalStateException("[自适应线程池] - [" + name + "] 目标线程利用率需要在 0 ~ 1 之间，请检查配置文件");
+        }
+        this.name = name;
+        this.executor = executor;
+        this.minPoolSize = config.getMinPoolSize();
+        this.maxPoolSize = config.getMaxPoolSize();
+        this.intervalMillis = Math.max(config.getIntervalMillis(), 100);
+        this.targetQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(config.getTargetQueueWaitMillis());
+        this.targetUtilization = config.getTargetUtilization();
+        this.cpuTimeSupported = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+    }
+
+    /**
+     * 获取统计用的任务包装，需要在线程池初始化前设置
+     */
+    public TaskDecorator getTaskDecorator() {
+        return task -> {
+            arrivals.increment();
+            return PrioritizedTask.wrap(task, new InstrumentedTask(task));
+        };
+    }
+
+    /**
+     * 开始定时调整（线程池初始化后调用），初始线程数限制在上下限之间
+     */
+    public synchronized void start() {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        int initial = Math.min(Math.max(pool.getCorePoolSize(), minPoolSize), maxPoolSize);
+        if (initial != pool.getCorePoolSize() || pool.getMaximumPoolSize() > maxPoolSize) {
+            resize(pool, initial);
+        }
+        lastAdjustTime = System.nanoTime();
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, executor.getThreadNamePrefix() + "adaptive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::adjust, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("[自适应线程池] - [{}] 已开启自适应线程数，范围 {} ~ {}，当前核心线程数 {}", name, minPoolSize, maxPoolSize, initial);
+    }
+
+    public synchronized void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+    }
+
+    /**
+     * 按最近一个调整间隔的统计调整线程数
+     */
+    private void adjust() {
+        try {
+            long now = System.nanoTime();
+            double seconds = Math.max(now - lastAdjustTime, 1) / 1e9;
+            lastAdjustTime = now;
+
+            long arrivalCount = arrivals.sumThenReset();
+            long completedCount = completed.sumThenReset();
+            long waitTotal = queueWaitNanos.sumThenReset();
+            long runTotal = runNanos.sumThenReset();
+            long cpuTotal = cpuNanos.sumThenReset();
+
+            ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+            int current = pool.getCorePoolSize();
+            int queued = pool.getQueue().size();
+            arrivalRate = arrivalCount / seconds;
+
+            double required;
+            boolean queueing;
+            double meanWaitMillis = 0;
+            double meanRunMillis = 0;
+            if (completedCount > 0) {
+                meanWaitMillis = waitTotal / 1e6 / completedCount;
+                meanRunMillis = runTotal / 1e6 / completedCount;
+                if (cpuTimeSupported && runTotal > 0) {
+                    blockingRatio = Math.min(Math.max(1 - (double) cpuTotal / runTotal, 0), 1);
+                }
+                // Little 定律: 所需并发数 = 到达率 × 平均执行耗时
+                required = arrivalRate * meanRunMillis / 1000;
+                queueing = waitTotal / completedCount > targetQueueWaitNanos;
+            } else {
+                // 间隔内没有任务结束，按当前的执行数与排队数估计
+                required = pool.getActiveCount() + queued;
+                queueing = queued > 0;
+            }
+
+            int desired = (int) Math.ceil(required / targetUtilization);
+            if (queueing) {
+                desired = Math.max(desired, current + 1);
+            }
+
+            int target;
+            if (desired > current) {
+                // 阻塞比例越低，CPU 能支撑的线程数越少
+                double ratio = blockingRatio;
+                int cpuLimit = ratio < 0 ? maxPoolSize : (int) Math.ceil(cpuCount / Math.max(1 - ratio, 0.01));
+                target = Math.min(desired, Math.max(cpuLimit, current));
+            } else {
+                target = current - (current - desired + 1) / 2;
+            }
+            target = Math.min(Math.max(target, minPoolSize), maxPoolSize);
+
+            if (target == current) {
+                log.debug("[自适应线程池] - [{}] 核心线程数保持 {} (到达率 {}/s, 平均执行 {} ms, 平均排队 {} ms, 排队数 {}, 阻塞比例 {})",
+                        name, current, format(arrivalRate), format(meanRunMillis), format(meanWaitMillis), queued, format(blockingRatio));
+                return;
+            }
+
+            resize(pool, target);
+            resizeCount++;
+            log.info("[自适应线程池] - [{}] 核心线程数 {} -> {}, 最大线程数 {} (到达率 {}/s, 平均执行 {} ms, 平均排队 {} ms, 排队数 {}, 阻塞比例 {}, 所需线程数 {})",
+                    name, current, target, pool.getMaximumPoolSize(), format(arrivalRate), format(meanRunMillis), format(meanWaitMillis),
+                    queued, format(blockingRatio), format(required));
+        } catch (Throwable e) {
+            log.error("[自适应线程池] - [" + name + "] 调整线程数出错", e);
+        }
+    }
+
+    /**
+     * 设置核心线程数，最大线程数为其 2 倍（不超过上限）<br>
+     * 核心线程数不能大于最大线程数: 新的核心线程数大于当前最大线程数时先设置最大线程数
+     */
+    private void resize(ThreadPoolExecutor pool, int corePoolSize) {
+        int maxSize = Math.min(corePoolSize * 2, maxPoolSize);
+        if (corePoolSize > pool.getMaximumPoolSize()) {
+            executor.setMaxPoolSize(maxSize);
+            executor.setCorePoolSize(corePoolSize);
+        } else {
+            executor.setCorePoolSize(corePoolSize);
+            executor.setMaxPoolSize(maxSize);
+        }
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public double getBlockingRatio() {
+        return blockingRatio;
+    }
+
+    public long getResizeCount() {
+        return resizeCount;
+    }
+
+    /**
+     * 统计排队时间、执行耗时与 CPU 时间的任务包装
+     */
+    private class InstrumentedTask implements DiscardableTask {
+        private final Runnable task;
+        private final long submitTime = System.nanoTime();
+
+        private InstrumentedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            queueWaitNanos.add(startTime - submitTime);
+            long cpuStart = cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+            try {
+                task.run();
+            } finally {
+                runNanos.add(System.nanoTime() - startTime);
+                if (cpuTimeSupported) {
+                    cpuNanos.add(THREAD_MX_BEAN.getCurrentThreadCpuTime() - cpuStart);
+                }
+                completed.increment();
+            }
+        }
+
+        @Override
+        public void onDiscard() {
+            DiscardableTask.discard(task);
+        }
+    }
+}
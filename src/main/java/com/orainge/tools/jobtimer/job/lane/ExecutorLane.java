@@ -0,0 +1,268 @@
+package com.orainge.tools.jobtimer.job.lane;
+
+import com.orainge.tools.jobtimer.job.metrics.ExecutorMetrics;
+import com.orainge.tools.jobtimer.util.thread.CountingRejectedExecutionHandler;
+import com.orainge.tools.jobtimer.vo.LaneStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 任务执行通道<br>
+ * 每个通道使用独立的线程池，避免慢任务占满线程影响其他任务<br>
+ * 配置为虚拟线程模式且 JVM 支持时，每个任务使用一个虚拟线程执行，同时执行的任务数不超过 max-pool-size，
+ * 超过时按拒绝策略处理（没有排队队列，不使用优先级与自适应线程数）<br>
+ * 线程池使用优先级队列时，排队的任务按优先级执行<br>
+ * 线程池开启自适应线程数时，线程数由 AdaptivePoolController 按负载调整<br>
+ * 线程池设置了 ExecutorMetrics 的任务包装时，运行状态中包含任务排队时间与执行耗时的统计
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class ExecutorLane {
+    /**
+     * 通道名称
+     */
+    private final String name;
+
+    /**
+     * 通道线程池，虚拟线程模式下只有默认通道有线程池（asyncExecutor，供其他组件使用）
+     */
+    private final ThreadPoolTaskExecutor executor;
+
+    /**
+     * 虚拟线程池，未使用虚拟线程模式时为 null
+     */
+    private final ExecutorService virtualExecutor;
+
+    /**
+     * 虚拟线程模式下正在执行的任务数
+     */
+    private final AtomicInteger virtualActiveCount = new AtomicInteger();
+
+    /**
+     * 虚拟线程模式下同时执行的任务数上限
+     */
+    private final int virtualMaxConcurrency;
+
+    /**
+     * 虚拟线程模式下限制同时执行的任务数，未使用虚拟线程模式时为 null
+     */
+    private final Semaphore virtualPermits;
+
+    /**
+     * 虚拟线程模式下的拒绝策略，未使用虚拟线程模式时为 null
+     */
+    private final CountingRejectedExecutionHandler virtualRejectedHandler;
+
+    /**
+     * 自适应线程数控制器，未开启自适应线程数时为 null
+     */
+    private final AdaptivePoolController adaptiveController;
+
+    /**
+     * 线程池执行统计，未统计时为 null
+     */
+    private final ExecutorMetrics executorMetrics;
+
+    public ExecutorLane(String name, ThreadPoolTaskExecutor executor) {
+        this(name, executor, null, null);
+    }
+
+    public ExecutorLane(String name, ThreadPoolTaskExecutor executor,
+                        AdaptivePoolController adaptiveController, ExecutorMetrics executorMetrics) {
+        this.name = name;
+        this.executor = executor;
+        this.virtualExecutor = null;
+        this.virtualMaxConcurrency = 0;
+        this.virtualPermits = null;
+        this.virtualRejectedHandler = null;
+        this.adaptiveController = adaptiveController;
+        this.executorMetrics = executorMetrics;
+    }
+
+    /**
+     * 创建虚拟线程模式的通道
+     *
+     * @param executor           通道线程池，仅默认通道需要（不用于执行通道的任务，只随通道关闭），其他通道为 null
+     * @param virtualExecutor    虚拟线程池
+     * @param maxConcurrency     同时执行的任务数上限
+     * @param rejectedHandler    超过上限时的拒绝策略
+     * @param adaptiveController 通道线程池的自适应线程数控制器，只随通道关闭
+     * @param executorMetrics    执行统计
+     */
+    public ExecutorLane(String name, ThreadPoolTaskExecutor executor, ExecutorService virtualExecutor,
+                        int maxConcurrency, CountingRejectedExecutionHandler rejectedHandler,
+                        AdaptivePoolController adaptiveController, ExecutorMetrics executorMetrics) {
+        this.name = name;
+        this.executor = executor;
+        this.virtualExecutor = virtualExecutor;
+        this.virtualMaxConcurrency = Math.max(maxConcurrency, 1);
+        this.virtualPermits = new Semaphore(this.virtualMaxConcurrency);
+        this.virtualRejectedHandler = rejectedHandler;
+        this.adaptiveController = adaptiveController;
+        this.executorMetrics = executorMetrics;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ThreadPoolTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 是否使用虚拟线程执行任务
+     */
+    public boolean isVirtual() {
+        return virtualExecutor != null;
+    }
+
+    /**
+     * 提交任务到通道执行
+     *
+     * @param task 任务
+     */
+    public void execute(Runnable task) {
+        execute(task, 0);
+    }
+
+    /**
+     * 提交任务到通道执行
+     *
+     * @param task     任务
+     * @param priority 优先级，数值越大越优先，仅使用优先级队列时生效
+     */
+    public void execute(Runnable task, int priority) {
+        if (virtualExecutor == null) {
+            executor.execute(getPriorityQueue() == null ? task : new PrioritizedTask(task, priority));
+            return;
+        }
+
+        Runnable decorated = executorMetrics == null ? task : executorMetrics.getTaskDecorator().decorate(task);
+        if (!virtualPermits.tryAcquire()) {
+            virtualRejectedHandler.rejectedExecution(decorated);
+            return;
+        }
+
+        virtualActiveCount.incrementAndGet();
+        try {
+            virtualExecutor.execute(() -> {
+                try {
+                    decorated.run();
+                } finally {
+                    virtualActiveCount.decrementAndGet();
+                    virtualPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            virtualActiveCount.decrementAndGet();
+            virtualPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 获取线程池的优先级队列
+     *
+     * @return 未使用优先级队列时返回 null
+     */
+    private PriorityTaskQueue getPriorityQueue() {
+        BlockingQueue<Runnable> queue = executor.getThreadPoolExecutor().getQueue();
+        return queue instanceof PriorityTaskQueue ? (PriorityTaskQueue) queue : null;
+    }
+
+    /**
+     * 关闭通道
+     *
+     * @param includeExecutor 是否同时关闭线程池（由 Spring 容器管理的线程池不需要关闭）
+     */
+    public void shutdown(boolean includeExecutor) {
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        }
+        if (adaptiveController != null) {
+            adaptiveController.shutdown();
+        }
+        if (includeExecutor && executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 获取通道运行状态
+     */
+    public LaneStatus getStatus() {
+        LaneStatus status = new LaneStatus();
+        status.setName(name);
+        status.setMode(isVirtual() ? "virtual" : "platform");
+        if (isVirtual()) {
+            int activeCount = virtualActiveCount.get();
+            status.setMaxPoolSize(virtualMaxConcurrency);
+            status.setActiveCount(activeCount);
+            status.setThreadSaturation((double) activeCount / virtualMaxConcurrency);
+            setRejectionStatus(status, virtualRejectedHandler);
+            setMetricsStatus(status);
+            return status;
+        }
+
+        ThreadPoolExecutor threadPoolExecutor = executor.getThreadPoolExecutor();
+        BlockingQueue<Runnable> queue = threadPoolExecutor.getQueue();
+        int activeCount = threadPoolExecutor.getActiveCount();
+        int maxPoolSize = threadPoolExecutor.getMaximumPoolSize();
+        int queueSize = queue.size();
+        int remainingCapacity = queue.remainingCapacity();
+
+        status.setCorePoolSize(threadPoolExecutor.getCorePoolSize());
+        status.setMaxPoolSize(maxPoolSize);
+        status.setPoolSize(threadPoolExecutor.getPoolSize());
+        status.setActiveCount(activeCount);
+        status.setQueueSize(queueSize);
+        PriorityTaskQueue priorityQueue = getPriorityQueue();
+        status.setQueueType(priorityQueue == null ? "fifo" : "priority");
+        if (priorityQueue != null) {
+            status.setPriorityQueueWait(priorityQueue.getQueueWait());
+        }
+        status.setQueueRemainingCapacity(remainingCapacity);
+        if (adaptiveController != null) {
+            status.setAdaptive(true);
+            status.setArrivalRate(adaptiveController.getArrivalRate());
+            double blockingRatio = adaptiveController.getBlockingRatio();
+            status.setBlockingRatio(blockingRatio < 0 ? null : blockingRatio);
+            status.setResizeCount(adaptiveController.getResizeCount());
+        }
+        status.setCompletedTaskCount(threadPoolExecutor.getCompletedTaskCount());
+        status.setThreadSaturation(maxPoolSize == 0 ? 0 : (double) activeCount / maxPoolSize);
+        status.setQueueSaturation(queueSize + remainingCapacity == 0 ? 0 : (double) queueSize / (queueSize + remainingCapacity));
+
+        RejectedExecutionHandler handler = threadPoolExecutor.getRejectedExecutionHandler();
+        if (handler instanceof CountingRejectedExecutionHandler) {
+            setRejectionStatus(status, (CountingRejectedExecutionHandler) handler);
+        }
+        setMetricsStatus(status);
+        return status;
+    }
+
+    private static void setRejectionStatus(LaneStatus status, CountingRejectedExecutionHandler countingHandler) {
+        status.setRejectionPolicy(countingHandler.getPolicyName());
+        status.setRejectedCount(countingHandler.getRejectedCount());
+        if (countingHandler.isCallerRuns()) {
+            status.setCallerRunsCount(countingHandler.getCallerRunsCount());
+            status.setSchedulerCallerRunsCount(countingHandler.getSchedulerCallerRunsCount());
+        }
+    }
+
+    private void setMetricsStatus(LaneStatus status) {
+        if (executorMetrics != null) {
+            status.setQueueWait(executorMetrics.getQueueWait().getStatus());
+            status.setRunTime(executorMetrics.getRunTime().getStatus());
+        }
+    }
+}
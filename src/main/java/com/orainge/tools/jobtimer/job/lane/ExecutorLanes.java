@@ -0,0 +1,74 @@
+package com.orainge.tools.jobtimer.job.lane;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 任务执行通道管理<br>
+ * 默认通道使用 asyncExecutor，其他通道由配置文件声明
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class ExecutorLanes implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ExecutorLanes.class);
+
+    /**
+     * 默认通道名称
+     */
+    public static final String DEFAULT_LANE = "default";
+
+    private final ExecutorLane defaultLane;
+
+    /**
+     * 通道名称 - 通道
+     */
+    private final Map<String, ExecutorLane> lanes;
+
+    public ExecutorLanes(ExecutorLane defaultLane, Collection<ExecutorLane> extraLanes) {
+        Map<String, ExecutorLane> lanes = new LinkedHashMap<>();
+        lanes.put(defaultLane.getName(), defaultLane);
+        for (ExecutorLane lane : extraLanes) {
+            if (lanes.put(lane.getName(), lane) != null) {
+                throw new IllegalStateException("[执行通道管理] - 通道名称重复: " + lane.getName());
+            }
+        }
+        this.defaultLane = defaultLane;
+        this.lanes = Collections.unmodifiableMap(lanes);
+    }
+
+    /**
+     * 获取通道
+     *
+     * @param name 通道名称，为空时返回默认通道
+     * @return 通道，不存在时返回 null
+     */
+    public ExecutorLane getLane(String name) {
+        return name == null || name.isEmpty() ? defaultLane : lanes.get(name);
+    }
+
+    public ExecutorLane getDefaultLane() {
+        return defaultLane;
+    }
+
+    public Collection<ExecutorLane> getLanes() {
+        return lanes.values();
+    }
+
+    /**
+     * 关闭所有通道（默认通道的线程池由 Spring 容器管理）
+     */
+    @Override
+    public void destroy() {
+        for (ExecutorLane lane : lanes.values()) {
+            lane.shutdown(lane != defaultLane);
+        }
+        log.info("[执行通道管理] - 执行通道已关闭");
+    }
+}
@@ -0,0 +1,48 @@
+package com.orainge.tools.jobtimer.job.lane;
+
+import com.orainge.tools.jobtimer.util.thread.DiscardableTask;
+
+/**
+ * 带优先级的任务，由 ExecutorLane 在提交到优先级队列前包装
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public final class PrioritizedTask implements DiscardableTask {
+    private final Runnable task;
+
+    /**
+     * 优先级，数值越大越优先
+     */
+    private final int priority;
+
+    public PrioritizedTask(Runnable task, int priority) {
+        this.task = task;
+        this.priority = priority;
+    }
+
+    /**
+     * 包装任务时保留优先级，优先级队列按包装后的任务排序
+     *
+     * @param task    原任务
+     * @param wrapped 包装后的任务
+     * @return 原任务带优先级时返回带相同优先级的包装任务，否则返回包装后的任务
+     */
+    public static Runnable wrap(Runnable task, Runnable wrapped) {
+        return task instanceof PrioritizedTask ? new PrioritizedTask(wrapped, ((PrioritizedTask) task).priority) : wrapped;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void run() {
+        task.run();
+    }
+
+    @Override
+    public void onDiscard() {
+        DiscardableTask.discard(task);
+    }
+}
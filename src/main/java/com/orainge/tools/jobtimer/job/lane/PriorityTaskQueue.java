@@ -0,0 +1,357 @@
+package com.orainge.tools.jobtimer.job.lane;
+
+import com.orainge.tools.jobtimer.job.metrics.LatencyHistogram;
+import com.orainge.tools.jobtimer.util.thread.RankedQueue;
+import com.orainge.tools.jobtimer.vo.LatencyStatus;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 有界优先级任务队列，用于替换线程池的先进先出队列<br>
+ * 按“虚拟入队时间”排序: 入队时间减去 优先级 × 老化间隔，值越小越先执行；
+ * 即优先级高 1 相当于提前一个老化间隔入队，低优先级任务等待足够久后会排到新入队的高优先级任务之前，不会一直得不到执行。
+ * 排序键在入队时确定，不随时间变化，堆结构始终有效<br>
+ * 出队时按优先级记录任务的排队时间<br>
+ * 队列已满时 discard-oldest 策略丢弃排名最低（排序键最大）的任务，而不是队首的最紧急任务
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class PriorityTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable>, RankedQueue {
+    private final int capacity;
+
+    /**
+     * 老化间隔（单位：纳秒）
+     */
+    private final long agingNanos;
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * 入队序号，排序键相同时先入队的先执行
+     */
+    private long sequence;
+
+    /**
+     * 优先级 - 排队时间统计
+     */
+    private final Map<Integer, LatencyHistogram> queueWait = new ConcurrentHashMap<>();
+
+    public PriorityTaskQueue(int capacity, long agingMillis) {
+        this.capacity = capacity <= 0 ? Integer.MAX_VALUE : capacity;
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(agingMillis, 1));
+    }
+
+    /**
+     * 获取各优先级的排队时间统计
+     *
+     * @return 优先级 - 排队时间统计（按优先级从高到低）
+     */
+    public Map<Integer, LatencyStatus> getQueueWait() {
+        Map<Integer, LatencyStatus> result = new TreeMap<>(Comparator.reverseOrder());
+        queueWait.forEach((priority, histogram) -> result.put(priority, histogram.getStatus()));
+        return result;
+    }
+
+    private Entry newEntry(Runnable task) {
+        int priority = priorityOf(task);
+        long now = System.nanoTime();
+        return new Entry(task, priority, now, now - priority * agingNanos, sequence++);
+    }
+
+    private static int priorityOf(Runnable task) {
+        return task instanceof PrioritizedTask ? ((PrioritizedTask) task).getPriority() : 0;
+    }
+
+    /**
+     * 计算任务现在入队时的排序键
+     */
+    private long virtualEnqueueTime(Runnable task) {
+        return System.nanoTime() - priorityOf(task) * agingNanos;
+    }
+
+    private Runnable dequeue() {
+        Entry entry = heap.poll();
+        notFull.signal();
+        queueWait.computeIfAbsent(entry.priority, key -> new LatencyHistogram()).record(System.nanoTime() - entry.enqueueTime);
+        return entry.task;
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        Objects.requireNonNull(task);
+        lock.lock();
+        try {
+            if (heap.size() >= capacity) {
+                return false;
+            }
+            heap.offer(newEntry(task));
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        Objects.requireNonNull(task);
+        lock.lockInterruptibly();
+        try {
+            while (heap.size() >= capacity) {
+                notFull.await();
+            }
+            heap.offer(newEntry(task));
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(task);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (heap.size() >= capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            heap.offer(newEntry(task));
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (heap.isEmpty()) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (heap.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return heap.isEmpty() ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable evictLowest(Runnable task) {
+        Objects.requireNonNull(task);
+        lock.lock();
+        try {
+            Entry lowest = null;
+            for (Entry entry : heap) {
+                if (lowest == null || entry.compareTo(lowest) > 0) {
+                    lowest = entry;
+                }
+            }
+            if (lowest == null) {
+                return null;
+            }
+            // 新任务按当前时间入队，排序键不小于排名最低的排队任务时丢弃新任务
+            Entry incoming = new Entry(task, priorityOf(task), 0, virtualEnqueueTime(task), Long.MAX_VALUE);
+            if (incoming.compareTo(lowest) >= 0) {
+                return task;
+            }
+            heap.remove(lowest);
+            notFull.signal();
+            return lowest.task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            Entry entry = heap.peek();
+            return entry == null ? null : entry.task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return heap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - heap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            Iterator<Entry> iterator = heap.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().task == o) {
+                    iterator.remove();
+                    notFull.signal();
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        lock.lock();
+        try {
+            int count = 0;
+            while (count < maxElements && !heap.isEmpty()) {
+                c.add(heap.poll().task);
+                count++;
+            }
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 返回当前队列内容的快照（不保证顺序），通过迭代器删除时从队列中删除对应任务
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        List<Runnable> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Entry entry : heap) {
+                snapshot.add(entry.task);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Iterator<Runnable> iterator = snapshot.iterator();
+        return new Iterator<Runnable>() {
+            private Runnable current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                PriorityTaskQueue.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final Runnable task;
+        private final int priority;
+        private final long enqueueTime;
+
+        /**
+         * 排序键（虚拟入队时间）
+         */
+        private final long key;
+
+        private final long sequence;
+
+        private Entry(Runnable task, int priority, long enqueueTime, long key, long sequence) {
+            this.task = task;
+            this.priority = priority;
+            this.enqueueTime = enqueueTime;
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            // System.nanoTime 可能溢出，按差值比较
+            long diff = key - other.key;
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.orainge.tools.jobtimer.job.metrics;
+
+import com.orainge.tools.jobtimer.job.lane.PrioritizedTask;
+import com.orainge.tools.jobtimer.util.thread.DiscardableTask;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 线程池执行统计<br>
+ * 通过任务包装记录每个任务的排队时间与执行耗时，由调用线程执行（caller-runs）的任务排队时间约为 0
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class ExecutorMetrics {
+    /**
+     * 排队时间
+     */
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    /**
+     * 执行耗时
+     */
+    private final LatencyHistogram runTime = new LatencyHistogram();
+
+    /**
+     * 获取统计用的任务包装，需要在线程池初始化前设置
+     */
+    public TaskDecorator getTaskDecorator() {
+        return task -> PrioritizedTask.wrap(task, new TimedTask(task));
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    public LatencyHistogram getRunTime() {
+        return runTime;
+    }
+
+    /**
+     * 记录排队时间与执行耗时的任务包装
+     */
+    private class TimedTask implements DiscardableTask {
+        private final Runnable task;
+        private final long submitTime = System.nanoTime();
+
+        private TimedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            queueWait.record(startTime - submitTime);
+            try {
+                task.run();
+            } finally {
+                runTime.record(System.nanoTime() - startTime);
+            }
+        }
+
+        @Override
+        public void onDiscard() {
+            DiscardableTask.discard(task);
+        }
+    }
+}
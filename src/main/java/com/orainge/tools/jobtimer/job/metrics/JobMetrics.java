@@ -0,0 +1,113 @@
+package com.orainge.tools.jobtimer.job.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 任务执行统计<br>
+ * 每个 JobBean 持有一份，记录执行次数、失败次数、超时次数、执行耗时与排队耗时
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class JobMetrics {
+    /**
+     * 开始统计的时间
+     */
+    private final long startTime = System.currentTimeMillis();
+
+    /**
+     * 执行次数
+     */
+    private final LongAdder executionCount = new LongAdder();
+
+    /**
+     * 失败次数
+     */
+    private final LongAdder failureCount = new LongAdder();
+
+    /**
+     * 正在执行的数量
+     */
+    private final LongAdder runningCount = new LongAdder();
+
+    /**
+     * 超时次数
+     */
+    private final LongAdder timeoutCount = new LongAdder();
+
+    /**
+     * 执行耗时
+     */
+    private final LatencyHistogram runTime = new LatencyHistogram();
+
+    /**
+     * 排队耗时（从定时任务触发到开始执行）
+     */
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    /**
+     * 记录开始执行
+     */
+    public void recordStart() {
+        runningCount.increment();
+    }
+
+    /**
+     * 记录执行结束
+     *
+     * @param nanos   执行耗时（纳秒）
+     * @param success 是否执行成功
+     */
+    public void recordEnd(long nanos, boolean success) {
+        runningCount.decrement();
+        executionCount.increment();
+        if (!success) {
+            failureCount.increment();
+        }
+        runTime.record(nanos);
+    }
+
+    /**
+     * 记录执行超时（超时的执行同时计入失败次数）
+     */
+    public void recordTimeout() {
+        timeoutCount.increment();
+    }
+
+    /**
+     * 记录排队耗时
+     *
+     * @param nanos 排队耗时（纳秒）
+     */
+    public void recordQueueWait(long nanos) {
+        queueWait.record(nanos);
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getExecutionCount() {
+        return executionCount.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    public long getRunningCount() {
+        return runningCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public LatencyHistogram getRunTime() {
+        return runTime;
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+}
@@ -0,0 +1,130 @@
+package com.orainge.tools.jobtimer.job.metrics;
+
+import com.orainge.tools.jobtimer.vo.LatencyStatus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图<br>
+ * 以微秒为单位记录，按 2 的幂分组，每组再等分为 16 个桶，相对误差不超过 1/16；
+ * 记录时只做原子自增，不加锁、不创建对象
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class LatencyHistogram {
+    /**
+     * 每组桶数 = 2 ^ SUB_BUCKET_BITS
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 桶总数，覆盖 long 的全部取值范围
+     */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * 总耗时（微秒）
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * 最大耗时（微秒）
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        long micros = nanos <= 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanos);
+        buckets.incrementAndGet(bucketIndex(micros));
+        count.increment();
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 获取统计结果（毫秒）
+     */
+    public LatencyStatus getStatus() {
+        // 按桶复制一份快照，避免统计过程中数值变化
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+
+        long maxMicros = max.get();
+        LatencyStatus status = new LatencyStatus();
+        status.setCount(total);
+        status.setMean(total == 0 ? 0 : toMillis(sum.sum()) / total);
+        status.setP50(toMillis(percentile(snapshot, total, 0.50, maxMicros)));
+        status.setP90(toMillis(percentile(snapshot, total, 0.90, maxMicros)));
+        status.setP99(toMillis(percentile(snapshot, total, 0.99, maxMicros)));
+        status.setMax(toMillis(maxMicros));
+        return status;
+    }
+
+    /**
+     * 计算百分位数，返回所在桶的上界（不超过最大值）
+     */
+    private static long percentile(long[] snapshot, long total, double percentile, long maxMicros) {
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(total * percentile);
+        long accumulated = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            accumulated += snapshot[i];
+            if (accumulated >= target) {
+                return Math.min(bucketUpperBound(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    /**
+     * 计算数值所在的桶下标
+     */
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 计算桶内的最大数值
+     */
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+}
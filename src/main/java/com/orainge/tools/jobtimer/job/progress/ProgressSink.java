@@ -0,0 +1,27 @@
+package com.orainge.tools.jobtimer.job.progress;
+
+import com.orainge.tools.jobtimer.vo.JobResult;
+
+/**
+ * 任务进度输出<br>
+ * 流式执行任务时绑定在任务上下文中，任务执行期间通过 JobBean.progress 写入进度；
+ * 实现类不能阻塞写入线程，可能被多个线程（如分片任务）同时调用
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public interface ProgressSink {
+    /**
+     * 输出一条进度
+     *
+     * @param line 进度内容
+     */
+    void progress(String line);
+
+    /**
+     * 任务执行结束，输出执行结果
+     *
+     * @param result 执行结果
+     */
+    void complete(JobResult result);
+}
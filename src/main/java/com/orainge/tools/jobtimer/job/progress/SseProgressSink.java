@@ -0,0 +1,192 @@
+package com.orainge.tools.jobtimer.job.progress;
+
+import com.orainge.tools.jobtimer.job.scheduler.DispatchTask;
+import com.orainge.tools.jobtimer.vo.JobResult;
+import com.orainge.tools.jobtimer.vo.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 通过 Server-Sent Events 输出任务进度<br>
+ * 进度先放入有界队列，再由发送线程按顺序发送，任务线程不会因为客户端接收慢而阻塞；
+ * 队列已满时丢弃新的进度，客户端断开后不再缓存进度<br>
+ * 发送线程池已满时稍后重试，不在任务线程中发送<br>
+ * 事件名称: progress（进度内容），result（执行结果，之后关闭连接）
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class SseProgressSink implements ProgressSink {
+    private static final Logger log = LoggerFactory.getLogger(SseProgressSink.class);
+
+    /**
+     * 进度事件名称
+     */
+    public static final String EVENT_PROGRESS = "progress";
+
+    /**
+     * 执行结果事件名称
+     */
+    public static final String EVENT_RESULT = "result";
+
+    /**
+     * 发送线程池已满时的重试间隔（单位：毫秒）
+     */
+    private static final long RETRY_DELAY_MILLIS = 100;
+
+    private final SseEmitter emitter;
+
+    /**
+     * 发送线程池
+     */
+    private final Executor executor;
+
+    /**
+     * 发送线程池已满时用于稍后重试的调度器
+     */
+    private final TaskScheduler retryScheduler;
+
+    /**
+     * 最多缓存的未发送进度数
+     */
+    private final int bufferSize;
+
+    /**
+     * 待发送的事件（进度为 String，执行结果为 Result）
+     */
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 队列中的进度数
+     */
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    /**
+     * 丢弃的进度数
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 是否有发送任务在执行
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * 连接是否已关闭
+     */
+    private volatile boolean closed;
+
+    public SseProgressSink(SseEmitter emitter, Executor executor, TaskScheduler retryScheduler, int bufferSize) {
+        this.emitter = emitter;
+        this.executor = executor;
+        this.retryScheduler = retryScheduler;
+        this.bufferSize = Math.max(bufferSize, 1);
+        emitter.onCompletion(() -> closed = true);
+        emitter.onTimeout(() -> closed = true);
+        emitter.onError(e -> closed = true);
+    }
+
+    @Override
+    public void progress(String line) {
+        if (closed || line == null) {
+            return;
+        }
+        if (buffered.incrementAndGet() > bufferSize) {
+            buffered.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(line);
+        schedule();
+    }
+
+    @Override
+    public void complete(JobResult result) {
+        if (closed) {
+            return;
+        }
+
+        String message = "任务通过 API 执行完成";
+        long droppedCount = dropped.sum();
+        if (droppedCount > 0) {
+            message += "，发送缓冲区已满，丢弃进度 " + droppedCount + " 条";
+        }
+        queue.offer(Result.ok().setMessage(message).setData(result));
+        schedule();
+    }
+
+    /**
+     * 没有发送任务在执行时提交发送任务
+     */
+    private void schedule() {
+        if (draining.compareAndSet(false, true)) {
+            submitDrain();
+        }
+    }
+
+    /**
+     * 提交发送任务<br>
+     * 线程池已满时保留发送标志并稍后重试，期间入队的事件由重试后的发送任务一并发送
+     */
+    private void submitDrain() {
+        if (closed) {
+            queue.clear();
+            draining.set(false);
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            log.debug("[任务进度] - 发送线程池已满，{} 毫秒后重试", RETRY_DELAY_MILLIS);
+            try {
+                retryScheduler.schedule((DispatchTask) this::submitDrain, new Date(System.currentTimeMillis() + RETRY_DELAY_MILLIS));
+            } catch (RejectedExecutionException ex) {
+                // 调度器已停止
+                closed = true;
+                queue.clear();
+                draining.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Object event;
+            while (!closed && (event = queue.poll()) != null) {
+                if (event instanceof String) {
+                    buffered.decrementAndGet();
+                    emitter.send(SseEmitter.event().name(EVENT_PROGRESS).data(event, MediaType.TEXT_PLAIN));
+                } else {
+                    emitter.send(SseEmitter.event().name(EVENT_RESULT).data(event, MediaType.APPLICATION_JSON));
+                    closed = true;
+                    emitter.complete();
+                }
+            }
+        } catch (Exception e) {
+            // 客户端已断开
+            closed = true;
+            log.debug("[任务进度] - 发送进度失败，客户端可能已断开: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+
+        if (closed) {
+            queue.clear();
+        } else if (!queue.isEmpty()) {
+            // 释放发送标志期间有新的事件入队
+            schedule();
+        }
+    }
+}
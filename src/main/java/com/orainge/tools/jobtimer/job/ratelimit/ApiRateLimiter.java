@@ -0,0 +1,153 @@
+package com.orainge.tools.jobtimer.job.ratelimit;
+
+import com.orainge.tools.jobtimer.config.JobConfig;
+import com.orainge.tools.jobtimer.vo.RateLimitStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 任务 API 限流<br>
+ * 按 token 与任务分别限流，请求需要同时通过两者；限流器在第一次请求时创建
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Component
+@ConditionalOnMissingBean({ApiRateLimiter.class})
+public class ApiRateLimiter {
+    private static final Logger log = LoggerFactory.getLogger(ApiRateLimiter.class);
+
+    @Resource
+    private JobConfig jobConfig;
+
+    private boolean enable;
+
+    private JobConfig.RateLimitRule tokenRule;
+
+    private JobConfig.RateLimitRule defaultJobRule;
+
+    private Map<String, JobConfig.RateLimitRule> jobRules = Collections.emptyMap();
+
+    /**
+     * token - 限流器
+     */
+    private final Map<String, RateLimiter> tokenLimiters = new ConcurrentHashMap<>();
+
+    /**
+     * 任务名称 - 限流器
+     */
+    private final Map<String, RateLimiter> jobLimiters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        JobConfig.JobRateLimitConfig config = jobConfig.getApi() == null ? null : jobConfig.getApi().getRateLimit();
+        enable = config != null && config.isEnable();
+        if (!enable) {
+            return;
+        }
+
+        tokenRule = checkRule("token", config.getToken());
+        defaultJobRule = checkRule("default-job", config.getDefaultJob());
+        if (config.getJobs() != null) {
+            Map<String, JobConfig.RateLimitRule> jobRules = new HashMap<>();
+            config.getJobs().forEach((jobName, rule) -> jobRules.put(jobName, checkRule("jobs." + jobName, rule)));
+            this.jobRules = jobRules;
+        }
+        log.info("[限流] - 任务 API 限流已开启");
+    }
+
+    private JobConfig.RateLimitRule checkRule(String configName, JobConfig.RateLimitRule rule) {
+        if (rule != null && rule.getRate() <= 0) {
+            throw new IllegalStateException("[限流] - rate-limit." + configName + ".rate 必须大于 0，请检查配置文件");
+        }
+        return rule;
+    }
+
+    /**
+     * 尝试通过 token 限流
+     *
+     * @param token   调用的 token
+     * @param permits 请求数
+     * @return 0: 通过; 大于 0: 被限流，需要等待的时间（单位：纳秒）
+     */
+    public long tryAcquireToken(String token, int permits) {
+        if (!enable || tokenRule == null) {
+            return 0;
+        }
+        return tokenLimiters.computeIfAbsent(token, key -> new RateLimiter("token:" + mask(key), tokenRule.getRate(), tokenRule.getBurst()))
+                .tryAcquire(permits);
+    }
+
+    /**
+     * 尝试通过任务限流
+     *
+     * @param jobName 任务名称
+     * @param permits 请求数
+     * @return 0: 通过; 大于 0: 被限流，需要等待的时间（单位：纳秒）
+     */
+    public long tryAcquireJob(String jobName, int permits) {
+        if (!enable) {
+            return 0;
+        }
+        JobConfig.RateLimitRule rule = jobRules.getOrDefault(jobName, defaultJobRule);
+        if (rule == null) {
+            return 0;
+        }
+        return jobLimiters.computeIfAbsent(jobName, key -> new RateLimiter("job:" + key, rule.getRate(), rule.getBurst()))
+                .tryAcquire(permits);
+    }
+
+    /**
+     * 归还通过 token 限流时获取的令牌
+     *
+     * @param token   调用的 token
+     * @param permits 请求数
+     */
+    public void releaseToken(String token, int permits) {
+        RateLimiter limiter = tokenLimiters.get(token);
+        if (limiter != null) {
+            limiter.release(permits);
+        }
+    }
+
+    /**
+     * 归还通过任务限流时获取的令牌
+     *
+     * @param jobName 任务名称
+     * @param permits 请求数
+     */
+    public void releaseJob(String jobName, int permits) {
+        RateLimiter limiter = jobLimiters.get(jobName);
+        if (limiter != null) {
+            limiter.release(permits);
+        }
+    }
+
+    /**
+     * 获取所有限流器的状态
+     */
+    public List<RateLimitStatus> getStatus() {
+        List<RateLimitStatus> statusList = new ArrayList<>();
+        for (RateLimiter limiter : tokenLimiters.values()) {
+            statusList.add(limiter.getStatus());
+        }
+        for (RateLimiter limiter : jobLimiters.values()) {
+            statusList.add(limiter.getStatus());
+        }
+        return statusList;
+    }
+
+    /**
+     * 隐藏 token，只保留前 2 位
+     */
+    private static String mask(String token) {
+        return (token.length() <= 2 ? token : token.substring(0, 2)) + "***";
+    }
+}
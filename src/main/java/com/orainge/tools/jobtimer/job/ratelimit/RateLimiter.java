@@ -0,0 +1,125 @@
+package com.orainge.tools.jobtimer.job.ratelimit;
+
+import com.orainge.tools.jobtimer.vo.RateLimitStatus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 令牌桶限流器（GCRA 算法）<br>
+ * 只保存一个“理论到达时间”，通过 CAS 更新，不加锁: 每个请求把理论到达时间推后一个发放间隔，
+ * 推后后的时间超出当前时间一个突发容量以上时拒绝，与容量为 burst、每秒补充 rate 个令牌的令牌桶等价
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public final class RateLimiter {
+    /**
+     * 限流器名称
+     */
+    private final String name;
+
+    private final double rate;
+
+    private final int burst;
+
+    /**
+     * 发放一个令牌的间隔（单位：纳秒）
+     */
+    private final long emissionInterval;
+
+    /**
+     * 突发容量对应的时长（单位：纳秒）
+     */
+    private final long burstTolerance;
+
+    /**
+     * 理论到达时间（System.nanoTime）
+     */
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+    /**
+     * 通过的请求数
+     */
+    private final LongAdder allowedCount = new LongAdder();
+
+    /**
+     * 被拒绝的请求数
+     */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public RateLimiter(String name, double rate, int burst) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("[限流] - 限流器 [" + name + "] 的 rate 必须大于 0");
+        }
+        this.name = name;
+        this.rate = rate;
+        this.burst = Math.max(burst, 1);
+        this.emissionInterval = Math.max((long) (TimeUnit.SECONDS.toNanos(1) / rate), 1);
+        this.burstTolerance = emissionInterval * this.burst;
+    }
+
+    /**
+     * 尝试获取令牌
+     *
+     * @param permits 令牌数
+     * @return 0: 获取成功; 大于 0: 获取失败，需要等待的时间（单位：纳秒）
+     */
+    public long tryAcquire(int permits) {
+        long increment = emissionInterval * permits;
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long next = (current - now > 0 ? current : now) + increment;
+            long wait = next - now - burstTolerance;
+            if (wait > 0) {
+                rejectedCount.increment();
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                allowedCount.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 归还已获取的令牌<br>
+     * 用于同一请求需要通过多个限流器、后续的限流器拒绝时撤销已通过的部分；理论到达时间最多回退到当前时间
+     *
+     * @param permits 令牌数
+     */
+    public void release(int permits) {
+        long decrement = emissionInterval * permits;
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            if (current - now <= 0) {
+                break;
+            }
+            long previous = current - decrement;
+            if (theoreticalArrival.compareAndSet(current, previous - now > 0 ? previous : now)) {
+                break;
+            }
+        }
+        allowedCount.decrement();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取限流器状态
+     */
+    public RateLimitStatus getStatus() {
+        RateLimitStatus status = new RateLimitStatus();
+        status.setName(name);
+        status.setRate(rate);
+        status.setBurst(burst);
+        status.setAllowedCount(allowedCount.sum());
+        status.setRejectedCount(rejectedCount.sum());
+        return status;
+    }
+}
@@ -0,0 +1,13 @@
+package com.orainge.tools.jobtimer.job.scheduler;
+
+/**
+ * 只负责提交的调度任务<br>
+ * 任务只做判断并将实际工作提交到其他线程池，不会阻塞；时间轮调度器在 tick 线程中直接执行，不再经过执行线程池<br>
+ * 提交被拒绝时一律抛出 RejectedExecutionException（tick 线程不执行、也不丢弃被拒绝的任务），需要自行处理
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@FunctionalInterface
+public interface DispatchTask extends Runnable {
+}
@@ -0,0 +1,588 @@
+package com.orainge.tools.jobtimer.job.scheduler;
+
+import com.orainge.tools.jobtimer.util.thread.CountingRejectedExecutionHandler;
+import com.orainge.tools.jobtimer.util.thread.SchedulerThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.scheduling.support.TaskUtils;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分层哈希时间轮调度器<br>
+ * 由单个 tick 线程推进时间轮，任务的添加和取消均为 O(1)，到期的任务交由执行线程池执行；只负责提交的任务（DispatchTask）在 tick 线程中直接执行<br>
+ * 执行线程池已满时不在 tick 线程中执行任务（拒绝策略一律改为抛出异常），本次执行被跳过，重复执行的任务按触发器继续安排下一次执行
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class HashedWheelTaskScheduler implements TaskScheduler, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTaskScheduler.class);
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_SHUTDOWN = 2;
+
+    /**
+     * 每一格的时间长度（单位：毫秒）
+     */
+    private final long tickMillis;
+
+    /**
+     * 每层时间轮格数的位数（格数 = 2 ^ wheelBits）
+     */
+    private final int wheelBits;
+
+    /**
+     * 每层时间轮的格数
+     */
+    private final int ticksPerWheel;
+
+    private final long mask;
+
+    /**
+     * 时间轮层数
+     */
+    private final int levels;
+
+    /**
+     * 时间轮，wheels[层][格]
+     */
+    private final Bucket[][] wheels;
+
+    /**
+     * 到期任务的执行线程池
+     */
+    private final Executor executor;
+
+    /**
+     * 等待放入时间轮的任务
+     */
+    private final Queue<WheelTimeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 等待从时间轮中移除的任务
+     */
+    private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger workerState = new AtomicInteger(STATE_INIT);
+
+    private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+
+    private final Thread workerThread;
+
+    /**
+     * 时间轮启动时间，仅在 tick 线程启动时写入
+     */
+    private volatile long startTime;
+
+    /**
+     * 当前已推进到的格数，仅由 tick 线程读写
+     */
+    private long currentTick = 0;
+
+    /**
+     * 时间轮中的任务数，仅由 tick 线程写入
+     */
+    private volatile int wheelTimeoutCount = 0;
+
+    /**
+     * 创建时间轮调度器
+     *
+     * @param threadName    tick 线程名称
+     * @param tickMillis    每一格的时间长度（单位：毫秒）
+     * @param ticksPerWheel 每层时间轮的格数，会向上取整为 2 的幂
+     * @param levels        时间轮层数
+     * @param executor      到期任务的执行线程池
+     */
+    public HashedWheelTaskScheduler(String threadName, long tickMillis, int ticksPerWheel, int levels, Executor executor) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("[时间轮调度器] - tick 时间长度必须大于 0: " + tickMillis);
+        }
+        if (ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("[时间轮调度器] - 每层时间轮格数必须大于 0: " + ticksPerWheel);
+        }
+        if (levels <= 0) {
+            throw new IllegalArgumentException("[时间轮调度器] - 时间轮层数必须大于 0: " + levels);
+        }
+
+        int bits = 32 - Integer.numberOfLeadingZeros(ticksPerWheel - 1);
+        if (bits * levels > 62) {
+            throw new IllegalArgumentException("[时间轮调度器] - 时间轮总跨度过大，请减少格数或层数");
+        }
+
+        this.tickMillis = tickMillis;
+        this.wheelBits = bits;
+        this.ticksPerWheel = 1 << bits;
+        this.mask = this.ticksPerWheel - 1;
+        this.levels = levels;
+        this.executor = executor;
+
+        this.wheels = new Bucket[levels][this.ticksPerWheel];
+        for (int i = 0; i < levels; i++) {
+            for (int j = 0; j < this.ticksPerWheel; j++) {
+                wheels[i][j] = new Bucket();
+            }
+        }
+
+        this.workerThread = new Thread(this::runWorker, threadName);
+        this.workerThread.setDaemon(true);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+        return new ReschedulingTimeout(TaskUtils.decorateTaskWithErrorHandler(task, null, true), trigger,
+                task instanceof DispatchTask).schedule();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+        return newTimeout(TaskUtils.decorateTaskWithErrorHandler(task, null, false), startTime.getTime(),
+                task instanceof DispatchTask, null);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+        return schedule(task, periodicTrigger(period, startTime.getTime() - System.currentTimeMillis(), true));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+        return schedule(task, periodicTrigger(period, 0, true));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+        return schedule(task, periodicTrigger(delay, startTime.getTime() - System.currentTimeMillis(), false));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+        return schedule(task, periodicTrigger(delay, 0, false));
+    }
+
+    @Override
+    public void destroy() {
+        if (workerState.getAndSet(STATE_SHUTDOWN) == STATE_STARTED) {
+            workerThread.interrupt();
+            try {
+                workerThread.join(tickMillis * 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("[时间轮调度器] - 已停止");
+    }
+
+    /**
+     * 获取等待触发的任务数（包括尚未放入时间轮的任务）
+     */
+    public int getPendingCount() {
+        return wheelTimeoutCount + pendingTimeouts.size();
+    }
+
+    /**
+     * 添加一个到期执行的任务
+     *
+     * @param task           任务内容
+     * @param deadlineMillis 到期时间（毫秒时间戳）
+     * @param dispatch       是否在 tick 线程中直接执行
+     * @param owner          按 Trigger 重复执行的任务，单次任务为 null
+     * @return 任务句柄
+     */
+    private WheelTimeout newTimeout(Runnable task, long deadlineMillis, boolean dispatch, ReschedulingTimeout owner) {
+        start();
+        WheelTimeout timeout = new WheelTimeout(task, deadlineMillis, dispatch, owner);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private PeriodicTrigger periodicTrigger(long period, long initialDelay, boolean fixedRate) {
+        PeriodicTrigger trigger = new PeriodicTrigger(period, TimeUnit.MILLISECONDS);
+        trigger.setInitialDelay(Math.max(initialDelay, 0));
+        trigger.setFixedRate(fixedRate);
+        return trigger;
+    }
+
+    /**
+     * 首次添加任务时启动 tick 线程
+     */
+    private void start() {
+        switch (workerState.get()) {
+            case STATE_INIT:
+                if (workerState.compareAndSet(STATE_INIT, STATE_STARTED)) {
+                    workerThread.start();
+                }
+                break;
+            case STATE_STARTED:
+                break;
+            default:
+                throw new RejectedExecutionException("[时间轮调度器] - 调度器已停止，无法添加任务");
+        }
+
+        // 需要等待 tick 线程初始化完成，等待期间的中断在完成后恢复
+        boolean interrupted = false;
+        while (startTime == 0) {
+            try {
+                startTimeInitialized.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWorker() {
+        // 执行线程池已满时不在 tick 线程中执行任务，避免阻塞时间轮
+        SchedulerThreads.markCurrentThread();
+        CountingRejectedExecutionHandler.rejectStrictly();
+        startTime = System.currentTimeMillis();
+        if (startTime == 0) {
+            startTime = 1;
+        }
+        startTimeInitialized.countDown();
+        log.info("[时间轮调度器] - 已启动 [tick: {} ms, 每层格数: {}, 层数: {}]", tickMillis, ticksPerWheel, levels);
+
+        while (workerState.get() == STATE_STARTED) {
+            long sleepMillis = startTime + (currentTick + 1) * tickMillis - System.currentTimeMillis();
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    // 停止时会中断 tick 线程，恢复中断标记后退出
+                    if (workerState.get() != STATE_STARTED) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                continue;
+            }
+
+            currentTick++;
+            processCancelledTimeouts();
+            transferPendingTimeouts();
+            cascade();
+            expire(wheels[0][(int) (currentTick & mask)]);
+        }
+    }
+
+    /**
+     * 将新添加的任务放入时间轮
+     */
+    private void transferPendingTimeouts() {
+        WheelTimeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long deadlineTick = (timeout.deadlineMillis - startTime + tickMillis - 1) / tickMillis;
+            timeout.deadlineTick = Math.max(deadlineTick, currentTick);
+            place(timeout);
+            wheelTimeoutCount++;
+        }
+    }
+
+    /**
+     * 将已取消的任务从时间轮中移除
+     */
+    private void processCancelledTimeouts() {
+        WheelTimeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+                wheelTimeoutCount--;
+            }
+        }
+    }
+
+    /**
+     * 根据到期格数选择时间轮层和格
+     */
+    private void place(WheelTimeout timeout) {
+        long deadlineTick = Math.max(timeout.deadlineTick, currentTick);
+        for (int level = 0; level < levels; level++) {
+            int shift = wheelBits * level;
+            if (level == levels - 1 || (deadlineTick >>> shift) - (currentTick >>> shift) < ticksPerWheel) {
+                wheels[level][(int) ((deadlineTick >>> shift) & mask)].add(timeout);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 上层时间轮转过一格时，将该格的任务重新放入下层时间轮
+     */
+    private void cascade() {
+        for (int level = levels - 1; level > 0; level--) {
+            int shift = wheelBits * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+
+            Bucket bucket = wheels[level][(int) ((currentTick >>> shift) & mask)];
+            WheelTimeout timeout = bucket.clear();
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+                timeout.next = null;
+                timeout.prev = null;
+                place(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * 执行当前格中到期的任务<br>
+     * DispatchTask 在 tick 线程中直接执行，其他任务交由执行线程池执行
+     */
+    private void expire(Bucket bucket) {
+        WheelTimeout timeout = bucket.clear();
+        while (timeout != null) {
+            WheelTimeout next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            wheelTimeoutCount--;
+            if (timeout.isCancelled()) {
+                timeout = next;
+                continue;
+            }
+            if (timeout.dispatch) {
+                timeout.run();
+                // 任务中设置的中断标记不影响 tick 线程，停止时由 workerState 结束循环
+                Thread.interrupted();
+            } else {
+                try {
+                    executor.execute(timeout);
+                } catch (RejectedExecutionException e) {
+                    log.error("[时间轮调度器] - 执行线程池已满，跳过本次执行: {}", e.getMessage());
+                    if (timeout.owner != null) {
+                        timeout.owner.skip();
+                    }
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * 时间轮中的一格（双向链表）
+     */
+    private static final class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(WheelTimeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * 清空该格，返回原链表头
+         */
+        WheelTimeout clear() {
+            WheelTimeout first = head;
+            for (WheelTimeout t = first; t != null; t = t.next) {
+                t.bucket = null;
+            }
+            head = tail = null;
+            return first;
+        }
+    }
+
+    /**
+     * 时间轮中的单次任务
+     */
+    private final class WheelTimeout extends FutureTask<Object> implements ScheduledFuture<Object> {
+        private final long deadlineMillis;
+
+        /**
+         * 是否在 tick 线程中直接执行
+         */
+        private final boolean dispatch;
+
+        /**
+         * 按 Trigger 重复执行的任务，单次任务为 null
+         */
+        private final ReschedulingTimeout owner;
+
+        // 以下字段仅由 tick 线程读写
+        private long deadlineTick;
+        private Bucket bucket;
+        private WheelTimeout prev;
+        private WheelTimeout next;
+
+        WheelTimeout(Runnable task, long deadlineMillis, boolean dispatch, ReschedulingTimeout owner) {
+            super(task, null);
+            this.deadlineMillis = deadlineMillis;
+            this.dispatch = dispatch;
+            this.owner = owner;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                cancelledTimeouts.add(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (this == other) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * 根据 Trigger 重复执行的任务
+     */
+    private final class ReschedulingTimeout implements ScheduledFuture<Object>, Runnable {
+        private final Runnable task;
+        private final Trigger trigger;
+        private final boolean dispatch;
+        private final SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+        private final Object monitor = new Object();
+
+        private Date scheduledExecutionTime;
+        private WheelTimeout currentTimeout;
+
+        ReschedulingTimeout(Runnable task, Trigger trigger, boolean dispatch) {
+            this.task = task;
+            this.trigger = trigger;
+            this.dispatch = dispatch;
+        }
+
+        ScheduledFuture<?> schedule() {
+            synchronized (monitor) {
+                scheduledExecutionTime = trigger.nextExecutionTime(triggerContext);
+                if (scheduledExecutionTime == null) {
+                    return null;
+                }
+                currentTimeout = newTimeout(this, scheduledExecutionTime.getTime(), dispatch, this);
+                return this;
+            }
+        }
+
+        /**
+         * 本次执行被拒绝时跳过本次执行，安排下一次执行
+         */
+        void skip() {
+            Date now = new Date();
+            synchronized (monitor) {
+                triggerContext.update(scheduledExecutionTime, now, now);
+                if (!currentTimeout.isCancelled()) {
+                    schedule();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            Date actualExecutionTime = new Date();
+            task.run();
+            Date completionTime = new Date();
+            synchronized (monitor) {
+                triggerContext.update(scheduledExecutionTime, actualExecutionTime, completionTime);
+                if (!currentTimeout.isCancelled()) {
+                    schedule();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            synchronized (monitor) {
+                return currentTimeout.cancel(mayInterruptIfRunning);
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            synchronized (monitor) {
+                return currentTimeout.isCancelled();
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            synchronized (monitor) {
+                return currentTimeout.isDone();
+            }
+        }
+
+        @Override
+        public Object get() throws InterruptedException, ExecutionException {
+            WheelTimeout timeout;
+            synchronized (monitor) {
+                timeout = currentTimeout;
+            }
+            return timeout.get();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            WheelTimeout current;
+            synchronized (monitor) {
+                current = currentTimeout;
+            }
+            return current.get(timeout, unit);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            WheelTimeout timeout;
+            synchronized (monitor) {
+                timeout = currentTimeout;
+            }
+            return timeout.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (this == other) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.orainge.tools.jobtimer.job.scheduler;
+
+import com.orainge.tools.jobtimer.job.metrics.LatencyHistogram;
+import com.orainge.tools.jobtimer.vo.SchedulerStatus;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带统计的调度器<br>
+ * 默认由自身的线程池调度；指定时间轮时，定时任务交由时间轮调度（execute / submit 仍使用线程池）<br>
+ * 记录每次触发相对计划执行时间的延迟与任务的执行耗时:
+ * <ul>
+ *     <li>按 Trigger 执行的任务，计划执行时间为 Trigger 计算出的执行时间</li>
+ *     <li>固定频率执行的任务，计划执行时间为开始时间加上周期的整数倍</li>
+ *     <li>固定间隔执行的任务，计划执行时间为上一次执行结束时间加上间隔</li>
+ * </ul>
+ * 调度线程被占用（如执行线程池已满时由调度线程执行任务）会使触发延迟增大；时间轮调度时 DispatchTask 的执行耗时即 tick 线程的占用时间
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class InstrumentedTaskScheduler extends ThreadPoolTaskScheduler {
+    /**
+     * 时间轮调度器，使用线程池调度时为 null
+     */
+    private final HashedWheelTaskScheduler wheel;
+
+    /**
+     * 触发延迟
+     */
+    private final LatencyHistogram lateness = new LatencyHistogram();
+
+    /**
+     * 执行耗时
+     */
+    private final LatencyHistogram runTime = new LatencyHistogram();
+
+    public InstrumentedTaskScheduler() {
+        this(null);
+    }
+
+    /**
+     * @param wheel 时间轮调度器，为 null 时使用线程池调度
+     */
+    public InstrumentedTaskScheduler(HashedWheelTaskScheduler wheel) {
+        this.wheel = wheel;
+    }
+
+    /**
+     * 是否使用时间轮调度
+     */
+    public boolean isWheel() {
+        return wheel != null;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+        MeasuredTask measuredTask = measure(task, 0, false);
+        Trigger measuredTrigger = triggerContext -> {
+            Date next = trigger.nextExecutionTime(triggerContext);
+            if (next != null) {
+                measuredTask.plannedTime = next.getTime();
+            }
+            return next;
+        };
+        return wheel != null ? wheel.schedule(measuredTask, measuredTrigger) : super.schedule(measuredTask, measuredTrigger);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+        MeasuredTask measuredTask = measure(task, 0, false);
+        measuredTask.plannedTime = startTime.getTime();
+        return wheel != null ? wheel.schedule(measuredTask, startTime) : super.schedule(measuredTask, startTime);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+        MeasuredTask measuredTask = measure(task, period, false);
+        measuredTask.plannedTime = startTime.getTime();
+        return wheel != null ? wheel.scheduleAtFixedRate(measuredTask, startTime, period) : super.scheduleAtFixedRate(measuredTask, startTime, period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+        MeasuredTask measuredTask = measure(task, period, false);
+        measuredTask.plannedTime = System.currentTimeMillis();
+        return wheel != null ? wheel.scheduleAtFixedRate(measuredTask, period) : super.scheduleAtFixedRate(measuredTask, period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+        MeasuredTask measuredTask = measure(task, delay, true);
+        measuredTask.plannedTime = startTime.getTime();
+        return wheel != null ? wheel.scheduleWithFixedDelay(measuredTask, startTime, delay) : super.scheduleWithFixedDelay(measuredTask, startTime, delay);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+        MeasuredTask measuredTask = measure(task, delay, true);
+        measuredTask.plannedTime = System.currentTimeMillis();
+        return wheel != null ? wheel.scheduleWithFixedDelay(measuredTask, delay) : super.scheduleWithFixedDelay(measuredTask, delay);
+    }
+
+    /**
+     * 获取调度器运行状态
+     */
+    public SchedulerStatus getStatus() {
+        SchedulerStatus status = new SchedulerStatus();
+        if (wheel != null) {
+            status.setType("wheel");
+            status.setQueueSize(wheel.getPendingCount());
+        } else {
+            ScheduledThreadPoolExecutor executor = getScheduledThreadPoolExecutor();
+            status.setType("pool");
+            status.setPoolSize(executor.getPoolSize());
+            status.setActiveCount(executor.getActiveCount());
+            status.setQueueSize(executor.getQueue().size());
+        }
+        status.setLateness(lateness.getStatus());
+        status.setRunTime(runTime.getStatus());
+        return status;
+    }
+
+    @Override
+    public void destroy() {
+        if (wheel != null) {
+            wheel.destroy();
+        }
+        super.destroy();
+    }
+
+    /**
+     * 包装任务，保留 DispatchTask 标记（时间轮调度器据此在 tick 线程中直接执行）
+     */
+    private MeasuredTask measure(Runnable task, long period, boolean fixedDelay) {
+        return task instanceof DispatchTask
+                ? new MeasuredDispatchTask(task, period, fixedDelay)
+                : new MeasuredTask(task, period, fixedDelay);
+    }
+
+    /**
+     * 记录触发延迟与执行耗时的任务包装
+     */
+    private class MeasuredTask implements Runnable {
+        private final Runnable task;
+
+        /**
+         * 固定频率或固定间隔执行的周期（单位：毫秒），只执行一次或按 Trigger 执行时为 0
+         */
+        private final long period;
+
+        /**
+         * 是否为固定间隔执行
+         */
+        private final boolean fixedDelay;
+
+        /**
+         * 计划执行时间（毫秒时间戳）
+         */
+        private volatile long plannedTime;
+
+        private MeasuredTask(Runnable task, long period, boolean fixedDelay) {
+            this.task = task;
+            this.period = period;
+            this.fixedDelay = fixedDelay;
+        }
+
+        @Override
+        public void run() {
+            long planned = plannedTime;
+            long startNanos = System.nanoTime();
+            lateness.record(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - planned));
+            try {
+                task.run();
+            } finally {
+                runTime.record(System.nanoTime() - startNanos);
+                if (period > 0) {
+                    plannedTime = fixedDelay ? System.currentTimeMillis() + period : planned + period;
+                }
+            }
+        }
+    }
+
+    /**
+     * 只负责提交的任务的包装
+     */
+    private class MeasuredDispatchTask extends MeasuredTask implements DispatchTask {
+        private MeasuredDispatchTask(Runnable task, long period, boolean fixedDelay) {
+            super(task, period, fixedDelay);
+        }
+    }
+}
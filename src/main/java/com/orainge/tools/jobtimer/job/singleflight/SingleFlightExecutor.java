@@ -0,0 +1,259 @@
+package com.orainge.tools.jobtimer.job.singleflight;
+
+import com.orainge.tools.jobtimer.config.JobConfig;
+import com.orainge.tools.jobtimer.job.JobDefinition;
+import com.orainge.tools.jobtimer.job.JobManager;
+import com.orainge.tools.jobtimer.vo.JobResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 合并执行<br>
+ * 同一任务、相同参数的并发请求只执行一次，后到的请求等待正在进行的执行并共享其结果；
+ * 带幂等键的请求按 任务 + 幂等键 合并，执行结束后结果在保存时间内直接返回，不再执行<br>
+ * 后到的请求最多等待到正在进行的执行的截止时间（任务的最长执行时间，未配置时为 max-wait-seconds），超过时返回超时结果；
+ * 执行抛出异常时立即移除，等待的请求收到同一个异常，之后的请求重新执行
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@Component
+@ConditionalOnMissingBean({SingleFlightExecutor.class})
+public class SingleFlightExecutor {
+    private static final Logger log = LoggerFactory.getLogger(SingleFlightExecutor.class);
+
+    /**
+     * 不参与合并判断的参数
+     */
+    private static final Set<String> IGNORED_PARAMS = Collections.singleton("token");
+
+    @Resource
+    private JobConfig jobConfig;
+
+    private boolean enable;
+
+    private int maxSize = 1000;
+
+    private long expireMillis = 600_000L;
+
+    private long maxWaitMillis = 600_000L;
+
+    /**
+     * 合并键 - 正在进行的执行
+     */
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 合并键 - 已结束的带幂等键的执行（按结束顺序）
+     */
+    private final LinkedHashMap<String, CompletedResult> completed = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        JobConfig.JobSingleFlightConfig config = jobConfig.getApi() == null ? null : jobConfig.getApi().getSingleFlight();
+        enable = config != null && config.isEnable();
+        if (enable) {
+            maxSize = Math.max(config.getIdempotencyMaxSize(), 1);
+            expireMillis = config.getIdempotencyExpireSeconds() * 1000L;
+            maxWaitMillis = config.getMaxWaitSeconds() * 1000L;
+            log.info("[合并执行] - 合并执行已开启");
+        }
+    }
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    /**
+     * 执行任务，有相同的执行正在进行时等待其结束并返回其结果
+     *
+     * @param definition     任务定义
+     * @param execParam      执行任务参数
+     * @param idempotencyKey 幂等键，为空时按参数合并
+     * @return 执行结果（合并的请求共享同一个结果）
+     */
+    public JobResult execute(JobDefinition definition, Map<String, String[]> execParam, String idempotencyKey) {
+        boolean idempotent = !StringUtils.isEmpty(idempotencyKey);
+        String key = idempotent
+                ? "idempotency " + definition.getName() + " " + idempotencyKey
+                : "params " + definition.getName() + " " + paramKey(execParam);
+
+        if (idempotent) {
+            JobResult result = getCompleted(key);
+            if (result != null) {
+                log.info("[合并执行] - 任务 [{}] 幂等键 [{}] 已执行，返回保存的结果", definition.getName(), idempotencyKey);
+                return result;
+            }
+        }
+
+        long waitMillis = definition.getTimeout() > 0 ? definition.getTimeout() : maxWaitMillis;
+        Flight flight = new Flight(waitMillis);
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            log.info("[合并执行] - 任务 [{}] 有相同的执行正在进行，等待其结果", definition.getName());
+            return await(definition, existing);
+        }
+
+        try {
+            JobResult result = idempotent ? getCompleted(key) : null;
+            if (result == null) {
+                result = JobManager.execute(definition, execParam);
+                if (idempotent) {
+                    // 先保存结果再结束执行，之后的请求不会重复执行
+                    putCompleted(key, result);
+                }
+            }
+            flight.future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            // 先移除再结束执行，之后的请求重新执行，不会拿到这次的异常
+            inFlight.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 等待正在进行的执行结束，最多等待到其截止时间
+     */
+    private JobResult await(JobDefinition definition, Flight flight) {
+        try {
+            if (flight.deadline == 0) {
+                return flight.future.get();
+            }
+            return flight.future.get(Math.max(flight.deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("[合并执行] - 任务 [{}] 等待相同的执行超过 {} 毫秒，不再等待", definition.getName(), flight.waitMillis);
+            return fail(definition, "等待相同的执行超时: 超过 " + flight.waitMillis + " 毫秒").setTimedOut(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fail(definition, "等待相同的执行时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static JobResult fail(JobDefinition definition, String message) {
+        JobResult result = JobResult.fail().setMessage(message);
+        result.setJobName(definition.getJobBean().getName());
+        result.setJobDescription(definition.getJobBean().getDescription());
+        return result;
+    }
+
+    /**
+     * 按参数生成合并键（参数名排序，每个名称与值都带长度前缀，避免不同参数拼接后相同）
+     */
+    private static String paramKey(Map<String, String[]> execParam) {
+        if (execParam == null || execParam.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String[]> entry : new TreeMap<>(execParam).entrySet()) {
+            if (IGNORED_PARAMS.contains(entry.getKey())) {
+                continue;
+            }
+            append(builder, entry.getKey());
+            String[] values = entry.getValue();
+            builder.append(values == null ? 0 : values.length).append('#');
+            if (values != null) {
+                for (String value : values) {
+                    append(builder, value);
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void append(StringBuilder builder, String value) {
+        if (value == null) {
+            builder.append("-1:");
+        } else {
+            builder.append(value.length()).append(':').append(value);
+        }
+    }
+
+    private JobResult getCompleted(String key) {
+        synchronized (completed) {
+            evict();
+            CompletedResult completedResult = completed.get(key);
+            return completedResult == null ? null : completedResult.result;
+        }
+    }
+
+    private void putCompleted(String key, JobResult result) {
+        synchronized (completed) {
+            completed.remove(key);
+            completed.put(key, new CompletedResult(result));
+            evict();
+        }
+    }
+
+    /**
+     * 删除超过上限与已过期的结果
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        Iterator<CompletedResult> iterator = completed.values().iterator();
+        while (iterator.hasNext()) {
+            CompletedResult eldest = iterator.next();
+            if (completed.size() > maxSize || now - eldest.endTime > expireMillis) {
+                iterator.remove();
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 正在进行的执行
+     */
+    private static class Flight {
+        private final CompletableFuture<JobResult> future = new CompletableFuture<>();
+
+        /**
+         * 最长等待时间（单位：毫秒），0 表示不限制
+         */
+        private final long waitMillis;
+
+        /**
+         * 等待的截止时间（System.nanoTime），0 表示不限制
+         */
+        private final long deadline;
+
+        private Flight(long waitMillis) {
+            this.waitMillis = waitMillis;
+            this.deadline = waitMillis > 0 ? (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis)) | 1 : 0;
+        }
+    }
+
+    private static class CompletedResult {
+        private final JobResult result;
+        private final long endTime = System.currentTimeMillis();
+
+        private CompletedResult(JobResult result) {
+            this.result = result;
+        }
+    }
+}
@@ -17,9 +17,11 @@ import javax.annotation.Resource;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * 外部 API 调用工具类
+ * 外部 API 调用工具类<br>
+ * 同步方法（doGet, doPost, exchange）与异步方法（doGetAsync, doPostAsync, exchangeAsync）的重试与更换 Key 的处理相同
  *
  * @author orainge
  * @since 2021/8/19
@@ -130,6 +132,40 @@ public abstract class ApiUtils {
         return exchange(HttpMethod.POST, apiName, headers, params, body, extraParams);
     }
 
+    /**
+     * 异步执行 GET 操作
+     *
+     * @param apiName     API名称
+     * @param headers     请求头
+     * @param params      请求参数
+     * @param body        请求体
+     * @param extraParams 额外参数，不参与请求
+     */
+    protected CompletableFuture<Map<String, Object>> doGetAsync(String apiName,
+                                                                MultiValueMap<String, String> headers,
+                                                                MultiValueMap<String, Object> params,
+                                                                Object body,
+                                                                Map<String, Object> extraParams) {
+        return exchangeAsync(HttpMethod.GET, apiName, headers, params, body, extraParams);
+    }
+
+    /**
+     * 异步执行 POST 操作
+     *
+     * @param apiName     API名称
+     * @param headers     请求头
+     * @param params      请求参数
+     * @param body        请求体
+     * @param extraParams 额外参数，不参与请求
+     */
+    protected CompletableFuture<Map<String, Object>> doPostAsync(String apiName,
+                                                                 MultiValueMap<String, String> headers,
+                                                                 MultiValueMap<String, Object> params,
+                                                                 Object body,
+                                                                 Map<String, Object> extraParams) {
+        return exchangeAsync(HttpMethod.POST, apiName, headers, params, body, extraParams);
+    }
+
     /**
      * 执行获取操作
      *
@@ -146,28 +182,7 @@ public abstract class ApiUtils {
                                            MultiValueMap<String, Object> params,
                                            Object body,
                                            Map<String, Object> extraParams) {
-        // 获取接口 url
-        String api = apiDetailsConfig.getApi().get(apiName);
-        if (StringUtils.isEmpty(api)) {
-            throw new NullPointerException("[" + utilName + " 配置文件] - 接口 [" + apiName + "] 不存在，请检查配置文件");
-        }
-        String baseUrl = apiDetailsConfig.getUrl() + api;
-
-        // 准备参数 Map
-        MultiValueMap<String, Object> urlParams;
-        if (params != null) {
-            urlParams = new LinkedMultiValueMap<>(params);
-        } else {
-            urlParams = new LinkedMultiValueMap<>();
-        }
-
-        // 准备额外参数 Map
-        if (extraParams == null) {
-            extraParams = new LinkedHashMap<>();
-        }
-
-        // 准备结果数据 Map
-        Map<String, Object> responseBody = null;
+        ApiRequest request = createRequest(method, apiName, headers, params, body, extraParams);
 
         while (true) {
             // Key 值
@@ -175,90 +190,206 @@ public abstract class ApiUtils {
 
             // 当请求需要 Key 时
             if (apiKeyManager != null) {
-                // 先检查 Key 是否存在后，再进行查询
-                key = apiKeyManager.getKey();
+                key = nextKey(request);
                 if (Objects.isNull(key)) {
-                    logError("获取信息错误: 所有 Key 已达到查询次数上限");
                     break;
                 }
-
-                // 添加/更新 Key 参数
-                urlParams.add(apiKeyManager.getKeyParameterName(), key);
             }
 
             boolean isKeyExpire = false;
-            boolean isSuccess = false;
 
             // 重试机制
             int retryTimes = apiDetailsConfig.getRetryTimes();
             for (int i = 0; i <= retryTimes; i++) {
-                HttpClientParameter httpClientParameter = HttpClientParameter.build()
-                        .setMethod(method)
-                        .setUrl(baseUrl)
-                        .addHeaders(headers)
-                        .addParamsObjectMap(urlParams)
-                        .setBody(body);
+                HttpClientParameter httpClientParameter = request.createParameter();
 
                 // 调用接口进行查询
                 ResponseEntity<String> resultEntity = httpClient.exchangeForEntity(httpClientParameter, String.class);
-
-                if (Objects.isNull(resultEntity) || StringUtils.isEmpty(resultEntity.getBody())) {
-                    // 获取结果为空时，执行回调函数
-                    onResultNull(key, httpClientParameter, extraParams);
-                } else {
-                    // 获取到数据后，尝试将数据转换为 Map
-                    String responseBodyStr = resultEntity.getBody();
-                    responseBody = jsonUtils.parseObjectToMap(responseBodyStr);
-
-                    if (responseBody == null) {
-                        // 无法将获取到的数据转换为 Map
-                        responseBody = onResultFailToMap(key, httpClientParameter, responseBodyStr, extraParams);
-                        if (responseBody == null) {
-                            // 不能处理请求结果，继续重试请求
-                            continue;
-                        }
-                    }
-
-                    // 获取到的结果能转换为 Map
-                    // 判断数据是否获取成功
-                    if (checkIfResultSuccess(httpClientParameter, responseBody, extraParams)) {
-                        // 数据获取成功
-                        // 如果需要 Key 才能进行访问，则需要判断 Key 是否过期
-                        if (apiKeyManager != null && checkIfKeyExpire(httpClientParameter, responseBody, extraParams)) {
-                            // Key 过期
-                            apiKeyManager.setExpire(key); // 设置该 Key 已过期
-                            isKeyExpire = true;
-                            responseBody = null;
-                        } else {
-                            // 不需要Key 或 Key 没有过期，执行成功回调函数
-                            onSuccess(key, httpClientParameter, responseBody, extraParams);
-                            isSuccess = true;
-                        }
-                        break;
-                    } else {
-                        // 数据获取失败
-                        onResultFail(key, httpClientParameter, responseBodyStr, responseBody, extraParams);
-                        responseBody = null;
-                    }
+                Attempt attempt = handleResponse(key, httpClientParameter, resultEntity, request.extraParams);
+                if (attempt.state == AttemptState.SUCCESS) {
+                    return attempt.responseBody;
                 }
-
-                Integer nextRetryTimes = i + 1 <= retryTimes ? i + 1 : null;
-                if (nextRetryTimes != null) {
-                    logWarn("获取信息错误: 进行第 {} 次重试", nextRetryTimes);
+                if (attempt.state == AttemptState.KEY_EXPIRED) {
+                    isKeyExpire = true;
+                    break;
+                }
+                if (attempt.state == AttemptState.RETRY) {
+                    logRetry(i, retryTimes);
                 }
             }
 
             // 退出条件
             // 1. 不需要 KEY 访问，执行到这里代表重试次数已经用完，直接退出
-            // 2. 需要 KEY 访问，就需要检查访问是否成功，如果成功就退出
-            // 3. 需要 KEY 访问，且没有访问成功，且当前 Key 没有过期，则代表已经达到重试次数，退出
-            // 4. 以上条件都不符合，代表当前 KEY 过期了，就继续 while 循环获取下一个 KEY
-            if (apiKeyManager == null || isSuccess || !isKeyExpire) {
+            // 2. 需要 KEY 访问，且没有访问成功，且当前 Key 没有过期，则代表已经达到重试次数，退出
+            // 3. 以上条件都不符合，代表当前 KEY 过期了，就继续 while 循环获取下一个 KEY
+            if (apiKeyManager == null || !isKeyExpire) {
                 break;
             }
         }
 
-        return responseBody;
+        return null;
+    }
+
+    /**
+     * 异步执行获取操作<br>
+     * 重试与更换 Key 的处理与同步执行相同，每次请求在上一次请求结束后异步发起，不阻塞调用线程；
+     * 回调函数在 IO 线程中执行，取消返回的 CompletableFuture 后不再发起后续的请求
+     *
+     * @param method      请求方式
+     * @param apiName     API名称
+     * @param headers     请求头
+     * @param params      请求参数
+     * @param body        请求体
+     * @param extraParams 额外参数，不参与请求
+     */
+    protected CompletableFuture<Map<String, Object>> exchangeAsync(HttpMethod method,
+                                                                   String apiName,
+                                                                   MultiValueMap<String, String> headers,
+                                                                   MultiValueMap<String, Object> params,
+                                                                   Object body,
+                                                                   Map<String, Object> extraParams) {
+        return exchangeWithNextKeyAsync(createRequest(method, apiName, headers, params, body, extraParams));
+    }
+
+    /**
+     * 获取 Key（需要时）后异步执行请求
+     */
+    private CompletableFuture<Map<String, Object>> exchangeWithNextKeyAsync(ApiRequest request) {
+        String key = null;
+        if (apiKeyManager != null) {
+            key = nextKey(request);
+            if (Objects.isNull(key)) {
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+        return attemptAsync(request, key, 0);
+    }
+
+    /**
+     * 异步执行第 i 次请求（0 为首次请求）
+     */
+    private CompletableFuture<Map<String, Object>> attemptAsync(ApiRequest request, String key, int i) {
+        HttpClientParameter httpClientParameter = request.createParameter();
+        int retryTimes = apiDetailsConfig.getRetryTimes();
+
+        return httpClient.exchangeForEntityAsync(httpClientParameter, String.class).thenCompose(resultEntity -> {
+            Attempt attempt = handleResponse(key, httpClientParameter, resultEntity, request.extraParams);
+            if (attempt.state == AttemptState.SUCCESS) {
+                return CompletableFuture.completedFuture(attempt.responseBody);
+            }
+            if (attempt.state == AttemptState.KEY_EXPIRED) {
+                // 当前 Key 过期，获取下一个 Key
+                return exchangeWithNextKeyAsync(request);
+            }
+            if (attempt.state == AttemptState.RETRY) {
+                logRetry(i, retryTimes);
+            }
+            return i < retryTimes ? attemptAsync(request, key, i + 1) : CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * 准备请求参数
+     */
+    private ApiRequest createRequest(HttpMethod method,
+                                     String apiName,
+                                     MultiValueMap<String, String> headers,
+                                     MultiValueMap<String, Object> params,
+                                     Object body,
+                                     Map<String, Object> extraParams) {
+        // 获取接口 url
+        String api = apiDetailsConfig.getApi().get(apiName);
+        if (StringUtils.isEmpty(api)) {
+            throw new NullPointerException("[" + utilName + " 配置文件] - 接口 [" + apiName + "] 不存在，请检查配置文件");
+        }
+        String baseUrl = apiDetailsConfig.getUrl() + api;
+
+        // 准备参数 Map
+        MultiValueMap<String, Object> urlParams;
+        if (params != null) {
+            urlParams = new LinkedMultiValueMap<>(params);
+        } else {
+            urlParams = new LinkedMultiValueMap<>();
+        }
+
+        // 准备额外参数 Map
+        if (extraParams == null) {
+            extraParams = new LinkedHashMap<>();
+        }
+
+        return new ApiRequest(method, baseUrl, headers, urlParams, body, extraParams);
+    }
+
+    /**
+     * 获取下一个可用的 Key，并添加到请求参数中
+     *
+     * @return 所有 Key 已达到查询次数上限时返回 null
+     */
+    private String nextKey(ApiRequest request) {
+        // 先检查 Key 是否存在后，再进行查询
+        String key = apiKeyManager.getKey();
+        if (Objects.isNull(key)) {
+            logError("获取信息错误: 所有 Key 已达到查询次数上限");
+            return null;
+        }
+
+        // 添加/更新 Key 参数
+        request.urlParams.add(apiKeyManager.getKeyParameterName(), key);
+        return key;
+    }
+
+    /**
+     * 处理一次请求的结果
+     */
+    private Attempt handleResponse(String key,
+                                   HttpClientParameter httpClientParameter,
+                                   ResponseEntity<String> resultEntity,
+                                   Map<String, Object> extraParams) {
+        if (Objects.isNull(resultEntity) || StringUtils.isEmpty(resultEntity.getBody())) {
+            // 获取结果为空时，执行回调函数
+            onResultNull(key, httpClientParameter, extraParams);
+            return new Attempt(AttemptState.RETRY, null);
+        }
+
+        // 获取到数据后，尝试将数据转换为 Map
+        String responseBodyStr = resultEntity.getBody();
+        Map<String, Object> responseBody = jsonUtils.parseObjectToMap(responseBodyStr);
+
+        if (responseBody == null) {
+            // 无法将获取到的数据转换为 Map
+            responseBody = onResultFailToMap(key, httpClientParameter, responseBodyStr, extraParams);
+            if (responseBody == null) {
+                // 不能处理请求结果，继续重试请求
+                return new Attempt(AttemptState.RETRY_SILENTLY, null);
+            }
+        }
+
+        // 获取到的结果能转换为 Map
+        // 判断数据是否获取成功
+        if (checkIfResultSuccess(httpClientParameter, responseBody, extraParams)) {
+            // 数据获取成功
+            // 如果需要 Key 才能进行访问，则需要判断 Key 是否过期
+            if (apiKeyManager != null && checkIfKeyExpire(httpClientParameter, responseBody, extraParams)) {
+                // Key 过期
+                apiKeyManager.setExpire(key); // 设置该 Key 已过期
+                return new Attempt(AttemptState.KEY_EXPIRED, null);
+            }
+
+            // 不需要Key 或 Key 没有过期，执行成功回调函数
+            onSuccess(key, httpClientParameter, responseBody, extraParams);
+            return new Attempt(AttemptState.SUCCESS, responseBody);
+        }
+
+        // 数据获取失败
+        onResultFail(key, httpClientParameter, responseBodyStr, responseBody, extraParams);
+        return new Attempt(AttemptState.RETRY, null);
+    }
+
+    private void logRetry(int i, int retryTimes) {
+        Integer nextRetryTimes = i + 1 <= retryTimes ? i + 1 : null;
+        if (nextRetryTimes != null) {
+            logWarn("获取信息错误: 进行第 {} 次重试", nextRetryTimes);
+        }
     }
 
     protected void logWarn(String message, Object... arguments) {
@@ -303,4 +434,70 @@ public abstract class ApiUtils {
      * 回调函数：有返回结果，且结果正确时
      */
     public abstract void onSuccess(String nowKey, HttpClientParameter httpClientParameter, Map<String, Object> responseBody, Map<String, Object> extraParams);
+
+    /**
+     * 一次请求的处理状态
+     */
+    private enum AttemptState {
+        /**
+         * 获取成功
+         */
+        SUCCESS,
+
+        /**
+         * Key 过期，需要更换 Key
+         */
+        KEY_EXPIRED,
+
+        /**
+         * 获取失败，继续重试
+         */
+        RETRY,
+
+        /**
+         * 不能处理请求结果，继续重试（不输出重试日志）
+         */
+        RETRY_SILENTLY
+    }
+
+    private static final class Attempt {
+        private final AttemptState state;
+        private final Map<String, Object> responseBody;
+
+        private Attempt(AttemptState state, Map<String, Object> responseBody) {
+            this.state = state;
+            this.responseBody = responseBody;
+        }
+    }
+
+    /**
+     * 一次调用的请求参数，重试与更换 Key 时共用
+     */
+    private static final class ApiRequest {
+        private final HttpMethod method;
+        private final String baseUrl;
+        private final MultiValueMap<String, String> headers;
+        private final MultiValueMap<String, Object> urlParams;
+        private final Object body;
+        private final Map<String, Object> extraParams;
+
+        private ApiRequest(HttpMethod method, String baseUrl, MultiValueMap<String, String> headers,
+                           MultiValueMap<String, Object> urlParams, Object body, Map<String, Object> extraParams) {
+            this.method = method;
+            this.baseUrl = baseUrl;
+            this.headers = headers;
+            this.urlParams = urlParams;
+            this.body = body;
+            this.extraParams = extraParams;
+        }
+
+        private HttpClientParameter createParameter() {
+            return HttpClientParameter.build()
+                    .setMethod(method)
+                    .setUrl(baseUrl)
+                    .addHeaders(headers)
+                    .addParamsObjectMap(urlParams)
+                    .setBody(body);
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package com.orainge.tools.jobtimer.util.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步请求传输<br>
+ * 发起已经转换好请求头与请求体的请求，等待响应时不占用线程；请求体与响应体的转换由 HttpClient 按 RestTemplate 的转换器完成<br>
+ * 在配置了最长执行时间的任务中发起请求时，超时时间不超过请求的剩余时间（RequestDeadline）
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public interface AsyncHttpTransport {
+    /**
+     * 发起异步请求
+     *
+     * @param method  请求方式
+     * @param uri     请求 URI
+     * @param headers 请求头
+     * @param body    请求体，没有请求体时为空数组
+     * @return 响应，由调用方关闭；取消时同时取消正在进行的请求
+     */
+    CompletableFuture<ClientHttpResponse> execute(HttpMethod method, URI uri, HttpHeaders headers, byte[] body);
+}
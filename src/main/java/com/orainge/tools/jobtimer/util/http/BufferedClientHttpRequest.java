@@ -0,0 +1,61 @@
+package com.orainge.tools.jobtimer.util.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * 缓存请求头与请求体的请求<br>
+ * 由 RestTemplate 的转换器写入请求头与请求体，之后交给 AsyncHttpTransport 发起，本身不发起请求
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+final class BufferedClientHttpRequest implements ClientHttpRequest {
+    private final URI uri;
+
+    private final HttpMethod method;
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+    BufferedClientHttpRequest(URI uri, HttpMethod method) {
+        this.uri = uri;
+        this.method = method;
+    }
+
+    @Override
+    public String getMethodValue() {
+        return method.name();
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public OutputStream getBody() {
+        return body;
+    }
+
+    byte[] getBodyBytes() {
+        return body.toByteArray();
+    }
+
+    @Override
+    public ClientHttpResponse execute() {
+        throw new UnsupportedOperationException("[HTTP 客户端] - 缓存的请求由 AsyncHttpTransport 发起");
+    }
+}
@@ -0,0 +1,51 @@
+package com.orainge.tools.jobtimer.util.http;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+/**
+ * HTTP/2 传输模块<br>
+ * 由同一个客户端发起的请求在每个主机上复用一个连接，并发请求在该连接上多路复用；服务端不支持 HTTP/2 时使用 HTTP/1.1<br>
+ * 实现基于 JDK 11 的 java.net.http，只在 JDK 11 及以上编译时打包，运行环境不支持时不加载
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public interface Http2Transport {
+    /**
+     * 实现类名称
+     */
+    String IMPLEMENTATION_CLASS = "com.orainge.tools.jobtimer.util.http.JdkHttp2Transport";
+
+    /**
+     * 创建同步请求工厂
+     *
+     * @param readTimeoutMillis 读取超时时间（单位：毫秒），0 表示不限制
+     */
+    ClientHttpRequestFactory createRequestFactory(int readTimeoutMillis);
+
+    /**
+     * 创建异步请求传输
+     *
+     * @param readTimeoutMillis 读取超时时间（单位：毫秒），0 表示不限制
+     */
+    AsyncHttpTransport createAsyncTransport(int readTimeoutMillis);
+
+    /**
+     * 加载 HTTP/2 传输模块
+     *
+     * @param connectTimeoutMillis 连接超时时间（单位：毫秒）
+     * @return 传输模块，运行环境不支持（低于 JDK 11）或未打包实现类时返回 null
+     */
+    static Http2Transport load(int connectTimeoutMillis) {
+        ClassLoader classLoader = Http2Transport.class.getClassLoader();
+        try {
+            Class.forName("java.net.http.HttpClient", false, classLoader);
+            Class<?> clazz = Class.forName(IMPLEMENTATION_CLASS, true, classLoader);
+            return (Http2Transport) clazz.getConstructor(int.class).newInstance(connectTimeoutMillis);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("[HTTP/2] - 加载 HTTP/2 传输模块失败", e);
+        }
+    }
+}
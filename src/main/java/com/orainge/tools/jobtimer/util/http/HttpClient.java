@@ -1,22 +1,33 @@
 package com.orainge.tools.jobtimer.util.http;
 
+import com.orainge.tools.jobtimer.config.HttpClientConfig;
+import com.orainge.tools.jobtimer.job.JobContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * HTTP 请求客户端
+ * HTTP 请求客户端<br>
+ * 在配置了最长执行时间的任务中使用时，请求超时时间不超过任务的剩余时间（包括无限时间等待的请求），任务已超时时不再发起请求<br>
+ * 异步请求（exchangeAsync 等方法）由非阻塞客户端发起，返回 CompletableFuture，同时进行的请求数不超过 http-client.async.max-in-flight；
+ * 请求体与响应体的转换、响应状态码的处理与同步请求的 RestTemplate 相同
  *
  * @author orainge
  * @since 2021/6/10
@@ -34,9 +45,30 @@ public class HttpClient {
     @Qualifier("noReadTimeoutRestTemplate")
     private RestTemplate noReadTimeoutRestTemplate;
 
+    @Resource
+    @Qualifier("defaultAsyncTransport")
+    private AsyncHttpTransport defaultAsyncTransport;
+
+    @Resource
+    @Qualifier("noReadTimeoutAsyncTransport")
+    private AsyncHttpTransport noReadTimeoutAsyncTransport;
+
+    @Resource
+    private HttpClientConfig httpClientConfig;
+
     @Value("${http-client.show-log: false}")
     private Boolean showLog;
 
+    /**
+     * 异步请求并发数限制
+     */
+    private InFlightLimiter inFlightLimiter;
+
+    @PostConstruct
+    public void init() {
+        inFlightLimiter = new InFlightLimiter(httpClientConfig.getAsync().getMaxInFlight());
+    }
+
     /**
      * 发起请求
      *
@@ -80,6 +112,13 @@ public class HttpClient {
             return null;
         }
 
+        // 任务已超时，不再发起请求
+        JobContext jobContext = JobContext.current();
+        if (jobContext != null && jobContext.isTimedOut()) {
+            log.error("[HTTP 客户端] - 任务 [{}] 已超时，不再发起请求 [URL: {}]", jobContext.getJobName(), httpClientParameter.getUrl());
+            return null;
+        }
+
         // 获取请求参数
         String requestUrl = httpClientParameter.getUrl(); // 请求 URL
         HttpMethod requestMethod = httpClientParameter.getMethod(); // 请求方式
@@ -96,28 +135,10 @@ public class HttpClient {
 
             // 获取请求参数
             Object body = httpClientParameter.getBody(); // 请求体
-            HttpHeaders headers = httpClientParameter.getHeaders(); // 请求头
-            HttpEntity<?> requestEntity = Objects.isNull(body) ? new HttpEntity<>(headers) : new HttpEntity<>(body, headers); // 创建请求实体类
-
-            // 创建请求参数
-            MultiValueMap<String, String> params = httpClientParameter.getParams();
-
-            if (params != null && !params.isEmpty()) {
-                int urlEncodeMethod = httpClientParameter.getUrlEncodeMethod();
-                if (HttpClientParameter.noUrlEncode.equals(urlEncodeMethod)) {
-                    // 不使用 UrlEncode 方法创建请求 URL
-                    requestUrl = concatParamToUrl(requestUrl, params);
-                } else if (HttpClientParameter.defaultUrlEncode.equals(urlEncodeMethod)) {
-                    // 使用默认的 UrlEncode 方法创建请求 URL
-                    requestUrl = UriComponentsBuilder
-                            .fromHttpUrl(requestUrl)
-                            .queryParams(params).toUriString();
-                } else if (HttpClientParameter.customUrlEncode.equals(urlEncodeMethod)) {
-                    // 使用自定义的 URLEncode 方法创建请求URL
-                    requestUrl = concatParamToUrl(requestUrl, params, (this::customUrlEncode));
-                }
-            }
+            HttpEntity<?> requestEntity = createRequestEntity(httpClientParameter); // 创建请求实体类
 
+            // 创建请求 URL
+            requestUrl = createRequestUrl(httpClientParameter);
             if (StringUtils.isEmpty(requestUrl)) {
                 log.error("[HTTP 客户端] - URL 拼接请求参数错误 [{}]", httpClientParameter);
                 return null;
@@ -145,6 +166,215 @@ public class HttpClient {
         }
     }
 
+    /**
+     * 发起异步请求<br>
+     * 请求由非阻塞客户端发起，等待响应时不占用线程；同时进行的请求数超过上限时排队等待，不阻塞调用线程<br>
+     * 与同步请求相同，请求出错时记录日志并返回 null；回调在 IO 线程中执行，耗时的处理请使用 thenApplyAsync 等方法指定线程池
+     *
+     * @param httpClientParameter HTTP 客户端请求参数
+     * @return 请求结果 (Map 类型)
+     */
+    @SuppressWarnings("all")
+    public CompletableFuture<Map<String, Object>> exchangeForMapAsync(HttpClientParameter httpClientParameter) {
+        return (CompletableFuture) exchangeAsync(httpClientParameter, Map.class);
+    }
+
+    /**
+     * 发起异步请求
+     *
+     * @param httpClientParameter HTTP 客户端请求参数
+     * @param clazz               返回请求结果的类型
+     * @return 请求结果，取消时同时取消正在进行的请求
+     * @see #exchangeForEntityAsync(HttpClientParameter, Class)
+     */
+    public <T> CompletableFuture<T> exchangeAsync(HttpClientParameter httpClientParameter, Class<T> clazz) {
+        CompletableFuture<ResponseEntity<T>> entityFuture = exchangeForEntityAsync(httpClientParameter, clazz);
+        CompletableFuture<T> future = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                if (cancelled) {
+                    entityFuture.cancel(mayInterruptIfRunning);
+                }
+                return cancelled;
+            }
+        };
+        entityFuture.whenComplete((responseEntity, e) -> {
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(responseEntity == null ? null : responseEntity.getBody());
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 发起异步请求
+     *
+     * @param httpClientParameter HTTP 客户端请求参数
+     * @param clazz               返回请求结果的类型
+     * @return 请求结果，请求出错时为 null；取消时同时取消正在进行或排队等待的请求
+     * @see #exchangeForMapAsync(HttpClientParameter)
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> exchangeForEntityAsync(HttpClientParameter httpClientParameter, Class<T> clazz) {
+        // 检查请求参数是否合法
+        if (httpClientParameter == null || !httpClientParameter.isValid()) {
+            log.error("[HTTP 客户端] - 请求参数不合法: {}", httpClientParameter == null ? "请求参数为 null" : httpClientParameter.getCheckResult());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // 任务已超时，不再发起请求
+        JobContext jobContext = JobContext.current();
+        if (jobContext != null && jobContext.isTimedOut()) {
+            log.error("[HTTP 客户端] - 任务 [{}] 已超时，不再发起请求 [URL: {}]", jobContext.getJobName(), httpClientParameter.getUrl());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // 根据是否需要无限等待而选择 RestTemplate（用于转换请求体与响应体）与异步请求传输
+        boolean infiniteTimeout = httpClientParameter.isInfiniteTimeout();
+        RestTemplate restTemplate = infiniteTimeout ? noReadTimeoutRestTemplate : defaultRestTemplate;
+        AsyncHttpTransport transport = infiniteTimeout ? noReadTimeoutAsyncTransport : defaultAsyncTransport;
+
+        HttpMethod requestMethod = httpClientParameter.getMethod(); // 请求方式
+        String requestUrl;
+        BufferedClientHttpRequest request;
+        try {
+            HttpEntity<?> requestEntity = createRequestEntity(httpClientParameter);
+            requestUrl = createRequestUrl(httpClientParameter);
+            if (StringUtils.isEmpty(requestUrl)) {
+                log.error("[HTTP 客户端] - URL 拼接请求参数错误 [{}]", httpClientParameter);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            // 与同步请求相同，按 RestTemplate 的转换器写入请求头与请求体
+            request = new BufferedClientHttpRequest(restTemplate.getUriTemplateHandler().expand(requestUrl), requestMethod);
+            restTemplate.httpEntityCallback(requestEntity, clazz).doWithRequest(request);
+        } catch (Exception e) {
+            log.error("[HTTP 客户端] " + requestMethod.toString() + " 请求出错 [URL: " + httpClientParameter.getUrl() + ", Exception: " + e.getMessage() + "]", e);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // 排队等待的请求在其他线程中发起，按提交时的截止时间限制超时
+        Long deadline = RequestDeadline.capture();
+        String requestId = showLog ? UUID.randomUUID().toString().substring(0, 8) : null;
+        AtomicReference<CompletableFuture<ClientHttpResponse>> requestFuture = new AtomicReference<>();
+        CompletableFuture<ResponseEntity<T>> future = new CompletableFuture<ResponseEntity<T>>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                CompletableFuture<ClientHttpResponse> current = requestFuture.get();
+                if (cancelled && current != null) {
+                    current.cancel(true);
+                }
+                return cancelled;
+            }
+        };
+
+        inFlightLimiter.submit(() -> {
+            if (future.isDone()) {
+                // 排队期间已取消
+                return false;
+            }
+
+            if (showLog) {
+                log.info("[HTTP 客户端] - 异步请求 [{}]: {} {} , 请求体: [{}]", requestId, requestMethod.toString(), requestUrl, httpClientParameter.getBody());
+            }
+
+            CompletableFuture<ClientHttpResponse> exchange;
+            try {
+                exchange = RequestDeadline.callWith(deadline,
+                        () -> transport.execute(requestMethod, request.getURI(), request.getHeaders(), request.getBodyBytes()));
+            } catch (Exception e) {
+                log.error("[HTTP 客户端] " + requestMethod.toString() + " 异步请求出错 [URL: " + requestUrl + ", Exception: " + e.getMessage() + "]", e);
+                future.complete(null);
+                return false;
+            }
+
+            requestFuture.set(exchange);
+            if (future.isCancelled()) {
+                exchange.cancel(true);
+            }
+            exchange.whenComplete((response, e) -> {
+                inFlightLimiter.release();
+                ResponseEntity<T> result = null;
+                if (e == null) {
+                    try {
+                        result = extractResponse(restTemplate, request, response, clazz);
+                    } catch (Exception extractException) {
+                        e = extractException;
+                    }
+                }
+                if (e != null) {
+                    if (!future.isCancelled()) {
+                        log.error("[HTTP 客户端] " + requestMethod.toString() + " 异步请求出错 [URL: " + requestUrl + ", Exception: " + e.getMessage() + "]", e);
+                        future.complete(null);
+                    }
+                    return;
+                }
+
+                if (showLog) {
+                    log.info("[HTTP 客户端] - 异步请求 [{}] 结果: {}", requestId, result == null ? null : result.getBody());
+                }
+                future.complete(result);
+            });
+            return true;
+        });
+        return future;
+    }
+
+    /**
+     * 与同步请求相同，按 RestTemplate 的错误处理与转换器处理响应，处理后关闭响应
+     *
+     * @throws IOException 读取响应出错时抛出；响应状态码为错误时按 RestTemplate 的错误处理抛出异常
+     */
+    private <T> ResponseEntity<T> extractResponse(RestTemplate restTemplate, BufferedClientHttpRequest request,
+                                                  ClientHttpResponse response, Class<T> clazz) throws IOException {
+        try {
+            ResponseErrorHandler errorHandler = restTemplate.getErrorHandler();
+            if (errorHandler.hasError(response)) {
+                errorHandler.handleError(request.getURI(), request.getMethod(), response);
+            }
+            return restTemplate.<T>responseEntityExtractor(clazz).extractData(response);
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * 创建请求实体
+     */
+    private HttpEntity<?> createRequestEntity(HttpClientParameter httpClientParameter) {
+        Object body = httpClientParameter.getBody(); // 请求体
+        HttpHeaders headers = httpClientParameter.getHeaders(); // 请求头
+        return Objects.isNull(body) ? new HttpEntity<>(headers) : new HttpEntity<>(body, headers);
+    }
+
+    /**
+     * 按请求参数与编码方式创建请求 URL
+     */
+    private String createRequestUrl(HttpClientParameter httpClientParameter) {
+        String requestUrl = httpClientParameter.getUrl();
+        MultiValueMap<String, String> params = httpClientParameter.getParams();
+
+        if (params != null && !params.isEmpty()) {
+            int urlEncodeMethod = httpClientParameter.getUrlEncodeMethod();
+            if (HttpClientParameter.noUrlEncode.equals(urlEncodeMethod)) {
+                // 不使用 UrlEncode 方法创建请求 URL
+                requestUrl = concatParamToUrl(requestUrl, params);
+            } else if (HttpClientParameter.defaultUrlEncode.equals(urlEncodeMethod)) {
+                // 使用默认的 UrlEncode 方法创建请求 URL
+                requestUrl = UriComponentsBuilder
+                        .fromHttpUrl(requestUrl)
+                        .queryParams(params).toUriString();
+            } else if (HttpClientParameter.customUrlEncode.equals(urlEncodeMethod)) {
+                // 使用自定义的 URLEncode 方法创建请求URL
+                requestUrl = concatParamToUrl(requestUrl, params, (this::customUrlEncode));
+            }
+        }
+        return requestUrl;
+    }
+
     /**
      * 自定义 URLEncode 方法<br>
      * 可以改写
@@ -52,7 +52,7 @@ public class HttpClientParameter {
     private int urlEncodeMethod = defaultUrlEncode;
 
     /**
-     * 是否无限时间等待请求结果
+     * 是否无限时间等待请求结果（在配置了最长执行时间的任务中使用时，仍不超过任务的剩余时间）
      */
     private boolean infiniteTimeout = false;
 
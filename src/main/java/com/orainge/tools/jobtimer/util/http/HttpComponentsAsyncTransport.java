@@ -0,0 +1,180 @@
+package com.orainge.tools.jobtimer.util.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 基于 Apache HttpAsyncClient 的异步请求传输<br>
+ * 请求由非阻塞连接池发起，响应体在 IO 线程中读取到内存后完成
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class HttpComponentsAsyncTransport implements AsyncHttpTransport {
+    private final CloseableHttpAsyncClient httpAsyncClient;
+
+    /**
+     * 连接超时时间（单位：毫秒）
+     */
+    private final int connectTimeoutMillis;
+
+    /**
+     * 读取超时时间（单位：毫秒），0 表示不限制
+     */
+    private final int readTimeoutMillis;
+
+    /**
+     * 获取连接超时时间（单位：毫秒）
+     */
+    private final int leaseTimeoutMillis;
+
+    public HttpComponentsAsyncTransport(CloseableHttpAsyncClient httpAsyncClient, int connectTimeoutMillis, int readTimeoutMillis, int leaseTimeoutMillis) {
+        this.httpAsyncClient = httpAsyncClient;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+    }
+
+    @Override
+    public CompletableFuture<ClientHttpResponse> execute(HttpMethod method, URI uri, HttpHeaders headers, byte[] body) {
+        RequestBuilder builder = RequestBuilder.create(method.name()).setUri(uri);
+        headers.forEach((name, values) -> {
+            // 由 HttpAsyncClient 按请求体设置
+            if (HTTP.CONTENT_LEN.equalsIgnoreCase(name) || HTTP.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+                return;
+            }
+            for (String value : values) {
+                builder.addHeader(name, value);
+            }
+        });
+        if (body.length > 0) {
+            builder.setEntity(new ByteArrayEntity(body));
+        }
+        HttpUriRequest request = builder.build();
+
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(createRequestConfig());
+
+        AtomicReference<Future<HttpResponse>> requestFuture = new AtomicReference<>();
+        CompletableFuture<ClientHttpResponse> future = new CompletableFuture<ClientHttpResponse>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                Future<HttpResponse> current = requestFuture.get();
+                if (cancelled && current != null) {
+                    current.cancel(true);
+                }
+                return cancelled;
+            }
+        };
+        requestFuture.set(httpAsyncClient.execute(request, context, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                future.complete(new HttpComponentsAsyncResponse(response));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        }));
+        if (future.isCancelled()) {
+            requestFuture.get().cancel(true);
+        }
+        return future;
+    }
+
+    /**
+     * 按当前请求的剩余时间（默认为当前任务的剩余时间）创建请求配置，已超时时使用最短超时时间，请求立即失败
+     */
+    private RequestConfig createRequestConfig() {
+        long remaining = RequestDeadline.getRemainingMillis();
+        if (remaining < 0) {
+            return RequestConfig.custom()
+                    .setConnectionRequestTimeout(leaseTimeoutMillis)
+                    .setConnectTimeout(connectTimeoutMillis)
+                    .setSocketTimeout(readTimeoutMillis)
+                    .build();
+        }
+
+        int timeout = (int) Math.min(Math.max(remaining, 1), Integer.MAX_VALUE);
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(leaseTimeoutMillis <= 0 ? timeout : Math.min(leaseTimeoutMillis, timeout))
+                .setConnectTimeout(connectTimeoutMillis <= 0 ? timeout : Math.min(connectTimeoutMillis, timeout))
+                .setSocketTimeout(readTimeoutMillis <= 0 ? timeout : Math.min(readTimeoutMillis, timeout))
+                .build();
+    }
+
+    /**
+     * 响应，响应体已读取到内存中
+     */
+    private static class HttpComponentsAsyncResponse extends AbstractClientHttpResponse {
+        private final HttpResponse response;
+
+        private HttpHeaders headers;
+
+        private HttpComponentsAsyncResponse(HttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return response.getStatusLine().getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            return response.getStatusLine().getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                HttpHeaders httpHeaders = new HttpHeaders();
+                for (Header header : response.getAllHeaders()) {
+                    httpHeaders.add(header.getName(), header.getValue());
+                }
+                headers = HttpHeaders.readOnlyHttpHeaders(httpHeaders);
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            HttpEntity entity = response.getEntity();
+            return entity == null ? StreamUtils.emptyInput() : entity.getContent();
+        }
+
+        @Override
+        public void close() {
+            EntityUtils.consumeQuietly(response.getEntity());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.orainge.tools.jobtimer.util.http;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 异步请求并发数限制<br>
+ * 超过上限的请求进入等待队列，不阻塞提交请求的线程；请求结束释放名额时按提交顺序发起等待的请求
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+final class InFlightLimiter {
+    private final Semaphore permits;
+
+    /**
+     * 等待发起的请求，返回是否已发起（未发起时立即释放名额）
+     */
+    private final Queue<BooleanSupplier> waiting = new ConcurrentLinkedQueue<>();
+
+    InFlightLimiter(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalStateException("[HTTP 客户端] - 异步请求数上限需要大于 0，请检查配置文件");
+        }
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * 提交请求，有名额时立即发起<br>
+     * 发起的请求结束时需要调用 release
+     *
+     * @param request 发起请求，返回是否已发起
+     */
+    void submit(BooleanSupplier request) {
+        waiting.add(request);
+        drain();
+    }
+
+    /**
+     * 请求结束，释放名额
+     */
+    void release() {
+        permits.release();
+        drain();
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            BooleanSupplier request = waiting.poll();
+            if (request == null) {
+                // 已被其他线程发起
+                permits.release();
+                continue;
+            }
+
+            boolean started = false;
+            try {
+                started = request.getAsBoolean();
+            } finally {
+                if (!started) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
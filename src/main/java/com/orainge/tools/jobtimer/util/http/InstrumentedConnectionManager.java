@@ -0,0 +1,127 @@
+package com.orainge.tools.jobtimer.util.http;
+
+import com.orainge.tools.jobtimer.job.metrics.LatencyHistogram;
+import com.orainge.tools.jobtimer.vo.HttpPoolStatus;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带统计的 HTTP 连接池<br>
+ * 记录从连接池获取连接的等待时间与等待超时次数；可开启后台线程定时关闭过期与空闲的连接，连接池关闭时停止
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+    /**
+     * 获取连接的等待时间
+     */
+    private final LatencyHistogram leaseWait = new LatencyHistogram();
+
+    /**
+     * 获取连接等待超时的次数
+     */
+    private final LongAdder leaseTimeoutCount = new LongAdder();
+
+    /**
+     * 后台关闭过期与空闲连接的线程，未开启时为 null
+     */
+    private IdleConnectionEvictor evictor;
+
+    public InstrumentedConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry) {
+        super(socketFactoryRegistry);
+    }
+
+    /**
+     * 开启后台关闭过期与空闲的连接
+     *
+     * @param intervalMillis    检查间隔（单位：毫秒）
+     * @param idleTimeoutMillis 空闲连接的关闭时间（单位：毫秒），小于等于 0 时只关闭过期的连接
+     */
+    public synchronized void startEviction(long intervalMillis, long idleTimeoutMillis) {
+        if (evictor != null) {
+            return;
+        }
+        evictor = new IdleConnectionEvictor(this, Math.max(intervalMillis, 100), TimeUnit.MILLISECONDS,
+                idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        evictor.start();
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long startTime = System.nanoTime();
+                try {
+                    HttpClientConnection connection = request.get(timeout, tunit);
+                    leaseWait.record(System.nanoTime() - startTime);
+                    return connection;
+                } catch (ConnectionPoolTimeoutException e) {
+                    leaseTimeoutCount.increment();
+                    throw e;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            if (evictor != null) {
+                evictor.shutdown();
+                evictor = null;
+            }
+        }
+        super.shutdown();
+    }
+
+    /**
+     * 获取连接池运行状态
+     */
+    public HttpPoolStatus getStatus() {
+        PoolStats totalStats = getTotalStats();
+        HttpPoolStatus status = new HttpPoolStatus();
+        status.setMaxTotal(totalStats.getMax());
+        status.setDefaultMaxPerRoute(getDefaultMaxPerRoute());
+        status.setLeased(totalStats.getLeased());
+        status.setPending(totalStats.getPending());
+        status.setAvailable(totalStats.getAvailable());
+        status.setLeaseTimeoutCount(leaseTimeoutCount.sum());
+        status.setLeaseWait(leaseWait.getStatus());
+
+        List<HttpPoolStatus.RouteStatus> routes = new ArrayList<>();
+        for (HttpRoute route : getRoutes()) {
+            PoolStats stats = getStats(route);
+            HttpPoolStatus.RouteStatus routeStatus = new HttpPoolStatus.RouteStatus();
+            routeStatus.setRoute(route.getTargetHost().toURI());
+            routeStatus.setMax(stats.getMax());
+            routeStatus.setLeased(stats.getLeased());
+            routeStatus.setPending(stats.getPending());
+            routeStatus.setAvailable(stats.getAvailable());
+            routes.add(routeStatus);
+        }
+        status.setRoutes(routes);
+        return status;
+    }
+}
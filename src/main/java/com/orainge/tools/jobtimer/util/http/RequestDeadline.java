@@ -0,0 +1,75 @@
+package com.orainge.tools.jobtimer.util.http;
+
+import com.orainge.tools.jobtimer.job.JobContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 请求截止时间<br>
+ * 默认按当前线程执行的任务的剩余时间；异步请求在提交时记录截止时间，在其他线程中发起请求时仍按该截止时间限制超时
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public final class RequestDeadline {
+    /**
+     * 当前线程发起的请求的截止时间（System.nanoTime）
+     */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * 获取当前请求的剩余时间
+     *
+     * @return 剩余时间（单位：毫秒），没有截止时间时返回 -1，已超时时返回 0
+     */
+    public static long getRemainingMillis() {
+        Long deadline = DEADLINE.get();
+        if (deadline != null) {
+            return Math.max(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()), 0);
+        }
+        JobContext jobContext = JobContext.current();
+        return jobContext == null ? -1 : jobContext.getRemainingMillis();
+    }
+
+    /**
+     * 记录当前请求的截止时间
+     *
+     * @return 截止时间（System.nanoTime），没有截止时间时返回 null
+     */
+    static Long capture() {
+        Long deadline = DEADLINE.get();
+        if (deadline != null) {
+            return deadline;
+        }
+        long remaining = getRemainingMillis();
+        return remaining < 0 ? null : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remaining);
+    }
+
+    /**
+     * 按指定的截止时间发起请求
+     *
+     * @param deadline 截止时间（System.nanoTime），为 null 时不限制
+     * @param request  发起请求
+     */
+    static <T> T callWith(Long deadline, Supplier<T> request) {
+        Long previous = DEADLINE.get();
+        if (deadline == null) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(deadline);
+        }
+        try {
+            return request.get();
+        } finally {
+            if (previous == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(previous);
+            }
+        }
+    }
+}
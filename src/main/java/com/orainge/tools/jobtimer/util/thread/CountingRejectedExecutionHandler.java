@@ -0,0 +1,204 @@
+package com.orainge.tools.jobtimer.util.thread;
+
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 记录拒绝次数的线程池拒绝策略<br>
+ * caller-runs 策略下另外记录由调用线程执行的次数，以及其中由调度线程执行的次数（调度线程执行任务期间无法按时触发其他任务）<br>
+ * 需要确切知道提交结果的线程（如时间轮的 tick 线程、批量执行）提交任务时，所有策略都改为抛出 RejectedExecutionException:
+ * 不在当前线程执行被拒绝的任务，也不丢弃任务<br>
+ * 队列为 {@link RankedQueue}（如优先级队列）时，discard-oldest 策略丢弃排名最低的任务，而不是队首排名最高的任务<br>
+ * 丢弃任务（包括线程池关闭后被丢弃的任务）时通知 {@link DiscardableTask}
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+    /**
+     * 当前线程提交的任务被拒绝时是否一律抛出异常
+     */
+    private static final ThreadLocal<Boolean> STRICT = new ThreadLocal<>();
+
+    /**
+     * 实际执行的拒绝策略
+     */
+    private final RejectedExecutionHandler delegate;
+
+    /**
+     * 拒绝策略名称
+     */
+    private final String policyName;
+
+    /**
+     * 拒绝次数
+     */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * 是否为 caller-runs 策略
+     */
+    private final boolean callerRuns;
+
+    /**
+     * 是否为 discard-oldest 策略
+     */
+    private final boolean discardOldest;
+
+    /**
+     * 由调用线程执行的次数
+     */
+    private final LongAdder callerRunsCount = new LongAdder();
+
+    /**
+     * 由调度线程执行的次数
+     */
+    private final LongAdder schedulerCallerRunsCount = new LongAdder();
+
+    public CountingRejectedExecutionHandler(String policyName) {
+        this.policyName = StringUtils.isEmpty(policyName) ? "caller-runs" : policyName.trim().toLowerCase();
+        this.delegate = createHandler(this.policyName);
+        this.callerRuns = "caller-runs".equals(this.policyName);
+        this.discardOldest = "discard-oldest".equals(this.policyName);
+    }
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        rejectedCount.increment();
+        if (STRICT.get() != null) {
+            throw new RejectedExecutionException("[线程池配置] - 线程池已满，拒绝线程 [" + Thread.currentThread().getName() + "] 提交的任务");
+        }
+        // 线程池已关闭时 CallerRunsPolicy 不执行任务
+        if (callerRuns && !executor.isShutdown()) {
+            callerRunsCount.increment();
+            if (SchedulerThreads.isSchedulerThread()) {
+                schedulerCallerRunsCount.increment();
+            }
+        }
+        if (discardOldest) {
+            discardOldest(r, executor);
+            return;
+        }
+        if ("discard".equals(policyName) || (callerRuns && executor.isShutdown())) {
+            DiscardableTask.discard(r);
+            return;
+        }
+        delegate.rejectedExecution(r, executor);
+    }
+
+    /**
+     * discard-oldest 策略下丢弃队首任务（RankedQueue 为排名最低的任务）后重新提交新任务，
+     * 新任务排名最低或线程池已关闭时丢弃新任务
+     */
+    private static void discardOldest(Runnable r, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            DiscardableTask.discard(r);
+            return;
+        }
+        Runnable evicted = executor.getQueue() instanceof RankedQueue
+                ? ((RankedQueue) executor.getQueue()).evictLowest(r)
+                : executor.getQueue().poll();
+        if (evicted == r) {
+            DiscardableTask.discard(r);
+            return;
+        }
+        if (evicted != null) {
+            DiscardableTask.discard(evicted);
+        }
+        executor.execute(r);
+    }
+
+    /**
+     * 处理没有队列的执行器（如虚拟线程执行通道）拒绝的任务<br>
+     * caller-runs: 由调用线程执行; discard: 丢弃; abort 与 discard-oldest（没有可丢弃的排队任务）: 抛出 RejectedExecutionException
+     *
+     * @param r 被拒绝的任务
+     * @throws RejectedExecutionException 拒绝策略为 abort、discard-oldest，或当前线程要求一律抛出异常时抛出
+     */
+    public void rejectedExecution(Runnable r) {
+        rejectedCount.increment();
+        if (STRICT.get() != null) {
+            throw new RejectedExecutionException("[线程池配置] - 执行通道已满，拒绝线程 [" + Thread.currentThread().getName() + "] 提交的任务");
+        }
+        if (callerRuns) {
+            callerRunsCount.increment();
+            if (SchedulerThreads.isSchedulerThread()) {
+                schedulerCallerRunsCount.increment();
+            }
+            r.run();
+            return;
+        }
+        if (!"discard".equals(policyName)) {
+            throw new RejectedExecutionException("[线程池配置] - 执行通道已满，拒绝任务");
+        }
+        DiscardableTask.discard(r);
+    }
+
+    /**
+     * 当前线程提交的任务被拒绝时一律抛出 RejectedExecutionException（不由当前线程执行，也不丢弃）
+     */
+    public static void rejectStrictly() {
+        STRICT.set(Boolean.TRUE);
+    }
+
+    /**
+     * 提交任务，任务被拒绝时一律抛出 RejectedExecutionException（不由当前线程执行，也不丢弃）
+     *
+     * @param submit 提交任务
+     * @throws RejectedExecutionException 线程池已满时抛出
+     */
+    public static void submitStrictly(Runnable submit) {
+        Boolean previous = STRICT.get();
+        STRICT.set(Boolean.TRUE);
+        try {
+            submit.run();
+        } finally {
+            if (previous == null) {
+                STRICT.remove();
+            }
+        }
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public boolean isCallerRuns() {
+        return callerRuns;
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount.sum();
+    }
+
+    public long getSchedulerCallerRunsCount() {
+        return schedulerCallerRunsCount.sum();
+    }
+
+    /**
+     * 根据名称创建拒绝策略<br>
+     * 支持 caller-runs（默认）, abort, discard, discard-oldest
+     */
+    private static RejectedExecutionHandler createHandler(String policyName) {
+        switch (policyName) {
+            case "caller-runs":
+                return new ThreadPoolExecutor.CallerRunsPolicy();
+            case "abort":
+                return new ThreadPoolExecutor.AbortPolicy();
+            case "discard":
+                return new ThreadPoolExecutor.DiscardPolicy();
+            case "discard-oldest":
+                return new ThreadPoolExecutor.DiscardOldestPolicy();
+            default:
+                throw new IllegalArgumentException("[线程池配置] - 不支持的拒绝策略: " + policyName);
+        }
+    }
+}
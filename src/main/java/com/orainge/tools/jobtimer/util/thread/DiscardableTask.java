@@ -0,0 +1,48 @@
+package com.orainge.tools.jobtimer.util.thread;
+
+/**
+ * 被拒绝策略丢弃时需要得到通知的任务<br>
+ * 调用方等待执行结果的任务（如批量执行、异步执行、流式执行、工作流中的任务）排队后可能被其他提交方触发的
+ * discard / discard-oldest 策略丢弃，丢弃时通过 onDiscard 把执行结果记为未成功，避免调用方一直等待<br>
+ * 包装任务的类（如优先级、执行统计的包装）需要实现本接口并把通知转发给原任务
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public interface DiscardableTask extends Runnable {
+    /**
+     * 任务未执行即被丢弃时调用，在丢弃任务的线程（提交其他任务的线程）中执行，不应阻塞
+     */
+    void onDiscard();
+
+    /**
+     * 创建被丢弃时得到通知的任务
+     *
+     * @param task      任务
+     * @param onDiscard 任务被丢弃时执行
+     */
+    static DiscardableTask of(Runnable task, Runnable onDiscard) {
+        return new DiscardableTask() {
+            @Override
+            public void onDiscard() {
+                onDiscard.run();
+            }
+
+            @Override
+            public void run() {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * 通知被丢弃的任务
+     *
+     * @param task 被丢弃的任务，不是 DiscardableTask 时不处理
+     */
+    static void discard(Runnable task) {
+        if (task instanceof DiscardableTask) {
+            ((DiscardableTask) task).onDiscard();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.orainge.tools.jobtimer.util.thread;
+
+/**
+ * 按排名出队的任务队列<br>
+ * 队首是排名最高的任务，discard-oldest 策略不能直接丢弃队首，需要由队列丢弃排名最低的任务
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public interface RankedQueue {
+    /**
+     * 丢弃排名最低的排队任务，为新任务腾出位置
+     *
+     * @param task 新任务
+     * @return 被丢弃的排队任务；新任务排名不高于所有排队任务时返回新任务本身（应丢弃新任务）；队列为空时返回 null
+     */
+    Runnable evictLowest(Runnable task);
+}
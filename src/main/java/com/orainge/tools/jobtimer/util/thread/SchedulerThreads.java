@@ -0,0 +1,44 @@
+package com.orainge.tools.jobtimer.util.thread;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 调度线程标记<br>
+ * 调度器的线程（线程池调度器的线程、时间轮的 tick 线程）启动时标记，
+ * 用于统计执行线程池已满时由调度线程直接执行任务（caller-runs）的次数
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public final class SchedulerThreads {
+    private static final ThreadLocal<Boolean> SCHEDULER_THREAD = new ThreadLocal<>();
+
+    private SchedulerThreads() {
+    }
+
+    /**
+     * 将当前线程标记为调度线程
+     */
+    public static void markCurrentThread() {
+        SCHEDULER_THREAD.set(Boolean.TRUE);
+    }
+
+    /**
+     * 当前线程是否为调度线程
+     */
+    public static boolean isSchedulerThread() {
+        return SCHEDULER_THREAD.get() != null;
+    }
+
+    /**
+     * 包装线程工厂，创建的线程启动时标记为调度线程
+     *
+     * @param threadFactory 实际创建线程的工厂
+     */
+    public static ThreadFactory markingThreadFactory(ThreadFactory threadFactory) {
+        return runnable -> threadFactory.newThread(() -> {
+            markCurrentThread();
+            runnable.run();
+        });
+    }
+}
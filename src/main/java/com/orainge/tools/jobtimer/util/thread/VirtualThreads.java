@@ -0,0 +1,117 @@
+package com.orainge.tools.jobtimer.util.thread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程工具类<br>
+ * 通过反射调用 JDK 21+ 的虚拟线程 API，在不支持的 JVM（如 Java 8）上返回不可用
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public final class VirtualThreads {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+    /**
+     * Thread.ofVirtual()
+     */
+    private static final Method OF_VIRTUAL;
+
+    /**
+     * Thread.Builder.name(String, long)
+     */
+    private static final Method BUILDER_NAME;
+
+    /**
+     * Thread.Builder.factory()
+     */
+    private static final Method BUILDER_FACTORY;
+
+    /**
+     * Executors.newThreadPerTaskExecutor(ThreadFactory)
+     */
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    private static final boolean SUPPORTED;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        boolean supported = false;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+
+            // 预览版本未开启预览特性时会抛出异常，需要实际创建一次
+            builderFactory.invoke(ofVirtual.invoke(null));
+            supported = true;
+        } catch (Throwable e) {
+            log.debug("[虚拟线程] - 当前 JVM 不支持虚拟线程: {}", e.toString());
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+        SUPPORTED = supported;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前 JVM 是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * 创建虚拟线程工厂
+     *
+     * @param threadNamePrefix 线程名称前缀，线程名称为 前缀 + 序号
+     * @return 线程工厂，不支持虚拟线程时返回 null
+     */
+    public static ThreadFactory newThreadFactory(String threadNamePrefix) {
+        if (!SUPPORTED) {
+            return null;
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, threadNamePrefix, 1L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (Exception e) {
+            log.error("[虚拟线程] - 创建虚拟线程工厂失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 创建每个任务使用一个虚拟线程的线程池
+     *
+     * @param threadNamePrefix 线程名称前缀
+     * @return 线程池，不支持虚拟线程时返回 null
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+        ThreadFactory threadFactory = newThreadFactory(threadNamePrefix);
+        if (threadFactory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (Exception e) {
+            log.error("[虚拟线程] - 创建虚拟线程池失败", e);
+            return null;
+        }
+    }
+}
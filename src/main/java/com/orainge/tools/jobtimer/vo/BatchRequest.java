@@ -0,0 +1,66 @@
+package com.orainge.tools.jobtimer.vo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量执行任务请求
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class BatchRequest {
+    /**
+     * 最多同时执行的任务数，不传或超过配置的上限时使用配置的上限
+     */
+    private Integer parallel;
+
+    /**
+     * 要执行的任务（按顺序提交）
+     */
+    private List<BatchJob> jobs;
+
+    public Integer getParallel() {
+        return parallel;
+    }
+
+    public void setParallel(Integer parallel) {
+        this.parallel = parallel;
+    }
+
+    public List<BatchJob> getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(List<BatchJob> jobs) {
+        this.jobs = jobs;
+    }
+
+    public static class BatchJob {
+        /**
+         * 任务名称（配置文件中的键名）
+         */
+        private String job;
+
+        /**
+         * 执行参数，与通过 API 执行时的请求参数相同
+         */
+        private Map<String, List<String>> params;
+
+        public String getJob() {
+            return job;
+        }
+
+        public void setJob(String job) {
+            this.job = job;
+        }
+
+        public Map<String, List<String>> getParams() {
+            return params;
+        }
+
+        public void setParams(Map<String, List<String>> params) {
+            this.params = params;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * 批量执行任务结果
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult {
+    /**
+     * 任务是否全部执行成功
+     */
+    private boolean success;
+
+    /**
+     * 执行结果
+     */
+    private String message;
+
+    /**
+     * 执行耗时（单位：毫秒）
+     */
+    private long costTime;
+
+    /**
+     * 任务执行结果（与请求中的任务顺序相同）
+     */
+    private List<JobResult> jobs;
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public BatchResult setSuccess(boolean success) {
+        this.success = success;
+        return this;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public BatchResult setMessage(String message) {
+        this.message = message;
+        return this;
+    }
+
+    public long getCostTime() {
+        return costTime;
+    }
+
+    public BatchResult setCostTime(long costTime) {
+        this.costTime = costTime;
+        return this;
+    }
+
+    public List<JobResult> getJobs() {
+        return jobs;
+    }
+
+    public BatchResult setJobs(List<JobResult> jobs) {
+        this.jobs = jobs;
+        return this;
+    }
+}
@@ -0,0 +1,38 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 定时任务调度器与异步执行线程池运行状态
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExecutorsStatus {
+    /**
+     * 调度器（taskScheduler）运行状态
+     */
+    private SchedulerStatus taskScheduler;
+
+    /**
+     * 异步执行线程池（asyncExecutor）运行状态
+     */
+    private LaneStatus asyncExecutor;
+
+    public SchedulerStatus getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    public void setTaskScheduler(SchedulerStatus taskScheduler) {
+        this.taskScheduler = taskScheduler;
+    }
+
+    public LaneStatus getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    public void setAsyncExecutor(LaneStatus asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+}
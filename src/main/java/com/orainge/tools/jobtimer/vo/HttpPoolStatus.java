@@ -0,0 +1,186 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * HTTP 连接池运行状态
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HttpPoolStatus {
+    /**
+     * 最大连接数
+     */
+    private Integer maxTotal;
+
+    /**
+     * 每个主机默认的最大连接数
+     */
+    private Integer defaultMaxPerRoute;
+
+    /**
+     * 正在使用的连接数
+     */
+    private Integer leased;
+
+    /**
+     * 等待获取连接的请求数
+     */
+    private Integer pending;
+
+    /**
+     * 空闲的连接数
+     */
+    private Integer available;
+
+    /**
+     * 获取连接等待超时的次数
+     */
+    private Long leaseTimeoutCount;
+
+    /**
+     * 获取连接的等待时间统计
+     */
+    private LatencyStatus leaseWait;
+
+    /**
+     * 各主机的连接状态
+     */
+    private List<RouteStatus> routes;
+
+    public Integer getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(Integer maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public Integer getDefaultMaxPerRoute() {
+        return defaultMaxPerRoute;
+    }
+
+    public void setDefaultMaxPerRoute(Integer defaultMaxPerRoute) {
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+    }
+
+    public Integer getLeased() {
+        return leased;
+    }
+
+    public void setLeased(Integer leased) {
+        this.leased = leased;
+    }
+
+    public Integer getPending() {
+        return pending;
+    }
+
+    public void setPending(Integer pending) {
+        this.pending = pending;
+    }
+
+    public Integer getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Integer available) {
+        this.available = available;
+    }
+
+    public Long getLeaseTimeoutCount() {
+        return leaseTimeoutCount;
+    }
+
+    public void setLeaseTimeoutCount(Long leaseTimeoutCount) {
+        this.leaseTimeoutCount = leaseTimeoutCount;
+    }
+
+    public LatencyStatus getLeaseWait() {
+        return leaseWait;
+    }
+
+    public void setLeaseWait(LatencyStatus leaseWait) {
+        this.leaseWait = leaseWait;
+    }
+
+    public List<RouteStatus> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<RouteStatus> routes) {
+        this.routes = routes;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RouteStatus {
+        /**
+         * 主机地址
+         */
+        private String route;
+
+        /**
+         * 最大连接数
+         */
+        private Integer max;
+
+        /**
+         * 正在使用的连接数
+         */
+        private Integer leased;
+
+        /**
+         * 等待获取连接的请求数
+         */
+        private Integer pending;
+
+        /**
+         * 空闲的连接数
+         */
+        private Integer available;
+
+        public String getRoute() {
+            return route;
+        }
+
+        public void setRoute(String route) {
+            this.route = route;
+        }
+
+        public Integer getMax() {
+            return max;
+        }
+
+        public void setMax(Integer max) {
+            this.max = max;
+        }
+
+        public Integer getLeased() {
+            return leased;
+        }
+
+        public void setLeased(Integer leased) {
+            this.leased = leased;
+        }
+
+        public Integer getPending() {
+            return pending;
+        }
+
+        public void setPending(Integer pending) {
+            this.pending = pending;
+        }
+
+        public Integer getAvailable() {
+            return available;
+        }
+
+        public void setAvailable(Integer available) {
+            this.available = available;
+        }
+    }
+}
@@ -29,6 +29,11 @@ public class JobResult {
      */
     private boolean success;
 
+    /**
+     * 是否因超过最长执行时间而中断，未超时时为 null
+     */
+    private Boolean timedOut;
+
     /**
      * 任务执行结果
      */
@@ -39,6 +44,11 @@ public class JobResult {
      */
     private List<String> messageDescription;
 
+    /**
+     * 分片执行结果，仅分片任务
+     */
+    private List<ShardResult> shards;
+
     public String getJobName() {
         return jobName;
     }
@@ -64,6 +74,15 @@ public class JobResult {
         return this;
     }
 
+    public Boolean getTimedOut() {
+        return timedOut;
+    }
+
+    public JobResult setTimedOut(Boolean timedOut) {
+        this.timedOut = timedOut;
+        return this;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -82,6 +101,15 @@ public class JobResult {
         return this;
     }
 
+    public List<ShardResult> getShards() {
+        return shards;
+    }
+
+    public JobResult setShards(List<ShardResult> shards) {
+        this.shards = shards;
+        return this;
+    }
+
     public JobResult addMessageDescription(String... messageDescription) {
         if (this.messageDescription == null) {
             this.messageDescription = new LinkedList<>();
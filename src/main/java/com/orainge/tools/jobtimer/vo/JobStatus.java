@@ -0,0 +1,233 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 任务运行状态
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobStatus {
+    /**
+     * 任务名称（配置文件中的键名）
+     */
+    private String name;
+
+    /**
+     * 任务描述
+     */
+    private String description;
+
+    /**
+     * 重叠执行策略
+     */
+    private String overlapPolicy;
+
+    /**
+     * 执行通道名称
+     */
+    private String lane;
+
+    /**
+     * 优先级
+     */
+    private Integer priority;
+
+    /**
+     * 最长执行时间（单位：毫秒），仅配置了最长执行时间的任务
+     */
+    private Long timeout;
+
+    /**
+     * 定时任务触发次数
+     */
+    private Long triggeredCount;
+
+    /**
+     * 定时任务跳过次数
+     */
+    private Long skippedCount;
+
+    /**
+     * 定时任务合并次数
+     */
+    private Long coalescedCount;
+
+    /**
+     * 正在执行的数量
+     */
+    private Long runningCount;
+
+    /**
+     * 执行次数（包括定时任务与 API 调用）
+     */
+    private Long executionCount;
+
+    /**
+     * 失败次数
+     */
+    private Long failureCount;
+
+    /**
+     * 超时次数，仅配置了最长执行时间的任务
+     */
+    private Long timeoutCount;
+
+    /**
+     * 失败率（失败次数 / 执行次数）
+     */
+    private Double failureRate;
+
+    /**
+     * 吞吐量（自启动以来平均每分钟执行次数）
+     */
+    private Double throughput;
+
+    /**
+     * 执行耗时
+     */
+    private LatencyStatus runTime;
+
+    /**
+     * 排队耗时（从定时任务触发到开始执行）
+     */
+    private LatencyStatus queueWait;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getOverlapPolicy() {
+        return overlapPolicy;
+    }
+
+    public void setOverlapPolicy(String overlapPolicy) {
+        this.overlapPolicy = overlapPolicy;
+    }
+
+    public String getLane() {
+        return lane;
+    }
+
+    public void setLane(String lane) {
+        this.lane = lane;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public Long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Long timeout) {
+        this.timeout = timeout;
+    }
+
+    public Long getTriggeredCount() {
+        return triggeredCount;
+    }
+
+    public void setTriggeredCount(Long triggeredCount) {
+        this.triggeredCount = triggeredCount;
+    }
+
+    public Long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public void setSkippedCount(Long skippedCount) {
+        this.skippedCount = skippedCount;
+    }
+
+    public Long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public void setCoalescedCount(Long coalescedCount) {
+        this.coalescedCount = coalescedCount;
+    }
+
+    public Long getRunningCount() {
+        return runningCount;
+    }
+
+    public void setRunningCount(Long runningCount) {
+        this.runningCount = runningCount;
+    }
+
+    public Long getExecutionCount() {
+        return executionCount;
+    }
+
+    public void setExecutionCount(Long executionCount) {
+        this.executionCount = executionCount;
+    }
+
+    public Long getFailureCount() {
+        return failureCount;
+    }
+
+    public void setFailureCount(Long failureCount) {
+        this.failureCount = failureCount;
+    }
+
+    public Long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public void setTimeoutCount(Long timeoutCount) {
+        this.timeoutCount = timeoutCount;
+    }
+
+    public Double getFailureRate() {
+        return failureRate;
+    }
+
+    public void setFailureRate(Double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public Double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(Double throughput) {
+        this.throughput = throughput;
+    }
+
+    public LatencyStatus getRunTime() {
+        return runTime;
+    }
+
+    public void setRunTime(LatencyStatus runTime) {
+        this.runTime = runTime;
+    }
+
+    public LatencyStatus getQueueWait() {
+        return queueWait;
+    }
+
+    public void setQueueWait(LatencyStatus queueWait) {
+        this.queueWait = queueWait;
+    }
+}
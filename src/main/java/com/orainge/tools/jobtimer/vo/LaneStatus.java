@@ -0,0 +1,313 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * 执行通道运行状态
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LaneStatus {
+    /**
+     * 通道名称
+     */
+    private String name;
+
+    /**
+     * 执行模式: platform, virtual
+     */
+    private String mode;
+
+    /**
+     * 核心线程数
+     */
+    private Integer corePoolSize;
+
+    /**
+     * 最大线程数
+     */
+    private Integer maxPoolSize;
+
+    /**
+     * 当前线程数
+     */
+    private Integer poolSize;
+
+    /**
+     * 正在执行任务的线程数
+     */
+    private Integer activeCount;
+
+    /**
+     * 队列中等待的任务数
+     */
+    private Integer queueSize;
+
+    /**
+     * 队列剩余容量
+     */
+    private Integer queueRemainingCapacity;
+
+    /**
+     * 已完成的任务数
+     */
+    private Long completedTaskCount;
+
+    /**
+     * 拒绝策略
+     */
+    private String rejectionPolicy;
+
+    /**
+     * 被拒绝的任务数
+     */
+    private Long rejectedCount;
+
+    /**
+     * 由提交任务的线程执行的任务数，仅 caller-runs 拒绝策略
+     */
+    private Long callerRunsCount;
+
+    /**
+     * 由调度线程执行的任务数（调度线程执行任务期间无法按时触发其他任务），仅 caller-runs 拒绝策略
+     */
+    private Long schedulerCallerRunsCount;
+
+    /**
+     * 任务排队时间统计
+     */
+    private LatencyStatus queueWait;
+
+    /**
+     * 任务执行耗时统计
+     */
+    private LatencyStatus runTime;
+
+    /**
+     * 线程饱和度（正在执行任务的线程数 / 最大线程数）
+     */
+    private Double threadSaturation;
+
+    /**
+     * 队列饱和度（队列中等待的任务数 / 队列总容量）
+     */
+    private Double queueSaturation;
+
+    /**
+     * 队列类型: fifo, priority
+     */
+    private String queueType;
+
+    /**
+     * 优先级 - 排队时间统计，仅优先级队列
+     */
+    private Map<Integer, LatencyStatus> priorityQueueWait;
+
+    /**
+     * 是否开启自适应线程数，未开启时为 null
+     */
+    private Boolean adaptive;
+
+    /**
+     * 最近一个调整间隔的到达率（每秒任务数），仅自适应线程数
+     */
+    private Double arrivalRate;
+
+    /**
+     * 阻塞比例（1 - CPU 时间 / 执行耗时），仅自适应线程数且可以统计 CPU 时间时
+     */
+    private Double blockingRatio;
+
+    /**
+     * 自动调整线程数的次数，仅自适应线程数
+     */
+    private Long resizeCount;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public Integer getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public void setCorePoolSize(Integer corePoolSize) {
+        this.corePoolSize = corePoolSize;
+    }
+
+    public Integer getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(Integer maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public Integer getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(Integer poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public Integer getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(Integer activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public Integer getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(Integer queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public Integer getQueueRemainingCapacity() {
+        return queueRemainingCapacity;
+    }
+
+    public void setQueueRemainingCapacity(Integer queueRemainingCapacity) {
+        this.queueRemainingCapacity = queueRemainingCapacity;
+    }
+
+    public Long getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    public void setCompletedTaskCount(Long completedTaskCount) {
+        this.completedTaskCount = completedTaskCount;
+    }
+
+    public String getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public void setRejectionPolicy(String rejectionPolicy) {
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    public Long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(Long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public Double getThreadSaturation() {
+        return threadSaturation;
+    }
+
+    public void setThreadSaturation(Double threadSaturation) {
+        this.threadSaturation = threadSaturation;
+    }
+
+    public Double getQueueSaturation() {
+        return queueSaturation;
+    }
+
+    public void setQueueSaturation(Double queueSaturation) {
+        this.queueSaturation = queueSaturation;
+    }
+
+    public String getQueueType() {
+        return queueType;
+    }
+
+    public void setQueueType(String queueType) {
+        this.queueType = queueType;
+    }
+
+    public Map<Integer, LatencyStatus> getPriorityQueueWait() {
+        return priorityQueueWait;
+    }
+
+    public void setPriorityQueueWait(Map<Integer, LatencyStatus> priorityQueueWait) {
+        this.priorityQueueWait = priorityQueueWait;
+    }
+
+    public Boolean getAdaptive() {
+        return adaptive;
+    }
+
+    public void setAdaptive(Boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    public Double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public void setArrivalRate(Double arrivalRate) {
+        this.arrivalRate = arrivalRate;
+    }
+
+    public Double getBlockingRatio() {
+        return blockingRatio;
+    }
+
+    public void setBlockingRatio(Double blockingRatio) {
+        this.blockingRatio = blockingRatio;
+    }
+
+    public Long getResizeCount() {
+        return resizeCount;
+    }
+
+    public void setResizeCount(Long resizeCount) {
+        this.resizeCount = resizeCount;
+    }
+
+    public Long getCallerRunsCount() {
+        return callerRunsCount;
+    }
+
+    public void setCallerRunsCount(Long callerRunsCount) {
+        this.callerRunsCount = callerRunsCount;
+    }
+
+    public Long getSchedulerCallerRunsCount() {
+        return schedulerCallerRunsCount;
+    }
+
+    public void setSchedulerCallerRunsCount(Long schedulerCallerRunsCount) {
+        this.schedulerCallerRunsCount = schedulerCallerRunsCount;
+    }
+
+    public LatencyStatus getQueueWait() {
+        return queueWait;
+    }
+
+    public void setQueueWait(LatencyStatus queueWait) {
+        this.queueWait = queueWait;
+    }
+
+    public LatencyStatus getRunTime() {
+        return runTime;
+    }
+
+    public void setRunTime(LatencyStatus runTime) {
+        this.runTime = runTime;
+    }
+}
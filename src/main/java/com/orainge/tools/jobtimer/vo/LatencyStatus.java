@@ -0,0 +1,90 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 耗时统计（毫秒）
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LatencyStatus {
+    /**
+     * 统计次数
+     */
+    private long count;
+
+    /**
+     * 平均值
+     */
+    private double mean;
+
+    /**
+     * 50 分位数
+     */
+    private double p50;
+
+    /**
+     * 90 分位数
+     */
+    private double p90;
+
+    /**
+     * 99 分位数
+     */
+    private double p99;
+
+    /**
+     * 最大值
+     */
+    private double max;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public void setP50(double p50) {
+        this.p50 = p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public void setP90(double p90) {
+        this.p90 = p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public void setP99(double p99) {
+        this.p99 = p99;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+}
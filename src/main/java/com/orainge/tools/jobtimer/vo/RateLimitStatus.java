@@ -0,0 +1,77 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 限流器状态
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RateLimitStatus {
+    /**
+     * 限流器名称（token:名称 或 job:任务名称）
+     */
+    private String name;
+
+    /**
+     * 每秒允许的请求数
+     */
+    private double rate;
+
+    /**
+     * 允许的突发请求数
+     */
+    private int burst;
+
+    /**
+     * 通过的请求数
+     */
+    private long allowedCount;
+
+    /**
+     * 被拒绝的请求数
+     */
+    private long rejectedCount;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public long getAllowedCount() {
+        return allowedCount;
+    }
+
+    public void setAllowedCount(long allowedCount) {
+        this.allowedCount = allowedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+}
@@ -0,0 +1,90 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 定时任务调度器运行状态
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SchedulerStatus {
+    /**
+     * 调度器类型: pool, wheel
+     */
+    private String type;
+
+    /**
+     * 当前线程数，仅线程池调度器
+     */
+    private Integer poolSize;
+
+    /**
+     * 正在执行任务的线程数，仅线程池调度器
+     */
+    private Integer activeCount;
+
+    /**
+     * 等待触发的任务数
+     */
+    private Integer queueSize;
+
+    /**
+     * 触发延迟统计（实际开始执行时间 - 计划执行时间）
+     */
+    private LatencyStatus lateness;
+
+    /**
+     * 触发的任务在调度器中的执行耗时统计（时间轮调度器的任务在异步执行线程池中执行）
+     */
+    private LatencyStatus runTime;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Integer getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(Integer poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public Integer getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(Integer activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public Integer getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(Integer queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public LatencyStatus getLateness() {
+        return lateness;
+    }
+
+    public void setLateness(LatencyStatus lateness) {
+        this.lateness = lateness;
+    }
+
+    public LatencyStatus getRunTime() {
+        return runTime;
+    }
+
+    public void setRunTime(LatencyStatus runTime) {
+        this.runTime = runTime;
+    }
+}
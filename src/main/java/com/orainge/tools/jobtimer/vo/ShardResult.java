@@ -0,0 +1,110 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 分片任务单个分片的执行结果
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ShardResult {
+    /**
+     * 分片序号（从 0 开始）
+     */
+    private int index;
+
+    /**
+     * 分片是否执行成功
+     */
+    private boolean success;
+
+    /**
+     * 分片是否在当前节点执行（集群模式下分配给其他节点或被其他节点持有任务锁时为 false）
+     */
+    private boolean executed;
+
+    /**
+     * 执行分片的节点 ID，仅集群模式
+     */
+    private String node;
+
+    /**
+     * 分片执行结果
+     */
+    private String message;
+
+    /**
+     * 分片从分发到开始执行的等待时间（单位：毫秒）
+     */
+    private Long waitTime;
+
+    /**
+     * 分片执行耗时（单位：毫秒）
+     */
+    private Long costTime;
+
+    public int getIndex() {
+        return index;
+    }
+
+    public ShardResult setIndex(int index) {
+        this.index = index;
+        return this;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public ShardResult setSuccess(boolean success) {
+        this.success = success;
+        return this;
+    }
+
+    public boolean isExecuted() {
+        return executed;
+    }
+
+    public ShardResult setExecuted(boolean executed) {
+        this.executed = executed;
+        return this;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public ShardResult setNode(String node) {
+        this.node = node;
+        return this;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public ShardResult setMessage(String message) {
+        this.message = message;
+        return this;
+    }
+
+    public Long getWaitTime() {
+        return waitTime;
+    }
+
+    public ShardResult setWaitTime(Long waitTime) {
+        this.waitTime = waitTime;
+        return this;
+    }
+
+    public Long getCostTime() {
+        return costTime;
+    }
+
+    public ShardResult setCostTime(Long costTime) {
+        this.costTime = costTime;
+        return this;
+    }
+}
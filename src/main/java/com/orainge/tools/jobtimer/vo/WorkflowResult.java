@@ -0,0 +1,84 @@
+package com.orainge.tools.jobtimer.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * 工作流运行结果
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WorkflowResult {
+    /**
+     * 工作流名称
+     */
+    private String workflowName;
+
+    /**
+     * 工作流中的任务是否全部执行成功
+     */
+    private boolean success;
+
+    /**
+     * 执行结果
+     */
+    private String message;
+
+    /**
+     * 执行耗时（单位：毫秒）
+     */
+    private long costTime;
+
+    /**
+     * 任务名称 - 任务执行结果（按拓扑顺序），因上游任务失败未执行的任务 success 为 false
+     */
+    private Map<String, JobResult> jobs;
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public WorkflowResult setWorkflowName(String workflowName) {
+        this.workflowName = workflowName;
+        return this;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public WorkflowResult setSuccess(boolean success) {
+        this.success = success;
+        return this;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public WorkflowResult setMessage(String message) {
+        this.message = message;
+        return this;
+    }
+
+    public long getCostTime() {
+        return costTime;
+    }
+
+    public WorkflowResult setCostTime(long costTime) {
+        this.costTime = costTime;
+        return this;
+    }
+
+    public Map<String, JobResult> getJobs() {
+        return jobs;
+    }
+
+    public WorkflowResult setJobs(Map<String, JobResult> jobs) {
+        this.jobs = jobs;
+        return this;
+    }
+}
@@ -0,0 +1,337 @@
+package com.orainge.tools.jobtimer.util.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 基于 JDK 11 java.net.http 的 HTTP/2 传输模块<br>
+ * 同步请求工厂与异步请求传输共用一个 HttpClient: https 通过 ALPN 协商 HTTP/2，http 通过 h2c 升级，同一主机的并发请求复用一个连接<br>
+ * 每个主机的首个请求完成前，同一主机的其他请求等待，避免在连接建立前并发请求各自建立连接；连接断开（请求因连接错误失败）后重新由首个请求建立连接<br>
+ * 读取超时时间为等待响应头的时间，在配置了最长执行时间的任务中发起请求时不超过任务的剩余时间
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public class JdkHttp2Transport implements Http2Transport {
+    private static final Logger log = LoggerFactory.getLogger(JdkHttp2Transport.class);
+
+    /**
+     * 由 HttpClient 管理、不能手动设置的请求头
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.addAll(Arrays.asList("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+    }
+
+    private final HttpClient httpClient;
+
+    /**
+     * 各主机的首个请求，完成时结束
+     */
+    private final ConcurrentMap<String, CompletableFuture<Void>> firstRequests = new ConcurrentHashMap<>();
+
+    public JdkHttp2Transport(int connectTimeoutMillis) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (connectTimeoutMillis > 0) {
+            builder.connectTimeout(Duration.ofMillis(connectTimeoutMillis));
+        }
+        this.httpClient = builder.build();
+    }
+
+    @Override
+    public ClientHttpRequestFactory createRequestFactory(int readTimeoutMillis) {
+        return new JdkClientHttpRequestFactory(readTimeoutMillis);
+    }
+
+    @Override
+    public AsyncHttpTransport createAsyncTransport(int readTimeoutMillis) {
+        return (method, uri, headers, body) -> sendAsync(buildRequest(method, uri, headers, body, readTimeoutMillis))
+                .thenApply(JdkClientHttpResponse::new);
+    }
+
+    /**
+     * 发起请求，主机的首个请求未完成时等待其完成后再发起
+     */
+    private CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+        String origin = getOrigin(request.uri());
+        CompletableFuture<Void> firstRequest = new CompletableFuture<>();
+        CompletableFuture<Void> existing = firstRequests.putIfAbsent(origin, firstRequest);
+        if (existing == null) {
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                    .whenComplete((response, e) -> {
+                        // 首个请求失败时由下一个请求重新建立连接
+                        if (e != null) {
+                            firstRequests.remove(origin, firstRequest);
+                        }
+                        firstRequest.complete(null);
+                    });
+        }
+        CompletableFuture<HttpResponse<InputStream>> future = existing.isDone()
+                ? httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                : existing.thenCompose(v -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+        return future.whenComplete((response, e) -> {
+            if (e != null) {
+                onFailure(request.uri(), e);
+            }
+        });
+    }
+
+    /**
+     * 请求因连接错误失败时清除主机的首个请求，由下一个请求重新建立连接<br>
+     * 等待响应超时不是连接错误，不清除
+     */
+    private void onFailure(URI uri, Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (!(e instanceof IOException)
+                || (e instanceof HttpTimeoutException && !(e instanceof HttpConnectTimeoutException))) {
+            return;
+        }
+        String origin = getOrigin(uri);
+        CompletableFuture<Void> firstRequest = firstRequests.get(origin);
+        if (firstRequest != null && firstRequest.isDone() && firstRequests.remove(origin, firstRequest)) {
+            log.debug("[HTTP/2] - 主机 {} 的连接已断开，下一个请求重新建立连接: {}", origin, e.toString());
+        }
+    }
+
+    /**
+     * 主机的首个请求是否已完成
+     */
+    private boolean isConnected(URI uri) {
+        CompletableFuture<Void> firstRequest = firstRequests.get(getOrigin(uri));
+        return firstRequest != null && firstRequest.isDone();
+    }
+
+    private static String getOrigin(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * 创建请求，按读取超时时间与请求剩余时间中较短的时间限制等待响应的时间
+     *
+     * @param readTimeoutMillis 读取超时时间（单位：毫秒），0 表示不限制
+     */
+    private static HttpRequest buildRequest(HttpMethod method, URI uri, HttpHeaders headers, byte[] body, int readTimeoutMillis) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .method(method.name(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        headers.forEach((name, values) -> {
+            if (RESTRICTED_HEADERS.contains(name)) {
+                return;
+            }
+            for (String value : values) {
+                try {
+                    builder.header(name, value);
+                } catch (IllegalArgumentException e) {
+                    log.debug("[HTTP/2] - 忽略不支持的请求头 [{}: {}]", name, value);
+                }
+            }
+        });
+
+        long timeout = readTimeoutMillis;
+        long remaining = RequestDeadline.getRemainingMillis();
+        if (remaining >= 0) {
+            timeout = timeout <= 0 ? Math.max(remaining, 1) : Math.min(timeout, Math.max(remaining, 1));
+        }
+        if (timeout > 0) {
+            builder.timeout(Duration.ofMillis(timeout));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 同步请求工厂
+     */
+    private class JdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+        /**
+         * 读取超时时间（单位：毫秒），0 表示不限制
+         */
+        private final int readTimeoutMillis;
+
+        private JdkClientHttpRequestFactory(int readTimeoutMillis) {
+            this.readTimeoutMillis = readTimeoutMillis;
+        }
+
+        @Override
+        public JdkClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            return new JdkClientHttpRequest(uri, httpMethod, readTimeoutMillis);
+        }
+    }
+
+    /**
+     * 请求，请求体缓存在内存中，发起请求时一次性发送
+     */
+    private class JdkClientHttpRequest implements ClientHttpRequest {
+        private final URI uri;
+
+        private final HttpMethod method;
+
+        /**
+         * 读取超时时间（单位：毫秒），0 表示不限制
+         */
+        private final int readTimeoutMillis;
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        private boolean executed = false;
+
+        private JdkClientHttpRequest(URI uri, HttpMethod method, int readTimeoutMillis) {
+            this.uri = uri;
+            this.method = method;
+            this.readTimeoutMillis = readTimeoutMillis;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return executed ? HttpHeaders.readOnlyHttpHeaders(headers) : headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            assertNotExecuted();
+            return body;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            HttpRequest request = buildRequest();
+            CompletableFuture<HttpResponse<InputStream>> future = null;
+            try {
+                // 已有连接时直接在当前线程发起请求，不经过 HttpClient 的线程池
+                if (isConnected(uri)) {
+                    try {
+                        return new JdkClientHttpResponse(httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream()));
+                    } catch (IOException e) {
+                        onFailure(uri, e);
+                        throw e;
+                    }
+                }
+                future = sendAsync(request);
+                return new JdkClientHttpResponse(future.get());
+            } catch (InterruptedException e) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("[HTTP/2] - 请求被中断: " + uri);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        private HttpRequest buildRequest() {
+            assertNotExecuted();
+            executed = true;
+            return JdkHttp2Transport.buildRequest(method, uri, headers, body.toByteArray(), readTimeoutMillis);
+        }
+
+        private void assertNotExecuted() {
+            if (executed) {
+                throw new IllegalStateException("[HTTP/2] - 请求已发起");
+            }
+        }
+    }
+
+    /**
+     * 响应，响应体以流的方式读取
+     */
+    private static class JdkClientHttpResponse extends AbstractClientHttpResponse {
+        private final HttpResponse<InputStream> response;
+
+        private HttpHeaders headers;
+
+        private JdkClientHttpResponse(HttpResponse<InputStream> response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            HttpStatus status = HttpStatus.resolve(response.statusCode());
+            return status == null ? "" : status.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                HttpHeaders httpHeaders = new HttpHeaders();
+                for (Map.Entry<String, List<String>> entry : response.headers().map().entrySet()) {
+                    httpHeaders.addAll(entry.getKey(), entry.getValue());
+                }
+                headers = HttpHeaders.readOnlyHttpHeaders(httpHeaders);
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return response.body();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.body().close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.orainge.tools.jobtimer.job;
+
+/**
+ * 测试用的任务定义（不经过 JobRegistry 注册，没有执行通道与定时配置）
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+public final class JobDefinitions {
+    private JobDefinitions() {
+    }
+
+    /**
+     * 创建任务定义，API 路径为 "/" + 任务名称
+     *
+     * @param jobBean 任务
+     * @param timeout 最长执行时间（单位：毫秒），0 表示不限制
+     */
+    public static JobDefinition of(JobBean jobBean, long timeout) {
+        return new JobDefinition(jobBean.getName(), jobBean.getName(), jobBean, "/" + jobBean.getName(), null,
+                new JobRunState(OverlapPolicy.SKIP, 0), null, 0, timeout);
+    }
+}
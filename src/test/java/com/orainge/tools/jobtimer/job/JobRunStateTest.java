@@ -0,0 +1,132 @@
+package com.orainge.tools.jobtimer.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 定时任务运行状态测试
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class JobRunStateTest {
+    @Test
+    void skipDropsTriggersWhileRunning() {
+        JobRunState state = new JobRunState(OverlapPolicy.SKIP, 0);
+        assertTrue(state.tryAcquire());
+        assertTrue(state.isRunning());
+        assertFalse(state.tryAcquire());
+        assertFalse(state.tryAcquire());
+
+        assertFalse(state.release());
+        assertFalse(state.isRunning());
+        assertTrue(state.tryAcquire());
+
+        assertEquals(4, state.getTriggeredCount());
+        assertEquals(2, state.getSkippedCount());
+        assertEquals(0, state.getCoalescedCount());
+    }
+
+    @Test
+    void queueOneKeepsOnePendingRun() {
+        JobRunState state = new JobRunState(OverlapPolicy.QUEUE_ONE, 0);
+        assertTrue(state.tryAcquire());
+        // 第一次重叠触发成为待执行，之后的触发合并到待执行中
+        assertFalse(state.tryAcquire());
+        assertFalse(state.tryAcquire());
+        assertFalse(state.tryAcquire());
+
+        // 执行结束后再执行一次待执行，之后没有待执行
+        assertTrue(state.release());
+        assertTrue(state.isRunning());
+        assertFalse(state.release());
+        assertFalse(state.isRunning());
+
+        assertEquals(4, state.getTriggeredCount());
+        assertEquals(0, state.getSkippedCount());
+        assertEquals(2, state.getCoalescedCount());
+    }
+
+    @Test
+    void parallelRespectsMaxParallel() {
+        JobRunState state = new JobRunState(OverlapPolicy.PARALLEL, 2);
+        assertTrue(state.tryAcquire());
+        assertTrue(state.tryAcquire());
+        assertFalse(state.tryAcquire());
+        assertEquals(1, state.getSkippedCount());
+
+        assertFalse(state.release());
+        assertTrue(state.tryAcquire());
+        state.release();
+        state.release();
+        assertFalse(state.isRunning());
+    }
+
+    @Test
+    void parallelWithoutLimitNeverSkips() {
+        JobRunState state = new JobRunState(OverlapPolicy.PARALLEL, 0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(state.tryAcquire());
+        }
+        assertEquals(0, state.getSkippedCount());
+    }
+
+    @Test
+    void abortDiscardsRunAndPending() {
+        JobRunState state = new JobRunState(OverlapPolicy.QUEUE_ONE, 0);
+        assertTrue(state.tryAcquire());
+        assertFalse(state.tryAcquire());
+
+        state.abort();
+        assertFalse(state.isRunning());
+        assertEquals(1, state.getSkippedCount());
+        assertTrue(state.tryAcquire());
+
+        JobRunState parallel = new JobRunState(OverlapPolicy.PARALLEL, 1);
+        assertTrue(parallel.tryAcquire());
+        parallel.abort();
+        assertTrue(parallel.tryAcquire());
+    }
+
+    @Test
+    void queueOneRunsAtMostOneAtATimeUnderContention() throws InterruptedException {
+        JobRunState state = new JobRunState(OverlapPolicy.QUEUE_ONE, 0);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger runs = new AtomicInteger();
+        int threads = 8;
+        int triggers = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < triggers; i++) {
+                    if (state.tryAcquire()) {
+                        // 与 JobManager 相同: 存在待执行时在同一线程中再执行一次
+                        do {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            runs.incrementAndGet();
+                            running.decrementAndGet();
+                        } while (state.release());
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(1, maxRunning.get());
+        assertFalse(state.isRunning());
+        assertEquals(threads * triggers, state.getTriggeredCount());
+        // 每次触发要么执行，要么成为待执行（之后执行），要么合并到待执行中
+        assertEquals(threads * triggers, runs.get() + state.getCoalescedCount());
+    }
+}
@@ -0,0 +1,53 @@
+package com.orainge.tools.jobtimer.job.cluster;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 共享目录任务锁测试
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class FileJobLockProviderTest {
+    @TempDir
+    Path directory;
+
+    private FileJobLockProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new FileJobLockProvider(directory.toString());
+    }
+
+    @Test
+    void sameFireCannotBeAcquiredTwice() {
+        long now = System.currentTimeMillis();
+        long fireTime = now - 5_000;
+        JobLease lease = provider.tryAcquire("job", "node1", now + 60_000, fireTime);
+        assertNotNull(lease);
+        assertNull(provider.tryAcquire("job", "node2", now + 60_000, fireTime + 1_000));
+
+        provider.release(lease, now - 1);
+        assertNull(provider.tryAcquire("job", "node2", now + 60_000, fireTime));
+        JobLease next = provider.tryAcquire("job", "node2", now + 60_000, fireTime + 1_000);
+        assertNotNull(next);
+        assertTrue(next.getFencingToken() > lease.getFencingToken());
+    }
+
+    @Test
+    void acquireWithoutFireTimeOnlyChecksLockExpiry() {
+        long now = System.currentTimeMillis();
+        JobLease lease = provider.tryAcquire("job", "node1", now + 60_000);
+        assertNotNull(lease);
+        assertNull(provider.tryAcquire("job", "node2", now + 60_000));
+
+        provider.release(lease, now - 1);
+        assertNotNull(provider.tryAcquire("job", "node2", now + 60_000));
+    }
+}
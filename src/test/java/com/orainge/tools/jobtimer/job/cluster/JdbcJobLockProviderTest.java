@@ -0,0 +1,107 @@
+package com.orainge.tools.jobtimer.job.cluster;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据库任务锁测试（内存 H2）
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class JdbcJobLockProviderTest {
+    private static final AtomicInteger DB_INDEX = new AtomicInteger();
+
+    private JdbcJobLockProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:lock" + DB_INDEX.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        provider = new JdbcJobLockProvider(dataSource, "job_timer_");
+        provider.initializeSchema();
+    }
+
+    @Test
+    void acquireIsExclusiveUntilLockExpires() {
+        long now = System.currentTimeMillis();
+        JobLease lease = provider.tryAcquire("job", "node1", now + 60_000);
+        assertNotNull(lease);
+        assertEquals("node1", lease.getNodeId());
+        assertNull(provider.tryAcquire("job", "node2", now + 60_000));
+
+        provider.release(lease, now - 1);
+        JobLease next = provider.tryAcquire("job", "node2", now + 60_000);
+        assertNotNull(next);
+        assertTrue(next.getFencingToken() > lease.getFencingToken());
+    }
+
+    @Test
+    void sameFireCannotBeAcquiredTwice() {
+        long now = System.currentTimeMillis();
+        long fireTime = now - 5_000;
+        JobLease lease = provider.tryAcquire("job", "node1", now + 60_000, fireTime);
+        assertNotNull(lease);
+        assertEquals(fireTime, lease.getFireTime());
+        // 最少持有时间已过，其他节点因排队或时钟偏差稍晚执行同一次触发
+        provider.release(lease, now - 1);
+
+        assertNull(provider.tryAcquire("job", "node2", now + 60_000, fireTime));
+        assertNull(provider.tryAcquire("job", "node2", now + 60_000, fireTime - 1_000));
+        assertNotNull(provider.tryAcquire("job", "node2", now + 60_000, fireTime + 1_000));
+    }
+
+    @Test
+    void failedAcquireDoesNotConsumeFire() {
+        long now = System.currentTimeMillis();
+        JobLease lease = provider.tryAcquire("job", "node1", now + 60_000, now - 2_000);
+        assertNotNull(lease);
+        // 锁未过期时获取下一次触发失败，下一次触发不应被记录为已执行
+        assertNull(provider.tryAcquire("job", "node2", now + 60_000, now - 1_000));
+
+        provider.release(lease, now - 1);
+        assertNotNull(provider.tryAcquire("job", "node2", now + 60_000, now - 1_000));
+    }
+
+    @Test
+    void releaseRecordsLatestFireOfLease() {
+        long now = System.currentTimeMillis();
+        JobLease lease = provider.tryAcquire("job", "node1", now + 60_000, now - 3_000);
+        assertNotNull(lease);
+        // 沿用租约再次执行了较晚的触发
+        lease.advanceFireTime(now - 1_000);
+        provider.release(lease, now - 1);
+
+        assertNull(provider.tryAcquire("job", "node2", now + 60_000, now - 1_000));
+        assertNotNull(provider.tryAcquire("job", "node2", now + 60_000, now));
+    }
+
+    @Test
+    void renewFailsForStaleLease() {
+        long now = System.currentTimeMillis();
+        JobLease stale = provider.tryAcquire("job", "node1", now - 1);
+        assertNotNull(stale);
+        JobLease current = provider.tryAcquire("job", "node2", now + 60_000);
+        assertNotNull(current);
+
+        assertFalse(provider.renew(stale, now + 60_000));
+        assertTrue(provider.renew(current, now + 120_000));
+    }
+
+    @Test
+    void liveNodesExcludeExpiredHeartbeats() {
+        long now = System.currentTimeMillis();
+        provider.heartbeat("node1", now + 60_000);
+        provider.heartbeat("node2", now - 1);
+        assertEquals(1, provider.getLiveNodes().size());
+        assertEquals("node1", provider.getLiveNodes().get(0));
+
+        provider.removeNode("node1");
+        assertTrue(provider.getLiveNodes().isEmpty());
+    }
+}
@@ -0,0 +1,147 @@
+package com.orainge.tools.jobtimer.job.cron;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预编译 cron 表达式测试<br>
+ * 以 Spring CronTrigger 的计算结果为准，对比常见表达式、需要跨越较长时间查找的表达式与夏令时切换
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class CronExpressionTest {
+    private static final String[] EXPRESSIONS = {
+            "* * * * * ?",
+            "*/5 * * * * ?",
+            "3/7 * * * * ?",
+            "0 */15 9-17 * * MON-FRI",
+            "0 0 2 * * ?",
+            "0 30 23 28-31 * ?",
+            "0 0 12 1,15 * ?",
+            "0 0 0 1 JAN,JUL ?",
+            "0 0 0 ? * SUN",
+            "0 0 0 ? * 7",
+            "0 0 0 29 2 ?",
+            "0 0 0 31 * ?",
+            "0 0 0 13 * FRI",
+            "59 59 23 31 12 ?"
+    };
+
+    private static final TimeZone SHANGHAI = TimeZone.getTimeZone("Asia/Shanghai");
+
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+
+    @Test
+    void matchesCronTriggerFromRandomStartTimes() {
+        Random random = new Random(20210901L);
+        long from = date(SHANGHAI, 2021, Calendar.JANUARY, 1, 0, 0, 0);
+        long range = date(SHANGHAI, 2025, Calendar.JANUARY, 1, 0, 0, 0) - from;
+        for (String expression : EXPRESSIONS) {
+            CronExpression cronExpression = new CronExpression(expression, SHANGHAI);
+            CronTrigger cronTrigger = new CronTrigger(expression, SHANGHAI);
+            for (int i = 0; i < 200; i++) {
+                long after = from + (long) (random.nextDouble() * range);
+                assertEquals(springNext(cronTrigger, after), cronExpression.next(after),
+                        expression + " 从 " + new Date(after) + " 开始的下次执行时间不一致");
+            }
+        }
+    }
+
+    @Test
+    void matchesCronTriggerWhenChained() {
+        long start = date(SHANGHAI, 2021, Calendar.SEPTEMBER, 1, 0, 0, 0);
+        for (String expression : EXPRESSIONS) {
+            CronExpression cronExpression = new CronExpression(expression, SHANGHAI);
+            CronTrigger cronTrigger = new CronTrigger(expression, SHANGHAI);
+            // 2 月 29 日连续计算 10 次后到 2060 年，不会遇到相隔 8 年的闰年（如 2096 - 2104 年，超出两者的查找范围）
+            long time = start;
+            for (int i = 0; i < 10; i++) {
+                long expected = springNext(cronTrigger, time);
+                assertEquals(expected, cronExpression.next(time), expression + " 第 " + i + " 次执行时间不一致");
+                time = expected;
+            }
+        }
+    }
+
+    @Test
+    void nextIsStrictlyAfterStartSecond() {
+        CronExpression everySecond = new CronExpression("* * * * * ?", SHANGHAI);
+        long second = date(SHANGHAI, 2021, Calendar.SEPTEMBER, 1, 12, 0, 0);
+        assertEquals(second + 1000, everySecond.next(second));
+        assertEquals(second + 1000, everySecond.next(second + 999));
+
+        // 整秒起始时间本身满足条件时 nextFrom 返回起始时间
+        assertEquals(second, everySecond.nextFrom(second));
+    }
+
+    @Test
+    void matchesCronTriggerAcrossDaylightSavingTime() {
+        String[] expressions = {"0 30 2 * * ?", "0 0 * * * ?", "0 */20 1-3 * * ?"};
+        long springForward = date(NEW_YORK, 2021, Calendar.MARCH, 13, 0, 0, 0);
+        long fallBack = date(NEW_YORK, 2021, Calendar.NOVEMBER, 6, 0, 0, 0);
+        for (String expression : expressions) {
+            CronExpression cronExpression = new CronExpression(expression, NEW_YORK);
+            CronTrigger cronTrigger = new CronTrigger(expression, NEW_YORK);
+            for (long start : new long[]{springForward, fallBack}) {
+                long time = start;
+                for (int i = 0; i < 30; i++) {
+                    long expected = springNext(cronTrigger, time);
+                    assertEquals(expected, cronExpression.next(time), expression + " 在 " + new Date(time) + " 之后的执行时间不一致");
+                    time = expected;
+                }
+            }
+        }
+    }
+
+    @Test
+    void compiledTriggerMatchesCronTrigger() {
+        CompiledCronTrigger compiled = new CompiledCronTrigger("0 */15 9-17 * * MON-FRI", SHANGHAI);
+        CronTrigger cronTrigger = new CronTrigger("0 */15 9-17 * * MON-FRI", SHANGHAI);
+        long time = date(SHANGHAI, 2021, Calendar.SEPTEMBER, 3, 17, 40, 0);
+        for (int i = 0; i < 20; i++) {
+            Date last = new Date(time);
+            Date expected = cronTrigger.nextExecutionTime(new SimpleTriggerContext(last, last, last));
+            assertEquals(expected, compiled.nextExecutionTime(new SimpleTriggerContext(last, last, last)));
+            // 相同起始时间再次计算时命中缓存
+            assertEquals(expected.getTime(), compiled.nextTime(time));
+            time = expected.getTime();
+        }
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> new CronExpression(""));
+        assertThrows(IllegalArgumentException.class, () -> new CronExpression("0 0 * * *"));
+        assertThrows(IllegalArgumentException.class, () -> new CronExpression("60 * * * * ?"));
+        assertThrows(IllegalArgumentException.class, () -> new CronExpression("0 0 24 * * ?"));
+        assertThrows(IllegalArgumentException.class, () -> new CronExpression("0 0 0 32 * ?"));
+        assertThrows(IllegalArgumentException.class, () -> new CronExpression("0 0 0 * 13 ?"));
+    }
+
+    @Test
+    void failsWhenNoTimeWithinSearchYears() {
+        CronExpression never = new CronExpression("0 0 0 30 2 ?", SHANGHAI);
+        assertThrows(IllegalStateException.class, () -> never.next(System.currentTimeMillis()));
+    }
+
+    private static long springNext(CronTrigger cronTrigger, long afterMillis) {
+        Date after = new Date(afterMillis);
+        return cronTrigger.nextExecutionTime(new SimpleTriggerContext(after, after, after)).getTime();
+    }
+
+    private static long date(TimeZone timeZone, int year, int month, int day, int hour, int minute, int second) {
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute, second);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,100 @@
+package com.orainge.tools.jobtimer.job.execution;
+
+import com.orainge.tools.jobtimer.config.JobConfig;
+import com.orainge.tools.jobtimer.vo.JobResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异步执行记录表测试<br>
+ * 保存时间配置的单位为秒，测试中直接设置为毫秒级以缩短等待
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class ExecutionTableTest {
+    @Test
+    void finishedExecutionExpiresAfterExpireTime() throws InterruptedException {
+        ExecutionTable table = newTable(10, 100);
+        JobExecution execution = table.create("job");
+        execution.start();
+        execution.finish(JobResult.success());
+        assertSame(execution, table.get(execution.getExecutionId()));
+
+        Thread.sleep(200);
+        assertNull(table.get(execution.getExecutionId()));
+    }
+
+    @Test
+    void runningExecutionDoesNotExpire() throws InterruptedException {
+        ExecutionTable table = newTable(10, 100);
+        JobExecution running = table.create("job");
+        running.start();
+
+        Thread.sleep(200);
+        assertSame(running, table.get(running.getExecutionId()));
+
+        // 结束后从结束时间开始计算保存时间
+        running.finish(JobResult.fail());
+        assertSame(running, table.get(running.getExecutionId()));
+        assertEquals(JobExecution.FAILED, running.getStatus());
+        Thread.sleep(200);
+        assertNull(table.get(running.getExecutionId()));
+    }
+
+    @Test
+    void expiryIsNotBlockedByEarlierRunningExecution() throws InterruptedException {
+        ExecutionTable table = newTable(10, 100);
+        JobExecution running = table.create("job");
+        running.start();
+        JobExecution finished = table.create("job");
+        finished.finish(JobResult.success());
+
+        Thread.sleep(200);
+        // 提交顺序在前的记录仍在执行，不影响之后提交、已过期的记录被删除
+        assertNull(table.get(finished.getExecutionId()));
+        assertSame(running, table.get(running.getExecutionId()));
+    }
+
+    @Test
+    void eldestExecutionIsEvictedOverMaxSize() {
+        ExecutionTable table = newTable(2, 60_000);
+        JobExecution first = table.create("job");
+        first.finish(JobResult.success());
+        JobExecution second = table.create("job");
+        JobExecution third = table.create("job");
+
+        assertNull(table.get(first.getExecutionId()));
+        assertSame(second, table.get(second.getExecutionId()));
+        assertSame(third, table.get(third.getExecutionId()));
+
+        // 超过上限时按提交顺序删除，包括仍在执行的记录
+        table.create("job");
+        assertNull(table.get(second.getExecutionId()));
+        assertSame(third, table.get(third.getExecutionId()));
+    }
+
+    @Test
+    void unknownExecutionIdReturnsNull() {
+        ExecutionTable table = newTable(10, 60_000);
+        assertNull(table.get(null));
+        assertNull(table.get("unknown"));
+    }
+
+    private static ExecutionTable newTable(int maxSize, long expireMillis) {
+        JobConfig.JobExecutionTableConfig executionTableConfig = new JobConfig.JobExecutionTableConfig();
+        executionTableConfig.setMaxSize(maxSize);
+        JobConfig.JobApiConfig apiConfig = new JobConfig.JobApiConfig();
+        apiConfig.setExecutionTable(executionTableConfig);
+        JobConfig jobConfig = new JobConfig();
+        jobConfig.setApi(apiConfig);
+
+        ExecutionTable table = new ExecutionTable();
+        ReflectionTestUtils.setField(table, "jobConfig", jobConfig);
+        table.init();
+        ReflectionTestUtils.setField(table, "expireMillis", expireMillis);
+        return table;
+    }
+}
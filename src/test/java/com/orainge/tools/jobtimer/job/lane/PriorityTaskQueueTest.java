@@ -0,0 +1,120 @@
+package com.orainge.tools.jobtimer.job.lane;
+
+import com.orainge.tools.jobtimer.util.thread.CountingRejectedExecutionHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 优先级任务队列测试
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class PriorityTaskQueueTest {
+    @Test
+    void higherPriorityIsPolledFirst() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(10, 60_000);
+        Runnable low = new PrioritizedTask(() -> {
+        }, 0);
+        Runnable high = new PrioritizedTask(() -> {
+        }, 5);
+        Runnable plain = () -> {
+        };
+        assertTrue(queue.offer(low));
+        assertTrue(queue.offer(plain));
+        assertTrue(queue.offer(high));
+
+        assertSame(high, queue.poll());
+        assertSame(low, queue.poll());
+        assertSame(plain, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void agedTaskOvertakesNewerHigherPriority() throws InterruptedException {
+        PriorityTaskQueue queue = new PriorityTaskQueue(10, 1);
+        Runnable old = new PrioritizedTask(() -> {
+        }, 0);
+        queue.offer(old);
+        Thread.sleep(20);
+        Runnable newer = new PrioritizedTask(() -> {
+        }, 5);
+        queue.offer(newer);
+
+        assertSame(old, queue.poll());
+    }
+
+    @Test
+    void boundedOfferFailsWhenFull() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(1, 1000);
+        assertTrue(queue.offer(() -> {
+        }));
+        assertFalse(queue.offer(() -> {
+        }));
+        assertEquals(0, queue.remainingCapacity());
+    }
+
+    @Test
+    void evictLowestKeepsMostUrgentTask() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(2, 60_000);
+        Runnable urgent = new PrioritizedTask(() -> {
+        }, 10);
+        Runnable low = new PrioritizedTask(() -> {
+        }, 0);
+        queue.offer(urgent);
+        queue.offer(low);
+
+        Runnable incoming = new PrioritizedTask(() -> {
+        }, 5);
+        assertSame(low, queue.evictLowest(incoming));
+        assertEquals(1, queue.size());
+        assertSame(urgent, queue.peek());
+
+        // 新任务排名最低时丢弃新任务
+        queue.offer(incoming);
+        Runnable lowest = new PrioritizedTask(() -> {
+        }, -1);
+        assertSame(lowest, queue.evictLowest(lowest));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void discardOldestPolicyDropsLowestRankedTask() throws InterruptedException {
+        PriorityTaskQueue queue = new PriorityTaskQueue(2, 60_000);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, queue,
+                new CountingRejectedExecutionHandler("discard-oldest"));
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> executed = new CopyOnWriteArrayList<>();
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            executor.execute(new PrioritizedTask(() -> executed.add("urgent"), 10));
+            executor.execute(new PrioritizedTask(() -> executed.add("low"), 0));
+            executor.execute(new PrioritizedTask(() -> executed.add("normal"), 5));
+            blocker.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, executed.size());
+        assertEquals("urgent", executed.get(0));
+        assertEquals("normal", executed.get(1));
+    }
+}
@@ -0,0 +1,121 @@
+package com.orainge.tools.jobtimer.job.ratelimit;
+
+import com.orainge.tools.jobtimer.vo.RateLimitStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 令牌桶限流器（GCRA 算法）测试<br>
+ * 除补充令牌的测试外，发放间隔远大于测试耗时，测试期间不会补充令牌
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class RateLimiterTest {
+    @Test
+    void allowsBurstThenRejectsWithWaitTime() {
+        RateLimiter limiter = new RateLimiter("test", 1, 3);
+        assertEquals(0, limiter.tryAcquire(1));
+        assertEquals(0, limiter.tryAcquire(1));
+        assertEquals(0, limiter.tryAcquire(1));
+
+        long wait = limiter.tryAcquire(1);
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "等待时间应不超过一个发放间隔: " + wait);
+
+        RateLimitStatus status = limiter.getStatus();
+        assertEquals(3, status.getAllowedCount());
+        assertEquals(1, status.getRejectedCount());
+    }
+
+    @Test
+    void acquiresMultiplePermitsAtOnce() {
+        RateLimiter limiter = new RateLimiter("test", 1, 5);
+        assertEquals(0, limiter.tryAcquire(3));
+        assertTrue(limiter.tryAcquire(3) > 0);
+        assertEquals(0, limiter.tryAcquire(2));
+        assertTrue(limiter.tryAcquire(1) > 0);
+
+        // 超过突发容量的请求一律拒绝
+        assertTrue(new RateLimiter("test", 1, 5).tryAcquire(6) > 0);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("test", 100, 1);
+        assertEquals(0, limiter.tryAcquire(1));
+        long wait = limiter.tryAcquire(1);
+        assertTrue(wait > 0);
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(wait) + 20);
+        assertEquals(0, limiter.tryAcquire(1));
+    }
+
+    @Test
+    void releaseReturnsPermits() {
+        RateLimiter limiter = new RateLimiter("test", 1, 2);
+        assertEquals(0, limiter.tryAcquire(2));
+        assertTrue(limiter.tryAcquire(1) > 0);
+
+        limiter.release(1);
+        assertEquals(0, limiter.tryAcquire(1));
+        assertTrue(limiter.tryAcquire(1) > 0);
+        // 通过数按请求计，归还时撤销一次通过
+        assertEquals(1, limiter.getStatus().getAllowedCount());
+    }
+
+    @Test
+    void releaseDoesNotBankPermitsBeyondBurst() {
+        RateLimiter limiter = new RateLimiter("test", 1, 2);
+        // 空闲时归还不会让理论到达时间早于当前时间
+        limiter.release(5);
+        assertEquals(0, limiter.tryAcquire(1));
+        assertEquals(0, limiter.tryAcquire(1));
+        assertTrue(limiter.tryAcquire(1) > 0);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedBurst() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("test", 0.01, 50);
+        AtomicInteger allowed = new AtomicInteger();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire(1) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(50, allowed.get());
+        RateLimitStatus status = limiter.getStatus();
+        assertEquals(50, status.getAllowedCount());
+        assertEquals(threads * 100 - 50, status.getRejectedCount());
+    }
+
+    @Test
+    void rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter("test", 0, 1));
+    }
+}
@@ -0,0 +1,132 @@
+package com.orainge.tools.jobtimer.job.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分层哈希时间轮调度器测试<br>
+ * 使用 10 ms tick、每层 4 格、3 层的时间轮（各层跨度 40 ms、160 ms、640 ms），
+ * 到期时间覆盖每一层以及超出最上层跨度的情况
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class HashedWheelTaskSchedulerTest {
+    private static final long TICK_MILLIS = 10;
+
+    /**
+     * 实际执行时间与到期时间的最大允许差值（tick 之外包含线程调度的误差）
+     */
+    private static final long MAX_LATENESS_MILLIS = 200;
+
+    private ExecutorService executor;
+
+    private HashedWheelTaskScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        scheduler = new HashedWheelTaskScheduler("wheel-test", TICK_MILLIS, 4, 3, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.destroy();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void tasksFireAfterDeadlineOnEveryLevel() throws Exception {
+        long[] delays = {0, 15, 45, 170, 700, 1500};
+        long now = System.currentTimeMillis();
+        long[] deadlines = new long[delays.length];
+        AtomicLong[] fireTimes = new AtomicLong[delays.length];
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[delays.length];
+        for (int i = 0; i < delays.length; i++) {
+            deadlines[i] = now + delays[i];
+            AtomicLong fireTime = fireTimes[i] = new AtomicLong();
+            futures[i] = scheduler.schedule(() -> fireTime.set(System.currentTimeMillis()), new Date(deadlines[i]));
+        }
+
+        for (int i = 0; i < delays.length; i++) {
+            futures[i].get(5, TimeUnit.SECONDS);
+            long lateness = fireTimes[i].get() - deadlines[i];
+            assertTrue(lateness >= 0, "延迟 " + delays[i] + " ms 的任务提前执行了 " + -lateness + " ms");
+            assertTrue(lateness < MAX_LATENESS_MILLIS, "延迟 " + delays[i] + " ms 的任务晚执行了 " + lateness + " ms");
+        }
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    void cancelledTaskDoesNotRun() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> cancelled = scheduler.schedule(runs::incrementAndGet, new Date(System.currentTimeMillis() + 100));
+        CountDownLatch other = new CountDownLatch(1);
+        scheduler.schedule(other::countDown, new Date(System.currentTimeMillis() + 200));
+
+        assertTrue(cancelled.cancel(false));
+        assertTrue(cancelled.isCancelled());
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    void dispatchTaskRunsOnTickThread() throws Exception {
+        AtomicReference<String> threadName = new AtomicReference<>();
+        scheduler.schedule((DispatchTask) () -> threadName.set(Thread.currentThread().getName()),
+                new Date(System.currentTimeMillis() + 20)).get(5, TimeUnit.SECONDS);
+        assertEquals("wheel-test", threadName.get());
+
+        scheduler.schedule(() -> threadName.set(Thread.currentThread().getName()),
+                new Date(System.currentTimeMillis() + 20)).get(5, TimeUnit.SECONDS);
+        assertNotEquals("wheel-test", threadName.get());
+    }
+
+    @Test
+    void triggerTaskIsRescheduledUntilCancelled() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch fired = new CountDownLatch(5);
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            fired.countDown();
+        }, 20);
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+
+        future.cancel(false);
+        Thread.sleep(100);
+        int runsAfterCancel = runs.get();
+        Thread.sleep(200);
+        assertEquals(runsAfterCancel, runs.get());
+    }
+
+    @Test
+    void rejectedRunIsSkippedAndRescheduled() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch rejected = new CountDownLatch(3);
+        HashedWheelTaskScheduler rejecting = new HashedWheelTaskScheduler("wheel-rejecting", TICK_MILLIS, 4, 3, task -> {
+            attempts.incrementAndGet();
+            rejected.countDown();
+            throw new RejectedExecutionException("线程池已满");
+        });
+        try {
+            AtomicInteger runs = new AtomicInteger();
+            rejecting.scheduleWithFixedDelay(runs::incrementAndGet, 20);
+
+            assertTrue(rejected.await(5, TimeUnit.SECONDS));
+            assertEquals(0, runs.get());
+            assertTrue(attempts.get() >= 3);
+        } finally {
+            rejecting.destroy();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.orainge.tools.jobtimer.job.singleflight;
+
+import com.orainge.tools.jobtimer.config.JobConfig;
+import com.orainge.tools.jobtimer.job.JobBean;
+import com.orainge.tools.jobtimer.job.JobDefinition;
+import com.orainge.tools.jobtimer.job.JobDefinitions;
+import com.orainge.tools.jobtimer.vo.JobResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 合并执行测试
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class SingleFlightExecutorTest {
+    private SingleFlightExecutor singleFlightExecutor;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        JobConfig.JobSingleFlightConfig singleFlightConfig = new JobConfig.JobSingleFlightConfig();
+        singleFlightConfig.setEnable(true);
+        singleFlightConfig.setIdempotencyMaxSize(2);
+        singleFlightConfig.setMaxWaitSeconds(10);
+        JobConfig.JobApiConfig apiConfig = new JobConfig.JobApiConfig();
+        apiConfig.setSingleFlight(singleFlightConfig);
+        JobConfig jobConfig = new JobConfig();
+        jobConfig.setApi(apiConfig);
+
+        singleFlightExecutor = new SingleFlightExecutor();
+        ReflectionTestUtils.setField(singleFlightExecutor, "jobConfig", jobConfig);
+        singleFlightExecutor.init();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentRequestsWithSameParamsShareOneExecution() throws Exception {
+        BlockingJob job = new BlockingJob();
+        JobDefinition definition = JobDefinitions.of(job, 0);
+
+        // 两次请求的 token 不同，token 不参与合并判断
+        Future<JobResult> first = executor.submit(() -> singleFlightExecutor.execute(definition, params("a", "1"), null));
+        assertTrue(job.started.await(5, TimeUnit.SECONDS));
+        Future<JobResult> second = executor.submit(() -> singleFlightExecutor.execute(definition, params("a", "1"), null));
+        awaitWaiting(second);
+        job.release.countDown();
+
+        JobResult result = first.get(5, TimeUnit.SECONDS);
+        assertSame(result, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, job.executions.get());
+
+        // 执行结束后相同参数的请求重新执行
+        singleFlightExecutor.execute(definition, params("a", "1"), null);
+        assertEquals(2, job.executions.get());
+    }
+
+    @Test
+    void differentParamsAreNotJoined() throws Exception {
+        BlockingJob job = new BlockingJob();
+        JobDefinition definition = JobDefinitions.of(job, 0);
+
+        Future<JobResult> first = executor.submit(() -> singleFlightExecutor.execute(definition, params("a", "1"), null));
+        assertTrue(job.started.await(5, TimeUnit.SECONDS));
+        // 参数不同（包括拼接后相同的参数）时不加入正在进行的执行
+        Future<JobResult> second = executor.submit(() -> singleFlightExecutor.execute(definition, params("a", "2"), null));
+        Future<JobResult> third = executor.submit(() -> singleFlightExecutor.execute(definition, params("a1", ""), null));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (job.executions.get() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, job.executions.get());
+
+        job.release.countDown();
+        assertNotSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertNotSame(first.get(), third.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void idempotencyKeyReturnsSavedResult() {
+        BlockingJob job = new BlockingJob();
+        job.release.countDown();
+        JobDefinition definition = JobDefinitions.of(job, 0);
+
+        JobResult result = singleFlightExecutor.execute(definition, params("a", "1"), "key-1");
+        assertSame(result, singleFlightExecutor.execute(definition, params("a", "2"), "key-1"));
+        assertEquals(1, job.executions.get());
+
+        // 超过保存上限时删除最早的结果
+        singleFlightExecutor.execute(definition, params("a", "1"), "key-2");
+        singleFlightExecutor.execute(definition, params("a", "1"), "key-3");
+        assertEquals(3, job.executions.get());
+        assertNotSame(result, singleFlightExecutor.execute(definition, params("a", "1"), "key-1"));
+        assertEquals(4, job.executions.get());
+    }
+
+    @Test
+    void failedResultIsSharedButNotSavedForParams() throws Exception {
+        BlockingJob job = new BlockingJob();
+        job.success = false;
+        JobDefinition definition = JobDefinitions.of(job, 0);
+
+        Future<JobResult> first = executor.submit(() -> singleFlightExecutor.execute(definition, params("a", "1"), null));
+        assertTrue(job.started.await(5, TimeUnit.SECONDS));
+        Future<JobResult> second = executor.submit(() -> singleFlightExecutor.execute(definition, params("a", "1"), null));
+        awaitWaiting(second);
+        job.release.countDown();
+
+        assertFalse(first.get(5, TimeUnit.SECONDS).isSuccess());
+        assertSame(first.get(), second.get(5, TimeUnit.SECONDS));
+        singleFlightExecutor.execute(definition, params("a", "1"), null);
+        assertEquals(2, job.executions.get());
+    }
+
+    @Test
+    void errorIsRethrownToWaitersAndNextRequestRetries() throws Exception {
+        BlockingJob job = new BlockingJob();
+        job.error = new JobError();
+        JobDefinition definition = JobDefinitions.of(job, 0);
+
+        Future<JobResult> first = executor.submit(() -> singleFlightExecutor.execute(definition, params("a", "1"), "key"));
+        assertTrue(job.started.await(5, TimeUnit.SECONDS));
+        Future<JobResult> second = executor.submit(() -> singleFlightExecutor.execute(definition, params("a", "1"), "key"));
+        awaitWaiting(second);
+        job.release.countDown();
+
+        ExecutionException firstError = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        ExecutionException secondError = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertSame(job.error, firstError.getCause());
+        assertSame(job.error, secondError.getCause());
+
+        // 出错的执行不保存结果，之后的请求重新执行
+        job.error = null;
+        assertTrue(singleFlightExecutor.execute(definition, params("a", "1"), "key").isSuccess());
+        assertEquals(2, job.executions.get());
+    }
+
+    @Test
+    void waiterGivesUpAtLeaderDeadline() throws Exception {
+        BlockingJob job = new BlockingJob();
+        job.ignoreInterrupt = true;
+        JobDefinition definition = JobDefinitions.of(job, 200);
+
+        Future<JobResult> first = executor.submit(() -> singleFlightExecutor.execute(definition, params("a", "1"), null));
+        assertTrue(job.started.await(5, TimeUnit.SECONDS));
+        JobResult waiting = singleFlightExecutor.execute(definition, params("a", "1"), null);
+
+        assertFalse(waiting.isSuccess());
+        assertEquals(Boolean.TRUE, waiting.getTimedOut());
+        job.release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(1, job.executions.get());
+    }
+
+    private static Map<String, String[]> params(String name, String value) {
+        Map<String, String[]> params = new HashMap<>();
+        params.put(name, new String[]{value});
+        params.put("token", new String[]{String.valueOf(System.nanoTime())});
+        return params;
+    }
+
+    /**
+     * 等待后到的请求加入正在进行的执行（无法直接获取等待状态，短暂等待后确认尚未结束）
+     */
+    private static void awaitWaiting(Future<JobResult> future) throws InterruptedException {
+        Thread.sleep(100);
+        assertFalse(future.isDone());
+    }
+
+    private static class JobError extends Error {
+    }
+
+    /**
+     * 执行到 release 后结束的任务
+     */
+    private static class BlockingJob extends JobBean {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger executions = new AtomicInteger();
+        private volatile boolean success = true;
+        private volatile boolean ignoreInterrupt;
+        private volatile Error error;
+
+        private BlockingJob() {
+            super("singleFlightJob", "合并执行测试任务");
+        }
+
+        @Override
+        public JobResult doExecute(Map<String, String[]> execParam) {
+            executions.incrementAndGet();
+            started.countDown();
+            while (true) {
+                try {
+                    if (release.await(10, TimeUnit.SECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    if (!ignoreInterrupt) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            return success ? JobResult.success() : JobResult.fail();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.orainge.tools.jobtimer.util.http;
+
+import com.orainge.tools.jobtimer.config.HttpClientConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HTTP 客户端异步请求测试（本地 HTTP 服务端 + Apache HttpAsyncClient）
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class HttpClientAsyncTest {
+    private HttpServer server;
+
+    private CloseableHttpAsyncClient httpAsyncClient;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] request = StreamUtils.copyToByteArray(exchange.getRequestBody());
+            String query = exchange.getRequestURI().getRawQuery();
+            String body = "{\"method\":\"" + exchange.getRequestMethod() + "\",\"query\":\"" + (query == null ? "" : query)
+                    + "\",\"contentType\":\"" + exchange.getRequestHeaders().getFirst("Content-Type")
+                    + "\",\"body\":" + (request.length == 0 ? "null" : new String(request, StandardCharsets.UTF_8)) + "}";
+            respond(exchange, 200, body);
+        });
+        server.createContext("/error", exchange -> respond(exchange, 500, "{}"));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        httpAsyncClient = HttpAsyncClients.createDefault();
+        httpAsyncClient.start();
+        AsyncHttpTransport transport = new HttpComponentsAsyncTransport(httpAsyncClient, 5000, 5000, 5000);
+
+        httpClient = new HttpClient();
+        ReflectionTestUtils.setField(httpClient, "defaultRestTemplate", new RestTemplate());
+        ReflectionTestUtils.setField(httpClient, "noReadTimeoutRestTemplate", new RestTemplate());
+        ReflectionTestUtils.setField(httpClient, "defaultAsyncTransport", transport);
+        ReflectionTestUtils.setField(httpClient, "noReadTimeoutAsyncTransport", transport);
+        ReflectionTestUtils.setField(httpClient, "httpClientConfig", new HttpClientConfig());
+        ReflectionTestUtils.setField(httpClient, "showLog", false);
+        httpClient.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpAsyncClient.close();
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    void getConvertsResponseWithRestTemplateConverters() throws Exception {
+        HttpClientParameter parameter = HttpClientParameter.build()
+                .setMethod(HttpMethod.GET)
+                .setUrl(baseUrl + "/echo")
+                .addParam("name", "value");
+
+        ResponseEntity<Map> response = httpClient.exchangeForEntityAsync(parameter, Map.class).get(10, TimeUnit.SECONDS);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("GET", response.getBody().get("method"));
+        assertEquals("name=value", response.getBody().get("query"));
+    }
+
+    @Test
+    void postWritesBodyWithRestTemplateConverters() throws Exception {
+        HttpClientParameter parameter = HttpClientParameter.build()
+                .setMethod(HttpMethod.POST)
+                .setUrl(baseUrl + "/echo")
+                .setContentType(MediaType.APPLICATION_JSON)
+                .setBody(Collections.singletonMap("key", "值"));
+
+        Map<String, Object> response = httpClient.exchangeForMapAsync(parameter).get(10, TimeUnit.SECONDS);
+        assertNotNull(response);
+        assertEquals("POST", response.get("method"));
+        assertTrue(String.valueOf(response.get("contentType")).startsWith("application/json"));
+        assertEquals(Collections.singletonMap("key", "值"), response.get("body"));
+    }
+
+    @Test
+    void errorStatusCompletesWithNull() throws Exception {
+        HttpClientParameter parameter = HttpClientParameter.build()
+                .setMethod(HttpMethod.GET)
+                .setUrl(baseUrl + "/error");
+
+        assertNull(httpClient.exchangeForEntityAsync(parameter, Map.class).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void connectionFailureCompletesWithNull() throws Exception {
+        int port = server.getAddress().getPort();
+        server.stop(0);
+        HttpClientParameter parameter = HttpClientParameter.build()
+                .setMethod(HttpMethod.GET)
+                .setUrl("http://127.0.0.1:" + port + "/echo");
+
+        assertNull(httpClient.exchangeForEntityAsync(parameter, Map.class).get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,120 @@
+package com.orainge.tools.jobtimer.util.thread;
+
+import com.orainge.tools.jobtimer.job.lane.ExecutorLane;
+import com.orainge.tools.jobtimer.job.lane.PriorityTaskQueue;
+import com.orainge.tools.jobtimer.job.metrics.ExecutorMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 拒绝策略丢弃任务时的通知测试
+ *
+ * @author orainge
+ * @since 2021/9/1
+ */
+class CountingRejectedExecutionHandlerTest {
+    @Test
+    void discardOldestNotifiesEvictedTask() throws InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(1), new CountingRejectedExecutionHandler("discard-oldest"));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+            List<String> discarded = new CopyOnWriteArrayList<>();
+            executor.execute(DiscardableTask.of(() -> {
+            }, () -> discarded.add("queued")));
+            executor.execute(DiscardableTask.of(() -> {
+            }, () -> discarded.add("incoming")));
+
+            assertEquals(1, discarded.size());
+            assertEquals("queued", discarded.get(0));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void discardNotifiesIncomingTask() throws InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), new CountingRejectedExecutionHandler("discard"));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+            CountDownLatch discarded = new CountDownLatch(1);
+            executor.execute(DiscardableTask.of(() -> {
+            }, discarded::countDown));
+
+            assertTrue(discarded.await(0, TimeUnit.MILLISECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void strictSubmissionThrowsWithoutNotifying() throws InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), new CountingRejectedExecutionHandler("discard"));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+            CountDownLatch discarded = new CountDownLatch(1);
+            assertThrows(RejectedExecutionException.class, () -> CountingRejectedExecutionHandler.submitStrictly(
+                    () -> executor.execute(DiscardableTask.of(() -> {
+                    }, discarded::countDown))));
+
+            assertEquals(1, discarded.getCount());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void evictedTaskIsNotifiedThroughLaneWrappers() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
+            @Override
+            protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+                return new PriorityTaskQueue(queueCapacity, 60_000);
+            }
+        };
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler("discard-oldest"));
+        ExecutorMetrics metrics = new ExecutorMetrics();
+        executor.setTaskDecorator(metrics.getTaskDecorator());
+        executor.initialize();
+        ExecutorLane lane = new ExecutorLane("test", executor, null, metrics);
+
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            lane.execute(() -> await(release), 0);
+            List<String> discarded = new CopyOnWriteArrayList<>();
+            lane.execute(DiscardableTask.of(() -> {
+            }, () -> discarded.add("low")), 0);
+            lane.execute(DiscardableTask.of(() -> {
+            }, () -> discarded.add("high")), 5);
+
+            assertEquals(1, discarded.size());
+            assertEquals("low", discarded.get(0));
+        } finally {
+            release.countDown();
+            lane.shutdown(true);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}